@@ -0,0 +1,134 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.omg.CORBA.BAD_OPERATION;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.IdAssignmentPolicyValue;
+import org.omg.PortableServer.IdUniquenessPolicyValue;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+import org.omg.PortableServer.Servant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Look up servants in the active object map of a RETAIN POA holding many objects,
+ * as the POA does for every incoming request.
+ * {@link #locate()} only looks up, from several threads.
+ * The <code>churn</code> group looks up from six threads while two more
+ * keep activating and deactivating other objects in the same POA.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ActiveObjectMapBenchmark {
+    private static final class EntityServant extends Servant implements InvokeHandler {
+        public String[] _all_interfaces(POA poa, byte[] objectId) {
+            return new String[]{"IDL:bench/Entity:1.0"};
+        }
+
+        public OutputStream _invoke(String method, InputStream in, ResponseHandler handler) {
+            throw new BAD_OPERATION(method);
+        }
+    }
+
+    @Param("100000")
+    int objects;
+
+    private ORB orb;
+    private POA poa;
+    private final Servant servant = new EntityServant();
+    private byte[][] ids;
+    private final AtomicLong nextChurnId = new AtomicLong();
+
+    @Setup
+    public void setup() throws Exception {
+        orb = Orbs.newOrb();
+        POA rootPoa = POAHelper.narrow(orb.resolve_initial_references("RootPOA"));
+        // one servant for all the objects, as for entities served by a single implementation
+        Policy[] policies = {
+                rootPoa.create_id_assignment_policy(IdAssignmentPolicyValue.USER_ID),
+                rootPoa.create_id_uniqueness_policy(IdUniquenessPolicyValue.MULTIPLE_ID)
+        };
+        poa = rootPoa.create_POA("entities", rootPoa.the_POAManager(), policies);
+        ids = new byte[objects][];
+        for (int i = 0; i < objects; i++) {
+            ids[i] = ("entity-" + i).getBytes(UTF_8);
+            poa.activate_object_with_id(ids[i], servant);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    private Servant lookup() throws Exception {
+        // a copy, as each request brings its own object id
+        return poa.id_to_servant(ids[ThreadLocalRandom.current().nextInt(ids.length)].clone());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Servant locate() throws Exception {
+        return lookup();
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(6)
+    public Servant locateDuringChurn() throws Exception {
+        return lookup();
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(2)
+    public void activateAndDeactivate() throws Exception {
+        byte[] id = ("churn-" + nextChurnId.getAndIncrement()).getBytes(UTF_8);
+        poa.activate_object_with_id(id, servant);
+        poa.deactivate_object(id);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.apache.yoko.orb.CORBA.InputStream;
+import org.apache.yoko.orb.CORBA.OutputStream;
+import org.apache.yoko.orb.OB.CodeConverters;
+import org.omg.CORBA.Any;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.StructMember;
+import org.omg.CORBA.TypeCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.yoko.orb.OCI.GiopVersion.GIOP1_2;
+import static org.omg.CORBA.TCKind.tk_double;
+import static org.omg.CORBA.TCKind.tk_long;
+
+/**
+ * Marshal and unmarshal the basic CDR types: primitives, strings, wide strings and anys.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CdrBenchmark {
+    private static final String ASCII = "The quick brown fox jumps over the lazy dog";
+    private static final String LATIN_1 = "Gr\u00fc\u00dfe aus K\u00f6ln, \u00e7a va, se\u00f1or?";
+    private static final String WIDE = "Gr\u00fc\u00dfe aus K\u00f6ln \u2014 \u4f60\u597d, \u4e16\u754c";
+
+    private ORB orb;
+    private Any any;
+    private OutputStream primitives;
+    private OutputStream strings;
+    private OutputStream wstrings;
+    private OutputStream anys;
+
+    @Setup
+    public void setup() {
+        orb = Orbs.newOrb();
+        TypeCode tradeType = orb.create_struct_tc("IDL:bench/Trade:1.0", "Trade", new StructMember[]{
+                new StructMember("symbol", orb.create_string_tc(0), null),
+                new StructMember("price", orb.get_primitive_tc(tk_double), null),
+                new StructMember("size", orb.get_primitive_tc(tk_long), null)});
+        OutputStream trade = newOutputStream();
+        trade.write_string("ACME");
+        trade.write_double(42.5);
+        trade.write_long(100);
+        any = orb.create_any();
+        any.read_value(trade.create_input_stream(), tradeType);
+
+        writePrimitives(primitives = newOutputStream());
+        writeStrings(strings = newOutputStream());
+        writeWStrings(wstrings = newWideOutputStream());
+        (anys = newOutputStream()).write_any(any);
+    }
+
+    @TearDown
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    private OutputStream newOutputStream() {
+        return (OutputStream) orb.create_output_stream();
+    }
+
+    private OutputStream newWideOutputStream() {
+        // wide characters need GIOP 1.2 and a negotiated code set
+        return new OutputStream(CodeConverters.createForWcharWriteOnly(), GIOP1_2);
+    }
+
+    private static void writePrimitives(OutputStream out) {
+        out.write_boolean(true);
+        out.write_octet((byte) 1);
+        out.write_short((short) 2);
+        out.write_long(3);
+        out.write_longlong(4L);
+        out.write_float(5.0f);
+        out.write_double(6.0);
+        out.write_char('7');
+    }
+
+    private static void writeStrings(OutputStream out) {
+        out.write_string(ASCII);
+        out.write_string(LATIN_1);
+    }
+
+    private static void writeWStrings(OutputStream out) {
+        out.write_wstring(ASCII);
+        out.write_wstring(WIDE);
+    }
+
+    @Benchmark
+    public OutputStream writePrimitives() {
+        OutputStream out = newOutputStream();
+        writePrimitives(out);
+        return out;
+    }
+
+    @Benchmark
+    public void readPrimitives(Blackhole bh) {
+        InputStream in = primitives.create_input_stream();
+        bh.consume(in.read_boolean());
+        bh.consume(in.read_octet());
+        bh.consume(in.read_short());
+        bh.consume(in.read_long());
+        bh.consume(in.read_longlong());
+        bh.consume(in.read_float());
+        bh.consume(in.read_double());
+        bh.consume(in.read_char());
+    }
+
+    @Benchmark
+    public OutputStream writeStrings() {
+        OutputStream out = newOutputStream();
+        writeStrings(out);
+        return out;
+    }
+
+    @Benchmark
+    public void readStrings(Blackhole bh) {
+        InputStream in = strings.create_input_stream();
+        bh.consume(in.read_string());
+        bh.consume(in.read_string());
+    }
+
+    @Benchmark
+    public OutputStream writeWStrings() {
+        OutputStream out = newWideOutputStream();
+        writeWStrings(out);
+        return out;
+    }
+
+    @Benchmark
+    public void readWStrings(Blackhole bh) {
+        InputStream in = wstrings.create_input_stream();
+        bh.consume(in.read_wstring());
+        bh.consume(in.read_wstring());
+    }
+
+    @Benchmark
+    public OutputStream writeAny() {
+        OutputStream out = newOutputStream();
+        out.write_any(any);
+        return out;
+    }
+
+    @Benchmark
+    public Any readAny() {
+        return anys.create_input_stream().read_any();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.apache.yoko.orb.CORBA.Delegate;
+import org.apache.yoko.orb.OB.ClientManager;
+import org.apache.yoko.orb.OB.ClientProfilePair;
+import org.apache.yoko.orb.OBCORBA.ORB_impl;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CORBA.portable.ObjectImpl;
+import org.omg.IOP.IOR;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Look up the clients for references to many distinct server endpoints,
+ * as happens on the first invocation of each new reference.
+ * Every endpoint already has a client in use, so each lookup finds one to reuse.
+ * No connections are made: clients only connect when a request is sent.
+ * Run with more than one thread (-t) to see how lookups contend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ClientLookupBenchmark {
+    private static final Policy[] NO_POLICIES = {};
+
+    @Param("10000")
+    int endpoints;
+
+    private ORB orb;
+    private ClientManager clientManager;
+    private IOR[] iors;
+    private final List<ClientProfilePair> held = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        orb = Orbs.newOrb();
+        clientManager = ((ORB_impl) orb)._OB_ORBInstance().getClientManager();
+        iors = new IOR[endpoints];
+        for (int i = 0; i < endpoints; i++) {
+            ObjectImpl obj = (ObjectImpl) orb.string_to_object("corbaloc::127.0.0.1:" + (10000 + i) + "/bench");
+            iors[i] = ((Delegate) obj._get_delegate())._OB_origIOR();
+            held.addAll(clientManager.getClientProfilePairs(iors[i], NO_POLICIES));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (ClientProfilePair pair : held) clientManager.releaseClient(pair.client);
+        orb.destroy();
+    }
+
+    @Benchmark
+    public Vector<ClientProfilePair> lookup() {
+        IOR ior = iors[ThreadLocalRandom.current().nextInt(iors.length)];
+        Vector<ClientProfilePair> pairs = clientManager.getClientProfilePairs(ior, NO_POLICIES);
+        for (ClientProfilePair pair : pairs) clientManager.releaseClient(pair.client);
+        return pairs;
+    }
+}
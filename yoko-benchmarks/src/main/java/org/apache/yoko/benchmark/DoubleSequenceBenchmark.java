@@ -0,0 +1,109 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.apache.yoko.io.Buffer;
+import org.apache.yoko.orb.CORBA.InputStream;
+import org.apache.yoko.orb.CORBA.OutputStream;
+import org.omg.CORBA.DoubleSeqHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Marshal and unmarshal a large <code>sequence&lt;double&gt;</code>.
+ * Yoko always writes big-endian data, but it must read either byte order.
+ * The element-by-element read is the baseline for the bulk array read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DoubleSequenceBenchmark {
+    @Param("1000000")
+    int size;
+
+    private double[] values;
+    private double[] decoded;
+    private byte[] bigEndian;
+    private byte[] littleEndian;
+
+    @Setup
+    public void setup() {
+        values = new Random(size).doubles(size).toArray();
+        decoded = new double[size];
+        bigEndian = encode(BIG_ENDIAN);
+        littleEndian = encode(LITTLE_ENDIAN);
+    }
+
+    private byte[] encode(ByteOrder order) {
+        // a CDR sequence is its length followed by its elements, aligned on an 8-byte boundary
+        ByteBuffer bb = ByteBuffer.allocate(8 + size * 8).order(order);
+        bb.putInt(size).position(8);
+        bb.asDoubleBuffer().put(values);
+        return bb.array();
+    }
+
+    @Benchmark
+    public OutputStream writeSequence() {
+        OutputStream out = new OutputStream(8 + size * 8);
+        DoubleSeqHelper.write(out, values);
+        return out;
+    }
+
+    @Benchmark
+    public double[] readBigEndianSequence() {
+        return readSequence(bigEndian, false);
+    }
+
+    @Benchmark
+    public double[] readLittleEndianSequence() {
+        return readSequence(littleEndian, true);
+    }
+
+    @Benchmark
+    public double[] readBigEndianElements() {
+        InputStream in = new InputStream(Buffer.createReadBuffer(bigEndian), false);
+        final int length = in.read_ulong();
+        for (int i = 0; i < length; i++) decoded[i] = in.read_double();
+        return decoded;
+    }
+
+    private double[] readSequence(byte[] data, boolean swap) {
+        InputStream in = new InputStream(Buffer.createReadBuffer(data), swap);
+        in.read_double_array(decoded, 0, in.read_ulong());
+        return decoded;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.apache.yoko.benchmark.ValueDtoBenchmark.Address;
+import org.apache.yoko.benchmark.ValueDtoBenchmark.Customer;
+import org.apache.yoko.benchmark.ValueDtoBenchmark.LineItem;
+import org.apache.yoko.benchmark.ValueDtoBenchmark.Order;
+import org.omg.CORBA.ORB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.rmi.CORBA.Util;
+import java.math.BigDecimal;
+import java.rmi.RemoteException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copy the arguments of a collocated RMI call, as a stub does before it invokes
+ * a servant in the same JVM: a graph of data transfer objects, and a set of
+ * immutable JDK values that need no copy at all.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LocalCopyBenchmark {
+    @Param({"10", "1000"})
+    int items;
+
+    private ORB orb;
+    private Order order;
+    private Object[] immutables;
+
+    @Setup
+    public void setup() {
+        orb = Orbs.newOrb();
+        Address address = new Address();
+        address.street = "1 Main Street";
+        address.city = "Springfield";
+        Customer customer = new Customer();
+        customer.name = "Customer";
+        customer.address = address;
+        order = new Order();
+        order.customer = customer;
+        order.items = new LineItem[items];
+        for (int i = 0; i < items; i++) {
+            LineItem item = new LineItem();
+            item.id = i;
+            item.quantity = i % 5 + 1;
+            item.unitPrice = 9.99 + i;
+            order.items[i] = item;
+        }
+        immutables = new Object[]{"text", 42, 42L, 4.2d, BigDecimal.TEN, LocalDate.of(2000, 1, 1), TimeUnit.SECONDS};
+    }
+
+    @TearDown
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    @Benchmark
+    public Object copyGraph() throws RemoteException {
+        return Util.copyObject(order, orb);
+    }
+
+    @Benchmark
+    public Object[] copyImmutables() throws RemoteException {
+        return Util.copyObjects(immutables, orb);
+    }
+}
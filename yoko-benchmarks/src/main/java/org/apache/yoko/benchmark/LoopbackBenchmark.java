@@ -0,0 +1,144 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.apache.yoko.orb.CORBA.Delegate;
+import org.omg.CORBA.BAD_OPERATION;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.portable.ApplicationException;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.ObjectImpl;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.RemarshalException;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+import org.omg.PortableServer.Servant;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Make a request and wait for its reply between two ORBs in the same process.
+ * The client ORB connects to the server ORB over the loopback interface,
+ * so each call goes through the full GIOP stack and the threaded connection on both sides.
+ * The stub is shared, so {@link #echoFromManyThreads()} shows how calls on one reference scale.
+ * {@link #echoPipelined()} keeps a batch of asynchronous calls in flight from a single thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LoopbackBenchmark {
+    private static final class EchoServant extends Servant implements InvokeHandler {
+        public String[] _all_interfaces(POA poa, byte[] objectId) {
+            return new String[]{"IDL:bench/Echo:1.0"};
+        }
+
+        public OutputStream _invoke(String method, InputStream in, ResponseHandler handler) {
+            if (!"echo".equals(method)) throw new BAD_OPERATION(method);
+            String message = in.read_string();
+            OutputStream out = handler.createReply();
+            out.write_string(message);
+            return out;
+        }
+    }
+
+    private static final int PIPELINE_DEPTH = 64;
+
+    @Param({"16", "16384"})
+    int messageLength;
+
+    private ORB serverOrb;
+    private ORB clientOrb;
+    private ObjectImpl stub;
+    private String message;
+
+    @Setup
+    public void setup() throws Exception {
+        serverOrb = Orbs.newOrb();
+        POA rootPoa = POAHelper.narrow(serverOrb.resolve_initial_references("RootPOA"));
+        rootPoa.the_POAManager().activate();
+        String ior = serverOrb.object_to_string(rootPoa.servant_to_reference(new EchoServant()));
+        clientOrb = Orbs.newOrb();
+        stub = (ObjectImpl) clientOrb.string_to_object(ior);
+        char[] chars = new char[messageLength];
+        Arrays.fill(chars, 'x');
+        message = new String(chars);
+    }
+
+    @TearDown
+    public void tearDown() {
+        clientOrb.destroy();
+        serverOrb.destroy();
+    }
+
+    @Benchmark
+    public String echo() throws Exception {
+        while (true) {
+            InputStream in = null;
+            try {
+                OutputStream out = stub._request("echo", true);
+                out.write_string(message);
+                in = stub._invoke(out);
+                return in.read_string();
+            } catch (RemarshalException e) {
+                // try again
+            } catch (ApplicationException e) {
+                throw new IllegalStateException("Unexpected exception " + e.getId());
+            } finally {
+                stub._releaseReply(in);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public String echoPipelined() throws Exception {
+        Delegate delegate = (Delegate) stub._get_delegate();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<InputStream>[] replies = new CompletableFuture[PIPELINE_DEPTH];
+        for (int i = 0; i < PIPELINE_DEPTH; i++) replies[i] = delegate.invokeAsync(stub, "echo", out -> out.write_string(message));
+        String last = null;
+        for (CompletableFuture<InputStream> reply: replies) last = reply.get().read_string();
+        return last;
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String echoFromManyThreads() throws Exception {
+        return echo();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.apache.yoko.orb.CORBA.OutputStream;
+import org.omg.CORBA.Any;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.PUBLIC_MEMBER;
+import org.omg.CORBA.StructMember;
+import org.omg.CORBA.TypeCode;
+import org.omg.CORBA.UnionMember;
+import org.omg.CORBA.VM_NONE;
+import org.omg.CORBA.ValueMember;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.omg.CORBA.TCKind.tk_double;
+import static org.omg.CORBA.TCKind.tk_long;
+
+/**
+ * Compare deeply nested struct, union and valuetype TypeCodes.
+ * Repository IDs are left empty, so equal() and equivalent() cannot stop at the outermost ID.
+ * With {@code shared=true} the second TypeCode is built separately and so ends up as the same
+ * canonical instance; with {@code shared=false} it is a private copy, as every TypeCode used to be.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class NestedTypeCodeBenchmark {
+    @Param({"8"})
+    public int depth;
+
+    @Param({"true", "false"})
+    public boolean shared;
+
+    private ORB orb;
+    private TypeCode nestedType;
+    private TypeCode otherNestedType;
+    private OutputStream marshalledNestedType;
+
+    @Setup
+    public void setup() {
+        orb = Orbs.newOrb();
+        nestedType = newNestedType();
+        otherNestedType = shared ? newNestedType() : copy((org.apache.yoko.orb.CORBA.TypeCode) newNestedType());
+        marshalledNestedType = (OutputStream) orb.create_output_stream();
+        marshalledNestedType.write_TypeCode(nestedType);
+    }
+
+    @TearDown
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    // each level holds a valuetype wrapping the previous level and a union choosing between them
+    private TypeCode newNestedType() {
+        TypeCode level = orb.create_value_tc("", "Leaf", VM_NONE.value, null, new ValueMember[]{
+                new ValueMember("x", "", "", "", orb.get_primitive_tc(tk_double), null, PUBLIC_MEMBER.value),
+                new ValueMember("label", "", "", "", orb.create_string_tc(0), null, PUBLIC_MEMBER.value)});
+        for (int i = 0; i < depth; i++) {
+            TypeCode valueType = orb.create_value_tc("", "Value" + i, VM_NONE.value, null, new ValueMember[]{
+                    new ValueMember("next", "", "", "", level, null, PUBLIC_MEMBER.value)});
+            TypeCode unionType = orb.create_union_tc("", "Union" + i, orb.get_primitive_tc(tk_long), new UnionMember[]{
+                    new UnionMember("one", label(0), level, null),
+                    new UnionMember("many", label(1), orb.create_sequence_tc(0, level), null)});
+            level = orb.create_struct_tc("", "Level" + i, new StructMember[]{
+                    new StructMember("value", valueType, null),
+                    new StructMember("choice", unionType, null)});
+        }
+        return level;
+    }
+
+    private Any label(int value) {
+        Any any = orb.create_any();
+        any.insert_long(value);
+        return any;
+    }
+
+    // a structural copy that shares no nested TypeCode with the original
+    private static org.apache.yoko.orb.CORBA.TypeCode copy(org.apache.yoko.orb.CORBA.TypeCode tc) {
+        if (tc == null) return null;
+        org.apache.yoko.orb.CORBA.TypeCode result = new org.apache.yoko.orb.CORBA.TypeCode();
+        result.kind_ = tc.kind_;
+        result.id_ = tc.id_;
+        result.name_ = tc.name_;
+        result.memberNames_ = tc.memberNames_;
+        if (tc.memberTypes_ != null) {
+            result.memberTypes_ = new org.apache.yoko.orb.CORBA.TypeCode[tc.memberTypes_.length];
+            for (int i = 0; i < tc.memberTypes_.length; i++) result.memberTypes_[i] = copy(tc.memberTypes_[i]);
+        }
+        result.labels_ = tc.labels_;
+        result.discriminatorType_ = copy(tc.discriminatorType_);
+        result.length_ = tc.length_;
+        result.contentType_ = copy(tc.contentType_);
+        result.fixedDigits_ = tc.fixedDigits_;
+        result.fixedScale_ = tc.fixedScale_;
+        result.memberVisibility_ = tc.memberVisibility_;
+        result.typeModifier_ = tc.typeModifier_;
+        result.concreteBaseType_ = copy(tc.concreteBaseType_);
+        return result;
+    }
+
+    @Benchmark
+    public boolean equal() {
+        return nestedType.equal(otherNestedType);
+    }
+
+    @Benchmark
+    public boolean equivalent() {
+        return nestedType.equivalent(otherNestedType);
+    }
+
+    @Benchmark
+    public TypeCode read() {
+        return marshalledNestedType.create_input_stream().read_TypeCode();
+    }
+}
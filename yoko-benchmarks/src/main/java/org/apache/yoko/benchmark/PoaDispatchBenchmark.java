@@ -0,0 +1,123 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.omg.CORBA.BAD_OPERATION;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CORBA.portable.ApplicationException;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.ObjectImpl;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.RemarshalException;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+import org.omg.PortableServer.Servant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Make empty requests on an object in a POA nested below the root POA,
+ * between two ORBs in the same process.
+ * The server finds the POA from the object key of every request,
+ * so this shows how that lookup costs with the depth of the POA hierarchy
+ * and when several connections dispatch requests at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PoaDispatchBenchmark {
+    private static final class PingServant extends Servant implements InvokeHandler {
+        public String[] _all_interfaces(POA poa, byte[] objectId) {
+            return new String[]{"IDL:bench/Ping:1.0"};
+        }
+
+        public OutputStream _invoke(String method, InputStream in, ResponseHandler handler) {
+            if (!"ping".equals(method)) throw new BAD_OPERATION(method);
+            return handler.createReply();
+        }
+    }
+
+    @Param({"1", "4"})
+    int depth;
+
+    private ORB serverOrb;
+    private ORB clientOrb;
+    private ObjectImpl stub;
+
+    @Setup
+    public void setup() throws Exception {
+        serverOrb = Orbs.newOrb();
+        POA poa = POAHelper.narrow(serverOrb.resolve_initial_references("RootPOA"));
+        poa.the_POAManager().activate();
+        for (int i = 0; i < depth; i++) poa = poa.create_POA("level" + i, poa.the_POAManager(), new Policy[0]);
+        String ior = serverOrb.object_to_string(poa.servant_to_reference(new PingServant()));
+        clientOrb = Orbs.newOrb();
+        stub = (ObjectImpl) clientOrb.string_to_object(ior);
+    }
+
+    @TearDown
+    public void tearDown() {
+        clientOrb.destroy();
+        serverOrb.destroy();
+    }
+
+    private void ping() throws Exception {
+        while (true) {
+            InputStream in = null;
+            try {
+                in = stub._invoke(stub._request("ping", true));
+                return;
+            } catch (RemarshalException e) {
+                // try again
+            } catch (ApplicationException e) {
+                throw new IllegalStateException("Unexpected exception " + e.getId());
+            } finally {
+                stub._releaseReply(in);
+            }
+        }
+    }
+
+    @Benchmark
+    public void ping1() throws Exception {
+        ping();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void ping8() throws Exception {
+        ping();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.rmi.CORBA.Util;
+import javax.rmi.PortableRemoteObject;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch RMI-IIOP requests that have already been received to the tie of an exported object,
+ * as the POA does once it has found the servant.
+ * This covers reading the arguments, invoking the target and writing the result,
+ * without the network or the rest of the ORB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RmiDispatchBenchmark {
+    public interface Account extends Remote {
+        long deposit(int branch, long account, double amount) throws RemoteException;
+        String rename(long account, String name) throws RemoteException;
+    }
+
+    public static final class AccountImpl implements Account {
+        public long deposit(int branch, long account, double amount) {
+            return branch + account + (long) amount;
+        }
+
+        public String rename(long account, String name) {
+            return name;
+        }
+    }
+
+    private ORB orb;
+    private InvokeHandler tie;
+    private OutputStream depositRequest;
+    private OutputStream renameRequest;
+    private ResponseHandler handler;
+
+    @Setup
+    public void setup() throws Exception {
+        orb = Orbs.newOrb();
+        AccountImpl account = new AccountImpl();
+        PortableRemoteObject.exportObject(account);
+        tie = (InvokeHandler) Util.getTie(account);
+
+        depositRequest = orb.create_output_stream();
+        depositRequest.write_long(7);
+        depositRequest.write_longlong(1234567L);
+        depositRequest.write_double(99.5);
+
+        renameRequest = orb.create_output_stream();
+        renameRequest.write_longlong(1234567L);
+        ((org.omg.CORBA_2_3.portable.OutputStream) renameRequest).write_value("savings", String.class);
+
+        handler = new ResponseHandler() {
+            public OutputStream createReply() {
+                return orb.create_output_stream();
+            }
+
+            public OutputStream createExceptionReply() {
+                return orb.create_output_stream();
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    @Benchmark
+    public OutputStream primitiveArguments() {
+        InputStream in = depositRequest.create_input_stream();
+        return tie._invoke("deposit", in, handler);
+    }
+
+    @Benchmark
+    public OutputStream valueArgument() {
+        InputStream in = renameRequest.create_input_stream();
+        return tie._invoke("rename", in, handler);
+    }
+}
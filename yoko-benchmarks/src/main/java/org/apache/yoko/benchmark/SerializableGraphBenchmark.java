@@ -0,0 +1,102 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.apache.yoko.orb.CORBA.OutputStream;
+import org.omg.CORBA.ORB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marshal and unmarshal a graph of plain Serializable objects, which the ORB hands to the RMI-IIOP ValueHandler.
+ * The graph mixes a collection, a map, shared references, strings and primitive fields.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SerializableGraphBenchmark {
+    public static final class Trade implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final String symbol;
+        final double price;
+        final int size;
+
+        Trade(String symbol, double price, int size) {
+            this.symbol = symbol;
+            this.price = price;
+            this.size = size;
+        }
+    }
+
+    public static final class Book implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final List<Trade> trades = new ArrayList<>();
+        final Map<String, Trade> latest = new HashMap<>();
+    }
+
+    private ORB orb;
+    private Book book;
+    private OutputStream marshalledBook;
+
+    @Setup
+    public void setup() {
+        orb = Orbs.newOrb();
+        book = new Book();
+        for (int i = 0; i < 100; i++) {
+            Trade trade = new Trade("SYM" + (i % 10), 100.0 + i, i);
+            book.trades.add(trade);
+            book.latest.put(trade.symbol, trade);
+        }
+        marshalledBook = write();
+    }
+
+    @TearDown
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    @Benchmark
+    public OutputStream write() {
+        OutputStream out = (OutputStream) orb.create_output_stream();
+        out.write_value(book, Book.class);
+        return out;
+    }
+
+    @Benchmark
+    public Serializable read() {
+        return marshalledBook.create_input_stream().read_value(Book.class);
+    }
+}
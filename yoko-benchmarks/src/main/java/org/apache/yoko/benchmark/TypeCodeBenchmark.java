@@ -0,0 +1,109 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.apache.yoko.orb.CORBA.OutputStream;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.StructMember;
+import org.omg.CORBA.TypeCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.omg.CORBA.TCKind.tk_double;
+import static org.omg.CORBA.TCKind.tk_long;
+
+/**
+ * Compare, compact and marshal a nested struct TypeCode.
+ * The two TypeCodes compared are built separately, and so are interned to the same instance.
+ * See {@link NestedTypeCodeBenchmark} for comparisons that have to look inside the TypeCodes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TypeCodeBenchmark {
+    private ORB orb;
+    private TypeCode quoteType;
+    private TypeCode otherQuoteType;
+    private OutputStream marshalledQuoteType;
+
+    @Setup
+    public void setup() {
+        orb = Orbs.newOrb();
+        quoteType = newQuoteType();
+        otherQuoteType = newQuoteType();
+        marshalledQuoteType = (OutputStream) orb.create_output_stream();
+        marshalledQuoteType.write_TypeCode(quoteType);
+    }
+
+    @TearDown
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    private TypeCode newQuoteType() {
+        TypeCode tradeType = orb.create_struct_tc("IDL:bench/Trade:1.0", "Trade", new StructMember[]{
+                new StructMember("price", orb.get_primitive_tc(tk_double), null),
+                new StructMember("size", orb.get_primitive_tc(tk_long), null)});
+        TypeCode tradesType = orb.create_alias_tc("IDL:bench/Trades:1.0", "Trades", orb.create_sequence_tc(0, tradeType));
+        return orb.create_struct_tc("IDL:bench/Quote:1.0", "Quote", new StructMember[]{
+                new StructMember("symbol", orb.create_string_tc(0), null),
+                new StructMember("bid", orb.get_primitive_tc(tk_double), null),
+                new StructMember("ask", orb.get_primitive_tc(tk_double), null),
+                new StructMember("trades", tradesType, null)});
+    }
+
+    @Benchmark
+    public boolean equal() {
+        return quoteType.equal(otherQuoteType);
+    }
+
+    @Benchmark
+    public boolean equivalent() {
+        return quoteType.equivalent(otherQuoteType);
+    }
+
+    @Benchmark
+    public TypeCode compact() {
+        return quoteType.get_compact_typecode();
+    }
+
+    @Benchmark
+    public OutputStream write() {
+        OutputStream out = (OutputStream) orb.create_output_stream();
+        out.write_TypeCode(quoteType);
+        return out;
+    }
+
+    @Benchmark
+    public TypeCode read() {
+        return marshalledQuoteType.create_input_stream().read_TypeCode();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.apache.yoko.orb.CORBA.OutputStream;
+import org.omg.CORBA.ORB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marshal and unmarshal the kind of data transfer objects that EJB remote calls carry:
+ * an order made of a customer, an address and an array of line items,
+ * each a small class whose state is mostly primitive fields, some inherited.
+ * The ORB hands each of them to the RMI-IIOP ValueHandler, which reads and writes their fields.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ValueDtoBenchmark {
+    public static class Entity implements Serializable {
+        private static final long serialVersionUID = 1L;
+        long id;
+        int version;
+        boolean deleted;
+    }
+
+    public static final class Address extends Entity {
+        private static final long serialVersionUID = 1L;
+        String street;
+        String city;
+        short zone;
+    }
+
+    public static final class Customer extends Entity {
+        private static final long serialVersionUID = 1L;
+        String name;
+        Address address;
+        double creditLimit;
+        byte tier;
+        char status;
+    }
+
+    public static final class LineItem extends Entity {
+        private static final long serialVersionUID = 1L;
+        long productId;
+        int quantity;
+        double unitPrice;
+        float discount;
+        boolean backOrdered;
+    }
+
+    public static final class Order extends Entity {
+        private static final long serialVersionUID = 1L;
+        Customer customer;
+        LineItem[] items;
+        long placedAt;
+        double total;
+    }
+
+    @Param({"10", "1000"})
+    int items;
+
+    private ORB orb;
+    private Order order;
+    private OutputStream marshalledOrder;
+
+    @Setup
+    public void setup() {
+        orb = Orbs.newOrb();
+        Address address = new Address();
+        address.id = 3;
+        address.street = "1 Main Street";
+        address.city = "Springfield";
+        address.zone = 7;
+        Customer customer = new Customer();
+        customer.id = 2;
+        customer.name = "Customer";
+        customer.address = address;
+        customer.creditLimit = 10000.0;
+        customer.tier = 1;
+        customer.status = 'A';
+        order = new Order();
+        order.id = 1;
+        order.customer = customer;
+        order.items = new LineItem[items];
+        for (int i = 0; i < items; i++) {
+            LineItem item = new LineItem();
+            item.id = 100 + i;
+            item.version = i;
+            item.productId = 1000 + i;
+            item.quantity = i % 5 + 1;
+            item.unitPrice = 9.99 + i;
+            item.discount = 0.1f;
+            item.backOrdered = i % 7 == 0;
+            order.items[i] = item;
+            order.total += item.quantity * item.unitPrice;
+        }
+        order.placedAt = 1234567890L;
+        marshalledOrder = write();
+    }
+
+    @TearDown
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    @Benchmark
+    public OutputStream write() {
+        OutputStream out = (OutputStream) orb.create_output_stream();
+        out.write_value(order, Order.class);
+        return out;
+    }
+
+    @Benchmark
+    public Serializable read() {
+        return marshalledOrder.create_input_stream().read_value(Order.class);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.apache.yoko.orb.CORBA.OutputStream;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.TypeCode;
+import org.omg.CORBA.portable.StreamableValue;
+import org.omg.CORBA.portable.ValueFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marshal and unmarshal a graph of IDL valuetypes through the ORB's ValueWriter and ValueReader.
+ * Every node refers back to the head of the list, so most references are written as indirections.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ValueGraphBenchmark {
+    public static final class Node implements StreamableValue {
+        static final String ID = "IDL:bench/Node:1.0";
+        int value;
+        Node head;
+        Node next;
+
+        public String[] _truncatable_ids() { return new String[]{ID}; }
+
+        public TypeCode _type() { throw new UnsupportedOperationException(); }
+
+        public void _write(org.omg.CORBA.portable.OutputStream out) {
+            out.write_long(value);
+            ((org.omg.CORBA_2_3.portable.OutputStream) out).write_value(head);
+            ((org.omg.CORBA_2_3.portable.OutputStream) out).write_value(next);
+        }
+
+        public void _read(org.omg.CORBA.portable.InputStream in) {
+            value = in.read_long();
+            head = (Node) ((org.omg.CORBA_2_3.portable.InputStream) in).read_value();
+            next = (Node) ((org.omg.CORBA_2_3.portable.InputStream) in).read_value();
+        }
+    }
+
+    private static final class NodeFactory implements ValueFactory {
+        public Serializable read_value(org.omg.CORBA_2_3.portable.InputStream in) {
+            return in.read_value(new Node());
+        }
+    }
+
+    private ORB orb;
+    private Node head;
+    private OutputStream marshalledGraph;
+
+    @Setup
+    public void setup() {
+        orb = Orbs.newOrb();
+        ((org.omg.CORBA_2_3.ORB) orb).register_value_factory(Node.ID, new NodeFactory());
+        head = new Node();
+        Node tail = head;
+        for (int i = 1; i < 100; i++) {
+            tail.next = new Node();
+            tail = tail.next;
+            tail.value = i;
+            tail.head = head;
+        }
+        marshalledGraph = write();
+    }
+
+    @TearDown
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    @Benchmark
+    public OutputStream write() {
+        OutputStream out = (OutputStream) orb.create_output_stream();
+        out.write_value(head);
+        return out;
+    }
+
+    @Benchmark
+    public Serializable read() {
+        return marshalledGraph.create_input_stream().read_value();
+    }
+}
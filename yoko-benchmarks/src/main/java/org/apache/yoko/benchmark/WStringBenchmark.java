@@ -0,0 +1,92 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.benchmark;
+
+import org.apache.yoko.orb.CORBA.InputStream;
+import org.apache.yoko.orb.CORBA.OutputStream;
+import org.apache.yoko.orb.OB.CodeConverters;
+import org.apache.yoko.orb.OBCORBA.ORB_impl;
+import org.omg.CORBA.ORB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.yoko.orb.OB.CodeSetInfo.ISO_LATIN_1;
+import static org.apache.yoko.orb.OB.CodeSetInfo.UTF_16;
+import static org.apache.yoko.orb.OCI.GiopVersion.GIOP1_2;
+
+/**
+ * Marshal and unmarshal GIOP 1.2 wide strings made mostly of CJK characters,
+ * using the UTF-16 transmission code set that Yoko negotiates by default.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class WStringBenchmark {
+    private static final String CJK = "\u6771\u4eac\u90fd\u5343\u4ee3\u7530\u533a\u4e38\u306e\u5185 \u5317\u4eac\u5e02 \uc11c\uc6b8\ud2b9\ubcc4\uc2dc, ";
+
+    @Param({"16", "4096"})
+    int length;
+
+    private ORB orb;
+    private CodeConverters converters;
+    private String value;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        orb = Orbs.newOrb();
+        converters = CodeConverters.create(((ORB_impl) orb)._OB_ORBInstance(), ISO_LATIN_1.id, UTF_16.id);
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) sb.append(CJK);
+        value = sb.substring(0, length);
+        OutputStream out = new OutputStream(converters, GIOP1_2);
+        out.write_wstring(value);
+        encoded = out.copyWrittenBytes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    @Benchmark
+    public OutputStream writeWString() {
+        OutputStream out = new OutputStream(converters, GIOP1_2);
+        out.write_wstring(value);
+        return out;
+    }
+
+    @Benchmark
+    public String readWString() {
+        return new InputStream(encoded, false, converters, GIOP1_2).read_wstring();
+    }
+}
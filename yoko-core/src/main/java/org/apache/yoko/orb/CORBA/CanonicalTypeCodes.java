@@ -0,0 +1,208 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+*  contributor license agreements.  See the NOTICE file distributed with
+*  this work for additional information regarding copyright ownership.
+*  The ASF licenses this file to You under the Apache License, Version 2.0
+*  (the "License"); you may not use this file except in compliance with
+*  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.CORBA;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.System.identityHashCode;
+
+//
+// Hash-consing of TypeCodes: structurally equal TypeCodes are replaced
+// by one canonical instance, which is shared by every ORB in the JVM.
+//
+public enum CanonicalTypeCodes {
+    ;
+
+    //
+    // The canonical TypeCodes, keyed on their shape. The table only holds
+    // them weakly, so a TypeCode nobody uses any more is dropped from it.
+    // Once the table is full, arbitrary entries are dropped to make room.
+    // A dropped TypeCode stays marked as canonical, which is harmless: an
+    // equal TypeCode interned later becomes a second canonical instance,
+    // and identity is only ever used to prove two TypeCodes equal.
+    //
+    private static final int MAX_CANONICAL = 8192;
+
+    private static final ConcurrentHashMap<Shape, Shape> canonical_ = new ConcurrentHashMap<>();
+
+    private static final ReferenceQueue<TypeCode> collected_ = new ReferenceQueue<>();
+
+    //
+    // Return the canonical instance of a TypeCode that is structurally
+    // the same as tc, making tc canonical if there is none yet. Only
+    // TypeCodes whose nested TypeCodes are all canonical already can be
+    // interned, so the children of two candidates can be compared by
+    // identity. Recursive TypeCodes always contain a placeholder or an
+    // unfinished TypeCode, so they are never interned.
+    //
+    public static TypeCode intern(TypeCode tc) {
+        if (tc.interned_ || !internable(tc))
+            return tc;
+
+        Shape entry = canonical_.get(new Shape(tc, null));
+        TypeCode canonical = entry == null ? null : entry.get();
+        if (canonical != null)
+            return canonical;
+
+        removeCollected();
+        for (Iterator<Shape> it = canonical_.keySet().iterator(); canonical_.size() >= MAX_CANONICAL && it.hasNext(); ) {
+            it.next();
+            it.remove();
+        }
+
+        //
+        // A canonical TypeCode is shared by every ORB, so it must not hold
+        // on to the Anys of the caller's labels, or to their ORB
+        //
+        if (tc.labels_ != null)
+            tc.labels_ = detach(tc.labels_);
+
+        //
+        // Mark tc before publishing it, so that anyone who finds it in
+        // the table sees it as canonical. If another thread won the race
+        // tc was never published and can simply be unmarked.
+        //
+        tc.interned_ = true;
+        Shape shape = new Shape(tc, collected_);
+        entry = canonical_.putIfAbsent(shape, shape);
+        canonical = entry == null ? null : entry.get();
+        if (canonical == null)
+            return tc;
+        tc.interned_ = false;
+        return canonical;
+    }
+
+    private static void removeCollected() {
+        for (Object ref; (ref = collected_.poll()) != null; )
+            canonical_.remove(ref);
+    }
+
+    private static Any[] detach(Any[] labels) {
+        Any[] result = new Any[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            result[i] = new Any(labels[i]);
+            result[i]._OB_ORBInstance(null);
+        }
+        return result;
+    }
+
+    private static boolean internable(TypeCode tc) {
+        if (tc.recId_ != null || tc.kind_ == null)
+            return false;
+        if (tc.memberTypes_ != null)
+            for (TypeCode member : tc.memberTypes_)
+                if (!isCanonical(member))
+                    return false;
+        return isCanonical(tc.discriminatorType_)
+                && isCanonical(tc.contentType_)
+                && isCanonical(tc.concreteBaseType_);
+    }
+
+    public static boolean isCanonical(TypeCode tc) {
+        return tc == null || tc.interned_;
+    }
+
+    //
+    // The shape of a TypeCode whose children are canonical: a shallow
+    // view that compares the children by identity. It refers to the
+    // TypeCode weakly, and once that is collected it equals only itself.
+    //
+    private static final class Shape extends WeakReference<TypeCode> {
+        private final int hash;
+
+        Shape(TypeCode tc, ReferenceQueue<TypeCode> queue) {
+            super(tc, queue);
+            int h = tc.kind_.value();
+            h = 31 * h + Objects.hashCode(tc.id_);
+            h = 31 * h + Objects.hashCode(tc.name_);
+            h = 31 * h + Arrays.hashCode(tc.memberNames_);
+            if (tc.memberTypes_ != null)
+                for (TypeCode member : tc.memberTypes_)
+                    h = 31 * h + identityHashCode(member);
+            h = 31 * h + identityHashCode(tc.discriminatorType_);
+            h = 31 * h + tc.length_;
+            h = 31 * h + identityHashCode(tc.contentType_);
+            h = 31 * h + tc.fixedDigits_;
+            h = 31 * h + tc.fixedScale_;
+            h = 31 * h + Arrays.hashCode(tc.memberVisibility_);
+            h = 31 * h + tc.typeModifier_;
+            h = 31 * h + identityHashCode(tc.concreteBaseType_);
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Shape))
+                return false;
+            Shape that = (Shape) o;
+            if (hash != that.hash)
+                return false;
+            TypeCode a = get(), b = that.get();
+            if (a == null || b == null)
+                return false;
+            return a.kind_ == b.kind_
+                    && Objects.equals(a.id_, b.id_)
+                    && Objects.equals(a.name_, b.name_)
+                    && Arrays.equals(a.memberNames_, b.memberNames_)
+                    && sameTypes(a.memberTypes_, b.memberTypes_)
+                    && sameLabels(a.labels_, b.labels_)
+                    && a.discriminatorType_ == b.discriminatorType_
+                    && a.length_ == b.length_
+                    && a.contentType_ == b.contentType_
+                    && a.fixedDigits_ == b.fixedDigits_
+                    && a.fixedScale_ == b.fixedScale_
+                    && Arrays.equals(a.memberVisibility_, b.memberVisibility_)
+                    && a.typeModifier_ == b.typeModifier_
+                    && a.concreteBaseType_ == b.concreteBaseType_;
+        }
+
+        private static boolean sameTypes(TypeCode[] a, TypeCode[] b) {
+            if (a == null || b == null)
+                return a == b;
+            if (a.length != b.length)
+                return false;
+            for (int i = 0; i < a.length; i++)
+                if (a[i] != b[i])
+                    return false;
+            return true;
+        }
+
+        private static boolean sameLabels(org.omg.CORBA.Any[] a, org.omg.CORBA.Any[] b) {
+            if (a == null || b == null)
+                return a == b;
+            if (a.length != b.length)
+                return false;
+            for (int i = 0; i < a.length; i++)
+                if (!a[i].type().equal(b[i].type()) || !a[i].equal(b[i]))
+                    return false;
+            return true;
+        }
+    }
+}
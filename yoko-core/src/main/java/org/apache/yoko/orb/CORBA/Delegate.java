@@ -22,8 +22,10 @@ import org.apache.yoko.orb.OB.ClientManager;
 import org.apache.yoko.orb.OB.CoreTraceLevels;
 import org.apache.yoko.orb.OB.DowncallStub;
 import org.apache.yoko.orb.OB.FailureException;
+import org.apache.yoko.orb.OB.IsACache;
 import org.apache.yoko.orb.OB.LocationForward;
 import org.apache.yoko.orb.OB.ORBInstance;
+import org.apache.yoko.orb.OB.PIManager;
 import org.apache.yoko.orb.OB.RETRY_NEVER;
 import org.apache.yoko.orb.OB.RETRY_STRICT;
 import org.apache.yoko.orb.OB.RefCountPolicyList;
@@ -32,6 +34,7 @@ import org.apache.yoko.orb.OBPortableServer.POAManagerFactory;
 import org.apache.yoko.orb.OBPortableServer.POAManagerFactory_impl;
 import org.apache.yoko.orb.exceptions.Transients;
 import org.apache.yoko.util.Factory;
+import org.omg.CORBA.BAD_INV_ORDER;
 import org.omg.CORBA.BAD_PARAM;
 import org.omg.CORBA.COMM_FAILURE;
 import org.omg.CORBA.DomainManager;
@@ -63,11 +66,17 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 import static java.util.logging.Level.FINE;
 import static org.apache.yoko.util.MinorCodes.MinorDuplicatePolicyType;
 import static org.apache.yoko.util.MinorCodes.MinorNoPolicy;
+import static org.apache.yoko.util.MinorCodes.MinorShutdownCalled;
+import static org.apache.yoko.util.MinorCodes.describeBadInvOrder;
 import static org.apache.yoko.util.MinorCodes.describeBadParam;
 import static org.apache.yoko.util.MinorCodes.describeInvPolicy;
 import static org.apache.yoko.orb.logging.VerboseLogging.RETRY_LOG;
@@ -79,10 +88,42 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
     private static final Logger logger = Logger.getLogger(Delegate.class.getName());
     private static final Policy[] EMPTY_POLICY_ARRAY = new Policy[0];
     private final ORBInstance orbInstance;
-    private IOR ior;
-    private IOR origIor;
     private final RefCountPolicyList policyList;
-    private DowncallStub downcallStub_;
+
+    // The IORs and downcall stub currently in use. A binding is never modified:
+    // it is replaced as a whole, so invocations can read it without locking.
+    private volatile Binding binding;
+    private static final AtomicReferenceFieldUpdater<Delegate, Binding> BINDING =
+            AtomicReferenceFieldUpdater.newUpdater(Delegate.class, Binding.class, "binding");
+    // Held only while creating a downcall stub, so concurrent callers share one
+    private final Object downcallStubMutex = new Object(){};
+
+    private static final class Binding {
+        final IOR ior;
+        final IOR origIor;
+        final DowncallStub downcallStub;
+        // The key for remembered _is_a answers, computed on first use
+        private IsACache.Target isATarget;
+
+        Binding(IOR ior, IOR origIor, DowncallStub downcallStub) {
+            this.ior = ior;
+            this.origIor = origIor;
+            this.downcallStub = downcallStub;
+        }
+
+        Binding withDowncallStub(DowncallStub stub) {
+            Binding result = new Binding(ior, origIor, stub);
+            result.isATarget = isATarget;
+            return result;
+        }
+
+        IsACache.Target isATarget() {
+            // racy but benign: a Target is immutable and any two computed here are equal
+            IsACache.Target result = isATarget;
+            if (result == null) isATarget = result = IsACache.target(origIor);
+            return result;
+        }
+    }
 
     // The servant for use in collocated invocations
     private DirectServant directServant;
@@ -90,7 +131,7 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
 
     // If false, the object is "remote", in the sense that its request
     // must be marshalled. If true, we need to check if the object is local.
-    private boolean checkLocal = true;
+    private volatile boolean checkLocal = true;
 
     private static class ThreadSpecificRetryInfo extends ThreadLocal<RetryInfo> {
         protected RetryInfo initialValue() { return new RetryInfo(); }
@@ -109,15 +150,16 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
     // ------------------------------------------------------------------
 
     // Check whether it's safe to retry
-    private synchronized void checkRetry(int retry, SystemException ex, boolean remote) {
-        // We remove the downcall stub, whether we retry or not
-        downcallStub_ = null;
-
-        // Reset to the original IOR
-        ior = origIor;
+    private void checkRetry(int retry, SystemException ex, boolean remote) {
+        // We remove the downcall stub, whether we retry or not,
+        // and reset to the original IOR
+        Binding b;
+        do b = binding; while (!BINDING.compareAndSet(this, b, new Binding(b.origIor, b.origIor, null)));
 
         // Reset cached state
-        directServant = null;
+        synchronized (directServantMutex) {
+            directServant = null;
+        }
         checkLocal = true;
 
         // Get the core trace levels
@@ -244,22 +286,27 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
         for (String id : o._ids()) if (repository_id.equals(id)) return true;
 
         // Check the type_id in the IOR and the original IOR
-        synchronized (this) {
-            if (repository_id.equals(ior.type_id) || repository_id.equals(origIor.type_id)) return true;
-        }
-
-        // TODO: Some kind of is-a cache should be consulted here
+        final Binding b = binding;
+        if (repository_id.equals(b.ior.type_id) || repository_id.equals(b.origIor.type_id)) return true;
 
         // Check implementation object
         while (true) {
             if (!is_local(self)) {
+                // Check for an earlier answer from the same object
+                final IsACache isACache = orbInstance.getIsACache();
+                final IsACache.Target target = binding.isATarget();
+                final Boolean cached = isACache.get(target, repository_id);
+                if (cached != null) return cached;
+
                 org.omg.CORBA.portable.OutputStream out;
                 org.omg.CORBA.portable.InputStream in = null;
                 try {
                     out = request(self, "_is_a", true);
                     out.write_string(repository_id);
                     in = invoke(self, out);
-                    return in.read_boolean();
+                    final boolean result = in.read_boolean();
+                    isACache.put(target, repository_id, result);
+                    return result;
                 } catch (ApplicationException ex) {
                     throw Assert.fail(ex);
                 } catch (RemarshalException ex) {
@@ -328,17 +375,13 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
         }
 
         // Ask the client manager
-        synchronized (this) {
-            ClientManager clientManager = orbInstance.getClientManager();
-            return clientManager.equivalent(origIor, p._OB_origIOR());
-        }
+        ClientManager clientManager = orbInstance.getClientManager();
+        return clientManager.equivalent(binding.origIor, p._OB_origIOR());
     }
 
     public int hash(org.omg.CORBA.Object self, int maximum) {
-        synchronized (this) {
-            ClientManager clientManager = orbInstance.getClientManager();
-            return clientManager.hash(origIor, maximum);
-        }
+        ClientManager clientManager = orbInstance.getClientManager();
+        return clientManager.hash(binding.origIor, maximum);
     }
 
     public org.omg.CORBA.Request create_request(org.omg.CORBA.Object self,
@@ -426,6 +469,96 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
 
     public void releaseReply(org.omg.CORBA.Object self, org.omg.CORBA.portable.InputStream in) { }
 
+    /**
+     * Invoke a two-way operation without blocking for the reply.
+     * The returned future is completed by the thread that receives the reply,
+     * so a single thread can keep many requests in flight.
+     * Dependent actions that run on that thread must not block.
+     * It completes exceptionally with an {@link ApplicationException} if the
+     * operation raised a user exception, or with a {@link SystemException}.
+     * If the object's request timeout or relative round trip timeout policy
+     * expires before the reply arrives, it completes with {@link NO_RESPONSE}.
+     * Cancelling it stops the ORB waiting for the reply.
+     *
+     * @param marshaller writes the arguments, and may be called again if the request has to be resent
+     */
+    public CompletableFuture<org.omg.CORBA.portable.InputStream> invokeAsync(org.omg.CORBA.Object self, String operation, Consumer<? super org.omg.CORBA.portable.OutputStream> marshaller) {
+        final CompletableFuture<org.omg.CORBA.portable.InputStream> result = new CompletableFuture<>();
+        // a resend happens on another thread, but must look to the interceptors as if it were sent by this one
+        final Object[] context = orbInstance.getPIManager().captureClientContext();
+        sendAsync(self, operation, marshaller, new RetryInfo(), context, result);
+        return result;
+    }
+
+    private void sendAsync(org.omg.CORBA.Object self, String operation, Consumer<? super org.omg.CORBA.portable.OutputStream> marshaller, RetryInfo info, Object[] context, CompletableFuture<org.omg.CORBA.portable.InputStream> result) {
+        // the interceptors' thread state for the request is carried with it to the
+        // receiving thread, so this thread's state is put back once it is sent
+        // the caller may have cancelled the request while it was being resent
+        if (result.isDone()) return;
+        final PIManager piManager = orbInstance.getPIManager();
+        final Object[] threadState = piManager.saveClientThreadState();
+        try {
+            while (true) {
+                try {
+                    DowncallStub downcallStub = _OB_getDowncallStub();
+                    OutputStream out = downcallStub.setupRequest(self, operation, true);
+                    marshaller.accept(out);
+                    final CompletableFuture<InputStream> reply = downcallStub.invokeAsync(out);
+                    reply.whenComplete((in, ex) -> {
+                        if (ex == null) result.complete(in);
+                        else retryAsync(self, operation, marshaller, info, context, result, ex);
+                    });
+                    result.whenComplete((in, ex) -> {
+                        if (result.isCancelled()) reply.cancel(false);
+                    });
+                    return;
+                } catch (RemarshalException ex) {
+                    // the downcall stub changed, so try again
+                } catch (Exception ex) {
+                    logger.log(FINE, "Received unexpected exception for request", ex);
+                    _OB_handleException(ex, info, false);
+                }
+            }
+        } catch (RuntimeException ex) {
+            result.completeExceptionally(ex);
+        } finally {
+            piManager.restoreClientThreadState(threadState);
+        }
+    }
+
+    private void retryAsync(org.omg.CORBA.Object self, String operation, Consumer<? super org.omg.CORBA.portable.OutputStream> marshaller, RetryInfo info, Object[] context, CompletableFuture<org.omg.CORBA.portable.InputStream> result, Throwable ex) {
+        try {
+            if (ex instanceof ApplicationException || !(ex instanceof Exception)) {
+                logger.log(FINE, "Received exception for request", ex);
+                result.completeExceptionally(ex);
+                return;
+            }
+            if (!(ex instanceof RemarshalException)) {
+                logger.log(FINE, "Received unexpected exception for request", ex);
+                _OB_handleException((Exception) ex, info, false);
+            }
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        // Resending may have to connect or locate the object, which must not hold
+        // up the thread that received this reply, since it may be needed to
+        // receive the replies for that.
+        final PIManager piManager = orbInstance.getPIManager();
+        try {
+            orbInstance.getClientExecutor().execute(() -> {
+                final Object[] replaced = piManager.installClientContext(context);
+                try {
+                    sendAsync(self, operation, marshaller, info, context, result);
+                } finally {
+                    piManager.uninstallClientContext(replaced);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new BAD_INV_ORDER(describeBadInvOrder(MinorShutdownCalled), MinorShutdownCalled, COMPLETED_NO));
+        }
+    }
+
     public Policy get_policy(org.omg.CORBA.Object self, int policy_type) {
         Policy policy = _OB_getPolicy(policy_type);
         if (policy == null) throw new INV_POLICY(describeInvPolicy(MinorNoPolicy), MinorNoPolicy, COMPLETED_NO);
@@ -460,7 +593,8 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
             newPolicies = policiesByType.values().toArray(EMPTY_POLICY_ARRAY);
         }
 
-        final Delegate p = new Delegate(orbInstance, ior, origIor, newPolicies);
+        final Binding b = binding;
+        final Delegate p = new Delegate(orbInstance, b.ior, b.origIor, newPolicies);
         // Create new object, set the delegate and return
         final StubForObject obj = new StubForObject();
         obj._set_delegate(p);
@@ -482,23 +616,11 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
                 POAManagerFactory_impl factory = (POAManagerFactory_impl) pmFactory;
                 while (true) {
                     try {
-                        directServant = factory._OB_getDirectServant(ior, policyList);
+                        directServant = factory._OB_getDirectServant(binding.ior, policyList);
                         break;
                     } catch (LocationForward ex) {
-                        synchronized (this) {
-                            //
-                            // Change the IOR
-                            //
-                            ior = ex.ior;
-                            if (ex.perm) {
-                                origIor = ex.ior;
-                            }
-
-                            //
-                            // Clear the downcall stub
-                            //
-                            downcallStub_ = null;
-                        }
+                        // Change the IOR and clear the downcall stub
+                        forward(ex);
                     }
                 }
 
@@ -608,8 +730,7 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
 
     public Delegate(ORBInstance orbInstance, IOR ior, IOR origIor, Policy...policies) {
         this.orbInstance = orbInstance;
-        this.ior = ior;
-        this.origIor = origIor;
+        this.binding = new Binding(ior, origIor, null);
         this.policyList = new RefCountPolicyList(policies);
     }
 
@@ -617,16 +738,16 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
         return orbInstance;
     }
 
-    public synchronized IOR _OB_IOR() {
-        return ior;
+    public IOR _OB_IOR() {
+        return binding.ior;
     }
 
-    public synchronized IOR _OB_origIOR() {
-        return origIor;
+    public IOR _OB_origIOR() {
+        return binding.origIor;
     }
 
-    public synchronized void _OB_marshalOrigIOR(org.omg.CORBA.portable.OutputStream out) {
-        IORHelper.write(out, origIor);
+    public void _OB_marshalOrigIOR(org.omg.CORBA.portable.OutputStream out) {
+        IORHelper.write(out, binding.origIor);
     }
 
     private Policy _OB_getPolicy(int policy_type) {
@@ -668,7 +789,7 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
         checkRetry(info.getRetry(), e.exception, false);
     }
 
-    private synchronized void handleLocationForward(LocationForward e, RetryInfo info, boolean ignoreRebind) {
+    private void handleLocationForward(LocationForward e, RetryInfo info, boolean ignoreRebind) {
 
         // Check the Rebind Policy
         //
@@ -688,12 +809,8 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
             throw wrapped(RETRY_LOG, e, "Exceeded location forward hop count", Transients.LOCATION_FORWARD_TOO_MANY_HOPS);
         }
 
-        // Change the IOR
-        ior = e.ior;
-        if (e.perm) origIor = e.ior;
-
-        // We need to re-get the downcall stub
-        downcallStub_ = null;
+        // Change the IOR, and we need to re-get the downcall stub
+        forward(e);
 
         // The object may have changed from remote to local
         checkLocal = true;
@@ -701,13 +818,29 @@ public final class Delegate extends org.omg.CORBA_2_4.portable.Delegate {
         logged(RETRY_LOG, e, "Retrying");
     }
 
-    public synchronized DowncallStub _OB_getDowncallStub() throws LocationForward, FailureException {
-        if (downcallStub_ == null) {
-            downcallStub_ = new DowncallStub(orbInstance, ior, origIor, policyList);
-            if (!downcallStub_.locate_request()) {
+    private void forward(LocationForward e) {
+        Binding b;
+        do b = binding; while (!BINDING.compareAndSet(this, b, new Binding(e.ior, e.perm ? e.ior : b.origIor, null)));
+        // Forget any _is_a answers, since the object may have moved or changed.
+        // Another reference to the same object may have remembered them,
+        // so this is done even if this Delegate has never asked.
+        orbInstance.getIsACache().invalidate(b.isATarget());
+    }
+
+    public DowncallStub _OB_getDowncallStub() throws LocationForward, FailureException {
+        Binding b = binding;
+        if (b.downcallStub != null) return b.downcallStub;
+        synchronized (downcallStubMutex) {
+            // another thread may have created the stub while this one waited
+            b = binding;
+            if (b.downcallStub != null) return b.downcallStub;
+            final DowncallStub stub = new DowncallStub(orbInstance, b.ior, b.origIor, policyList);
+            if (!stub.locate_request()) {
                 throw new OBJECT_NOT_EXIST();
             }
+            // If the binding changed meanwhile, use the stub for this call only
+            BINDING.compareAndSet(this, b, b.withDowncallStub(stub));
+            return stub;
         }
-        return downcallStub_;
     }
 }
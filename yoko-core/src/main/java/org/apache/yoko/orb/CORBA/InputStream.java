@@ -48,14 +48,16 @@ import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.nio.ByteOrder;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.Hashtable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.IntStream;
 
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static org.apache.yoko.util.Assert.ensure;
 import static org.apache.yoko.util.MinorCodes.MinorInvalidUnionDiscriminator;
 import static org.apache.yoko.util.MinorCodes.MinorLoadStub;
@@ -86,6 +88,7 @@ import static org.apache.yoko.util.MinorCodes.MinorReadWStringOverflow;
 import static org.apache.yoko.util.MinorCodes.MinorReadWStringZeroLength;
 import static org.apache.yoko.util.MinorCodes.describeBadTypecode;
 import static org.apache.yoko.util.MinorCodes.describeMarshal;
+import static org.apache.yoko.orb.OB.CodeSetInfo.UTF_16;
 import static org.apache.yoko.orb.OB.TypeCodeFactory.createAbstractInterfaceTC;
 import static org.apache.yoko.orb.OB.TypeCodeFactory.createAliasTC;
 import static org.apache.yoko.orb.OB.TypeCodeFactory.createEnumTC;
@@ -302,7 +305,9 @@ final public class InputStream extends InputStreamWithOffsets {
                             p.memberTypes_[i] = (TypeCode) readTypeCodeImpl(history, false);
                         }
 
-                        tc = p;
+                        tc = CanonicalTypeCodes.intern(p);
+                        if (tc != p)
+                            history.put(oldPos, tc);
 
                         if (id.length() > 0 && cache_ != null)
                             cache_.put(id, tc);
@@ -389,7 +394,9 @@ final public class InputStream extends InputStreamWithOffsets {
                             p.memberTypes_[i] = (TypeCode) readTypeCodeImpl(history, false);
                         }
 
-                        tc = p;
+                        tc = CanonicalTypeCodes.intern(p);
+                        if (tc != p)
+                            history.put(oldPos, tc);
 
                         if (id.length() > 0 && cache_ != null)
                             cache_.put(id, tc);
@@ -459,7 +466,9 @@ final public class InputStream extends InputStreamWithOffsets {
                     p.contentType_ = (TypeCode) readTypeCodeImpl(history, false);
                     p.length_ = read_ulong();
 
-                    tc = p;
+                    tc = CanonicalTypeCodes.intern(p);
+                    if (tc != p)
+                        history.put(oldPos, tc);
 
                     swap_ = swap;
                     break;
@@ -531,7 +540,9 @@ final public class InputStream extends InputStreamWithOffsets {
                             p.memberVisibility_[i] = read_short();
                         }
 
-                        tc = p;
+                        tc = CanonicalTypeCodes.intern(p);
+                        if (tc != p)
+                            history.put(oldPos, tc);
 
                         if (id.length() > 0 && cache_ != null)
                             cache_.put(id, tc);
@@ -900,10 +911,27 @@ final public class InputStream extends InputStreamWithOffsets {
         }
 
         // Java strings don't need null terminators, so our string length will be at most one less than the byte count
-        StringBuilder sb = new StringBuilder(byteCount - 1);
-
+        final int maxChars = byteCount - 1;
         final CodeConverterBase converter = codeConverters_.inputCharConverter;
-        final int expectedRemainder = readBuffer.available() - (byteCount - 1);
+        final int expectedRemainder = readBuffer.available() - maxChars;
+        final StringBuilder sb;
+
+        // Decode as many bytes as possible at once: without a converter every byte is an ISO-8859-1 char,
+        // and converters such as UTF-8 to ISO-8859-1 still leave 7-bit bytes unchanged.
+        final boolean direct = !(charReaderRequired_ || charConversionRequired_);
+        if (direct || converter.isAsciiTransparent()) {
+            final int run = direct ? maxChars : readBuffer.countAsciiBytes(maxChars);
+            final String prefix = readBuffer.readLatin1String(run);
+            // String must not contain null characters
+            if (prefix.indexOf(0) >= 0) throw newMarshalError(MinorReadStringNullChar);
+            if (run == maxChars) {
+                if (readBuffer.readByte() != 0) throw newMarshalError(MinorReadStringNoTerminator);
+                return prefix;
+            }
+            sb = new StringBuilder(maxChars).append(prefix);
+        } else {
+            sb = new StringBuilder(maxChars);
+        }
 
         while (readBuffer.available() > expectedRemainder) {
             final char value = charReaderRequired_ ? converter.read_char(readBuffer) : readBuffer.readByteAsChar();
@@ -973,6 +1001,12 @@ final public class InputStream extends InputStreamWithOffsets {
             }
 
             default : {
+                // an even length of 2-byte code units can be decoded all at once
+                if (len % 2 == 0 && isUtf16Identity(converter)) {
+                    s = readUtf16String(len);
+                    break;
+                }
+
                 StringBuilder stringBuffer = new StringBuilder(len);
 
                 if (wCharReaderRequired_) {
@@ -1035,6 +1069,32 @@ final public class InputStream extends InputStreamWithOffsets {
         return s;
     }
 
+    /** Whether each wchar arrives as a single UTF-16 code unit that needs no conversion */
+    private boolean isUtf16Identity(CodeConverterBase converter) {
+        if (wCharReaderRequired_) return converter.getSourceCodeSet() == UTF_16 && converter.isIdentity();
+        return !wCharConversionRequired_ || converter.isIdentity();
+    }
+
+    private String readUtf16String(int len) {
+        if (readBuffer.available() < len) throw newMarshalError(MinorReadWStringOverflow);
+        ByteOrder order = byteOrder();
+        if (wCharReaderRequired_) {
+            // UTF-16 is big endian unless a byte order mark says otherwise
+            order = BIG_ENDIAN;
+            if (len > 0) {
+                final char first = readBuffer.peekChar();
+                if (first == (char) 0xFEFF || first == (char) 0xFFFE) {
+                    readBuffer.skipBytes(2);
+                    len -= 2;
+                    if (first == (char) 0xFFFE) order = LITTLE_ENDIAN;
+                }
+            }
+        }
+        final char[] chars = new char[len / 2];
+        readBuffer.readChars(chars, 0, chars.length, order);
+        return new String(chars);
+    }
+
     public void read_boolean_array(boolean[] value, int offset, int length) {
         if (length <= 0) return;
         checkChunk();
@@ -1113,12 +1173,7 @@ final public class InputStream extends InputStreamWithOffsets {
         if (readBuffer.available() < length * 2)
             throw newMarshalError(MinorReadShortArrayOverflow);
 
-        if (swap_)
-            for (int i = offset; i < offset + length; i++)
-                value[i] = (short) (((short) readBuffer.readByte() & 0xff) | ((short) readBuffer.readByte() << 8));
-        else
-            for (int i = offset; i < offset + length; i++)
-                value[i] = (short) (((short) readBuffer.readByte() << 8) | ((short) readBuffer.readByte() & 0xff));
+        readBuffer.readShorts(value, offset, length, byteOrder());
     }
 
     public void read_ushort_array(short[] value, int offset, int length) {
@@ -1133,18 +1188,12 @@ final public class InputStream extends InputStreamWithOffsets {
         if (readBuffer.available() < length * 4)
             throw newMarshalError(MinorReadLongArrayOverflow);
 
-        if (swap_)
-            for (int i = offset; i < offset + length; i++)
-                value[i] = ((int) readBuffer.readByte() & 0xff)
-                        | (((int) readBuffer.readByte() << 8) & 0xff00)
-                        | (((int) readBuffer.readByte() << 16) & 0xff0000)
-                        | ((int) readBuffer.readByte() << 24);
-        else
-            for (int i = offset; i < offset + length; i++)
-                value[i] = ((int) readBuffer.readByte() << 24)
-                        | (((int) readBuffer.readByte() << 16) & 0xff0000)
-                        | (((int) readBuffer.readByte() << 8) & 0xff00)
-                        | ((int) readBuffer.readByte() & 0xff);
+        readBuffer.readInts(value, offset, length, byteOrder());
+    }
+
+    /** the byte order in which multi-byte values were written */
+    private ByteOrder byteOrder() {
+        return swap_ ? LITTLE_ENDIAN : BIG_ENDIAN;
     }
 
     private static MARSHAL newMarshalError(int minor) {
@@ -1166,26 +1215,7 @@ final public class InputStream extends InputStreamWithOffsets {
         if (readBuffer.available() < length * 8)
             throw newMarshalError(MinorReadLongLongArrayOverflow);
 
-        if (swap_)
-            for (int i = offset; i < offset + length; i++)
-                value[i] = ((long) readBuffer.readByte() & 0xffL)
-                        | (((long) readBuffer.readByte() << 8) & 0xff00L)
-                        | (((long) readBuffer.readByte() << 16) & 0xff0000L)
-                        | (((long) readBuffer.readByte() << 24) & 0xff000000L)
-                        | (((long) readBuffer.readByte() << 32) & 0xff00000000L)
-                        | (((long) readBuffer.readByte() << 40) & 0xff0000000000L)
-                        | (((long) readBuffer.readByte() << 48) & 0xff000000000000L)
-                        | ((long) readBuffer.readByte() << 56);
-        else
-            for (int i = offset; i < offset + length; i++)
-                value[i] = ((long) readBuffer.readByte() << 56)
-                        | (((long) readBuffer.readByte() << 48) & 0xff000000000000L)
-                        | (((long) readBuffer.readByte() << 40) & 0xff0000000000L)
-                        | (((long) readBuffer.readByte() << 32) & 0xff00000000L)
-                        | (((long) readBuffer.readByte() << 24) & 0xff000000L)
-                        | (((long) readBuffer.readByte() << 16) & 0xff0000L)
-                        | (((long) readBuffer.readByte() << 8) & 0xff00L)
-                        | ((long) readBuffer.readByte() & 0xffL);
+        readBuffer.readLongs(value, offset, length, byteOrder());
     }
 
     public void read_ulonglong_array(long[] value, int offset, int length) {
@@ -1201,10 +1231,7 @@ final public class InputStream extends InputStreamWithOffsets {
         if (readBuffer.available() < length * 4)
             throw newMarshalError(MinorReadFloatArrayOverflow);
 
-        if (swap_)
-            IntStream.range(offset, offset + length).forEach(i -> value[i] = Float.intBitsToFloat(readBuffer.readInt_LE()));
-        else
-            IntStream.range(offset, offset + length).forEach(i -> value[i] = Float.intBitsToFloat(readBuffer.readInt()));
+        readBuffer.readFloats(value, offset, length, byteOrder());
     }
 
     public void read_double_array(double[] value, int offset, int length) {
@@ -1216,19 +1243,7 @@ final public class InputStream extends InputStreamWithOffsets {
         if (readBuffer.available() < length * 8)
             throw newMarshalError(MinorReadDoubleArrayOverflow);
 
-        if (swap_) {
-            for (int i = offset; i < offset + length; i++) {
-                long v = ((long) readBuffer.readByte() & 0xffL) | (((long) readBuffer.readByte() << 8) & 0xff00L) | (((long) readBuffer.readByte() << 16) & 0xff0000L) | (((long) readBuffer.readByte() << 24) & 0xff000000L) | (((long) readBuffer.readByte() << 32) & 0xff00000000L) | (((long) readBuffer.readByte() << 40) & 0xff0000000000L) | (((long) readBuffer.readByte() << 48) & 0xff000000000000L) | ((long) readBuffer.readByte() << 56);
-
-                value[i] = Double.longBitsToDouble(v);
-            }
-        } else {
-            for (int i = offset; i < offset + length; i++) {
-                long v = ((long) readBuffer.readByte() << 56) | (((long) readBuffer.readByte() << 48) & 0xff000000000000L) | (((long) readBuffer.readByte() << 40) & 0xff0000000000L) | (((long) readBuffer.readByte() << 32) & 0xff00000000L) | (((long) readBuffer.readByte() << 24) & 0xff000000L) | (((long) readBuffer.readByte() << 16) & 0xff0000L) | (((long) readBuffer.readByte() << 8) & 0xff00L) | ((long) readBuffer.readByte() & 0xffL);
-
-                value[i] = Double.longBitsToDouble(v);
-            }
-        }
+        readBuffer.readDoubles(value, offset, length, byteOrder());
     }
 
     public org.omg.CORBA.Object read_Object() {
@@ -1343,7 +1358,68 @@ final public class InputStream extends InputStreamWithOffsets {
         // is needed for TypeCode. Therefore it is not necessary to do
         // encapsulation in a separate buffer.
         checkChunk();
-        return readTypeCodeImpl(new Hashtable<Integer, TypeCode>(), true);
+        if (cache_ == null || (valueReader_ != null && valueReader_.isChunked()))
+            return readTypeCodeImpl(new Hashtable<Integer, TypeCode>(), true);
+        return readEncodedTypeCode();
+    }
+
+    //
+    // A TypeCode with parameters is sent as its kind, the length of an
+    // encapsulation and the encapsulation. Since indirections within it
+    // are relative, the same bytes always describe the same TypeCode, so
+    // a TypeCode seen before can be found by its encoding instead of
+    // being decoded again.
+    //
+    private org.omg.CORBA.TypeCode readEncodedTypeCode() {
+        readBuffer.align(FOUR_BYTE_BOUNDARY);
+        int start = readBuffer.getPosition();
+        int kind = read_ulong();
+        if (!hasEncapsulation(kind) || readBuffer.available() < 4) {
+            readBuffer.setPosition(start);
+            return readTypeCodeImpl(new Hashtable<Integer, TypeCode>(), true);
+        }
+        int length = read_ulong();
+        if (length < 0 || readBuffer.available() < length) {
+            readBuffer.setPosition(start);
+            return readTypeCodeImpl(new Hashtable<Integer, TypeCode>(), true);
+        }
+        int end = readBuffer.getPosition() + length;
+        readBuffer.setPosition(start);
+
+        byte[] bytes = new byte[end - start];
+        readBuffer.readBytes(bytes, 0, bytes.length);
+        CodeConverterBase charConverter = (charReaderRequired_ || charConversionRequired_) ? codeConverters_.inputCharConverter : null;
+        TypeCodeCache.Encoding encoding = new TypeCodeCache.Encoding(bytes, start & 0x7, swap_, charConverter);
+        TypeCode tc = cache_.get(encoding);
+        if (tc != null)
+            return tc;
+
+        readBuffer.setPosition(start);
+        tc = (TypeCode) readTypeCodeImpl(new Hashtable<Integer, TypeCode>(), true);
+        if (readBuffer.getPosition() == end)
+            cache_.put(encoding, tc);
+        return tc;
+    }
+
+    private static boolean hasEncapsulation(int kind) {
+        switch (kind) {
+            case _tk_objref :
+            case _tk_struct :
+            case _tk_union :
+            case _tk_enum :
+            case _tk_sequence :
+            case _tk_array :
+            case _tk_alias :
+            case _tk_except :
+            case _tk_value :
+            case _tk_value_box :
+            case _tk_native :
+            case _tk_abstract_interface :
+            case TCKind._tk_local_interface :
+                return true;
+            default :
+                return false;
+        }
     }
 
     public org.omg.CORBA.Any read_any() {
@@ -1564,7 +1640,7 @@ final public class InputStream extends InputStreamWithOffsets {
             //
             // Get the TypeCodeCache of this ORBInstance
             //
-            cache_ = TypeCodeCache.instance();
+            cache_ = orbInstance_.getTypeCodeCache();
         }
     }
 
@@ -66,6 +66,7 @@ import static org.apache.yoko.io.AlignmentBoundary.EIGHT_BYTE_BOUNDARY;
 import static org.apache.yoko.io.AlignmentBoundary.FOUR_BYTE_BOUNDARY;
 import static org.apache.yoko.io.AlignmentBoundary.NO_BOUNDARY;
 import static org.apache.yoko.io.AlignmentBoundary.TWO_BYTE_BOUNDARY;
+import static org.apache.yoko.orb.OB.CodeSetInfo.UTF_16;
 import static org.apache.yoko.orb.OCI.GiopVersion.GIOP1_0;
 import static org.omg.CORBA.CompletionStatus.COMPLETED_NO;
 import static org.omg.CORBA.CompletionStatus.COMPLETED_YES;
@@ -624,9 +625,22 @@ public final class OutputStream extends org.omg.CORBA_2_3.portable.OutputStream
 
     public void write_string(String value) {
         LOGGER.finest("Writing string value " + value);
-        final char[] arr = value.toCharArray();
         final CodeConverterBase converter = codeConverters_.outputCharConverter;
 
+        // Encode the whole string at once if every char is written unchanged as a single byte:
+        // without a converter that is any char up to 0xFF, otherwise only 7-bit chars can be relied on.
+        final boolean direct = !(charWriterRequired_ || charConversionRequired_);
+        if (direct ? isLatin1(value) : converter.isAsciiTransparent() && isAscii(value)) {
+            int capacity = value.length() + 1;
+            write_ulong(capacity); // writes the length and ensures a two-byte boundary alignment
+            addCapacity(capacity);
+            writeBuffer.writeLatin1(value);
+            // write null terminator
+            writeBuffer.writeByte(0);
+            return;
+        }
+
+        final char[] arr = value.toCharArray();
         if (!charWriterRequired_) {
             int len = arr.length;
             int capacity = len + 1;
@@ -662,6 +676,22 @@ public final class OutputStream extends org.omg.CORBA_2_3.portable.OutputStream
         }
     }
 
+    /** Whether each wchar is sent as a single UTF-16 code unit that needs no conversion */
+    private boolean isUtf16Identity(CodeConverterBase converter) {
+        if (wCharWriterRequired_) return converter.getDestinationCodeSet() == UTF_16 && converter.isIdentity();
+        return !wCharConversionRequired_ || converter.isIdentity();
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) if (value.charAt(i) > 0xff) return false;
+        return true;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) if (value.charAt(i) > 0x7f) return false;
+        return true;
+    }
+
     private static char checkChar(char c) {
         if (c > 0xff) throw new DATA_CONVERSION(String.format("illegal char value for string: 0x%04x", (int)c));
         return c;
@@ -713,7 +743,18 @@ public final class OutputStream extends org.omg.CORBA_2_3.portable.OutputStream
 
         // save the starting position and write the gap to place the length of the string later
         try (SimplyCloseable sc = recordLength()) {
-            if (wCharWriterRequired_) {
+            if (isUtf16Identity(converter)) {
+                // each char is written as its own big endian code unit, so copy them all at once
+                int start = 0;
+                if (wCharWriterRequired_ && len > 0) {
+                    // let the writer escape a first char that looks like a byte order mark
+                    addCapacity(converter.write_count_wchar(arr[0]));
+                    converter.write_wchar(writeBuffer, arr[0]);
+                    start = 1;
+                }
+                addCapacity((len - start) << 1);
+                writeBuffer.writeChars(arr, start, len - start);
+            } else if (wCharWriterRequired_) {
                 for (char anArr : arr) {
                     char v = anArr;
 
@@ -815,17 +856,15 @@ public final class OutputStream extends org.omg.CORBA_2_3.portable.OutputStream
 
     public void write_octet_array(byte[] value, int offset, int length) {
         if (length <= 0) return;
-        addCapacity(length);
-        writeBuffer.writeBytes(value, offset, length);
+        // an array held by reference takes up no space in the buffer
+        addCapacity(writeBuffer.holdsByReference(length) ? 0 : length);
+        writeBuffer.writeSegment(value, offset, length);
     }
 
     public void write_short_array(short[] value, int offset, int length) {
         if (length > 0) {
             addCapacity(length * 2, TWO_BYTE_BOUNDARY);
-
-            for (int i = offset; i < offset + length; i++) {
-                writeBuffer.writeShort(value[i]);
-            }
+            writeBuffer.writeShorts(value, offset, length);
         }
     }
 
@@ -836,10 +875,7 @@ public final class OutputStream extends org.omg.CORBA_2_3.portable.OutputStream
     public void write_long_array(int[] value, int offset, int length) {
         if (length > 0) {
             addCapacity(length * 4, FOUR_BYTE_BOUNDARY);
-
-            for (int i = offset; i < offset + length; i++) {
-                writeBuffer.writeInt(value[i]);
-            }
+            writeBuffer.writeInts(value, offset, length);
         }
     }
 
@@ -850,10 +886,7 @@ public final class OutputStream extends org.omg.CORBA_2_3.portable.OutputStream
     public void write_longlong_array(long[] value, int offset, int length) {
         if (length > 0) {
             addCapacity(length * 8, EIGHT_BYTE_BOUNDARY);
-
-            for (int i = offset; i < offset + length; i++) {
-                writeBuffer.writeLong(value[i]);
-            }
+            writeBuffer.writeLongs(value, offset, length);
         }
     }
 
@@ -864,24 +897,14 @@ public final class OutputStream extends org.omg.CORBA_2_3.portable.OutputStream
     public void write_float_array(float[] value, int offset, int length) {
         if (length > 0) {
             addCapacity(length * 4, FOUR_BYTE_BOUNDARY);
-
-            for (int i = offset; i < offset + length; i++) {
-                int v = Float.floatToIntBits(value[i]);
-
-                writeBuffer.writeInt(v);
-            }
+            writeBuffer.writeFloats(value, offset, length);
         }
     }
 
     public void write_double_array(double[] value, int offset, int length) {
         if (length > 0) {
             addCapacity(length * 8, EIGHT_BYTE_BOUNDARY);
-
-            for (int i = offset; i < offset + length; i++) {
-                long v = Double.doubleToLongBits(value[i]);
-
-                writeBuffer.writeLong(v);
-            }
+            writeBuffer.writeDoubles(value, offset, length);
         }
     }
 
@@ -1572,6 +1595,11 @@ public final class OutputStream extends org.omg.CORBA_2_3.portable.OutputStream
         return writeBuffer.readFromStart();
     }
 
+    /** Get a reader only to pass to a transport, which may then write large octet arrays without copying them */
+    public ReadBuffer getBufferReaderForSending() {
+        return writeBuffer.readFromStartForSending();
+    }
+
     public int getPosition() {
         return writeBuffer.getPosition();
     }
@@ -70,6 +70,11 @@ final public class TypeCode extends org.omg.CORBA.TypeCode {
 
     TypeCode recType_;
 
+    // Set on the canonical instance of a TypeCode once it has been
+    // interned by CanonicalTypeCodes. Canonical TypeCodes are shared, so
+    // they must never be modified.
+    boolean interned_;
+
     @Override
     public String toString() {
         return describe(new StringBuilder(), "").toString();
@@ -634,6 +639,9 @@ final public class TypeCode extends org.omg.CORBA.TypeCode {
     }
 
     public boolean equivalent(org.omg.CORBA.TypeCode t) {
+        if (t == this)
+            return true;
+
         Vector history = new Vector();
         Vector otherHistory = new Vector();
 
@@ -806,7 +814,8 @@ final public class TypeCode extends org.omg.CORBA.TypeCode {
             throw new BadKind();
 
         try {
-            return labels_[index];
+            // the labels may be shared with other ORBs, so never hand them out
+            return new Any(labels_[index]);
         } catch (ArrayIndexOutOfBoundsException ex) {
             throw new Bounds();
         }
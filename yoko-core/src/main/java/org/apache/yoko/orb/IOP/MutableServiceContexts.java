@@ -47,19 +47,31 @@
      }
 
      public void add(ServiceContext context, boolean okToReplace) {
-         if (okToReplace) add(context);
+         store(copy(context), okToReplace);
+     }
+
+     /**
+      * Add a context without copying it. It will be written out as it is,
+      * so it must not be modified afterwards, e.g. one from a {@link ServiceContextCache}.
+      */
+     public void addEncoded(ServiceContext context, boolean okToReplace) {
+         store(context, okToReplace);
+     }
+
+     private void store(ServiceContext context, boolean okToReplace) {
+         if (okToReplace) contexts.put(context.context_id, context);
          else if (!addIfAbsent(context)) throw newBadInvOrder(MinorServiceContextExists, context.context_id);
      }
 
      private boolean addIfAbsent(ServiceContext context) {
          if (contexts instanceof ConcurrentMap) {
              //noinspection RedundantCast
-             return null == ((ConcurrentMap<Integer, ServiceContext>) contexts).putIfAbsent(context.context_id, copy(context));
+             return null == ((ConcurrentMap<Integer, ServiceContext>) contexts).putIfAbsent(context.context_id, context);
          }
          if (contexts.containsKey(context.context_id)) {
              return false;
          }
-         contexts.put(context.context_id, copy(context));
+         contexts.put(context.context_id, context);
          return true;
      }
 
@@ -0,0 +1,68 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.orb.IOP;
+
+import org.omg.IOP.ServiceContext;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Remembers the encoding of a service context that is sent over and over with the same value,
+ * so that each request can reuse the encoded octets instead of marshalling them again.
+ * <p>
+ * The contexts are keyed by their logical value, which must be immutable and have
+ * a meaningful <code>equals</code> and <code>hashCode</code>. At most <code>maxEntries</code>
+ * values are remembered; when the cache is full an arbitrary value is dropped.
+ * <p>
+ * The contexts handed out are shared between requests, so they must never be modified.
+ * Add them with {@link MutableServiceContexts#addEncoded(ServiceContext, boolean)}
+ * so they are not copied either.
+ */
+public final class ServiceContextCache<V> {
+    private final int contextId;
+    private final int maxEntries;
+    private final Function<? super V, byte[]> encoder;
+    private final ConcurrentMap<V, ServiceContext> contexts = new ConcurrentHashMap<>();
+
+    public ServiceContextCache(int contextId, int maxEntries, Function<? super V, byte[]> encoder) {
+        this.contextId = contextId;
+        this.maxEntries = maxEntries;
+        this.encoder = encoder;
+    }
+
+    public ServiceContext get(V value) {
+        ServiceContext sc = contexts.get(value);
+        if (sc != null) return sc;
+        sc = new ServiceContext(contextId, encoder.apply(value));
+        if (maxEntries <= 0) return sc;
+        while (contexts.size() >= maxEntries) {
+            Iterator<V> it = contexts.keySet().iterator();
+            if (!it.hasNext()) break;
+            it.next();
+            it.remove();
+        }
+        ServiceContext existing = contexts.putIfAbsent(value, sc);
+        return existing == null ? sc : existing;
+    }
+
+    public int size() {
+        return contexts.size();
+    }
+}
@@ -31,6 +31,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Client {
     public static final int Blocking = 0;
+    public static final int Reactive = 1;
     public static final int Threaded = 2;
     private final String label = ObjectUtil.getNextObjectLabel(this.getClass());
     private final AtomicInteger users = new AtomicInteger(0);
@@ -61,6 +62,27 @@ public abstract class Client {
         return count == 0;
     }
 
+    /**
+     * Start using this client on a particular thread, unless it has been retired.
+     *
+     * @return true iff the client was obtained
+     */
+    final boolean tryObtain() {
+        for (int count = users.get(); count >= 0; count = users.get()) {
+            if (users.compareAndSet(count, count + 1)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Retire this client if no threads are using it, so that it can never be obtained again.
+     *
+     * @return true iff the client was retired by this call
+     */
+    final boolean retire() {
+        return users.compareAndSet(0, -1);
+    }
+
     final CodeConverters codeConverters() {
         return codeConverters;
     }
@@ -90,8 +112,13 @@ public abstract class Client {
 
     public void prepareForDowncall(RefCountPolicyList policies) {}
 
+    /** @return the number of requests waiting to be sent or waiting for replies on this client's connection */
+    public int queueDepth() {
+        return 0;
+    }
+
     @Override
     public String toString() {
-        return label + "[users=" + users + "]";
+        return label + "[users=" + users + ", queueDepth=" + queueDepth() + "]";
     }
 }
@@ -40,25 +40,34 @@ import org.omg.IOP.IOR;
 import org.omg.PortableServer.POAManagerPackage.AdapterInactive;
 import org.omg.PortableServer.POAManagerPackage.State;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import static java.util.Collections.synchronizedSet;
 import static org.omg.CORBA.CompletionStatus.COMPLETED_NO;
 
 public final class ClientManager {
     static final Logger logger = Logger.getLogger(ClientManager.class.getName());
-    private boolean destroyed; // True if destroy() was called
+    private volatile boolean destroyed; // True if destroy() was called
 
     private ORBInstance orbInstance;
 
-    private Set<Client> allClients = synchronizedSet(new HashSet<Client>());
+    private final Set<Client> allClients = ConcurrentHashMap.newKeySet();
 
-    private Set<Client> reusableClients = synchronizedSet(new HashSet<Client>());
+    //
+    // The reusable clients, indexed by the endpoint and code converters
+    // that GIOPClient.matches() compares
+    //
+    private final Map<ClientKey, GIOPClient> reusableClients = new ConcurrentHashMap<>();
 
     //
     // The concurrency model with which new Clients are created
@@ -123,7 +132,7 @@ public final class ClientManager {
     //
     // Get a list of ClientProfilePairs for an IOR and a list of policies
     //
-    public synchronized Vector<ClientProfilePair> getClientProfilePairs(IOR ior, Policy[] policies) {
+    public Vector<ClientProfilePair> getClientProfilePairs(IOR ior, Policy[] policies) {
         Assert.ensure(ior.type_id != null);
 
         //
@@ -146,12 +155,17 @@ public final class ClientManager {
 
 
         //
-        // Find out whether private clients are requested
+        // Find out whether private clients are requested,
+        // and how many connections reusable clients should share
         //
         boolean reuseConnections = true;
+        int connectionsPerEndpoint = 1;
         for (Policy pol : policies) {
             if (pol.policy_type() == CONNECTION_REUSE_POLICY_ID.value) {
                 reuseConnections = ConnectionReusePolicyHelper.narrow(pol).value();
+                if (reuseConnections && pol instanceof ConnectionReusePolicy_impl) {
+                    connectionsPerEndpoint = ((ConnectionReusePolicy_impl) pol).connections();
+                }
                 break;
             }
         }
@@ -211,12 +225,7 @@ public final class ClientManager {
                     allClients.add(client);
 
                     // add the information for the new client to the collection to be returned
-                    for (ProfileInfo profileInfo : client.getUsableProfiles(ior, policies)) {
-                        ClientProfilePair pair = new ClientProfilePair();
-                        pair.client = client;
-                        pair.profile = profileInfo;
-                        pairs.addElement(pair);
-                    }
+                    addPairs(pairs, client, ior, policies);
 
                     //
                     // TODO: Introduce reusable CollocatedClients?
@@ -227,101 +236,49 @@ public final class ClientManager {
         }
 
         //
-        // If connection reuse is permitted, add all existing reusable
-        // clients which are usable for the given IOR and policies
-        //
-        if (reuseConnections) {
-            for (Client reusableClient : reusableClients) {
-
-                //
-                // Skip any client whose protocol is not present in the
-                // protocol list
-                //
-                if (protocolPolicy != null) {
-                    ConnectorInfo info = reusableClient.connectorInfo();
-                    if (info != null && !protocolPolicy.contains(info.id())) {
-                        continue;
-                    }
-                }
-
-                for (ProfileInfo profileInfo : reusableClient.getUsableProfiles(ior, policies)) {
-                    ClientProfilePair pair = new ClientProfilePair();
-                    pair.client = reusableClient;
-                    pair.profile = profileInfo;
-                    pairs.addElement(pair);
-                }
-            }
-        }
-
-        //
-        // Finally, create new GIOPClients for all connectors we can get
+        // Find or create a GIOPClient for each usable profile of each
+        // connector we can get. Reusable clients are looked up by their
+        // connector and code converters, so only the clients for this
+        // IOR's endpoints are considered. A client is only created if no
+        // equivalent client exists. If several connections per endpoint are
+        // requested, there is one client for each, distinguished by its slot.
         //
-        ConFactoryRegistry conFactoryRegistry = orbInstance.getConFactoryRegistry();
-        ConFactory[] factories = conFactoryRegistry.get_factories();
-        for (ConFactory factory : factories) {
-            Connector[] connectors = factory.create_connectors(ior, policies);
-            for (Connector connector : connectors) {
-                //
-                // Skip any connector whose protocol is not present in the
-                // protocol list
-                //
-                if (protocolPolicy != null && !protocolPolicy.contains(connector.id())) {
-                    continue;
-                }
-
-                //
-                // Get all usable profiles
-                //
-                ProfileInfo[] profileInfos = connector.get_usable_profiles(ior, policies);
-//                Assert._OB_assert(profileInfos.length != 0);
-                if (profileInfos.length == 0) {
-                    continue;
-                }
-
-                //
-                // Create a new GIOPClient for each usable profile, and set
-                // the concurrency model and code converters. Filter out
-                // clients that are equivalent to other clients we already
-                // have.
-                //
-                for (ProfileInfo profileInfo: profileInfos) {
-                    CodeConverters conv = CodeSetUtil.getCodeConverters(orbInstance, profileInfo);
-
-                    Client newClient = new GIOPClient(orbInstance, connector, concModel_, conv, enableBidir);
-
-                    if (!pairs.isEmpty()) {
-                        boolean matched = false;
-
-                        for (ClientProfilePair pair : pairs) {
-                            if (pair.client.matches(newClient)) {
-                                matched = true;
-                                break;
-                            }
-                        }
-
-                        if (matched) {
-                            newClient.destroy();
-                            continue;
-                        }
-                    }
-
-                    allClients.add(newClient);
-
+        Map<ClientKey, GIOPClient> found = new LinkedHashMap<>();
+        try {
+            ConFactoryRegistry conFactoryRegistry = orbInstance.getConFactoryRegistry();
+            for (ConFactory factory : conFactoryRegistry.get_factories()) {
+                for (Connector connector : factory.create_connectors(ior, policies)) {
                     //
-                    // Add client/profile pairs
+                    // Skip any connector whose protocol is not present in the
+                    // protocol list
                     //
-                    for (ProfileInfo clientProfileInfo : newClient.getUsableProfiles(ior, policies)) {
-                        ClientProfilePair pair = new ClientProfilePair();
-                        pair.client = newClient;
-                        pair.profile = clientProfileInfo;
-                        pairs.addElement(pair);
+                    if (protocolPolicy != null && !protocolPolicy.contains(connector.id())) continue;
+
+                    for (ProfileInfo profileInfo : connector.get_usable_profiles(ior, policies)) {
+                        CodeConverters conv = CodeSetUtil.getCodeConverters(orbInstance, profileInfo);
+                        if (found.containsKey(new ClientKey(connector, conv, 0))) continue;
+
+                        List<Client> pool = new ArrayList<>(connectionsPerEndpoint);
+                        for (int slot = 0; slot < connectionsPerEndpoint; slot++) {
+                            ClientKey key = new ClientKey(connector, conv, slot);
+                            // a reusable client is obtained here so it cannot be destroyed before its pairs are
+                            GIOPClient client = reuseConnections ? obtainReusableClient(key, enableBidir) : createClient(key, enableBidir);
+                            found.put(key, client);
+                            pool.add(client);
+                        }
+                        addPairs(pairs, pool, ior, policies);
                     }
-
-                    // If no private clients have been requested, also add the
-                    // client to the list of existing reusable clients
-                    if (reuseConnections) reusableClients.add(newClient);
                 }
             }
+
+            //
+            // Increment the usage count on all clients
+            //
+            for (ClientProfilePair pair : pairs) {
+                pair.client.obtain();
+            }
+        } finally {
+            if (reuseConnections) for (GIOPClient client : found.values()) releaseClient(client);
         }
 
         //
@@ -367,37 +324,78 @@ public final class ClientManager {
         if (pairs.isEmpty()) {
             throw Transients.NO_USABLE_PROFILE_IN_IOR.create();
         }
+        return pairs;
+    }
 
-        //
-        // Increment the usage count on all clients
-        //
-        for (ClientProfilePair pair : pairs) {
-            pair.client.obtain();
+    private static void addPairs(Vector<ClientProfilePair> pairs, Client client, IOR ior, Policy[] policies) {
+        addPairs(pairs, Collections.singletonList(client), ior, policies);
+    }
+
+    //
+    // The clients in a pool connect to the same endpoint, so they share
+    // each profile. The pairs for a profile are adjacent, which lets the
+    // DowncallStub spread requests across the pool.
+    //
+    private static void addPairs(Vector<ClientProfilePair> pairs, List<Client> pool, IOR ior, Policy[] policies) {
+        for (ProfileInfo profileInfo : pool.get(0).getUsableProfiles(ior, policies)) {
+            for (Client client : pool) {
+                ClientProfilePair pair = new ClientProfilePair();
+                pair.client = client;
+                pair.profile = profileInfo;
+                pairs.addElement(pair);
+            }
         }
-        return pairs;
     }
 
-    public synchronized void releaseClient(Client client) {
+    private GIOPClient createClient(ClientKey key, boolean enableBidir) {
+        GIOPClient client = new GIOPClient(orbInstance, key.connector, concModel_, key.codeConverters, enableBidir, key.slot);
+        allClients.add(client);
+        return client;
+    }
+
+    private GIOPClient obtainReusableClient(ClientKey key, boolean enableBidir) {
+        for (;;) {
+            GIOPClient client = reusableClients.computeIfAbsent(key, k -> createClient(k, enableBidir));
+            if (client.tryObtain()) return client;
+            // the client was retired by another thread, so forget it and try again
+            reusableClients.remove(key, client);
+        }
+    }
+
+    public void releaseClient(Client client) {
         // The ORB destroys this object, so it's an initialization error
         // if this operation is called after ORB destruction
         if (destroyed) return;
-        if (client.release()) destroyClient(client);
+        // only destroy the client if no other thread obtained it meanwhile
+        if (client.release() && client.retire()) destroyClient(client);
     }
 
     /**
      * Instructs the client manager never to reuse a client or expect any further notification regarding it
      */
-    public synchronized void besmirchClient(Client client) {
+    public void besmirchClient(Client client) {
         if (logger.isLoggable(Level.FINE)) logger.fine("Client besmirched: " + client);
         destroyClient(client);
     }
 
     private void destroyClient(Client client) {
-        reusableClients.remove(client);
+        if (client instanceof GIOPClient) reusableClients.remove(ClientKey.of((GIOPClient) client), client);
         allClients.remove(client);
         client.destroy();
     }
 
+    //
+    // The number of requests waiting on the connection of each reusable
+    // client, for monitoring how requests are spread across connections
+    //
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new TreeMap<>();
+        for (GIOPClient client : reusableClients.values()) {
+            depths.merge(client.outboundConnectionKey().toString(), client.queueDepth(), Math::max);
+        }
+        return depths;
+    }
+
     public boolean equivalent(IOR ior1, IOR ior2) {
         ConFactoryRegistry conFactoryRegistry = orbInstance.getConFactoryRegistry();
 
@@ -412,4 +410,37 @@ public final class ClientManager {
     public int hash(IOR ior, int maximum) {
         return Arrays.hashCode(orbInstance.getConFactoryRegistry().get_factories());
     }
+
+    //
+    // Identifies equivalent GIOPClients, i.e. those that GIOPClient.matches()
+    // would consider the same. Connectors must hash consistently with equal().
+    //
+    private static final class ClientKey {
+        final Connector connector;
+        final CodeConverters codeConverters;
+        final int slot;
+
+        ClientKey(Connector connector, CodeConverters codeConverters, int slot) {
+            this.connector = connector;
+            this.codeConverters = codeConverters;
+            this.slot = slot;
+        }
+
+        static ClientKey of(GIOPClient client) {
+            return new ClientKey(client.connector(), client.codeConverters(), client.slot());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == this) return true;
+            if (!(other instanceof ClientKey)) return false;
+            ClientKey that = (ClientKey) other;
+            return this.slot == that.slot && this.connector.equal(that.connector) && this.codeConverters.equals(that.codeConverters);
+        }
+
+        @Override
+        public int hashCode() {
+            return (connector.hashCode() * 31 + codeConverters.hashCode()) * 31 + slot;
+        }
+    }
 }
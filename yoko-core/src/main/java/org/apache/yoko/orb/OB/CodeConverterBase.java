@@ -24,6 +24,7 @@ import org.omg.CORBA.DATA_CONVERSION;
 
 import java.util.Objects;
 
+import static org.apache.yoko.orb.OB.CharMapInfo.CM_IDENTITY;
 import static org.apache.yoko.orb.OB.CodeSetInfo.UTF_16;
 import static org.apache.yoko.orb.OB.CodeSetInfo.UTF_8;
 
@@ -116,6 +117,20 @@ abstract public class CodeConverterBase {
         return (destinationCodeSet == UTF_8) || (destinationCodeSet == UTF_16);
     }
 
+    /** Whether convert() leaves every char unchanged */
+    final public boolean isIdentity() {
+        return sourceCodeSet.charMap == CM_IDENTITY && destinationCodeSet.charMap == CM_IDENTITY;
+    }
+
+    /** Whether each 7-bit char is transmitted unchanged as a single byte, so runs of them can be copied in bulk */
+    final public boolean isAsciiTransparent() {
+        return isIdentity() && isSingleByteAscii(sourceCodeSet) && isSingleByteAscii(destinationCodeSet);
+    }
+
+    private static boolean isSingleByteAscii(CodeSetInfo codeSet) {
+        return codeSet == UTF_8 || codeSet.max_bytes == 1;
+    }
+
     final public CodeSetInfo getSourceCodeSet() {
         return sourceCodeSet;
     }
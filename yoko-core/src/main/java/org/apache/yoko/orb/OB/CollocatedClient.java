@@ -144,6 +144,14 @@ final public class CollocatedClient extends Client implements DowncallEmitter {
         return server_.sendReceive(down);
     }
 
+    //
+    // A collocated request is handed straight to the server's dispatcher,
+    // which will complete it, so it cannot be abandoned
+    //
+    public boolean abandon(Downcall down) {
+        return false;
+    }
+
     public ServiceContexts getAMIRouterContexts() {
         return null;
     }
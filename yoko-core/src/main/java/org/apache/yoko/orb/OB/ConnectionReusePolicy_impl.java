@@ -24,6 +24,8 @@ final public class ConnectionReusePolicy_impl extends org.omg.CORBA.LocalObject
         implements ConnectionReusePolicy {
     private boolean value_;
 
+    private int connections_;
+
     // ------------------------------------------------------------------
     // Standard IDL to Java Mapping
     // ------------------------------------------------------------------
@@ -49,6 +51,19 @@ final public class ConnectionReusePolicy_impl extends org.omg.CORBA.LocalObject
     // ------------------------------------------------------------------
 
     public ConnectionReusePolicy_impl(boolean r) {
+        this(r, 1);
+    }
+
+    public ConnectionReusePolicy_impl(boolean r, int connections) {
         value_ = r;
+        connections_ = connections;
+    }
+
+    //
+    // The number of connections to open to each endpoint when
+    // connections are reused. Requests are spread across them.
+    //
+    public int connections() {
+        return connections_;
     }
 }
@@ -111,6 +111,22 @@ public interface DispatchStrategyFactoryOperations
     DispatchStrategy
     create_thread_per_request_strategy();
 
+    //
+    // IDL:orb.yoko.apache.org/OB/DispatchStrategyFactory/create_virtual_thread_strategy:1.0
+    //
+    /**
+     *
+     * Create a dispatch strategy that invokes each request on a new
+     * virtual thread. Where the JVM does not support virtual threads,
+     * a new platform thread is used for each request instead.
+     *
+     * @return A dispatch strategy
+     *
+     **/
+
+    DispatchStrategy
+    create_virtual_thread_strategy();
+
     //
     // IDL:orb.yoko.apache.org/OB/DispatchStrategyFactory/create_default_dispatch_strategy:1.0
     //
@@ -18,12 +18,15 @@
 package org.apache.yoko.orb.OB;
  
 import org.apache.yoko.util.Assert;
+import org.apache.yoko.util.concurrent.VirtualThreads;
 import org.omg.CORBA.Any;
 import org.omg.CORBA.INITIALIZE;
 import org.omg.CORBA.LocalObject;
 
 import java.util.Properties;
 import java.util.Vector;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static org.apache.yoko.util.MinorCodes.*;
@@ -95,6 +98,37 @@ final class DispatchThreadPerRequest_impl extends LocalObject implements Dispatc
     }
 }
 
+// ----------------------------------------------------------------------
+// DispatchVirtualThread_impl
+// ----------------------------------------------------------------------
+
+final class DispatchVirtualThread_impl extends LocalObject implements DispatchStrategy {
+    // virtual threads where the JVM supports them, otherwise platform threads
+    private static final ThreadFactory FACTORY = VirtualThreads.newThreadFactory("Yoko:VirtualThread:Dispatcher:");
+
+    DispatchVirtualThread_impl() {
+    }
+
+    // ------------------------------------------------------------------
+    // Standard IDL to Java Mapping
+    // ------------------------------------------------------------------
+    public int id() {
+        return VIRTUAL_THREAD.value;
+    }
+
+    public Any info() {
+        return new org.apache.yoko.orb.CORBA.Any();
+    }
+
+    public void dispatch(DispatchRequest request) {
+        try {
+            FACTORY.newThread(request::invoke).start();
+        } catch (OutOfMemoryError e) {
+            throw new org.omg.CORBA.TRANSIENT();
+        }
+    }
+}
+
 // ----------------------------------------------------------------------
 // DispatchThreadPool_impl
 // ----------------------------------------------------------------------
@@ -192,13 +226,26 @@ public final class DispatchStrategyFactory_impl extends LocalObject implements D
         }
 
         //
-        // Allocate a new ThreadPool
+        // Allocate a new ThreadPool, which may grow beyond nthreads
+        // and limit its queue if so configured
         //
-        pools_.setElementAt(new ThreadPool(i, nthreads), i);
+        Properties properties = orbInstance_ == null ? new Properties() : orbInstance_.getProperties();
+        int maxThreads = intProperty(properties, "yoko.orb.oa.thread_pool.max", nthreads);
+        int keepAlive = intProperty(properties, "yoko.orb.oa.thread_pool.keep_alive", 60);
+        int maxQueued = intProperty(properties, "yoko.orb.oa.thread_pool.max_queued", 0);
+        pools_.setElementAt(new ThreadPool(i, nthreads, maxThreads, keepAlive, maxQueued), i);
 
         return i;
     }
 
+    //
+    // Read an integer property, which ORB.init has already checked
+    //
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
     public synchronized void destroy_thread_pool(int id)
             throws InvalidThreadPool {
         //
@@ -263,6 +310,17 @@ public final class DispatchStrategyFactory_impl extends LocalObject implements D
         return new DispatchThreadPerRequest_impl();
     }
 
+    public synchronized DispatchStrategy create_virtual_thread_strategy() {
+        //
+        // The ORB destroys this object, so it's an initialization error
+        // if this operation is called after ORB destruction
+        //
+        if (destroy_) {
+            throw new INITIALIZE(describeInitialize(MinorORBDestroyed), MinorORBDestroyed, COMPLETED_NO);
+        }
+        return new DispatchVirtualThread_impl();
+    }
+
     public synchronized DispatchStrategy create_default_dispatch_strategy() {
         //
         // The ORB destroys this object, so it's an initialization error
@@ -288,11 +346,15 @@ public final class DispatchStrategyFactory_impl extends LocalObject implements D
             switch (value) {
                 case "threaded":
                 case "thread_per_client":
+                case "reactive":
                     logger.fine("Using same thread dispatch strategy");
                     return create_same_thread_strategy();
                 case "thread_per_request":
                     logger.fine("Using thread per request dispatch strategy");
                     return create_thread_per_request_strategy();
+                case "virtual_threads":
+                    logger.fine("Using virtual thread dispatch strategy");
+                    return create_virtual_thread_strategy();
                 case "thread_pool":
                     //
                     // If there is no default thread pool yet then create one,
@@ -85,6 +85,9 @@ public class Downcall {
 
     private Condition stateWaitCondition;
 
+    /** The action to run when this downcall completes, if any */
+    private volatile Runnable completionListener;
+
     //
     // Holds the exception if state_ is DowncallStateUserException,
     // DowncallStateSystemException, or DowncallStateFailureException
@@ -324,6 +327,15 @@ public class Downcall {
             checkForException();
     }
 
+    //
+    // Stop waiting for the reply to a deferred request, completing this
+    // downcall with the given exception, unless it has already completed
+    // or cannot be abandoned. A reply that arrives later is discarded.
+    //
+    public final void abandon(SystemException ex) {
+        if (emitter_.abandon(this)) setSystemException(ex);
+    }
+
     public final void response() throws LocationForward, FailureException {
         Assert.ensure(responseExpected_);
 
@@ -433,6 +445,7 @@ public class Downcall {
             }
             if (null != stateWaitCondition) stateWaitCondition.signalAll();
         }
+        fireCompletion();
     }
 
     public final void setUserException(InputStream in) {
@@ -446,6 +459,7 @@ public class Downcall {
             in_._OB_codeConverters(codeConverters, GiopVersion.get(profileInfo_.major, profileInfo_.minor));
             if (null != stateWaitCondition) stateWaitCondition.signalAll();
         }
+        fireCompletion();
     }
 
     public void setUserException(UserException ex, String exId) {
@@ -456,6 +470,7 @@ public class Downcall {
             ex_ = ex;
             if (null != stateWaitCondition) stateWaitCondition.signalAll();
         }
+        fireCompletion();
     }
 
     public final void setUserException(UserException ex) {
@@ -466,6 +481,7 @@ public class Downcall {
             ex_ = ex;
             if (null != stateWaitCondition) stateWaitCondition.signalAll();
         }
+        fireCompletion();
     }
 
     public final void setUserException(String exId) {
@@ -477,6 +493,7 @@ public class Downcall {
             logger_.fine("Received user exception " + exId);
             if (null != stateWaitCondition) stateWaitCondition.signalAll();
         }
+        fireCompletion();
     }
 
     public final void setSystemException(SystemException ex) {
@@ -488,6 +505,7 @@ public class Downcall {
             logger_.log(Level.FINE, "Received system exception", ex);
             if (null != stateWaitCondition) stateWaitCondition.signalAll();
         }
+        fireCompletion();
     }
 
     final void notifyStaleConnection() {
@@ -504,6 +522,7 @@ public class Downcall {
             logger_.log(Level.FINE, "Received failure exception", ex);
             if (null != stateWaitCondition) stateWaitCondition.signalAll();
         }
+        fireCompletion();
     }
 
     public final void setLocationForward(IOR ior, boolean perm) {
@@ -515,6 +534,7 @@ public class Downcall {
             if (null != stateWaitCondition) stateWaitCondition.signalAll();
         }
         Assert.ensure(responseExpected_);
+        fireCompletion();
     }
 
     //
@@ -529,6 +549,37 @@ public class Downcall {
         }
     }
 
+    //
+    // Run the given action once this downcall has completed, on the
+    // thread that completes it, or at once if it already has. This is
+    // an alternative to the waitUntil...() operations below, for
+    // callers that must not block. At most one action may be set.
+    //
+    public final void whenCompleted(Runnable listener) {
+        try (AutoLock lock = stateLock.getWriteLock()) {
+            Assert.ensure(completionListener == null);
+            if (state == State.UNSENT || state == State.PENDING) {
+                completionListener = listener;
+                return;
+            }
+            if (ex_ instanceof UnresolvedException) ex_ = ((UnresolvedException)ex_).resolve();
+        }
+        listener.run();
+    }
+
+    private void fireCompletion() {
+        // most downcalls are waited for, so avoid locking in that case
+        if (completionListener == null) return;
+        final Runnable listener;
+        try (AutoLock lock = stateLock.getWriteLock()) {
+            listener = completionListener;
+            if (listener == null) return;
+            completionListener = null;
+            if (ex_ instanceof UnresolvedException) ex_ = ((UnresolvedException)ex_).resolve();
+        }
+        listener.run();
+    }
+
     /**
      * This operation try waits for a completed state, using the
      * timeout from this downcall's policies.
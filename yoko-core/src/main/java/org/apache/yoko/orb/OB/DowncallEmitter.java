@@ -41,4 +41,12 @@ public interface DowncallEmitter {
     // reasons)
     //
     boolean sendReceive(Downcall down);
+
+    //
+    // Stop waiting for the reply to a downcall that has been sent
+    // without blocking. If the return value is true, the downcall
+    // was still pending, no reply will be given to it, and the
+    // caller must complete it.
+    //
+    boolean abandon(Downcall down);
 }
@@ -70,13 +70,21 @@ import org.omg.Messaging.PolicyValueSeqHelper;
 import org.omg.Messaging.PolicyValueSeqHolder;
 import org.omg.Messaging.ReplyHandler;
 
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.apache.yoko.io.AlignmentBoundary.EIGHT_BYTE_BOUNDARY;
 import static org.apache.yoko.orb.OCI.GiopVersion.GIOP1_2;
 import static org.apache.yoko.orb.logging.VerboseLogging.RETRY_LOG;
+import static org.omg.CORBA.CompletionStatus.COMPLETED_MAYBE;
 import static org.omg.CORBA.CompletionStatus.COMPLETED_NO;
 
 //
@@ -102,9 +110,11 @@ public final class DowncallStub {
     private RefCountPolicyList policies_;
 
     //
-    // All client/profile pairs
+    // All client/profile pairs. The list is never modified: a failed
+    // pair is removed by replacing the whole list, so that concurrent
+    // invocations can read it without locking. Null until first used.
     //
-    private Vector<ClientProfilePair> clientProfilePairs_;
+    private final AtomicReference<List<ClientProfilePair>> clientProfilePairs_ = new AtomicReference<>();
 
     //
     // We need a class to carry the DowncallStub and Downcall across
@@ -120,46 +130,91 @@ public final class DowncallStub {
     // Private and protected member implementations
     // ------------------------------------------------------------------
 
-    private synchronized Client getClientProfilePair(ProfileInfoHolder profileInfo)
+    private Client getClientProfilePair(ProfileInfoHolder profileInfo)
             throws FailureException {
-        //
-        // Lazy initialization of the client/profile pairs
-        //
-        if (clientProfilePairs_ == null) {
-            //
-            // Get all clients that can be used
-            //
-            ClientManager clientManager = orbInstance_.getClientManager();
-            clientProfilePairs_ = clientManager.getClientProfilePairs(IOR_, policies_.value);
-        }
+        List<ClientProfilePair> pairs = clientProfilePairs_.get();
+        if (pairs == null) pairs = initClientProfilePairs();
 
         //
         // If we can't get any client/profile pairs, set and raise the
         // failure exception, and let the stub handle this.
         //
-        if (clientProfilePairs_.isEmpty()) {
+        if (pairs.isEmpty()) {
             RETRY_LOG.fine("No profiles available");
             throw new FailureException(Transients.NO_USABLE_PROFILE_IN_IOR.create());
         }
 
-        ClientProfilePair clientProfilePair = (ClientProfilePair) clientProfilePairs_.elementAt(0);
+        ClientProfilePair clientProfilePair = pairs.get(0);
+        if (pairs.size() > 1 && pairs.get(1).profile == clientProfilePair.profile) {
+            clientProfilePair = leastBusy(pairs);
+        }
         profileInfo.value = clientProfilePair.profile;
         return clientProfilePair.client;
     }
 
+    //
+    // Pooled clients for the same endpoint share the first profile:
+    // pick the one whose connection has the fewest requests outstanding
+    //
+    private static ClientProfilePair leastBusy(List<ClientProfilePair> pairs) {
+        ClientProfilePair best = pairs.get(0);
+        int bestDepth = best.client.queueDepth();
+        for (int i = 1; i < pairs.size() && bestDepth > 0; i++) {
+            ClientProfilePair pair = pairs.get(i);
+            if (pair.profile != best.profile) break;
+            int depth = pair.client.queueDepth();
+            if (depth < bestDepth) {
+                best = pair;
+                bestDepth = depth;
+            }
+        }
+        if (logger.isLoggable(Level.FINEST)) logger.finest("Using " + best.client);
+        return best;
+    }
+
+    //
+    // Lazy initialization of the client/profile pairs. This is
+    // synchronized so the clients are only obtained once.
+    //
+    private synchronized List<ClientProfilePair> initClientProfilePairs() {
+        List<ClientProfilePair> pairs = clientProfilePairs_.get();
+        if (pairs == null) {
+            //
+            // Get all clients that can be used
+            //
+            ClientManager clientManager = orbInstance_.getClientManager();
+            pairs = unmodifiableList(new ArrayList<>(clientManager.getClientProfilePairs(IOR_, policies_.value)));
+            clientProfilePairs_.set(pairs);
+        }
+        return pairs;
+    }
+
+    //
+    // Remove a client/profile pair, returning false if another
+    // thread removed it first
+    //
+    private boolean removeClientProfilePair(Client client, ProfileInfo profile) {
+        while (true) {
+            List<ClientProfilePair> pairs = clientProfilePairs_.get();
+            List<ClientProfilePair> remaining = new ArrayList<>(pairs);
+            if (!remaining.removeIf(pair -> pair.client == client && pair.profile == profile)) return false;
+            if (clientProfilePairs_.compareAndSet(pairs, unmodifiableList(remaining))) return true;
+        }
+    }
+
     private void destroy() {
+        List<ClientProfilePair> pairs = clientProfilePairs_.getAndSet(emptyList());
+
         //
         // If the ORB has been destroyed then the clientManager can be nil
         //
         ClientManager clientManager = orbInstance_.getClientManager();
 
-        if (clientManager != null && clientProfilePairs_ != null) {
-            for (ClientProfilePair pair: clientProfilePairs_) {
+        if (clientManager != null && pairs != null) {
+            for (ClientProfilePair pair: pairs) {
                 clientManager.releaseClient(pair.client);
             }
         }
-
-        clientProfilePairs_.removeAllElements();
     }
 
     protected void finalize() throws Throwable {
@@ -173,8 +228,6 @@ public final class DowncallStub {
     // ------------------------------------------------------------------
 
     public DowncallStub(ORBInstance orbInstance, IOR ior, IOR origIOR, RefCountPolicyList policies) {
-        clientProfilePairs_ = null;
-
         //
         // Save the ORBInstance object
         //
@@ -339,7 +392,7 @@ public final class DowncallStub {
     //
     // Handle a FailureException
     //
-    public synchronized void handleFailureException(Downcall down, FailureException ex) throws FailureException {
+    public void handleFailureException(Downcall down, FailureException ex) throws FailureException {
         //
         // Only called if there is really a failure
         //
@@ -363,12 +416,8 @@ public final class DowncallStub {
                             MinorCodes.MinorShutdownCalled,
                             COMPLETED_NO);
 
-        for (ClientProfilePair pair : clientProfilePairs_) {
-            if (pair.client == client && pair.profile == profile) {
-                clientManager.releaseClient(pair.client);
-                clientProfilePairs_.remove(pair);
-                break;
-            }
+        if (removeClientProfilePair(client, profile)) {
+            clientManager.releaseClient(client);
         }
 
         //
@@ -395,7 +444,7 @@ public final class DowncallStub {
         //
         // If no client/profile pairs are left, we cannot retry either
         //
-        if (clientProfilePairs_.isEmpty()) {
+        if (clientProfilePairs_.get().isEmpty()) {
             logger.log(Level.FINE, "no profiles left to try", ex.exception);
             throw ex;
         }
@@ -667,6 +716,116 @@ public final class DowncallStub {
         throw new RemarshalException();
     }
 
+    //
+    // Send a request from a portable stub without waiting for the reply.
+    // The returned future is completed by the thread that receives the
+    // reply: with the reply stream, or exceptionally with an
+    // ApplicationException, a SystemException, or with a
+    // RemarshalException, LocationForward or FailureException if the
+    // request must be sent again. Failures detected while sending are
+    // thrown instead.
+    //
+    // If the request timeout policies expire first, the future completes
+    // with NO_RESPONSE. If it is cancelled, the connection stops waiting
+    // for the reply.
+    //
+    public CompletableFuture<InputStream> invokeAsync(
+            org.apache.yoko.orb.CORBA.OutputStream out)
+            throws RemarshalException, LocationForward, FailureException {
+        InvocationContext ctx = (InvocationContext) out._OB_invocationContext();
+        Assert.ensure(ctx != null);
+
+        //
+        // If the DowncallStub has changed, then remarshal
+        //
+        if (ctx.downcallStub != this) {
+            throw new RemarshalException();
+        }
+
+        final Downcall down = ctx.downcall;
+        Assert.ensure(down.responseExpected());
+        final CompletableFuture<InputStream> result = new CompletableFuture<>();
+        final PIManager piManager = orbInstance_.getPIManager();
+
+        try {
+            down.postMarshal();
+            //
+            // The interceptors' per-thread state for this request must
+            // be in place when the reply is intercepted
+            //
+            final Object[] requestState = piManager.saveClientThreadState();
+            down.deferred();
+            down.whenCompleted(() -> {
+                final Object[] threadState = piManager.saveClientThreadState();
+                piManager.restoreClientThreadState(requestState);
+                try {
+                    complete(down, result);
+                } finally {
+                    piManager.restoreClientThreadState(threadState);
+                }
+            });
+            //
+            // Stop waiting for the reply when the caller gives up,
+            // or the request times out
+            //
+            result.whenComplete((in, ex) -> {
+                if (result.isCancelled()) down.abandon(new NO_RESPONSE("Request cancelled", 0, COMPLETED_MAYBE));
+            });
+            final long timeout = asyncTimeout(down.policies());
+            if (timeout > 0 && !result.isDone()) {
+                final ScheduledFuture<?> expiry = orbInstance_.getTimer().schedule(
+                        () -> down.abandon(new NO_RESPONSE("Timeout during receive", 0, COMPLETED_MAYBE)), timeout, MILLISECONDS);
+                result.whenComplete((in, ex) -> expiry.cancel(false));
+            }
+        } catch (FailureException ex) {
+            handleFailureException(down, ex);
+            throw new RemarshalException();
+        }
+        return result;
+    }
+
+    //
+    // The time in milliseconds to wait for the reply to an asynchronous
+    // request, or zero to wait indefinitely
+    //
+    private static long asyncTimeout(RefCountPolicyList policies) {
+        long timeout = Math.max(policies.requestTimeout, 0);
+        // the round trip timeout is in units of 100 nanoseconds
+        long roundTrip = (policies.relativeRoundTripTimeout + 9999) / 10000;
+        if (roundTrip > 0 && (timeout == 0 || roundTrip < timeout)) timeout = roundTrip;
+        return timeout;
+    }
+
+    private void complete(Downcall down, CompletableFuture<InputStream> result) {
+        try {
+            down.checkForException();
+            InputStream in = down.preUnmarshal();
+            if (down.userException()) {
+                String id = null;
+                try {
+                    id = down.unmarshalExceptionId();
+                } catch (SystemException ex) {
+                    down.unmarshalEx(ex);
+                }
+                down.setUserException(id);
+                down.postUnmarshal();
+                result.completeExceptionally(new ApplicationException(id, in));
+            } else {
+                down.postUnmarshal();
+                result.complete(in);
+            }
+        } catch (FailureException ex) {
+            try {
+                handleFailureException(down, ex);
+                result.completeExceptionally(new RemarshalException());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        } catch (Exception ex) {
+            result.completeExceptionally(ex);
+        }
+    }
+
     public org.omg.CORBA.Object getAMIPollTarget() {
         //
         // Since we don't have access to the IOR information in the
@@ -26,6 +26,7 @@ import org.apache.yoko.orb.OCI.Connector;
 import org.apache.yoko.orb.OCI.ConnectorInfo;
 import org.apache.yoko.orb.OCI.GiopVersion;
 import org.apache.yoko.orb.OCI.ProfileInfo;
+import org.apache.yoko.orb.OCI.ReactiveTransport;
 import org.apache.yoko.orb.OCI.SendReceiveMode;
 import org.apache.yoko.orb.OCI.Transport;
 import org.apache.yoko.orb.OCI.TransportInfo;
@@ -66,15 +67,18 @@ final class GIOPClient extends Client {
 
     @Override
     public String toString() {
-        return super.toString() + " to " + connector_.get_info() + " -- " + connection_;
+        return super.toString() + " to " + outboundConnectionKey() + " -- " + connection_;
     }
 
     protected ORBInstance orbInstance_;
 
     protected final Connector connector_;
 
+    /** Which of the connections pooled for the connector's endpoint to use */
+    private final int slot;
+
     /** A lazily final field pointing (eventually) to the single connection for the lifetime of this object */
-    private GIOPConnection connection_;
+    private volatile GIOPConnection connection_;
     /** The connection cache reference to release on destroy().  */
     private Reference<GIOPConnection> connectionRef;
 
@@ -138,16 +142,16 @@ final class GIOPClient extends Client {
     }
 
     private synchronized void reuseOrCreateOutboundConnection(boolean create, final int timeout) {
-        Cache<ConnectorInfo, GIOPConnection> connCache = orbInstance_.getOutboundConnectionCache();
+        Cache<OutboundConnectionKey, GIOPConnection> connCache = orbInstance_.getOutboundConnectionCache();
         if (create) {
-            connectionRef = connCache.getOrCreate(connector_.get_info(), new Factory<GIOPConnection>() {
+            connectionRef = connCache.getOrCreate(outboundConnectionKey(), new Factory<GIOPConnection>() {
                 @Override
                 public GIOPConnection create() {
                     return createOutboundConnection(timeout);
                 }
             });
         } else {
-            connectionRef = connCache.get(connector_.get_info());
+            connectionRef = connCache.get(outboundConnectionKey());
         }
         connCache.clean();
         connection_ = connectionRef.get();
@@ -175,7 +179,7 @@ final class GIOPClient extends Client {
         if (CONN_OUT_LOG.isLoggable(FINE)) CONN_OUT_LOG.fine("reusing established bidir connection\n" + connection_.transport());
     }
 
-    private GIOPConnectionThreaded createOutboundConnection(int t) {
+    private GIOPConnection createOutboundConnection(int t) {
         // Trace connection attempt
         if (CONN_OUT_LOG.isLoggable(FINE)) {
             String timeout = t >= 0 ? t + "ms" : "none";
@@ -210,7 +214,9 @@ final class GIOPClient extends Client {
         //
         // Create new worker
         //
-        Assert.ensure(concurrencyModel == Threaded);
+        Assert.ensure(concurrencyModel == Threaded || concurrencyModel == Reactive);
+        if (concurrencyModel == Reactive && transport instanceof ReactiveTransport)
+            return new GIOPConnectionReactive(orbInstance_, (ReactiveTransport) transport, this);
         return new GIOPConnectionThreaded(orbInstance_, transport, this);
     }
 
@@ -259,10 +265,11 @@ final class GIOPClient extends Client {
 
     GIOPClient(ORBInstance orbInstance,
                Connector connector, int concModel,
-               CodeConverters conv, boolean bidirEnable) {
+               CodeConverters conv, boolean bidirEnable, int slot) {
         super(concModel, conv);
         orbInstance_ = orbInstance;
         connector_ = connector;
+        this.slot = slot;
         connection_ = null;
         destroy_ = false;
         bidirWorker_ = bidirEnable;
@@ -302,6 +309,24 @@ final class GIOPClient extends Client {
         return profileInfos.toArray(new ProfileInfo[profileInfos.size()]);
     }
 
+    Connector connector() {
+        return connector_;
+    }
+
+    int slot() {
+        return slot;
+    }
+
+    OutboundConnectionKey outboundConnectionKey() {
+        return new OutboundConnectionKey(connector_.get_info(), slot);
+    }
+
+    @Override
+    public int queueDepth() {
+        GIOPConnection connection = connection_;
+        return connection == null ? 0 : connection.queueDepth();
+    }
+
     /** Get the OCI Connector info */
     public ConnectorInfo connectorInfo() {
         return connector_.get_info();
@@ -386,7 +411,7 @@ final class GIOPClient extends Client {
         if (!!!(other instanceof GIOPClient)) return false;
         GIOPClient that = (GIOPClient) other;
 
-        return this.connector_.equal(that.connector_) && this.codeConverters().equals(that.codeConverters());
+        return this.slot == that.slot && this.connector_.equal(that.connector_) && this.codeConverters().equals(that.codeConverters());
     }
 
     /** Force connection establishment */
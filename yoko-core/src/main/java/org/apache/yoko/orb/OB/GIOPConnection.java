@@ -23,27 +23,32 @@ import org.apache.yoko.orb.IOP.ServiceContexts;
 import org.apache.yoko.orb.OBPortableServer.POAManagerFactory;
 import org.apache.yoko.orb.OBPortableServer.POAManager_impl;
 import org.apache.yoko.io.Buffer;
-import org.apache.yoko.orb.OCI.ConnectorInfo;
+import org.apache.yoko.io.SimplyCloseable;
 import org.apache.yoko.orb.OCI.GiopVersion;
 import org.apache.yoko.orb.OCI.ProfileInfo;
 import org.apache.yoko.io.ReadBuffer;
 import org.apache.yoko.orb.OCI.SendReceiveMode;
 import org.apache.yoko.orb.OCI.Transport;
 import org.apache.yoko.orb.exceptions.Transients;
+import org.apache.yoko.rmi.util.ObjectUtil;
 import org.apache.yoko.util.Assert;
 import org.omg.CONV_FRAME.CodeSetContext;
 import org.omg.CORBA.BooleanHolder;
 import org.omg.CORBA.COMM_FAILURE;
+import org.omg.CORBA.IMP_LIMIT;
+import org.omg.CORBA.NO_RESPONSE;
 import org.omg.CORBA.NO_IMPLEMENT;
 import org.omg.CORBA.OBJECT_NOT_EXIST;
 import org.omg.CORBA.StringHolder;
 import org.omg.CORBA.SystemException;
 import org.omg.CORBA.SystemExceptionHelper;
+import org.omg.CORBA.TRANSIENT;
 import org.omg.CORBA.UNKNOWN;
 import org.omg.CORBA.UserException;
 import org.omg.GIOP.KeyAddr;
 import org.omg.GIOP.LocateStatusType_1_2;
 import org.omg.GIOP.LocateStatusType_1_2Holder;
+import org.omg.GIOP.MsgType_1_1;
 import org.omg.GIOP.ReplyStatusType_1_2;
 import org.omg.GIOP.ReplyStatusType_1_2Holder;
 import org.omg.GIOP.TargetAddressHolder;
@@ -59,23 +64,34 @@ import org.omg.SendingContext.CodeBase;
 import java.util.Properties;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static java.lang.String.format;
 import static java.util.logging.Level.FINE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.logging.Level.FINER;
+import static org.apache.yoko.orb.OB.Connection.Access.WRITE;
 import static org.apache.yoko.orb.OB.Connection.State.ACTIVE;
 import static org.apache.yoko.orb.OB.Connection.State.CLOSED;
 import static org.apache.yoko.orb.OB.Connection.State.CLOSING;
 import static org.apache.yoko.orb.OB.Connection.State.ERROR;
 import static org.apache.yoko.orb.OB.Connection.State.HOLDING;
+import static org.apache.yoko.orb.OB.Connection.State.STALE;
+import static org.apache.yoko.orb.OCI.SendReceiveMode.ReceiveOnly;
 import static org.apache.yoko.util.MinorCodes.MinorMessageError;
 import static org.apache.yoko.util.MinorCodes.MinorNotSupportedByLocalObject;
+import static org.apache.yoko.util.MinorCodes.MinorSend;
+import static org.apache.yoko.util.MinorCodes.MinorThreadLimit;
 import static org.apache.yoko.util.MinorCodes.MinorUnknownMessage;
 import static org.apache.yoko.util.MinorCodes.MinorUnknownReplyMessage;
 import static org.apache.yoko.util.MinorCodes.MinorUnknownReqId;
 import static org.apache.yoko.util.MinorCodes.MinorWrongMessage;
 import static org.apache.yoko.util.MinorCodes.describeCommFailure;
+import static org.apache.yoko.util.MinorCodes.describeImpLimit;
 import static org.apache.yoko.util.MinorCodes.describeNoImplement;
 import static org.apache.yoko.orb.logging.VerboseLogging.CONN_IN_LOG;
 import static org.apache.yoko.orb.logging.VerboseLogging.CONN_LOG;
@@ -116,7 +132,7 @@ abstract class GIOPConnection extends Connection implements DowncallEmitter, Upc
     Transport transport_ = null;
 
     /** Client parent (null if server-side only) */
-    private final ConnectorInfo outboundConnectionKey;
+    private final OutboundConnectionKey outboundConnectionKey;
 
     /** Object-adapter interface (null if client-side only) */
     private OAInterface oaInterface_ = null;
@@ -362,6 +378,11 @@ abstract class GIOPConnection extends Connection implements DowncallEmitter, Upc
 
         Downcall down = messageQueue_.findAndRemovePending(reqId);
         if (down == null) {
+            // The caller may have stopped waiting for this reply
+            if (messageQueue_.removeAbandoned(reqId)) {
+                if (REQ_OUT_LOG.isLoggable(FINE)) REQ_OUT_LOG.fine("Discarding reply for abandoned reqId=" + reqId);
+                return;
+            }
             // Request id is unknown
             processException(ERROR, new COMM_FAILURE(describeCommFailure(MinorUnknownReqId) + ": " + reqId, MinorUnknownReqId, COMPLETED_MAYBE), false);
             return;
@@ -683,6 +704,445 @@ abstract class GIOPConnection extends Connection implements DowncallEmitter, Upc
         }
     }
 
+    private final class Shutdown implements Runnable {
+
+        public void run() {
+            try {
+                execShutdown();
+            } catch (RuntimeException ex) {
+                throw Assert.fail(ex);
+            }
+        }
+    }
+
+    private static final class SendMutex{}
+
+    final SendMutex sendMutex = new SendMutex();
+    private boolean shuttingDown;
+
+    // abortive shutdown method from GIOPConnection
+    void abortiveShutdown() {
+        // disable any ACM timeouts now
+        ACM_disableIdleMonitor();
+
+        // The transport must be able to send in order to send the error
+        // message...
+        if (transport_.mode() != ReceiveOnly) {
+            try {
+                // Send a MessageError message
+                try (OutputStream out = new OutputStream(12)) {
+
+                    ProfileInfo profileInfo = new ProfileInfo();
+
+                    synchronized (this) {
+                        profileInfo.major = giopVersion_.major;
+                        profileInfo.minor = giopVersion_.minor;
+                    }
+
+                    GIOPOutgoingMessage outgoing = new GIOPOutgoingMessage(orbInstance_, out, profileInfo);
+
+                    outgoing.writeMessageHeader(MsgType_1_1.MessageError, false, 0);
+                    out.setPosition(0);
+
+                    synchronized (sendMutex) {
+                        final ReadBuffer readBuffer = out.getBufferReader();
+                        transport_.send(readBuffer, true);
+                        Assert.ensure(readBuffer.isComplete());
+                    }
+                }
+            } catch (SystemException ex) {
+                processException(CLOSED, ex, false);
+                return;
+            }
+        }
+
+        // If we are in StateError, we don't go through all the hula hoop
+        // with continuing to receive messages until the peer
+        // closes. Instead, we just close the connection, meaning that we
+        // can't be 100% sure that the peer gets the last message.
+        processException(CLOSED, Transients.FORCED_SHUTDOWN.create(), false);
+        arrive();
+
+    }
+
+    // graceful shutdown method
+    synchronized void gracefulShutdown() {
+        // disable any ACM idle timeouts now
+        ACM_disableIdleMonitor();
+
+        // don't shutdown if there are pending upcalls
+        if (upcallsInProgress_ > 0 || getState() != CLOSING) {
+            CONN_IN_LOG.info("pending upcalls: " + upcallsInProgress_ + " state: " + getState());
+            return;
+        }
+
+        // send a CloseConnection if we can
+        if (canSendCloseConnection()) {
+            try (OutputStream out = new OutputStream(12)) {
+
+                ProfileInfo profileInfo = new ProfileInfo();
+                profileInfo.major = giopVersion_.major;
+                profileInfo.minor = giopVersion_.minor;
+
+                GIOPOutgoingMessage outgoing = new GIOPOutgoingMessage(orbInstance_, out, profileInfo);
+                outgoing.writeMessageHeader(MsgType_1_1.CloseConnection, false, 0);
+
+                messageQueue_.add(orbInstance_, out.getBufferReader());
+            }
+        } else {
+            CONN_IN_LOG.fine("could not send close connection message");
+        }
+
+        // now create the shutdown thread
+        try {
+            if (shuttingDown)
+                return;
+
+            shuttingDown = true;
+            // start the shutdown thread
+            try {
+                getExecutor().submit(new Shutdown());
+            } catch (RejectedExecutionException ree) {
+                CONN_IN_LOG.log(Level.WARNING, "Could not submit shutdown task", ree);
+            }
+        } catch (OutOfMemoryError ex) {
+            processException(CLOSED, new IMP_LIMIT(describeImpLimit(MinorThreadLimit), MinorThreadLimit, COMPLETED_NO), false);
+        } finally {
+            arrive();
+        }
+    }
+
+    private void arrive() {
+        if (this.isOutbound())
+            orbInstance_.getClientPhaser().arriveAndDeregister();
+        else
+            orbInstance_.getServerPhaser().arriveAndDeregister();
+    }
+
+    final ExecutorService getExecutor() {
+        if (this.isOutbound())
+            return orbInstance_.getClientExecutor();
+        else
+            return orbInstance_.getServerExecutor();
+    }
+
+    // called from the shutdown thread to initiate shutdown
+    private void execShutdown() {
+        if (canSendCloseConnection() && transport_.mode() != ReceiveOnly) {
+            try {
+                synchronized (this) {
+                    while (messageQueue_.hasUnsent()) {
+                        // It's possible the CloseConnection message got sent via another means.
+                        ReadBuffer readBuffer = messageQueue_.getFirstUnsentBuffer();
+                        if (readBuffer != null) {
+                            synchronized (sendMutex) {
+                                transport_.send(readBuffer, true);
+                            }
+
+                            if (messageQueue_.moveFirstUnsentToPending() == null) readBuffer.release();
+                        }
+                    }
+                }
+            } catch (SystemException ex) {
+                processException(CLOSED, ex, false);
+                return;
+            }
+        }
+
+        // shutdown the transport
+        // synchronization on sendMutex_ is needed to avoid a deadlock in some oracle and ibm jdks between send and shutdown
+        // https://bugs.openjdk.java.net/browse/JDK-8013809 deadlock in SSLSocketImpl between between write and close
+        synchronized (sendMutex) {
+            transport_.shutdown();
+        }
+
+        // Stop receiving. There may not be a receiver if the transport is SendOnly.
+        try (SimplyCloseable ignored = stopReceiving()) {
+            // We now close the connection actively, since it may still be
+            // open under certain circumstances. For example, the receiver
+            // thread may not have terminated yet or the receive thread might
+            // set the state to GIOPState::Error before termination.
+            processException(CLOSED, Transients.FORCED_SHUTDOWN.create(), false);
+        }
+    }
+
+
+
+    // ACM callback method on ACM signal
+    synchronized void ACM_callback() {
+        if (acmTimer_ != null) {
+            acmTimer_.cancel();
+            acmTimer_ = null;
+        }
+
+        if (acmTask_ != null) {
+            acmTask_.cancel();
+            acmTask_ = null;
+        }
+
+        // don't shutdown if there are unsent messages or if there are
+        // upcalls in progress
+        if (messageQueue_.hasUnsent() || (upcallsInProgress_ > 0)) {
+            ACM_enableIdleMonitor();
+            return;
+        }
+
+        // shutdown gracefully
+        setState(CLOSING);
+    }
+
+    // client-side send method (from DowncallEmitter)
+    public boolean send(Downcall down, boolean block) {
+        Assert.ensure(transport_.mode() != ReceiveOnly);
+        Assert.ensure(down.unsent());
+
+        if (REQ_OUT_LOG.isLoggable(FINE)) REQ_OUT_LOG.fine("Sending a request downcall=" + down + " transport=" + transport_);
+
+        // if we send off a message in the loop, this var might help us
+        // to prevent a further locking to check the status
+        boolean msgSentMarked = false;
+
+        // if we don't have writing turned on then we must throw a
+        // TRANSIENT to the caller indicating this
+        synchronized (this) {
+
+            if (checkWriteProhibited(down)) return true;
+
+            // make the downcall thread-safe
+            if (down.responseExpected()) {
+                down.allowWaiting();
+            }
+
+            // buffer the request
+            messageQueue_.add(orbInstance_, down);
+
+            // check the sent status while we're locked
+            if (isRequestSent()) {
+                msgSentMarked = true;
+            }
+        }
+
+        // now prepare to send it either blocking or non-blocking
+        // depending on the call mode param
+        if (block) { // TODO - deduplicate these if and else blocks
+            // Get the request timeout
+            int t = down.policies().requestTimeout;
+            int msgcount = 0;
+
+            // now we can start sending off the messages
+            for (;;) {
+                // Get a message to send from the unsent queue
+                final ReadBuffer readBuffer;
+                final Downcall nextDown;
+
+                synchronized (this) {
+                    if (!down.unsent()) break;
+                    Assert.ensure(messageQueue_.hasUnsent());
+                    readBuffer = messageQueue_.getFirstUnsentBuffer();
+                    nextDown = messageQueue_.moveFirstUnsentToPending();
+                }
+
+                // Send the message
+                try {
+                    synchronized (sendMutex) {
+                        if (t <= 0) {
+                            // Send buffer, blocking
+                            transport_.send(readBuffer, true);
+                            Assert.ensure(readBuffer.isComplete());
+                        } else {
+                            // Send buffer, with timeout
+                            transport_.send_timeout(readBuffer, t);
+
+                            // Timeout?
+                            if (!readBuffer.isComplete()) throw new NO_RESPONSE();
+                        }
+                    }
+                } catch (SystemException ex) {
+                    processException(CLOSED, ex, false);
+                    return true;
+                }
+
+                // a queued reply has no further use once sent
+                if (nextDown == null) readBuffer.release();
+
+                // a message should be sent by now so we have to mark it as sent for the GIOPClient
+                if (!(msgSentMarked || nextDown == null || nextDown.operation().equals("_locate"))) {
+                    msgSentMarked = true;
+                    markRequestSent();
+                    if (REQ_OUT_LOG.isLoggable(FINE)) REQ_OUT_LOG.fine(format("Sent message blocking=%s msgcount=%d size=%d", block, msgcount++, readBuffer.length()));
+                }
+            }
+        } else { // Non blocking
+            synchronized (this) {
+            	int msgcount = 0;
+                for (;;) {
+                    if (!down.unsent()) break;
+                    Assert.ensure(messageQueue_.hasUnsent());
+                    ReadBuffer readBuffer = messageQueue_.getFirstUnsentBuffer();
+
+                    // send this buffer, non-blocking
+                    try {
+                        synchronized (sendMutex) {
+                            transport_.send(readBuffer, false);
+                        }
+                    } catch (SystemException ex) {
+                        processException(CLOSED, ex, false);
+                        return true;
+                    }
+
+                    // if the buffer isn't full, it hasn't been sent because
+                    // the call would have blocked.
+                    if (!readBuffer.isComplete())
+                        return false;
+
+                    // now move to the pending pile
+                    Downcall dummy = messageQueue_.moveFirstUnsentToPending();
+                    if (dummy == null) readBuffer.release();
+
+                    // update the message sent property
+                    if (!msgSentMarked && dummy != null) {
+                        if (dummy.responseExpected() && dummy.operation().equals("_locate")) {
+                            msgSentMarked = true;
+                            markRequestSent();
+                            if (REQ_OUT_LOG.isLoggable(FINE)) REQ_OUT_LOG.fine(format("Sent message blocking=%s msgcount=%d size=%d", block, msgcount++, readBuffer.length()));
+                        }
+                    }
+                }
+            }
+        }
+
+        if (REQ_OUT_LOG.isLoggable(FINER)) REQ_OUT_LOG.finer(" Request send completed downcall=" + down);
+        return !down.responseExpected();
+    }
+
+    private boolean checkWriteProhibited(Downcall down) {
+        final State state = getState();
+        final boolean writeProhibited;
+        switch (state) {
+        case ACTIVE:
+        case HOLDING:
+        case CLOSING:
+            writeProhibited = false;
+            break;
+
+        case STALE:
+            // This connection has already thrown a TRANSIENT and is now being re-used.
+            // Ensure this connection is cleaned up but the retry and hop counts are not incremented.
+            down.notifyStaleConnection();
+        case CLOSED:
+            setState(STALE);
+        case ERROR:
+            CONN_LOG.fine("writing not enabled for this connection");
+            down.setFailureException(new TRANSIENT());
+            writeProhibited = true;
+            break;
+        default:
+            throw Assert.fail("Unknown connection state: " + state );
+        }
+        return writeProhibited;
+    }
+
+    // client-side receive method (from DowncallEmitter)
+    public boolean receive(Downcall down, boolean block) {
+        if (REQ_OUT_LOG.isLoggable(FINER)) REQ_OUT_LOG.finer("Receiving response downcall=" + down + " transport=" + transport_);
+        // Try to receive the reply
+        try {
+            boolean result = down.waitUntilCompleted(block);
+            if (REQ_OUT_LOG.isLoggable(FINE)) REQ_OUT_LOG.fine("Received response downcall=" + down + " from transport " + transport_);
+            return result;
+        } catch (SystemException ex) {
+            processException(CLOSED, ex, false);
+            return true;
+        }
+    }
+
+    // client-side abandon (from DowncallEmitter)
+    public boolean abandon(Downcall down) {
+        return messageQueue_.abandonPending(down);
+    }
+
+    // client-side sendReceive (from DowncallEmitter)
+    public boolean sendReceive(Downcall down) {
+        ACM_disableIdleMonitor();
+
+        try {
+            return send(down, true) || receive(down, true);
+        } finally {
+            ACM_enableIdleMonitor();
+        }
+    }
+
+    void refresh() {
+        boolean msgSentMarked = false;
+        resumeReceiving();
+
+        synchronized (this) {
+            // if we can't write messages then don't bother to proceed
+            if (getState().forbids(WRITE)) return;
+
+            // check if we've sent a message before while we are locked
+            if (isRequestSent()) msgSentMarked = true;
+        }
+
+        // another check if we can write or not
+        if (transport_.mode() == ReceiveOnly)
+            return;
+
+        // now send off any queued messages
+        while (true) {
+            ReadBuffer readBuffer;
+            Downcall dummy;
+
+            try {
+                synchronized (this) {
+                    // stop when no messages left
+                    if (!messageQueue_.hasUnsent())
+                        break;
+
+                    readBuffer = messageQueue_.getFirstUnsentBuffer();
+                    readBuffer.rewindToStart();
+                    dummy = messageQueue_.moveFirstUnsentToPending();
+                }
+
+                // make sure no two threads are sending at once
+                synchronized (sendMutex) {
+                    transport_.send(readBuffer, true);
+                }
+
+                // check if the buffer has been read to the end
+                // Some of the OCI plugins (bidir for example) will
+                // simply return instead of throwing an exception if the
+                // send fails
+                if (!readBuffer.isComplete()) throw new COMM_FAILURE(describeCommFailure(MinorSend), MinorSend, COMPLETED_NO);
+
+                // a queued reply has no further use once sent
+                if (dummy == null) readBuffer.release();
+
+                // mark the message sent flag
+                if (!msgSentMarked && (dummy != null)) {
+                    if (dummy.responseExpected() && dummy.operation().equals("_locate")) {
+                        synchronized (this) {
+                            msgSentMarked = true;
+                            markRequestSent();
+                        }
+                    }
+                }
+            } catch (SystemException ex) {
+                processException(CLOSED, ex, false);
+                return;
+            }
+        }
+    }
+
+    /** admit any receivers paused by {@link #pause()} */
+    abstract void resumeReceiving();
+
+    /**
+     * Stop receiving messages, waiting up to the shutdown timeout for any receivers to finish.
+     * @return a closeable to be closed once the connection has been closed
+     */
+    abstract SimplyCloseable stopReceiving();
+
     /** client-side constructor */
     GIOPConnection(ORBInstance orbInstance, Transport transport, GIOPClient client) {
         super(ACTIVE);
@@ -690,9 +1150,10 @@ abstract class GIOPConnection extends Connection implements DowncallEmitter, Upc
         nextRequestId = new AtomicInteger(0xA);
         orbInstance_ = orbInstance;
         transport_ = transport;
-        outboundConnectionKey = client.connectorInfo();
+        outboundConnectionKey = client.outboundConnectionKey();
         markOutbound();
         markClientEnabled();
+        orbInstance.getClientPhaser().register();
 
         // read ACM properties
         String value;
@@ -722,6 +1183,7 @@ abstract class GIOPConnection extends Connection implements DowncallEmitter, Upc
         outboundConnectionKey = null;
         oaInterface_ = oa;
         markServerEnabled();
+        orbInstance.getServerPhaser().register();
 
         // read ACM properties
         String value;
@@ -747,6 +1209,11 @@ abstract class GIOPConnection extends Connection implements DowncallEmitter, Upc
         return nextRequestId.getAndAdd(2);
     }
 
+    /** @return the number of requests waiting to be sent or waiting for replies */
+    int queueDepth() {
+        return messageQueue_.size();
+    }
+
     /** start populating the reply data */
     public void upcallBeginReply(Upcall upcall, ServiceContexts contexts) {
         upcall.createOutputStream(12);
@@ -769,6 +1236,9 @@ abstract class GIOPConnection extends Connection implements DowncallEmitter, Upc
 
     /** finished reply construction; ready its return */
     public void upcallEndReply(Upcall upcall) {
+        // the request has been processed, so its buffer can be reused
+        upcall.input().getBuffer().release();
+
         // Make sure the transport can send a reply
         if (transport_.mode() == SendReceiveMode.ReceiveOnly) {
             REQ_IN_LOG.warning("Discarding reply - transport does not support two-way invocations: "
@@ -793,7 +1263,8 @@ abstract class GIOPConnection extends Connection implements DowncallEmitter, Upc
             throw Assert.fail(ex);
         }
 
-        sendUpcallReply(out.getBufferReader());
+        // the reply can refer to large octet arrays from the servant rather than copies of them
+        sendUpcallReply(out.getBufferReaderForSending());
     }
 
     /** start populating the reply with a user exception */
@@ -935,4 +1406,8 @@ abstract class GIOPConnection extends Connection implements DowncallEmitter, Upc
         logClose(true);
         transport_.close();
     }
+
+    @Override
+    public String toString() { return label + ": state = " + this.getState(); }
+    private final String label = ObjectUtil.getNextObjectLabel(this.getClass());
 }
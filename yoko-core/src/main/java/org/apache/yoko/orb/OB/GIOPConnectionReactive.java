@@ -0,0 +1,271 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OB;
+
+import org.apache.yoko.giop.MessageType;
+import org.apache.yoko.io.Buffer;
+import org.apache.yoko.io.SimplyCloseable;
+import org.apache.yoko.io.WriteBuffer;
+import org.apache.yoko.orb.OCI.ReactiveTransport;
+import org.apache.yoko.util.Assert;
+import org.omg.CORBA.SystemException;
+import org.omg.GIOP.MsgType_1_1;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.FINER;
+import static java.util.logging.Level.WARNING;
+import static org.apache.yoko.orb.OB.Connection.Access.READ;
+import static org.apache.yoko.orb.OB.Connection.State.CLOSED;
+import static org.apache.yoko.orb.OB.Connection.State.ERROR;
+import static org.apache.yoko.orb.OCI.SendReceiveMode.SendOnly;
+import static org.apache.yoko.orb.logging.VerboseLogging.CONN_IN_LOG;
+
+/**
+ * A connection whose messages are received by a {@link Reactor} event loop rather than a dedicated thread.
+ * <p>
+ * Incoming messages are assembled from non-blocking reads on the event loop.
+ * Replies and connection control messages are processed there directly,
+ * since they never block.  Requests may block in the object adapter, so they
+ * are passed in order to a task on the connection's executor, which only
+ * occupies a thread while there are requests to process.
+ */
+final class GIOPConnectionReactive extends GIOPConnection implements Reactor.Handler {
+    private final ReactiveTransport reactiveTransport_;
+
+    /** true while messages may be processed, i.e. not paused */
+    private final AtomicBoolean admitting = new AtomicBoolean();
+
+    /** requests awaiting processing, in order of arrival */
+    private final Queue<GIOPIncomingMessage> requests = new ConcurrentLinkedQueue<>();
+
+    /** true while a task is processing requests */
+    private final AtomicBoolean processing = new AtomicBoolean();
+
+    private Reactor.Registration registration; // guarded by 'this'
+
+    // The following fields are only accessed on the event loop thread
+    private final GIOPIncomingMessage inMsg;
+    private WriteBuffer writer = Buffer.createPooledWriteBuffer(12);
+    private boolean headerRead;
+    private WriteBuffer held; // a complete message received while paused
+
+    // client-side constructor
+    GIOPConnectionReactive(ORBInstance orbInstance, ReactiveTransport transport, GIOPClient client) {
+        super(orbInstance, transport, client);
+        reactiveTransport_ = transport;
+        inMsg = new GIOPIncomingMessage(orbInstance);
+        start();
+    }
+
+    // server-side constructor
+    GIOPConnectionReactive(ORBInstance orbInstance, ReactiveTransport transport, OAInterface oa) {
+        super(orbInstance, transport, oa);
+        reactiveTransport_ = transport;
+        inMsg = new GIOPIncomingMessage(orbInstance);
+    }
+
+    void start() {
+        resumeReceiving();
+        if (transport_.mode() == SendOnly) return;
+        synchronized (this) {
+            if (registration != null) return;
+            registration = orbInstance_.getReactor().register(reactiveTransport_.channel(), this);
+        }
+    }
+
+    void pause() { admitting.set(false); }
+
+    void resumeReceiving() {
+        if (!admitting.compareAndSet(false, true)) return;
+        final Reactor.Registration r;
+        synchronized (this) { r = registration; }
+        // deliver any message held back while paused
+        if (r != null) r.execute(this::deliverHeld);
+    }
+
+    SimplyCloseable stopReceiving() {
+        final Reactor.Registration r;
+        synchronized (this) { r = registration; }
+        if (r != null) r.cancel();
+        return () -> {};
+    }
+
+    // called on the event loop thread
+    private void deliverHeld() {
+        if (held == null || !admitting.get()) return;
+        final WriteBuffer message = held;
+        held = null;
+        if (dispatch(message)) {
+            setReading(true);
+            handleReadable();
+        }
+    }
+
+    private void setReading(boolean reading) {
+        final Reactor.Registration r;
+        synchronized (this) { r = registration; }
+        if (r != null) r.setReading(reading);
+    }
+
+    private void stopReading() {
+        final Reactor.Registration r;
+        synchronized (this) { r = registration; }
+        if (r != null) r.cancel();
+    }
+
+    // called on the event loop thread when the channel is readable
+    public void handleReadable() {
+        if (held != null) return;
+        while (true) {
+            // Receive as much as is available, without blocking
+            try {
+                transport_.receive(writer, false);
+            } catch (SystemException ex) {
+                stopReading();
+                processException(CLOSED, ex, false);
+                return;
+            }
+
+            if (!writer.isComplete()) return;
+
+            if (!headerRead) {
+                // Header is complete
+                try {
+                    inMsg.extractHeader(writer.readFromStart());
+                    if (CONN_IN_LOG.isLoggable(FINER)) CONN_IN_LOG.finer("Header received for message of size " + inMsg.size());
+                    // grow the buffer
+                    writer.ensureAvailable(inMsg.size());
+                } catch (SystemException ex) {
+                    stopReading();
+                    processException(ERROR, ex, false);
+                    return;
+                }
+                headerRead = true;
+                if (!writer.isComplete()) continue;
+            }
+
+            final WriteBuffer message = writer;
+            writer = Buffer.createPooledWriteBuffer(12);
+            headerRead = false;
+
+            MessageType.logIncomingGiopMessage(message);
+
+            // hold the message and stop reading until the connection is resumed
+            if (!admitting.get()) {
+                held = message;
+                setReading(false);
+                // the connection may have been resumed in the meantime
+                deliverHeld();
+                return;
+            }
+
+            if (!dispatch(message)) return;
+        }
+    }
+
+    /** @return true if this connection should continue receiving */
+    private boolean dispatch(WriteBuffer message) {
+        // If we are not in StateActive or StateClosing, stop receiving.
+        // We do *not* stop if we are in StateClosing, since we must
+        // continue to read data from the Transport to make sure that no
+        // messages can get lost upon close, and to make sure that
+        // CloseConnection messages from the peer are processed.
+        synchronized (this) {
+            if (getState().forbids(READ)) {
+                stopReading();
+                return false;
+            }
+        }
+
+        try {
+            if (!inMsg.consumeBuffer(message)) return true;
+
+            switch (inMsg.type().value()) {
+            case MsgType_1_1._Request:
+            case MsgType_1_1._LocateRequest:
+                requests.add(inMsg.detach());
+                scheduleRequestProcessing();
+                return true;
+            default:
+                processMessage(inMsg);
+                return true;
+            }
+        } catch (SystemException ex) {
+            stopReading();
+            processException(ERROR, ex, false);
+            return false;
+        }
+    }
+
+    private void scheduleRequestProcessing() {
+        if (!processing.compareAndSet(false, true)) return;
+        try {
+            getExecutor().submit(this::processRequests);
+        } catch (RejectedExecutionException ree) {
+            processing.set(false);
+            CONN_IN_LOG.log(WARNING, "Could not submit request processing task", ree);
+        }
+    }
+
+    // called from an executor thread to process the queued requests in order
+    private void processRequests() {
+        boolean handedOff = false;
+        try {
+            for (GIOPIncomingMessage msg; (msg = requests.poll()) != null; ) {
+                final Upcall upcall;
+                try {
+                    upcall = processMessage(msg);
+                } catch (SystemException ex) {
+                    requests.clear();
+                    processException(ERROR, ex, false);
+                    return;
+                }
+
+                if (upcall == null) continue;
+
+                if (CONN_IN_LOG.isLoggable(FINER)) CONN_IN_LOG.finer("Processing message using upcall " + upcall.getClass().getName());
+                // In the BiDir case, this upcall could result in a nested
+                // call back and forth, so any further requests must be
+                // processed by another task.
+                if (transport_.get_info().received_bidir_service_context()) {
+                    if (CONN_IN_LOG.isLoggable(FINE)) CONN_IN_LOG.fine("In bidirectional mode, so submitting a new request processing task");
+                    handedOff = true;
+                    processing.set(false);
+                    if (!requests.isEmpty()) scheduleRequestProcessing();
+                    upcall.invoke();
+                    return;
+                }
+
+                upcall.invoke();
+            }
+        } catch (RuntimeException ex) {
+            throw Assert.fail(ex);
+        } finally {
+            if (!handedOff) {
+                processing.set(false);
+                // pick up any request that arrived after the queue was found empty
+                if (!requests.isEmpty()) scheduleRequestProcessing();
+            }
+        }
+    }
+}
@@ -171,6 +171,24 @@ final public class GIOPIncomingMessage {
         lastFragment_ = null;
     }
 
+    private GIOPIncomingMessage(GIOPIncomingMessage that) {
+        orbInstance_ = that.orbInstance_;
+        version_ = new Version(that.version_.major, that.version_.minor);
+        littleEndian = that.littleEndian;
+        fragmentToFollow = false;
+        type_ = that.type_;
+        size_ = that.size_;
+        in_ = that.input();
+    }
+
+    /**
+     * Hand off the complete message just consumed, so that it can be processed on another thread
+     * while this object goes on to receive later messages and fragments.
+     */
+    GIOPIncomingMessage detach() {
+        return new GIOPIncomingMessage(this);
+    }
+
     org.omg.GIOP.Version version() {
         return version_;
     }
@@ -274,7 +292,10 @@ final public class GIOPIncomingMessage {
         }
 
         if (type_ == MsgType_1_1.Fragment) {
-            return consumeFragment(writer.readFromStart());
+            final boolean complete = consumeFragment(writer.readFromStart());
+            // the fragment body has been copied, so this buffer can be reused
+            writer.release();
+            return complete;
         }
 
         if (type_ == MsgType_1_1.CancelRequest) {
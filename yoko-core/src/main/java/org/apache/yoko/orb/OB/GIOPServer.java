@@ -63,7 +63,11 @@ final class GIOPServer extends Server {
         try {
             switch (concModel_) {
             case Threaded:
-                starter_ = new GIOPServerStarterThreaded(orbInstance_, acceptor_, oaInterface_);
+                starter_ = new GIOPServerStarterThreaded(orbInstance_, acceptor_, oaInterface_, false);
+                break;
+            case Reactive:
+                // connections are accepted on a thread but serviced by the reactor
+                starter_ = new GIOPServerStarterThreaded(orbInstance_, acceptor_, oaInterface_, true);
                 break;
             }
         } catch (RuntimeException ex) {
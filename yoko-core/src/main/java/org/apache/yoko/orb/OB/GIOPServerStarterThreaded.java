@@ -19,6 +19,7 @@ package org.apache.yoko.orb.OB;
 
 import org.apache.yoko.orb.OB.Connection.State;
 import org.apache.yoko.orb.OCI.Acceptor;
+import org.apache.yoko.orb.OCI.ReactiveTransport;
 import org.apache.yoko.orb.OCI.Transport;
 import org.apache.yoko.util.Assert;
 import org.apache.yoko.util.MinorCodes;
@@ -33,6 +34,8 @@ import static org.apache.yoko.orb.logging.VerboseLogging.CONN_IN_LOG;
 
 
 final class GIOPServerStarterThreaded extends GIOPServerStarter {
+    private final boolean reactive_; // True if accepted connections should be serviced by the reactor
+
     protected final class Starter implements Runnable {
         public void run() {
             try {
@@ -55,7 +58,7 @@ final class GIOPServerStarterThreaded extends GIOPServerStarter {
                         logger.fine("Null transport received from a connect");
                         break;
                     }
-                    GIOPConnection connection = new GIOPConnectionThreaded(orbInstance_, t, oaInterface_);
+                    GIOPConnection connection = createConnection(t);
                     connection.setState(State.CLOSING);
                 } catch (org.omg.CORBA.SystemException ex) {
                 }
@@ -71,8 +74,9 @@ final class GIOPServerStarterThreaded extends GIOPServerStarter {
     // GIOPServerStarterThreaded package member implementation
     // ----------------------------------------------------------------------
 
-    GIOPServerStarterThreaded(ORBInstance orbInstance, Acceptor acceptor, OAInterface oaInterface) {
+    GIOPServerStarterThreaded(ORBInstance orbInstance, Acceptor acceptor, OAInterface oaInterface, boolean reactive) {
         super(orbInstance, acceptor, oaInterface);
+        reactive_ = reactive;
 
         logger.fine("GIOPServer thread started " + this + " using acceptor " + acceptor);
         try {
@@ -164,6 +168,18 @@ final class GIOPServerStarterThreaded extends GIOPServerStarter {
         notifyAll();
     }
 
+    //
+    // Create a connection for an accepted transport
+    //
+    private GIOPConnection createConnection(Transport transport) {
+        if (reactive_) {
+            if (transport instanceof ReactiveTransport)
+                return new GIOPConnectionReactive(orbInstance_, (ReactiveTransport) transport, oaInterface_);
+            logger.fine("Transport " + transport + " is not selectable, so using a threaded connection");
+        }
+        return new GIOPConnectionThreaded(orbInstance_, transport, oaInterface_);
+    }
+
     //
     // Run method for starter thread
     //
@@ -212,8 +228,7 @@ final class GIOPServerStarterThreaded extends GIOPServerStarter {
                             // If we're active, we create and add a new
                             // worker to the worker list
                             //
-                            GIOPConnection connection = new GIOPConnectionThreaded(
-                                    orbInstance_, transport, oaInterface_);
+                            GIOPConnection connection = createConnection(transport);
                             connections_.addElement(connection);
                             connection.setState(State.ACTIVE);
                         } else {
@@ -225,8 +240,7 @@ final class GIOPServerStarterThreaded extends GIOPServerStarter {
                             //
                             Assert.ensure(serverState == CLOSED);
                             logger.fine("Processing an inbound connection because state is closed");
-                            GIOPConnection connection = new GIOPConnectionThreaded(
-                                    orbInstance_, transport, oaInterface_);
+                            GIOPConnection connection = createConnection(transport);
                             logger.fine("Created connection " + connection);
 
                             connection.setState(State.CLOSING);
@@ -0,0 +1,129 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.orb.OB;
+
+import org.apache.yoko.orb.CORBA.OutputStream;
+import org.omg.IOP.IOR;
+import org.omg.IOP.IORHelper;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Remembers the answers to remote <code>_is_a</code> requests, so that narrowing
+ * a reference to the same type again does not need another round trip.
+ * <p>
+ * Answers are kept per target object, identified by its encoded IOR,
+ * since references to different objects can share a type id and an endpoint.
+ * At most <code>maxTargets</code> objects are remembered, and each answer expires
+ * after <code>ttlMillis</code>. When the cache is full an arbitrary target is dropped.
+ */
+public final class IsACache {
+    private final int maxTargets;
+    private final long ttlNanos;
+    private final Map<Target, Map<String, Answer>> cache = new ConcurrentHashMap<>();
+
+    /** Identifies the object that an answer is about */
+    public static final class Target {
+        private final byte[] encodedIor;
+        private final int hash;
+
+        private Target(byte[] encodedIor) {
+            this.encodedIor = encodedIor;
+            this.hash = Arrays.hashCode(encodedIor);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other == this || (other instanceof Target && Arrays.equals(encodedIor, ((Target) other).encodedIor));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Answer {
+        final boolean isA;
+        final long expiry;
+
+        Answer(boolean isA, long expiry) {
+            this.isA = isA;
+            this.expiry = expiry;
+        }
+    }
+
+    IsACache(int maxTargets, long ttlMillis) {
+        this.maxTargets = maxTargets;
+        this.ttlNanos = MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    public static Target target(IOR ior) {
+        OutputStream out = new OutputStream();
+        IORHelper.write(out, ior);
+        return new Target(out.copyWrittenBytes());
+    }
+
+    /** @return the remembered answer, or null if there is none */
+    public Boolean get(Target target, String repositoryId) {
+        Map<String, Answer> answers = cache.get(target);
+        if (answers == null) return null;
+        Answer answer = answers.get(repositoryId);
+        if (answer == null) return null;
+        if (answer.expiry - System.nanoTime() < 0) {
+            answers.remove(repositoryId, answer);
+            return null;
+        }
+        return answer.isA;
+    }
+
+    public void put(Target target, String repositoryId, boolean isA) {
+        if (maxTargets <= 0) return;
+        Map<String, Answer> answers = cache.get(target);
+        if (answers == null) {
+            if (cache.size() >= maxTargets) evict();
+            answers = cache.computeIfAbsent(target, t -> new ConcurrentHashMap<>());
+        }
+        answers.put(repositoryId, new Answer(isA, System.nanoTime() + ttlNanos));
+    }
+
+    /** Forget everything about a target, e.g. because requests to it have been forwarded */
+    public void invalidate(Target target) {
+        cache.remove(target);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    private void evict() {
+        Iterator<Map<String, Answer>> it = cache.values().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -23,6 +23,8 @@ import org.apache.yoko.io.ReadBuffer;
 import org.apache.yoko.util.Assert;
 import org.omg.CORBA.SystemException;
 
+import java.util.HashSet;
+import java.util.Set;
 import java.util.Vector;
 
 import static org.apache.yoko.util.Assert.ensure;
@@ -38,6 +40,9 @@ public class MessageQueue {
     // Requests that have been sent but are waiting for replies.
     private final Vector<Downcall> pending_ = new Vector<>();
 
+    // Ids of requests whose replies are no longer wanted, but may still arrive
+    private final Set<Integer> abandoned_ = new HashSet<>();
+
     // Add new unsent buffer
     public void add(ORBInstance orbInstance, ReadBuffer readBuffer) {
         // Add new message to the message buffers
@@ -102,14 +107,35 @@ public class MessageQueue {
 
     // Find and remove a pending downcall
     public Downcall findAndRemovePending(int reqId) {
-        for (int i = 0; i < pending_.size(); i++) {
-            Downcall d = pending_.elementAt(i);
-            if (d.requestId() == reqId) {
-                pending_.removeElementAt(i);
-                return d;
+        synchronized (pending_) {
+            for (int i = 0; i < pending_.size(); i++) {
+                Downcall d = pending_.elementAt(i);
+                if (d.requestId() == reqId) {
+                    pending_.removeElementAt(i);
+                    return d;
+                }
             }
+            return null;
+        }
+    }
+
+    // Remove a pending downcall whose reply is no longer wanted,
+    // remembering its id so that a late reply can be discarded.
+    // Returns false if the downcall is no longer pending.
+    public boolean abandonPending(Downcall down) {
+        synchronized (pending_) {
+            if (!pending_.removeElement(down)) return false;
+            abandoned_.add(down.requestId());
+            return true;
+        }
+    }
+
+    // Check whether a reply is for an abandoned request, forgetting
+    // the request if so
+    public boolean removeAbandoned(int reqId) {
+        synchronized (pending_) {
+            return abandoned_.remove(reqId);
         }
-        return null;
     }
 
     // Change the state of the queue due to an exception. Sets the
@@ -124,13 +150,21 @@ public class MessageQueue {
 
         SystemException except = Util.copySystemException(ex);
         except.completed = notCompleted ? COMPLETED_NO : COMPLETED_MAYBE;
-        while (!pending_.isEmpty()) {
-            Downcall down = pending_.firstElement();
-            down.setFailureException(except);
-            pending_.removeElementAt(0);
+        synchronized (pending_) {
+            while (!pending_.isEmpty()) {
+                Downcall down = pending_.firstElement();
+                down.setFailureException(except);
+                pending_.removeElementAt(0);
+            }
+            abandoned_.clear();
         }
     }
 
+    // the number of requests waiting to be sent or waiting for replies
+    public int size() {
+        return unsent_.size() + pending_.size();
+    }
+
     // check if we have any unsent messages in the queue
     public boolean hasUnsent() {
         return !unsent_.isEmpty();
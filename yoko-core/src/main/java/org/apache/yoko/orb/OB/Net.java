@@ -62,6 +62,24 @@ public final class Net {
         return CompareHosts(host1, host2, false);
     }
 
+    //
+    // Hash a host string consistently with CompareHosts(host1, host2):
+    // hosts that compare as equal always have the same hash
+    //
+    public static int HashHost(final String host) {
+        try {
+            return AccessController.doPrivileged(new PrivilegedExceptionAction<InetAddress>() {
+                @Override
+                public InetAddress run() throws UnknownHostException {
+                    return InetAddress.getByName(host);
+                }
+            }).hashCode();
+        } catch (PrivilegedActionException e) {
+            // an unknown host only compares equal to the same string
+            return host.hashCode();
+        }
+    }
+
     //
     // Get the "canonical" hostname of the local host. If numeric is
     // true, the canonical IP address will be returned instead.
@@ -434,7 +434,7 @@ public final class ORBControl {
 
     private void shutdownExecutor(Phaser phaser, ExecutorService executor) {
         int phase = phaser.arrive();//release the system's "lock"
-        //phaser advances after all GIOPConnectionThreaded have shut down (gracefully or abort)
+        //phaser advances after all GIOPConnections have shut down (gracefully or abort)
         try {
             phaser.awaitAdvanceInterruptibly(phase, shutdownTimeout_, TimeUnit.SECONDS);
         } catch (InterruptedException e1) {
@@ -17,9 +17,9 @@
 
 package org.apache.yoko.orb.OB;
 
-import org.apache.yoko.orb.OCI.ConnectorInfo;
 import org.apache.yoko.util.Assert;
 import org.apache.yoko.util.Cache;
+import org.apache.yoko.util.concurrent.VirtualThreads;
 import org.apache.yoko.util.concurrent.WeakCountedCache;
 import org.omg.CORBA.INTERNAL;
 import org.omg.CORBA.ORBPackage.InvalidName;
@@ -29,6 +29,8 @@ import org.omg.CORBA.PolicyManagerHelper;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Phaser;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 
 public final class ORBInstance {
@@ -41,7 +43,7 @@ public final class ORBInstance {
         }
     };
 
-    private final Cache<ConnectorInfo, GIOPConnection> outboundConnectionCache = new WeakCountedCache<>(CLEANER, 0, 100);
+    private final Cache<OutboundConnectionKey, GIOPConnection> outboundConnectionCache = new WeakCountedCache<>(CLEANER, 0, 100);
 
     private org.omg.CORBA.ORB orb_;
 
@@ -108,6 +110,10 @@ public final class ORBInstance {
     private ExecutorService clientExecutor_;
     private Phaser clientPhaser = new Phaser(1);
 
+    private Reactor reactor_; // created on first use by a reactive connection
+
+    private ScheduledThreadPoolExecutor timer_; // created on first use by an asynchronous request with a timeout
+
     private org.apache.yoko.orb.OCI.ConFactoryRegistry conFactoryRegistry_;
 
     private org.apache.yoko.orb.OCI.AccFactoryRegistry accFactoryRegistry_;
@@ -116,10 +122,12 @@ public final class ORBInstance {
 
     private URLRegistry urlRegistry_;
 
-    private boolean useTypeCodeCache_;
+    private final TypeCodeCache typeCodeCache_;
 
     private boolean extendedWchar_;
 
+    private final IsACache isACache_;
+
     //
     // the async message handler
     //
@@ -190,7 +198,11 @@ public final class ORBInstance {
         // Create the server and client executors
         // TODO why are these separate?
         //
-        clientExecutor_ = Executors.newCachedThreadPool(
+        // With the virtual_threads concurrency model the receivers run on virtual threads
+        //
+        if ("virtual_threads".equals(properties_.getProperty("yoko.orb.conc_model")))
+            clientExecutor_ = VirtualThreads.newThreadPerTaskExecutor("Yoko:Client:");
+        else clientExecutor_ = Executors.newCachedThreadPool(
                 new ThreadFactory() {
                     @Override
                     public Thread newThread(Runnable r) {
@@ -200,7 +212,9 @@ public final class ORBInstance {
                     }
                 }
         );
-        serverExecutor_ = Executors.newCachedThreadPool(
+        if ("virtual_threads".equals(properties_.getProperty("yoko.orb.oa.conc_model")))
+            serverExecutor_ = VirtualThreads.newThreadPerTaskExecutor("Yoko:Server:");
+        else serverExecutor_ = Executors.newCachedThreadPool(
                 new ThreadFactory() {
                     @Override
                     public Thread newThread(Runnable r) {
@@ -216,9 +230,11 @@ public final class ORBInstance {
         //
         String tcc = properties_.getProperty("yoko.orb.use_type_code_cache");
         if (tcc != null && tcc.equals("false"))
-            useTypeCodeCache_ = false;
+            typeCodeCache_ = null;
         else
-            useTypeCodeCache_ = true;
+            typeCodeCache_ = new TypeCodeCache(
+                    Integer.parseInt(properties_.getProperty("yoko.orb.type_code_cache.size", "1000")),
+                    Long.parseLong(properties_.getProperty("yoko.orb.type_code_cache.max_bytes", "1048576")));
 
         //
         // Support wchar/wstring for IIOP 1.0?
@@ -229,6 +245,13 @@ public final class ORBInstance {
         else
             extendedWchar_ = false;
 
+        //
+        // How many objects to remember _is_a answers for, and for how long
+        //
+        isACache_ = new IsACache(
+                Integer.parseInt(properties_.getProperty("yoko.orb.is_a_cache.size", "1000")),
+                Long.parseLong(properties_.getProperty("yoko.orb.is_a_cache.ttl", "300000")));
+
         //
         // get the number of AMI worker threads
         //
@@ -339,7 +362,14 @@ public final class ORBInstance {
         // coreTraceLevels_ = null;
 
         // Client and server executors shut down in the ORBControl
-        
+
+        synchronized (this) {
+            if (reactor_ != null) reactor_.shutdown();
+            reactor_ = null;
+            if (timer_ != null) timer_.shutdownNow();
+            timer_ = null;
+        }
+
         conFactoryRegistry_ = null;
         accFactoryRegistry_ = null;
         unknownExceptionStrategy_ = null;
@@ -370,6 +400,10 @@ public final class ORBInstance {
         return objectFactory_;
     }
 
+    public IsACache getIsACache() {
+        return isACache_;
+    }
+
     public ClientManager getClientManager() {
         return clientManager_;
     }
@@ -450,6 +484,27 @@ public final class ORBInstance {
         return clientPhaser;
     }
 
+    synchronized Reactor getReactor() {
+        if (reactor_ == null) {
+            String value = properties_.getProperty("yoko.orb.reactor_threads");
+            int threads = value == null ? Math.min(Runtime.getRuntime().availableProcessors(), 4) : Integer.parseInt(value);
+            reactor_ = new Reactor(Math.max(threads, 1));
+        }
+        return reactor_;
+    }
+
+    synchronized ScheduledExecutorService getTimer() {
+        if (timer_ == null) {
+            timer_ = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread result = new Thread(r, "Yoko:Timer");
+                result.setDaemon(true);
+                return result;
+            });
+            timer_.setRemoveOnCancelPolicy(true);
+        }
+        return timer_;
+    }
+
     public org.apache.yoko.orb.OCI.ConFactoryRegistry getConFactoryRegistry() {
         return conFactoryRegistry_;
     }
@@ -486,7 +541,11 @@ public final class ORBInstance {
     }
 
     public boolean useTypeCodeCache() {
-        return useTypeCodeCache_;
+        return typeCodeCache_ != null;
+    }
+
+    public TypeCodeCache getTypeCodeCache() {
+        return typeCodeCache_;
     }
 
     public boolean extendedWchar() {
@@ -497,5 +556,5 @@ public final class ORBInstance {
         return asyncHandler_;
     }
 
-    public Cache<ConnectorInfo, GIOPConnection> getOutboundConnectionCache() {return outboundConnectionCache;}
+    public Cache<OutboundConnectionKey, GIOPConnection> getOutboundConnectionCache() {return outboundConnectionCache;}
 }
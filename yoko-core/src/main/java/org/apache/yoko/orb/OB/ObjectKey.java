@@ -217,11 +217,13 @@ final public class ObjectKey {
                 //
                 if (first) {
                     keyData.serverId = new String(key, start, data - start);
-                    logger.fine("Parsed serverId=" + keyData.serverId); 
+                    if (logger.isLoggable(Level.FINE))
+                        logger.fine("Parsed serverId=" + keyData.serverId);
                     first = false;
                 } else {
                     String element = new String(key, start, data - start); 
-                    logger.fine("Parsed POA name=" + element); 
+                    if (logger.isLoggable(Level.FINE))
+                        logger.fine("Parsed POA name=" + element);
                     poaId.addElement(element);
                 }
 
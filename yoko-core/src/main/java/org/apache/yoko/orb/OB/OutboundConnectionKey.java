@@ -0,0 +1,51 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.orb.OB;
+
+import org.apache.yoko.orb.OCI.ConnectorInfo;
+
+/**
+ * Identifies an outbound connection by the endpoint it connects to
+ * and, when several connections to that endpoint are pooled, its slot in the pool.
+ */
+final class OutboundConnectionKey {
+    private final ConnectorInfo connectorInfo;
+    private final int slot;
+
+    OutboundConnectionKey(ConnectorInfo connectorInfo, int slot) {
+        this.connectorInfo = connectorInfo;
+        this.slot = slot;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) return true;
+        if (!(other instanceof OutboundConnectionKey)) return false;
+        OutboundConnectionKey that = (OutboundConnectionKey) other;
+        return this.slot == that.slot && this.connectorInfo.equals(that.connectorInfo);
+    }
+
+    @Override
+    public int hashCode() {
+        return connectorInfo.hashCode() * 31 + slot;
+    }
+
+    @Override
+    public String toString() {
+        return slot == 0 ? String.valueOf(connectorInfo) : connectorInfo + " #" + slot;
+    }
+}
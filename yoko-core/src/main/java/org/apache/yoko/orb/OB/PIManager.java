@@ -20,6 +20,7 @@ package org.apache.yoko.orb.OB;
 import org.apache.yoko.orb.IOP.ServiceContexts;
 import org.apache.yoko.orb.OCI.TransportInfo;
 import org.apache.yoko.orb.PortableInterceptor.ClientRequestInfo_impl;
+import org.apache.yoko.orb.PortableInterceptor.ClientRequestInterceptorExt;
 import org.apache.yoko.orb.PortableInterceptor.Current_impl;
 import org.apache.yoko.orb.PortableInterceptor.ServerRequestInfo_impl;
 import org.apache.yoko.util.Assert;
@@ -53,6 +54,7 @@ import org.omg.PortableInterceptor.USER_EXCEPTION;
 import org.omg.PortableServer.POA;
 import org.omg.PortableServer.Servant;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -73,6 +75,11 @@ final public class PIManager {
     private final List<ClientRequestInterceptor> clientRequestInterceptors = newSynchronizedList();
     private final List<ServerRequestInterceptor> serverRequestInterceptors = newSynchronizedList();
     private final List<IORInterceptor> iorInterceptors = newSynchronizedList();
+    // Snapshots of the request interceptors, so requests can be intercepted without locking or copying
+    private volatile ClientRequestInterceptor[] clientRequestInterceptorArray = {};
+    private volatile ServerRequestInterceptor[] serverRequestInterceptorArray = {};
+    // The client request interceptors that keep per-thread state across a request
+    private volatile ClientRequestInterceptorExt[] clientThreadStateInterceptorArray = {};
     private int numberOfStateSlots;
     private boolean allOrbInitializersHaveBeenInvoked;
 
@@ -102,11 +109,19 @@ final public class PIManager {
     public void addClientRequestInterceptor(ClientRequestInterceptor interceptor) throws DuplicateName {
         if (REQ_OUT_LOG.isLoggable(CONFIG)) REQ_OUT_LOG.config("Registering " + describe(interceptor));
         addInterceptorToList(interceptor, clientRequestInterceptors, false);
+        clientRequestInterceptorArray = clientRequestInterceptors.toArray(new ClientRequestInterceptor[0]);
+        if (interceptor instanceof ClientRequestInterceptorExt) {
+            final int n = clientThreadStateInterceptorArray.length;
+            final ClientRequestInterceptorExt[] array = Arrays.copyOf(clientThreadStateInterceptorArray, n + 1);
+            array[n] = (ClientRequestInterceptorExt) interceptor;
+            clientThreadStateInterceptorArray = array;
+        }
     }
 
     public void addServerRequestInterceptor(ServerRequestInterceptor interceptor) throws DuplicateName {
         if (REQ_IN_LOG.isLoggable(CONFIG)) REQ_IN_LOG.config("Registering " + describe(interceptor));
         addInterceptorToList(interceptor, serverRequestInterceptors, false);
+        serverRequestInterceptorArray = serverRequestInterceptors.toArray(new ServerRequestInterceptor[0]);
     }
 
     private static <I extends Interceptor> void addInterceptorToList(I interceptor, List<I> interceptors, boolean insertAtHead) throws DuplicateName {
@@ -169,10 +184,62 @@ final public class PIManager {
 
     ClientRequestInfo clientSendRequest(PIDowncall downcall) throws LocationForward {
         ClientRequestInfo_impl info = new ClientRequestInfo_impl(orb, orbInstance, current, downcall);
-        info._OB_request(clientRequestInterceptors);
+        info._OB_request(clientRequestInterceptorArray);
         return info;
     }
 
+    //
+    // Capture the per-thread state the client request interceptors keep
+    // between send_request and the receive interception points, so that
+    // a request can be received on a different thread from the one that
+    // sent it. Returns null if there is no such state.
+    //
+    public Object[] saveClientThreadState() {
+        final ClientRequestInterceptorExt[] interceptors = clientThreadStateInterceptorArray;
+        if (interceptors.length == 0) return null;
+        final Object[] state = new Object[interceptors.length];
+        for (int i = 0; i < interceptors.length; i++) state[i] = interceptors[i].saveThreadState();
+        return state;
+    }
+
+    public void restoreClientThreadState(Object[] state) {
+        if (state == null) return;
+        final ClientRequestInterceptorExt[] interceptors = clientThreadStateInterceptorArray;
+        for (int i = 0; i < state.length; i++) interceptors[i].restoreThreadState(state[i]);
+    }
+
+    //
+    // Capture what the client request interceptors read from the calling
+    // thread when a request is sent: the slots of the PICurrent, and the
+    // caller context of the interceptors that keep one. A request that is
+    // resent on another thread is sent in this context.
+    //
+    public Object[] captureClientContext() {
+        final ClientRequestInterceptorExt[] interceptors = clientThreadStateInterceptorArray;
+        final Object[] context = new Object[interceptors.length + 1];
+        context[0] = current._OB_captureSlotData();
+        for (int i = 0; i < interceptors.length; i++) context[i + 1] = interceptors[i].captureCallerContext();
+        return context;
+    }
+
+    //
+    // Install a context from captureClientContext() on this thread, until
+    // it is uninstalled with the result
+    //
+    public Object[] installClientContext(Object[] context) {
+        final ClientRequestInterceptorExt[] interceptors = clientThreadStateInterceptorArray;
+        final Object[] replaced = new Object[context.length - 1];
+        current._OB_pushCapturedSlotData(context[0]);
+        for (int i = 0; i < replaced.length; i++) replaced[i] = interceptors[i].installCallerContext(context[i + 1]);
+        return replaced;
+    }
+
+    public void uninstallClientContext(Object[] replaced) {
+        final ClientRequestInterceptorExt[] interceptors = clientThreadStateInterceptorArray;
+        for (int i = 0; i < replaced.length; i++) interceptors[i].installCallerContext(replaced[i]);
+        current._OB_popCapturedSlotData();
+    }
+
     void clientReceiveReply(ClientRequestInfo info) throws LocationForward {
         ClientRequestInfo_impl impl = (ClientRequestInfo_impl) info;
         impl._OB_setReplyStatus(SUCCESSFUL.value);
@@ -240,7 +307,7 @@ final public class PIManager {
     // Call the receive_request_service_contexts interception point
     void serverReceiveRequestServiceContexts(ServerRequestInfo info) throws LocationForward {
         ServerRequestInfo_impl impl = (ServerRequestInfo_impl) info;
-        impl._OB_requestServiceContext(serverRequestInterceptors);
+        impl._OB_requestServiceContext(serverRequestInterceptorArray);
     }
 
     // Call the receive_request interception point
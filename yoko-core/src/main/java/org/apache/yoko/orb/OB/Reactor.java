@@ -0,0 +1,170 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OB;
+
+import org.omg.CORBA.IMP_LIMIT;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static java.nio.channels.SelectionKey.OP_READ;
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.WARNING;
+import static org.apache.yoko.util.MinorCodes.MinorThreadLimit;
+import static org.apache.yoko.util.MinorCodes.describeImpLimit;
+import static org.omg.CORBA.CompletionStatus.COMPLETED_NO;
+
+/**
+ * A fixed set of event loop threads, each multiplexing the readiness of many channels with a {@link Selector}.
+ * Channels are assigned to the loops round-robin, and each channel's handler is only ever called on its own loop.
+ */
+final class Reactor {
+    static final Logger logger = Logger.getLogger(Reactor.class.getName());
+
+    /** Called on the event loop thread whenever the registered channel is readable */
+    interface Handler {
+        void handleReadable();
+    }
+
+    /** The registration of a channel with an event loop */
+    static final class Registration {
+        private final Loop loop;
+        private SelectionKey key; // only accessed on the loop thread
+
+        private Registration(Loop loop) { this.loop = loop; }
+
+        /** Enable or disable readiness notifications for this channel */
+        void setReading(final boolean reading) {
+            loop.execute(() -> {
+                if (key != null && key.isValid()) key.interestOps(reading ? OP_READ : 0);
+            });
+        }
+
+        /** Run a task on the event loop thread for this channel */
+        void execute(Runnable task) {
+            loop.execute(task);
+        }
+
+        /** Stop receiving notifications for this channel */
+        void cancel() {
+            loop.execute(() -> {
+                if (key != null) key.cancel();
+            });
+        }
+    }
+
+    private static final class Loop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private volatile boolean running = true;
+
+        Loop(String name) throws IOException {
+            selector = Selector.open();
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+        }
+
+        /** Run the task on the loop thread, immediately if this is the loop thread */
+        void execute(Runnable task) {
+            if (Thread.currentThread() == thread) {
+                task.run();
+                return;
+            }
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        void stop() {
+            running = false;
+            selector.wakeup();
+        }
+
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    for (Runnable task; (task = tasks.poll()) != null; ) task.run();
+                    final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        final SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) continue;
+                        try {
+                            ((Handler) key.attachment()).handleReadable();
+                        } catch (RuntimeException ex) {
+                            logger.log(WARNING, "Unexpected exception handling a readable channel", ex);
+                        }
+                    }
+                }
+            } catch (IOException ex) {
+                logger.log(WARNING, "Reactor event loop failed", ex);
+            } finally {
+                try {
+                    selector.close();
+                } catch (IOException ex) {
+                    logger.log(FINE, "Selector close error", ex);
+                }
+                if (logger.isLoggable(FINE)) logger.fine("Stopped reactor event loop " + thread.getName());
+            }
+        }
+    }
+
+    private final Loop[] loops;
+    private final AtomicInteger next = new AtomicInteger();
+
+    Reactor(int threads) {
+        loops = new Loop[threads];
+        try {
+            for (int i = 0; i < threads; i++) loops[i] = new Loop("Yoko:Reactor:" + i);
+        } catch (IOException ex) {
+            for (Loop loop : loops) if (loop != null) loop.stop();
+            throw (IMP_LIMIT) new IMP_LIMIT(describeImpLimit(MinorThreadLimit), MinorThreadLimit, COMPLETED_NO).initCause(ex);
+        }
+        for (Loop loop : loops) loop.thread.start();
+    }
+
+    /**
+     * Register a channel for read notifications.
+     * If the channel is already closed the handler is called so that it can observe the end of stream.
+     */
+    Registration register(final SelectableChannel channel, final Handler handler) {
+        final Loop loop = loops[Math.abs(next.getAndIncrement() % loops.length)];
+        final Registration registration = new Registration(loop);
+        loop.execute(() -> {
+            try {
+                registration.key = channel.register(loop.selector, OP_READ, handler);
+            } catch (ClosedChannelException ex) {
+                handler.handleReadable();
+            }
+        });
+        return registration;
+    }
+
+    void shutdown() {
+        for (Loop loop : loops) loop.stop();
+    }
+}
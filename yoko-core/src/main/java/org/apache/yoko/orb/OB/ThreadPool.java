@@ -17,95 +17,96 @@
 
 package org.apache.yoko.orb.OB;
 
-import org.apache.yoko.util.Assert;
+import org.apache.yoko.orb.exceptions.Transients;
 
-final class ThreadPool {
-    private boolean destroy_ = false; // True if destroy was called
-
-    private java.util.Vector requests_ = new java.util.Vector();
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-    private ThreadGroup group_; // Thread group for the threads in the pool
+import static java.util.concurrent.TimeUnit.SECONDS;
 
+final class ThreadPool {
     //
-    // ThreadPoolDispatcher
+    // A lock-free queue that hands each request straight to an idle
+    // thread if there is one. Otherwise the executor starts a new
+    // thread, or once the pool is at its maximum size it rejects the
+    // request, and the rejection handler queues it. Refusing the offer
+    // rather than asking the executor for its pool size keeps the
+    // executor's lock off this path.
     //
-    private class Dispatcher extends Thread {
-        private ThreadPool threadPool_;
+    private static final class WorkQueue extends LinkedTransferQueue<Runnable> {
+        @Override
+        public boolean offer(Runnable r) {
+            return tryTransfer(r);
+        }
 
-        Dispatcher(ThreadGroup group, ThreadPool threadPool, int id, int n) {
-            super(group, "Yoko:ThreadPool-" + id + ":Dispatcher-" + n);
-            threadPool_ = threadPool;
+        // queue unconditionally, for a request the executor could not start a thread for
+        void force(Runnable r) {
+            super.offer(r);
         }
+    }
 
-        public void run() {
-            while (true) {
-                DispatchRequest req = threadPool_.get();
+    private final WorkQueue queue_ = new WorkQueue();
 
-                //
-                // ThreadPool has terminated
-                //
-                if (req == null)
-                    return;
+    private final ThreadPoolExecutor executor_;
 
-                req.invoke();
-            }
-        }
-    }
+    private final int maxQueued_; // The most requests that may wait for a thread, or zero for no limit
 
-    public ThreadPool(int id, int n) {
-        //
-        // Create a new thread group. Place each of the threads in the
-        // pool in this new group.
-        //
-        group_ = new ThreadGroup("ThreadPool-" + id);
+    private final AtomicInteger queued_ = new AtomicInteger(); // The number of requests waiting for a thread
 
-        //
-        // Start all each of the threads in the pool
-        //
-        for (int i = 0; i < n; i++) {
-            Thread t = new Dispatcher(group_, this, id, i);
-            t.start();
-        }
-    }
+    private volatile boolean destroy_ = false; // True if destroy was called
 
-    protected void finalize() throws Throwable {
-        if (!destroy_)
-            throw new InternalError();
+    ThreadPool(int id, int n) {
+        this(id, n, n, 0, 0);
+    }
 
-        super.finalize();
+    //
+    // Create a pool of at least coreSize threads, growing to maxSize
+    // threads under load. Threads above the core size end once they
+    // have been idle for keepAliveSeconds.
+    //
+    ThreadPool(int id, int coreSize, int maxSize, int keepAliveSeconds, int maxQueued) {
+        final AtomicInteger n = new AtomicInteger();
+        maxQueued_ = maxQueued;
+        executor_ = new ThreadPoolExecutor(coreSize, Math.max(coreSize, maxSize), keepAliveSeconds, SECONDS, queue_,
+                r -> new Thread(r, "Yoko:ThreadPool-" + id + ":Dispatcher-" + n.getAndIncrement()),
+                (r, executor) -> {
+                    if (executor.isShutdown()) throw new RejectedExecutionException();
+                    queue_.force(r);
+                });
+        executor_.prestartAllCoreThreads();
     }
 
     void destroy() {
-        synchronized (this) {
-            if (destroy_)
-                return;
-            destroy_ = true;
-            notifyAll();
-        }
+        if (destroy_)
+            return;
+        destroy_ = true;
 
         //
-        // Wait for all the threads in the pool to end
+        // Discard any requests not yet dispatched, and wait for all
+        // the threads in the pool to end
         //
-        synchronized (group_) {
-            while (group_.activeCount() > 0) {
+        executor_.shutdown();
+        queue_.clear();
+        boolean interrupted = false;
+        try {
+            while (true) {
                 try {
-                    group_.wait();
+                    if (executor_.awaitTermination(1, TimeUnit.MINUTES))
+                        return;
                 } catch (InterruptedException ex) {
+                    interrupted = true;
                 }
             }
-
-            //
-            // Destroy the group
-            //
-            try {
-                group_.destroy();
-            } catch (IllegalThreadStateException ex) {
-                throw Assert.fail(ex);
-            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
         }
     }
 
-    synchronized void add(DispatchRequest request) {
+    void add(DispatchRequest request) {
         //
         // If the thread pool has been destroyed then this is an
         // OBJ_ADAPTER error
@@ -113,23 +114,22 @@ final class ThreadPool {
         if (destroy_)
             throw new org.omg.CORBA.OBJ_ADAPTER("Thread pool is destroyed");
 
-        requests_.addElement(request);
-        notify();
-    }
-
-    private synchronized DispatchRequest get() {
-        while (!destroy_ && requests_.isEmpty()) {
-            try {
-                wait();
-            } catch (InterruptedException ex) {
-            }
+        //
+        // If too many requests are already waiting then discard this one
+        //
+        if (queued_.incrementAndGet() > maxQueued_ && maxQueued_ > 0) {
+            queued_.decrementAndGet();
+            throw Transients.REQUEST_DISCARDED.create();
         }
 
-        DispatchRequest result = null;
-        if (!destroy_) {
-            result = (DispatchRequest) requests_.firstElement();
-            requests_.removeElementAt(0);
+        try {
+            executor_.execute(() -> {
+                queued_.decrementAndGet();
+                request.invoke();
+            });
+        } catch (RejectedExecutionException ex) {
+            queued_.decrementAndGet();
+            throw new org.omg.CORBA.OBJ_ADAPTER("Thread pool is destroyed");
         }
-        return result;
     }
 }
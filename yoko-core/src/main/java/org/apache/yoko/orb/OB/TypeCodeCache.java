@@ -17,41 +17,181 @@
 
 package org.apache.yoko.orb.OB;
 
-import java.util.Hashtable;
+import org.apache.yoko.orb.CORBA.TypeCode;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+//
+// Remembers the TypeCodes an ORB has read, both by repository ID and by
+// their encoding, so that a TypeCode arriving again need not be decoded.
+// At most maxEntries TypeCodes are kept by ID, and the encodings kept
+// add up to at most maxBytes. When either limit is reached, arbitrary
+// entries are dropped.
+//
 public final class TypeCodeCache {
-    private Hashtable cache_; // The type code cache hashtable
+    private final int maxEntries_;
+    private final long maxBytes_;
+
+    private final Map<String, TypeCode> byId_ = new ConcurrentHashMap<>();
+    private final Map<Encoding, TypeCode> byEncoding_ = new ConcurrentHashMap<>();
+    private final AtomicLong encodedBytes_ = new AtomicLong();
+
+    private final LongAdder hits_ = new LongAdder();
+    private final LongAdder misses_ = new LongAdder();
+    private final LongAdder evictions_ = new LongAdder();
+
+    //
+    // A complete encoded TypeCode. The same bytes decode to the same
+    // TypeCode only if they are read with the same byte order, from the
+    // same alignment, and with the same character conversion.
+    //
+    public static final class Encoding {
+        private final byte[] bytes;
+        private final int alignment;
+        private final boolean swap;
+        private final CodeConverterBase charConverter;
+        private final int hash;
+
+        public Encoding(byte[] bytes, int alignment, boolean swap, CodeConverterBase charConverter) {
+            this.bytes = bytes;
+            this.alignment = alignment;
+            this.swap = swap;
+            this.charConverter = charConverter;
+            this.hash = 31 * (31 * Arrays.hashCode(bytes) + alignment) + (swap ? 1 : 0);
+        }
 
-    static private TypeCodeCache instance_ = null; // Singleton instance
+        @Override
+        public int hashCode() {
+            return hash;
+        }
 
-    private static final Object instanceMutex_ = new Object();
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Encoding))
+                return false;
+            Encoding that = (Encoding) o;
+            return hash == that.hash
+                    && alignment == that.alignment
+                    && swap == that.swap
+                    && Objects.equals(charConverter, that.charConverter)
+                    && Arrays.equals(bytes, that.bytes);
+        }
+    }
 
     // ----------------------------------------------------------------------
-    // ORBInstance public member implementation
+    // TypeCodeCache public member implementation
     // ----------------------------------------------------------------------
 
-    TypeCodeCache() {
-        cache_ = new Hashtable(63);
+    public TypeCodeCache(int maxEntries, long maxBytes) {
+        maxEntries_ = maxEntries;
+        maxBytes_ = maxBytes;
     }
 
-    static public TypeCodeCache instance() {
-        synchronized (instanceMutex_) {
-            if (instance_ == null) {
-                instance_ = new TypeCodeCache();
-            }
-        }
-        return instance_;
+    public TypeCode get(String id) {
+        return count(byId_.get(id));
+    }
+
+    public void put(String id, TypeCode tc) {
+        if (maxEntries_ <= 0 || byId_.containsKey(id))
+            return;
+
+        while (byId_.size() >= maxEntries_ && evict(byId_))
+            ;
+        byId_.putIfAbsent(id, tc);
     }
 
-    synchronized public org.apache.yoko.orb.CORBA.TypeCode get(String id) {
-        return (org.apache.yoko.orb.CORBA.TypeCode) cache_.get(id);
+    public TypeCode get(Encoding encoding) {
+        return count(byEncoding_.get(encoding));
     }
 
-    synchronized public void put(String id,
-            org.apache.yoko.orb.CORBA.TypeCode tc) {
-        if (cache_.containsKey(id))
+    public void put(Encoding encoding, TypeCode tc) {
+        long weight = encoding.bytes.length;
+        if (weight > maxBytes_)
             return;
 
-        cache_.put(id, tc);
+        if (byEncoding_.putIfAbsent(encoding, tc) != null)
+            return;
+
+        //
+        // Make room by dropping other encodings. The one just added
+        // might go too if another thread is doing the same.
+        //
+        long total = encodedBytes_.addAndGet(weight);
+        while (total > maxBytes_) {
+            long freed = evictEncoding();
+            if (freed == 0)
+                break;
+            total = encodedBytes_.addAndGet(-freed);
+        }
+    }
+
+    public void clear() {
+        byId_.clear();
+        byEncoding_.clear();
+        encodedBytes_.set(0);
+    }
+
+    public long hits() {
+        return hits_.sum();
+    }
+
+    public long misses() {
+        return misses_.sum();
+    }
+
+    public long evictions() {
+        return evictions_.sum();
+    }
+
+    public int size() {
+        return byId_.size() + byEncoding_.size();
+    }
+
+    public long encodedBytes() {
+        return encodedBytes_.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TypeCodeCache[ids=%d encodings=%d bytes=%d hits=%d misses=%d evictions=%d]",
+                byId_.size(), byEncoding_.size(), encodedBytes(), hits(), misses(), evictions());
+    }
+
+    private TypeCode count(TypeCode tc) {
+        if (tc == null)
+            misses_.increment();
+        else
+            hits_.increment();
+        return tc;
+    }
+
+    private boolean evict(Map<?, TypeCode> map) {
+        Iterator<TypeCode> it = map.values().iterator();
+        if (!it.hasNext())
+            return false;
+        it.next();
+        it.remove();
+        evictions_.increment();
+        return true;
+    }
+
+    // returns the number of bytes freed
+    private long evictEncoding() {
+        for (Iterator<Encoding> it = byEncoding_.keySet().iterator(); it.hasNext(); ) {
+            Encoding encoding = it.next();
+            if (byEncoding_.remove(encoding) != null) {
+                evictions_.increment();
+                return encoding.bytes.length;
+            }
+        }
+        return 0;
     }
 }
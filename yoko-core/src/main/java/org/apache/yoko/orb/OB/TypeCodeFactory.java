@@ -18,6 +18,7 @@
 package org.apache.yoko.orb.OB;
 
 import org.apache.yoko.orb.CORBA.Any;
+import org.apache.yoko.orb.CORBA.CanonicalTypeCodes;
 import org.apache.yoko.orb.CORBA.TypeCode;
 import org.apache.yoko.util.Assert;
 import org.apache.yoko.util.MinorCodes;
@@ -191,6 +192,7 @@ public final class TypeCodeFactory {
             throw Assert.fail();
         }
 
+        tc = CanonicalTypeCodes.intern((TypeCode) tc);
         primitives_[kind.value()] = tc;
 
         return tc;
@@ -256,7 +258,7 @@ public final class TypeCodeFactory {
         }
 
         TypeCode._OB_embedRecTC(tc);
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createUnionTC(String id, String name,
@@ -377,7 +379,7 @@ public final class TypeCodeFactory {
         }
 
         TypeCode._OB_embedRecTC(tc);
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createEnumTC(String id, String name,
@@ -423,7 +425,7 @@ public final class TypeCodeFactory {
 
         System.arraycopy(members, 0, tc.memberNames_, 0, members.length);
 
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createAliasTC(String id, String name,
@@ -459,7 +461,7 @@ public final class TypeCodeFactory {
                     ._OB_convertForeignTypeCode(original_type);
         }
 
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createExceptionTC(String id,
@@ -522,7 +524,7 @@ public final class TypeCodeFactory {
         }
 
         TypeCode._OB_embedRecTC(tc);
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createInterfaceTC(String id,
@@ -546,7 +548,7 @@ public final class TypeCodeFactory {
         tc.id_ = id;
         tc.name_ = name;
 
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createStringTC(int bound) {
@@ -557,7 +559,7 @@ public final class TypeCodeFactory {
         tc.kind_ = org.omg.CORBA.TCKind.tk_string;
         tc.length_ = bound;
 
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createWStringTC(int bound) {
@@ -568,7 +570,7 @@ public final class TypeCodeFactory {
         tc.kind_ = org.omg.CORBA.TCKind.tk_wstring;
         tc.length_ = bound;
 
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createFixedTC(short digits, short scale) {
@@ -580,7 +582,7 @@ public final class TypeCodeFactory {
         tc.fixedDigits_ = digits;
         tc.fixedScale_ = scale;
 
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createSequenceTC(int bound,
@@ -603,7 +605,7 @@ public final class TypeCodeFactory {
             tc.contentType_ = TypeCode._OB_convertForeignTypeCode(element_type);
         }
 
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createRecursiveSequenceTC(int bound,
@@ -631,7 +633,7 @@ public final class TypeCodeFactory {
             tc.contentType_ = TypeCode._OB_convertForeignTypeCode(element_type);
         }
 
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createValueTC(String id, String name,
@@ -718,7 +720,7 @@ public final class TypeCodeFactory {
         }
 
         TypeCode._OB_embedRecTC(tc);
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createValueBoxTC(String id,
@@ -752,7 +754,7 @@ public final class TypeCodeFactory {
             tc.contentType_ = TypeCode._OB_convertForeignTypeCode(boxed_type);
         }
 
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createNativeTC(String id, String name) {
@@ -775,7 +777,7 @@ public final class TypeCodeFactory {
         tc.id_ = id;
         tc.name_ = name;
 
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createRecursiveTC(String id) {
@@ -815,7 +817,7 @@ public final class TypeCodeFactory {
         tc.id_ = id;
         tc.name_ = name;
 
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 
     public static org.omg.CORBA.TypeCode createLocalInterfaceTC(String id,
@@ -839,6 +841,6 @@ public final class TypeCodeFactory {
         tc.id_ = id;
         tc.name_ = name;
 
-        return tc;
+        return CanonicalTypeCodes.intern(tc);
     }
 }
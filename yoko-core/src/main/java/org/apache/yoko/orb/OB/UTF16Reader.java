@@ -57,7 +57,7 @@ final class UTF16Reader extends CodeSetReader {
             //
             // swap the character input
             //
-            v = (char) (((v >>> 8) & 0xff) | ((v << 8) & 0xff));
+            v = (char) (((v >>> 8) & 0xff) | ((v << 8) & 0xff00));
         }
 
         //
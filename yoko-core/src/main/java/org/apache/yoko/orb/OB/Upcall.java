@@ -158,7 +158,7 @@ public class Upcall {
 
     public void createOutputStream(int offset) {
         final GiopVersion giopVersion = GiopVersion.get(profileInfo_.major, profileInfo_.minor);
-        out_ = new OutputStream(Buffer.createWriteBuffer(offset).padAll(), in_._OB_codeConverters(), giopVersion);
+        out_ = new OutputStream(Buffer.createPooledWriteBuffer(offset).enableSegments().padAll(), in_._OB_codeConverters(), giopVersion);
     }
 
     public InputStream preUnmarshal() {
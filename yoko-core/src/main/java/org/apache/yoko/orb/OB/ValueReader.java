@@ -1615,6 +1615,10 @@ public final class ValueReader {
         skipChunk();
     }
 
+    public boolean isChunked() {
+        return chunkState_.chunked;
+    }
+
     public void checkChunk() {
         if (!chunkState_.chunked) {
             return;
@@ -514,16 +514,26 @@ public class ORB_impl extends ORBSingleton {
                 break;
             }
             case "yoko.orb.policy.connection_reuse": {
+                // true, false, or the number of connections to share per endpoint
                 boolean b;
+                int connections = 1;
                 if (value.equals("true")) b = true;
                 else if (value.equals("false")) b = false;
                 else {
-                    String err = "ORB.init: invalid value for " + "yoko.orb.policy.connection_reuse: `" + value + "'";
-                    logger.severe(err);
-                    throw new INITIALIZE(err);
+                    try {
+                        connections = Integer.parseInt(value);
+                    } catch (NumberFormatException ignored) {
+                        connections = 0;
+                    }
+                    if (connections < 1) {
+                        String err = "ORB.init: invalid value for " + "yoko.orb.policy.connection_reuse: `" + value + "'";
+                        logger.severe(err);
+                        throw new INITIALIZE(err);
+                    }
+                    b = true;
                 }
 
-                policies.add(new ConnectionReusePolicy_impl(b));
+                policies.add(new ConnectionReusePolicy_impl(b, connections));
                 break;
             }
             case "yoko.orb.policy.zero_port": {
@@ -829,6 +839,23 @@ public class ORB_impl extends ORBSingleton {
         return args;
     }
 
+    //
+    // Check that a numeric property parses as it will be parsed where
+    // it is used, as an int or a long, and is at least min
+    //
+    private static void checkAtLeast(Logger logger, String key, String value, long min, boolean isLong) {
+        String err = "ORB.init: invalid value for " + key + ": " + value;
+        try {
+            long n = isLong ? Long.parseLong(value) : Integer.parseInt(value);
+            if (n >= min)
+                return;
+            logger.severe(err);
+        } catch (NumberFormatException ex) {
+            logger.log(Level.SEVERE, err, ex);
+        }
+        throw new INITIALIZE(err);
+    }
+
     private void setParameters(StringSeqHolder args, final Properties initialProps, Logger logger) {
         if (args.value == null) args.value = new String[0];
 
@@ -857,9 +884,12 @@ public class ORB_impl extends ORBSingleton {
             Assert.ensure(value != null);
 
             if (key.equals("yoko.orb.conc_model")) {
-                if (value.equals("threaded")) {
+                if (value.equals("threaded") || value.equals("virtual_threads")) {
                     concModel = Client.Threaded;
                 }
+                else if (value.equals("reactive")) {
+                    concModel = Client.Reactive;
+                }
                 else {
                     logger.warning("ORB.init: unknown value for yoko.orb.conc_model: " + value);
                 }
@@ -923,6 +953,10 @@ public class ORB_impl extends ORBSingleton {
                 // Used by GIOPClientWorker
             } else if (key.startsWith("yoko.orb.service.")) {
                 // Ignore
+            } else if (key.equals("yoko.orb.oa.thread_pool.max")) {
+                checkAtLeast(logger, key, value, 1, false);
+            } else if (key.equals("yoko.orb.oa.thread_pool.keep_alive") || key.equals("yoko.orb.oa.thread_pool.max_queued")) {
+                checkAtLeast(logger, key, value, 0, false);
             } else if (key.startsWith("yoko.orb.oa.")) {
                 // Ignore
             } else if (key.startsWith("yoko.orb.poamanager.")) {
@@ -945,6 +979,16 @@ public class ORB_impl extends ORBSingleton {
                 }
             } else if (key.equals("yoko.orb.ami_workers")) {
                 // ignore
+            } else if (key.equals("yoko.orb.is_a_cache.size")) {
+                checkAtLeast(logger, key, value, 0, false);
+            } else if (key.equals("yoko.orb.is_a_cache.ttl")) {
+                checkAtLeast(logger, key, value, 0, true);
+            } else if (key.equals("yoko.orb.type_code_cache.size")) {
+                checkAtLeast(logger, key, value, 0, false);
+            } else if (key.equals("yoko.orb.type_code_cache.max_bytes")) {
+                checkAtLeast(logger, key, value, 0, true);
+            } else if (key.equals("yoko.orb.reactor_threads")) {
+                checkAtLeast(logger, key, value, 1, false);
             } else {
                 logger.warning("ORB.init: unknown property `" + key + "'");
             }
@@ -20,6 +20,9 @@ package org.apache.yoko.orb.OBPortableServer;
 import org.apache.yoko.util.Assert;
 import org.apache.yoko.util.MinorCodes;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 //
 // Mapping for ObjectId to a sequence of DirectStubImpl
 //
@@ -77,19 +80,21 @@ class DirectSeqEntry {
 //
 class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
     //
-    // The AOM
+    // The AOM. Lookups take no lock: changes to an entry are made while
+    // holding the entry's monitor.
     //
-    protected java.util.Hashtable activeObjectTable_;
+    protected final ObjectIdMap<TableEntry> activeObjectTable_ = new ObjectIdMap<>();
 
     //
     // Reverse map from servant to id
     //
-    protected java.util.Hashtable servantIdTable_;
+    protected final Map<org.omg.PortableServer.Servant, byte[]> servantIdTable_;
 
     //
-    // Mapping for ObjectId's to DirectStubImpl
+    // Mapping for ObjectId's to DirectStubImpl. Changes are made while
+    // holding its monitor.
     //
-    private java.util.Hashtable directSeqTable_;
+    private final ObjectIdMap<DirectSeqEntry> directSeqTable_ = new ObjectIdMap<>();
 
     //
     // The ORBInstance
@@ -99,21 +104,13 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
     //
     // This method is synchronized on the TableEntry
     //
-    protected void completeActivation(
-            org.apache.yoko.orb.OB.ObjectIdHasher oid,
+    protected void completeActivation(byte[] oid,
             org.omg.PortableServer.Servant servant, TableEntry entry) {
         //
         // If there is a DirectStubImpl that refers to a default servant
         // under this oid then deactivate each
         //
-        synchronized (directSeqTable_) {
-            DirectSeqEntry table;
-            table = (DirectSeqEntry) directSeqTable_.get(oid);
-            if (table != null) {
-                table.deactivate();
-                directSeqTable_.remove(oid);
-            }
-        }
+        deactivateDirectStubImpls(oid);
 
         //
         // If using UNIQUE_ID add the servant to the servantIdTable
@@ -121,7 +118,7 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
         if (servantIdTable_ != null) {
             Assert.ensure(!servantIdTable_
                     .containsKey(servant));
-            servantIdTable_.put(servant, oid.getObjectId());
+            servantIdTable_.put(servant, oid);
         }
 
         //
@@ -137,18 +134,12 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
     }
 
     protected void completeDeactivate(org.omg.PortableServer.POA poa,
-            org.apache.yoko.orb.OB.ObjectIdHasher oid, TableEntry entry) {
+            byte[] oid, TableEntry entry) {
         //
         // Mark each DirectServant associated with this oid as
         // deactivated
         //
-        synchronized (directSeqTable_) {
-            DirectSeqEntry table = (DirectSeqEntry) directSeqTable_.get(oid);
-            if (table != null) {
-                table.deactivate();
-                directSeqTable_.remove(oid);
-            }
-        }
+        deactivateDirectStubImpls(oid);
 
         //
         // If we're using UNIQUE_ID then remove the servant from the
@@ -169,15 +160,27 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
         entry.clearServant();
     }
 
+    private void deactivateDirectStubImpls(byte[] oid) {
+        //
+        // Most objects have no DirectServants, so only lock if there
+        // are some
+        //
+        if (directSeqTable_.get(oid) == null)
+            return;
+
+        synchronized (directSeqTable_) {
+            DirectSeqEntry table = directSeqTable_.remove(oid);
+            if (table != null)
+                table.deactivate();
+        }
+    }
+
     protected DirectServant completeDirectStubImpl(
             org.omg.PortableServer.POA poa, byte[] rawoid,
             org.omg.PortableServer.Servant servant,
             org.apache.yoko.orb.OB.RefCountPolicyList policies) {
         DirectServant directServant;
 
-        org.apache.yoko.orb.OB.ObjectIdHasher oid = new org.apache.yoko.orb.OB.ObjectIdHasher(
-                rawoid);
-
         //
         // No direct invocations for DSI servants
         //
@@ -207,17 +210,17 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
         // Create a DirectServant
         //
         directServant = new DirectServant(
-                (org.apache.yoko.orb.OBPortableServer.POA_impl) poa, oid
-                        .getObjectId(), servant);
+                (org.apache.yoko.orb.OBPortableServer.POA_impl) poa, rawoid,
+                servant);
 
         //
         // Add the DirectServant to the table
         //
         synchronized (directSeqTable_) {
-            DirectSeqEntry table = (DirectSeqEntry) directSeqTable_.get(oid);
+            DirectSeqEntry table = directSeqTable_.get(rawoid);
             if (table == null) {
-                table = new DirectSeqEntry(oid.getObjectId());
-                directSeqTable_.put(oid, table);
+                table = new DirectSeqEntry(rawoid);
+                directSeqTable_.putIfAbsent(rawoid, table);
             }
             table.add(directServant);
         }
@@ -228,20 +231,16 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
     ActiveObjectOnlyStrategy(
             org.apache.yoko.orb.OBPortableServer.POAPolicies policies,
             org.apache.yoko.orb.OB.ORBInstance orbInstance) {
-        activeObjectTable_ = new java.util.Hashtable(1023);
-        directSeqTable_ = new java.util.Hashtable(1023);
         orbInstance_ = orbInstance;
 
         if (policies.idUniquenessPolicy() == org.omg.PortableServer.IdUniquenessPolicyValue.UNIQUE_ID)
-            servantIdTable_ = new java.util.Hashtable(1023);
+            servantIdTable_ = new ConcurrentHashMap<>(1024);
         else
             servantIdTable_ = null;
     }
 
     public void destroy(org.omg.PortableServer.POA poa, boolean etherealize) {
-        synchronized (activeObjectTable_) {
-            activeObjectTable_.clear();
-        }
+        activeObjectTable_.clear();
 
         synchronized (directSeqTable_) {
             directSeqTable_.clear();
@@ -259,36 +258,33 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
             throws org.omg.PortableServer.POAPackage.ServantAlreadyActive,
             org.omg.PortableServer.POAPackage.WrongPolicy,
             org.omg.PortableServer.POAPackage.ObjectAlreadyActive {
-        org.apache.yoko.orb.OB.ObjectIdHasher oid = new org.apache.yoko.orb.OB.ObjectIdHasher(
-                rawoid);
-
         while (true) {
             boolean incarnate = false;
-            TableEntry entry;
 
             //
             // Find out whether a servant is already bound under this id
             // if not add an entry into the AOM
             //
-            synchronized (activeObjectTable_) {
-                entry = (TableEntry) activeObjectTable_.get(oid);
-                if (entry == null) {
-                    //
-                    // If using UNIQUE_ID, then verify that the
-                    // servant isn't already activated.
-                    //
-                    if (servantIdTable_ != null
-                            && servantIdTable_.containsKey(servant)) {
-                        throw new org.omg.PortableServer.POAPackage.ServantAlreadyActive();
-                    }
-
-                    //
-                    // Insert the servant in the active object table
-                    // with the provided id.
-                    //
-                    entry = new TableEntry();
-                    activeObjectTable_.put(oid, entry);
+            TableEntry entry = activeObjectTable_.get(rawoid);
+            if (entry == null) {
+                //
+                // If using UNIQUE_ID, then verify that the
+                // servant isn't already activated.
+                //
+                if (servantIdTable_ != null
+                        && servantIdTable_.containsKey(servant)) {
+                    throw new org.omg.PortableServer.POAPackage.ServantAlreadyActive();
                 }
+
+                //
+                // Insert the servant in the active object table
+                // with the provided id, unless another thread has
+                // just done so.
+                //
+                TableEntry newEntry = new TableEntry();
+                entry = activeObjectTable_.putIfAbsent(rawoid, newEntry);
+                if (entry == null)
+                    entry = newEntry;
             }
 
             synchronized (entry) {
@@ -309,7 +305,7 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
                 }
 
                 if (incarnate) {
-                    completeActivation(oid, servant, entry);
+                    completeActivation(rawoid, servant, entry);
                     return;
                 }
             }
@@ -319,19 +315,13 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
     public void deactivate(org.omg.PortableServer.POA poa, byte[] rawoid)
             throws org.omg.PortableServer.POAPackage.ObjectNotActive,
             org.omg.PortableServer.POAPackage.WrongPolicy {
-        org.apache.yoko.orb.OB.ObjectIdHasher oid = new org.apache.yoko.orb.OB.ObjectIdHasher(
-                rawoid);
-
         //
         // If no object in the active object table associated with
         // this key then raise an ObjectNotActive exception.
         //
-        TableEntry entry;
-        synchronized (activeObjectTable_) {
-            entry = (TableEntry) activeObjectTable_.get(oid);
-            if (entry == null)
-                throw new org.omg.PortableServer.POAPackage.ObjectNotActive();
-        }
+        TableEntry entry = activeObjectTable_.get(rawoid);
+        if (entry == null)
+            throw new org.omg.PortableServer.POAPackage.ObjectNotActive();
 
         boolean deactivate = false;
         synchronized (entry) {
@@ -350,14 +340,12 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
             }
 
             if (deactivate) {
-                completeDeactivate(poa, oid, entry);
+                completeDeactivate(poa, rawoid, entry);
 
                 //
                 // Remove the entry from the active object map
                 //
-                synchronized (activeObjectTable_) {
-                    activeObjectTable_.remove(oid);
-                }
+                activeObjectTable_.remove(rawoid, entry);
             }
         }
     }
@@ -366,21 +354,23 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
             org.apache.yoko.orb.PortableServer.Current_impl poaCurrent) {
         byte[] id = null;
         if (servantIdTable_ != null)
-            id = (byte[]) servantIdTable_.get(servant);
+            id = servantIdTable_.get(servant);
         return id;
     }
 
     public org.omg.PortableServer.Servant idToServant(byte[] rawoid,
             boolean useDefaultServant) {
-        org.apache.yoko.orb.OB.ObjectIdHasher oid = new org.apache.yoko.orb.OB.ObjectIdHasher(
-                rawoid);
         while (true) {
-            TableEntry entry;
-            synchronized (activeObjectTable_) {
-                entry = (TableEntry) activeObjectTable_.get(oid);
-                if (entry == null)
-                    return null;
-            }
+            TableEntry entry = activeObjectTable_.get(rawoid);
+            if (entry == null)
+                return null;
+
+            //
+            // Most lookups find an active servant, without locking
+            //
+            org.omg.PortableServer.Servant servant = entry.activeServant();
+            if (servant != null)
+                return servant;
 
             synchronized (entry) {
                 switch (entry.state()) {
@@ -419,15 +409,9 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
     }
 
     public void preinvoke(byte[] rawoid) {
-        org.apache.yoko.orb.OB.ObjectIdHasher oid = new org.apache.yoko.orb.OB.ObjectIdHasher(
-                rawoid);
-
-        TableEntry entry;
-        synchronized (activeObjectTable_) {
-            entry = (TableEntry) activeObjectTable_.get(oid);
-            if (entry == null)
-                return;
-        }
+        TableEntry entry = activeObjectTable_.get(rawoid);
+        if (entry == null)
+            return;
 
         synchronized (entry) {
             entry.incOutstandingRequest();
@@ -437,15 +421,9 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
     public void postinvoke(byte[] rawoid, org.omg.PortableServer.POA poa,
             String op, java.lang.Object cookie,
             org.omg.PortableServer.Servant servant) {
-        org.apache.yoko.orb.OB.ObjectIdHasher oid = new org.apache.yoko.orb.OB.ObjectIdHasher(
-                rawoid);
-
-        TableEntry entry;
-        synchronized (activeObjectTable_) {
-            entry = (TableEntry) activeObjectTable_.get(oid);
-            if (entry == null)
-                return;
-        }
+        TableEntry entry = activeObjectTable_.get(rawoid);
+        if (entry == null)
+            return;
 
         //
         // If the number of outstanding requests is now 0 and the
@@ -457,14 +435,12 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
                 deactivate = entry.state() == TableEntry.DEACTIVATE_PENDING;
 
             if (deactivate) {
-                completeDeactivate(poa, oid, entry);
+                completeDeactivate(poa, rawoid, entry);
 
                 //
                 // Remove the entry for the active object map
                 //
-                synchronized (activeObjectTable_) {
-                    activeObjectTable_.remove(oid);
-                }
+                activeObjectTable_.remove(rawoid, entry);
             }
         }
     }
@@ -483,13 +459,11 @@ class ActiveObjectOnlyStrategy implements ServantLocationStrategy {
     }
 
     public void removeDirectStubImpl(byte[] rawoid, DirectServant directStubImpl) {
-        org.apache.yoko.orb.OB.ObjectIdHasher oid = new org.apache.yoko.orb.OB.ObjectIdHasher(
-                rawoid);
         synchronized (directSeqTable_) {
-            DirectSeqEntry table = (DirectSeqEntry) directSeqTable_.get(oid);
+            DirectSeqEntry table = directSeqTable_.get(rawoid);
             if (table != null) {
                 if (table.remove(directStubImpl))
-                    directSeqTable_.remove(oid);
+                    directSeqTable_.remove(rawoid, table);
             }
         }
     }
@@ -0,0 +1,164 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.orb.OBPortableServer;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * A concurrent map keyed by object id.
+ * <p>
+ * The ids are used as keys directly, so a lookup allocates nothing, and it takes no lock.
+ * The map is split into segments, each guarded by its own lock for updates.
+ * The chains of entries in each bucket are never modified, only replaced,
+ * so a lookup always sees a consistent chain without locking.
+ * Iteration is weakly consistent, as for {@link java.util.concurrent.ConcurrentHashMap}.
+ * The ids must not be modified once they are in the map.
+ */
+final class ObjectIdMap<V> {
+    private static final int SEGMENT_BITS = 4;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAXIMUM_CAPACITY = 1 << (30 - SEGMENT_BITS);
+
+    private static final class Node<V> {
+        final int hash;
+        final byte[] id;
+        final V value;
+        final Node<V> next;
+
+        Node(int hash, byte[] id, V value, Node<V> next) {
+            this.hash = hash;
+            this.id = id;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private static final class Segment<V> {
+        volatile AtomicReferenceArray<Node<V>> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+        volatile int count;
+
+        synchronized V putIfAbsent(int hash, byte[] id, V value) {
+            final AtomicReferenceArray<Node<V>> tab = table;
+            final int i = hash & (tab.length() - 1);
+            final Node<V> head = tab.get(i);
+            for (Node<V> n = head; n != null; n = n.next)
+                if (n.hash == hash && Arrays.equals(n.id, id)) return n.value;
+            tab.set(i, new Node<>(hash, id, value, head));
+            if (++count > tab.length() - (tab.length() >>> 2)) resize(tab);
+            return null;
+        }
+
+        synchronized V remove(int hash, byte[] id, V value) {
+            final AtomicReferenceArray<Node<V>> tab = table;
+            final int i = hash & (tab.length() - 1);
+            final Node<V> head = tab.get(i);
+            for (Node<V> n = head; n != null; n = n.next) {
+                if (n.hash != hash || !Arrays.equals(n.id, id)) continue;
+                if (value != null && !value.equals(n.value)) return null;
+                // copy the nodes in front of the one removed
+                Node<V> newHead = n.next;
+                for (Node<V> p = head; p != n; p = p.next) newHead = new Node<>(p.hash, p.id, p.value, newHead);
+                tab.set(i, newHead);
+                count--;
+                return n.value;
+            }
+            return null;
+        }
+
+        private void resize(AtomicReferenceArray<Node<V>> oldTab) {
+            final int oldCapacity = oldTab.length();
+            if (oldCapacity >= MAXIMUM_CAPACITY) return;
+            final AtomicReferenceArray<Node<V>> newTab = new AtomicReferenceArray<>(oldCapacity << 1);
+            final int mask = newTab.length() - 1;
+            for (int i = 0; i < oldCapacity; i++) {
+                for (Node<V> n = oldTab.get(i); n != null; n = n.next) {
+                    final int j = n.hash & mask;
+                    newTab.set(j, new Node<>(n.hash, n.id, n.value, newTab.get(j)));
+                }
+            }
+            table = newTab;
+        }
+
+        synchronized void clear() {
+            table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+            count = 0;
+        }
+    }
+
+    private final Segment<V>[] segments;
+
+    @SuppressWarnings("unchecked")
+    ObjectIdMap() {
+        segments = new Segment[1 << SEGMENT_BITS];
+        for (int i = 0; i < segments.length; i++) segments[i] = new Segment<>();
+    }
+
+    private static int hash(byte[] id) {
+        final int h = Arrays.hashCode(id);
+        return h ^ (h >>> 16);
+    }
+
+    private Segment<V> segmentFor(int hash) {
+        return segments[hash >>> (32 - SEGMENT_BITS)];
+    }
+
+    V get(byte[] id) {
+        final int hash = hash(id);
+        final AtomicReferenceArray<Node<V>> tab = segmentFor(hash).table;
+        for (Node<V> n = tab.get(hash & (tab.length() - 1)); n != null; n = n.next)
+            if (n.hash == hash && Arrays.equals(n.id, id)) return n.value;
+        return null;
+    }
+
+    /** @return the value already mapped to the id, or null if the given value was added */
+    V putIfAbsent(byte[] id, V value) {
+        final int hash = hash(id);
+        return segmentFor(hash).putIfAbsent(hash, id, value);
+    }
+
+    /** @return the value removed, or null if there was none */
+    V remove(byte[] id) {
+        final int hash = hash(id);
+        return segmentFor(hash).remove(hash, id, null);
+    }
+
+    /** Remove the id only if it is still mapped to the given value */
+    boolean remove(byte[] id, V value) {
+        final int hash = hash(id);
+        return segmentFor(hash).remove(hash, id, value) != null;
+    }
+
+    void clear() {
+        for (Segment<V> segment: segments) segment.clear();
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment<V> segment: segments) size += segment.count;
+        return size;
+    }
+
+    void forEach(BiConsumer<? super byte[], ? super V> action) {
+        for (Segment<V> segment: segments) {
+            final AtomicReferenceArray<Node<V>> tab = segment.table;
+            for (int i = 0; i < tab.length(); i++)
+                for (Node<V> n = tab.get(i); n != null; n = n.next) action.accept(n.id, n.value);
+        }
+    }
+}
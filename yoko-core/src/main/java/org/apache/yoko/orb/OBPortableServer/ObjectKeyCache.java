@@ -0,0 +1,181 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OBPortableServer;
+
+import org.apache.yoko.orb.OB.ObjectKeyData;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//
+// Remembers which POA the object keys received by a POAManager refer
+// to, so that a request for an object in a POA that has been seen
+// before needs neither to parse its object key nor to look up the POA.
+//
+// Object keys are matched on the bytes that precede the object id,
+// i.e., the server id, the POA name and the POA's creation time, so
+// one entry serves every object in the POA. The cache is
+// direct-mapped: each prefix has a single slot and a newer prefix
+// simply replaces an older one in the same slot, so neither lookups
+// nor updates take a lock.
+//
+// Whenever a POA is removed from the POAManager the cache is
+// invalidated. Entries remember the generation of the cache they
+// were resolved in, so an entry for a POA that was looked up while
+// it was being removed is never returned.
+//
+final class ObjectKeyCache {
+    static final class Entry {
+        final byte[] prefix;
+
+        final org.omg.PortableServer.POA poa;
+
+        final ObjectKeyData data;
+
+        final int generation;
+
+        private Entry(byte[] prefix, org.omg.PortableServer.POA poa,
+                ObjectKeyData data, int generation) {
+            this.prefix = prefix;
+            this.poa = poa;
+            this.data = data;
+            this.generation = generation;
+        }
+
+        //
+        // The parsed form of a key that starts with this entry's prefix
+        //
+        ObjectKeyData keyData(byte[] key) {
+            byte[] oid = new byte[key.length - prefix.length];
+            System.arraycopy(key, prefix.length, oid, 0, oid.length);
+            return new ObjectKeyData(data.serverId, data.poaId, oid,
+                    data.persistent, data.createTime);
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> slots_;
+
+    private final AtomicInteger generation_ = new AtomicInteger();
+
+    ObjectKeyCache(int size) {
+        if (Integer.bitCount(size) != 1)
+            throw new IllegalArgumentException("cache size must be a power of two: " + size);
+        slots_ = new AtomicReferenceArray<>(size);
+    }
+
+    //
+    // Return the length of the part of an OB 4.x format object key that
+    // precedes the object id, or -1 if the key is not in that format.
+    // This must agree with ObjectKey.ParseObjectKey().
+    //
+    static int prefixLength(byte[] key) {
+        int end = key.length;
+        if (end <= 4 || key[0] != (byte) 0xab || key[1] != (byte) 0xac
+                || key[2] != (byte) 0xab)
+            return -1;
+
+        int data = 3;
+        if (key[data] == '1') {
+            //
+            // Skip the time stamp of a transient POA
+            //
+            while (++data < end && key[data] != '\0') {
+            }
+        } else if (key[data] != '0') {
+            return -1;
+        }
+
+        //
+        // The server id and the POA names are each terminated by a null
+        // byte, and the last of them by a second one. The object id that
+        // follows must not be empty.
+        //
+        for (++data; data + 2 < end; data++) {
+            if (key[data] == '\0' && key[data + 1] == '\0')
+                return data + 2;
+        }
+        return -1;
+    }
+
+    private static int hash(byte[] key, int length) {
+        int h = 1;
+        for (int i = 0; i < length; i++)
+            h = 31 * h + key[i];
+        return h ^ (h >>> 16);
+    }
+
+    private int index(int hash) {
+        return hash & (slots_.length() - 1);
+    }
+
+    //
+    // Find the entry for the POA to which an object key refers
+    //
+    Entry get(byte[] key) {
+        int length = prefixLength(key);
+        if (length < 0)
+            return null;
+
+        Entry entry = slots_.get(index(hash(key, length)));
+        if (entry == null || entry.generation != generation_.get())
+            return null;
+
+        byte[] prefix = entry.prefix;
+        if (prefix.length != length)
+            return null;
+        for (int i = 0; i < length; i++)
+            if (prefix[i] != key[i])
+                return null;
+
+        return entry;
+    }
+
+    //
+    // The current generation, to be read before resolving a POA that
+    // is then passed to put()
+    //
+    int generation() {
+        return generation_.get();
+    }
+
+    //
+    // Remember the POA that an object key was resolved to
+    //
+    void put(byte[] key, ObjectKeyData data, org.omg.PortableServer.POA poa,
+            int generation) {
+        int length = key.length - data.oid.length;
+        if (length != prefixLength(key))
+            return;
+
+        byte[] prefix = new byte[length];
+        System.arraycopy(key, 0, prefix, 0, length);
+        ObjectKeyData template = new ObjectKeyData(data.serverId, data.poaId,
+                null, data.persistent, data.createTime);
+        slots_.set(index(hash(prefix, length)), new Entry(prefix, poa,
+                template, generation));
+    }
+
+    //
+    // Forget all entries
+    //
+    void invalidate() {
+        generation_.incrementAndGet();
+        for (int i = 0; i < slots_.length(); i++)
+            slots_.set(i, null);
+    }
+}
@@ -24,15 +24,19 @@ import java.util.logging.Logger;
 final class POALocator {
     static final Logger logger = Logger.getLogger(POALocator.class.getName());
     
-    java.util.Hashtable poas_ = new java.util.Hashtable(63);
+    //
+    // The POAs are looked up for incoming requests without a lock
+    //
+    final java.util.Map<POANameHasher, org.omg.PortableServer.POA> poas_ = new java.util.concurrent.ConcurrentHashMap<>(63);
 
     //
     // Locate a POA
     //
-    synchronized org.omg.PortableServer.POA locate(
+    org.omg.PortableServer.POA locate(
             org.apache.yoko.orb.OB.ObjectKeyData data)
             throws org.apache.yoko.orb.OB.LocationForward {
-        logger.fine("Searching for POA " + data); 
+        if (logger.isLoggable(java.util.logging.Level.FINE))
+            logger.fine("Searching for POA " + data);
         //
         // If length of poa name sequence is zero we are looking
         // for a root POA and are doomed to fail.
@@ -41,7 +45,7 @@ final class POALocator {
             return null;
         }
 
-        org.omg.PortableServer.POA poa = (org.omg.PortableServer.POA) poas_.get(new POANameHasher(data.poaId));
+        org.omg.PortableServer.POA poa = poas_.get(new POANameHasher(data.poaId));
         if (poa == null) {
             logger.fine("POA not found by direct lookup, searching the hierarchy"); 
             //
@@ -60,7 +64,7 @@ final class POALocator {
                 poaId = newID;
                 POANameHasher key = new POANameHasher(poaId); 
                 logger.fine("Searching POA hierarchy for " + key); 
-                poa = (org.omg.PortableServer.POA) poas_.get(key);
+                poa = poas_.get(key);
                 if (poa != null) {
                     logger.fine("Located POA using " + key); 
                     break;
@@ -88,20 +92,18 @@ final class POALocator {
     //
     // Add a POA
     //
-    synchronized void add(org.omg.PortableServer.POA poa, String[] id) {
+    void add(org.omg.PortableServer.POA poa, String[] id) {
         POANameHasher idkey = new POANameHasher(id);
         logger.fine("Adding POA to locater using key " + idkey); 
-        Assert.ensure(!poas_.containsKey(idkey));
-        poas_.put(idkey, poa);
+        Assert.ensure(poas_.putIfAbsent(idkey, poa) == null);
     }
 
     //
     // Remove a POA
     //
-    synchronized void remove(String[] id) {
+    void remove(String[] id) {
         POANameHasher idkey = new POANameHasher(id);
         logger.fine("Removing POA from locater using key " + idkey); 
-        Assert.ensure(poas_.containsKey(idkey));
-        poas_.remove(idkey);
+        Assert.ensure(poas_.remove(idkey) != null);
     }
 }
@@ -43,6 +43,7 @@ import org.apache.yoko.orb.OCI.Acceptor;
 import org.apache.yoko.orb.OCI.InvalidParam;
 import org.apache.yoko.orb.OCI.NoSuchFactory;
 import org.apache.yoko.orb.OCI.ProfileInfo;
+import org.apache.yoko.orb.OCI.ReactiveAccFactory;
 import org.apache.yoko.orb.PortableInterceptor.IMRIORInterceptor_impl;
 import org.omg.CORBA.BAD_PARAM;
 import org.omg.CORBA.INITIALIZE;
@@ -175,6 +176,9 @@ final public class POAManagerFactory_impl extends LocalObject implements POAMana
             // constructor.
             List<Policy> policyList = new ArrayList<>();
 
+            // The concurrency model decides what kind of acceptors to create
+            CommunicationsConcurrencyPolicy commsPolicy = null;
+
             int nTmpPolicies = 0;
 
             int nPolicies = policies.length;
@@ -184,6 +188,8 @@ final public class POAManagerFactory_impl extends LocalObject implements POAMana
                     if (policyType == ENDPOINT_CONFIGURATION_POLICY_ID.value) {
                         endpointPolicy = EndpointConfigurationPolicyHelper.narrow(policy);
                     } else {
+                        if (policyType == COMMUNICATIONS_CONCURRENCY_POLICY_ID.value)
+                            commsPolicy = CommunicationsConcurrencyPolicyHelper.narrow(policy);
                         ++nTmpPolicies;
                         policyList.add(policy);
                     }
@@ -204,13 +210,26 @@ final public class POAManagerFactory_impl extends LocalObject implements POAMana
                 configs = endpointPolicy.value();
             }
 
+            // Reactive connections need selectable transports
+            final boolean reactive = commsPolicy == null
+                    ? "reactive".equals(props.getProperty("yoko.orb.poamanager." + id + ".conc_model", props.getProperty("yoko.orb.oa.conc_model")))
+                    : commsPolicy.value() == COMMUNICATIONS_CONCURRENCY_POLICY_REACTIVE.value;
+
             AccFactoryRegistry registry = orbInstance_.getAccFactoryRegistry();
 
             List<Acceptor> acceptors = new ArrayList<>();
             for (AcceptorConfig acceptorConfig : configs) {
                 try {
                     AccFactory factory = registry.get_factory(acceptorConfig.id);
-                    acceptors.add(factory.create_acceptor(acceptorConfig.params));
+                    if (!reactive) {
+                        acceptors.add(factory.create_acceptor(acceptorConfig.params));
+                    } else if (factory instanceof ReactiveAccFactory) {
+                        acceptors.add(((ReactiveAccFactory) factory).create_reactive_acceptor(acceptorConfig.params));
+                    } else {
+                        logger.warning("Acceptor factory `" + acceptorConfig.id + "' cannot create selectable transports, so POAManager `"
+                                + id + "' will use threaded connections for it");
+                        acceptors.add(factory.create_acceptor(acceptorConfig.params));
+                    }
                 } catch (NoSuchFactory ex) {
                     String err = "cannot find factory: " + ex;
                     logger.log(Level.SEVERE, err, ex);
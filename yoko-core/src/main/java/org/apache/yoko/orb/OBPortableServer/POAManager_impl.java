@@ -36,7 +36,7 @@ final public class POAManager_impl extends org.omg.CORBA.LocalObject implements
     //
     // Set of connected POAs
     //
-    private java.util.Hashtable poas_;
+    private final java.util.Map<POANameHasher, org.omg.PortableServer.POA> poas_ = new java.util.concurrent.ConcurrentHashMap<>(63);
 
     //
     // The POAManager state
@@ -66,7 +66,7 @@ final public class POAManager_impl extends org.omg.CORBA.LocalObject implements
     //
     // The OAInterface
     //
-    private org.apache.yoko.orb.OB.OAInterface oaInterface_;
+    private POAOAInterface_impl oaInterface_;
 
     //
     // The GIOP version
@@ -135,9 +135,8 @@ final public class POAManager_impl extends org.omg.CORBA.LocalObject implements
         //
         // Wait for all pending requests from all POAs to complete
         //
-        java.util.Enumeration keys = poas_.keys();
-        while (keys.hasMoreElements()) {
-            POA_impl poaImpl = (POA_impl) poas_.get(keys.nextElement());
+        for (org.omg.PortableServer.POA poa : poas_.values()) {
+            POA_impl poaImpl = (POA_impl) poa;
             poaImpl._OB_waitPendingRequests();
         }
     }
@@ -407,7 +406,6 @@ final public class POAManager_impl extends org.omg.CORBA.LocalObject implements
             org.apache.yoko.orb.OCI.Acceptor[] acceptors,
             org.omg.CORBA.Policy[] policies) throws org.omg.CORBA.PolicyError {
         orbInstance_ = orbInstance;
-        poas_ = new java.util.Hashtable(63);
         state_ = State.HOLDING;
         acceptors_ = acceptors;
         id_ = id;
@@ -477,9 +475,9 @@ final public class POAManager_impl extends org.omg.CORBA.LocalObject implements
             String key = (String) keys.nextElement();
 
             //
-            // Ignore yoko.orb.oa.thread_pool
+            // Ignore yoko.orb.oa.thread_pool and its settings
             //
-            if (key.equals("yoko.orb.oa.thread_pool"))
+            if (key.equals("yoko.orb.oa.thread_pool") || key.startsWith("yoko.orb.oa.thread_pool."))
                 continue;
 
             //
@@ -527,7 +525,7 @@ final public class POAManager_impl extends org.omg.CORBA.LocalObject implements
             commsPolicyPresent = true;
             short value = commsPolicy.value();
             if (value == COMMUNICATIONS_CONCURRENCY_POLICY_REACTIVE.value) {
-                concModel = org.apache.yoko.orb.OB.Server.Blocking;
+                concModel = org.apache.yoko.orb.OB.Server.Reactive;
             } else if (value == COMMUNICATIONS_CONCURRENCY_POLICY_THREADED.value) {
                 concModel = org.apache.yoko.orb.OB.Server.Threaded;
             } else {
@@ -594,6 +592,8 @@ final public class POAManager_impl extends org.omg.CORBA.LocalObject implements
                 if (key.equals("conc_model") && !commsPolicyPresent) {
                     if (value.equals("threaded"))
                         concModel = org.apache.yoko.orb.OB.Server.Threaded;
+                    else if (value.equals("reactive"))
+                        concModel = org.apache.yoko.orb.OB.Server.Reactive;
                     //
                     // Technically the only valid values for
                     // yoko.orb.poamanager.*.conc_model are "reactive" and
@@ -609,6 +609,8 @@ final public class POAManager_impl extends org.omg.CORBA.LocalObject implements
                         concModel = org.apache.yoko.orb.OB.Server.Threaded;
                     else if (value.equals("thread_pool"))
                         concModel = org.apache.yoko.orb.OB.Server.Threaded;
+                    else if (value.equals("virtual_threads"))
+                        concModel = org.apache.yoko.orb.OB.Server.Threaded;
                     else {
                         String err = fullkey + ": unknown value";
                         logger.warning(err);
@@ -653,8 +655,7 @@ final public class POAManager_impl extends org.omg.CORBA.LocalObject implements
         POANameHasher idkey = new POANameHasher(id);
         
         logger.fine("Adding new poa with id " + idkey); 
-        Assert.ensure(!poas_.containsKey(idkey));
-        poas_.put(idkey, poa);
+        Assert.ensure(poas_.putIfAbsent(idkey, poa) == null);
 
         poaLocator_.add(poa, id);
     }
@@ -665,10 +666,10 @@ final public class POAManager_impl extends org.omg.CORBA.LocalObject implements
     synchronized void _OB_removePOA(String[] id) {
         POANameHasher idkey = new POANameHasher(id);
         logger.fine("Removing poa with id " + idkey); 
-        Assert.ensure(poas_.containsKey(idkey));
-        poas_.remove(idkey);
+        Assert.ensure(poas_.remove(idkey) != null);
 
         poaLocator_.remove(id);
+        oaInterface_.invalidateKeyCache();
     }
 
     DirectServant _OB_getDirectServant(byte[] key,
@@ -719,13 +720,15 @@ final public class POAManager_impl extends org.omg.CORBA.LocalObject implements
         // INACTIVE state, then something is wrong.
         //
         Assert.ensure(get_state() != State.INACTIVE);
-        logger.fine("Searching for direct servant with key " + data); 
+        if (logger.isLoggable(java.util.logging.Level.FINE))
+            logger.fine("Searching for direct servant with key " + data);
 
         org.omg.PortableServer.POA poa = null;
         if (data.serverId.equals(serverId_)) {
             POANameHasher key = new POANameHasher(data.poaId); 
-            logger.fine("Searching for direct servant with poa key " + key); 
-            poa = (org.omg.PortableServer.POA) poas_.get(key); 
+            if (logger.isLoggable(java.util.logging.Level.FINE))
+                logger.fine("Searching for direct servant with poa key " + key);
+            poa = poas_.get(key);
             if (poa == null) {
                 //
                 // The POA isn't contained in our local POA table. Ask the
@@ -76,6 +76,11 @@ final class POAOAInterface_impl extends LocalObject implements OAInterface {
     //
     private boolean discard_;
 
+    //
+    // The POAs to which recently received object keys refer
+    //
+    private final ObjectKeyCache keyCache_ = new ObjectKeyCache(64);
+
     // ----------------------------------------------------------------------
     // Package member implementation
     // ----------------------------------------------------------------------
@@ -88,6 +93,14 @@ final class POAOAInterface_impl extends LocalObject implements OAInterface {
                 .getBootManager();
     }
 
+    //
+    // Forget the POAs that object keys were resolved to, since one of
+    // them has gone away
+    //
+    void invalidateKeyCache() {
+        keyCache_.invalidate();
+    }
+
     // ----------------------------------------------------------------------
     // Public member implementation
     // ----------------------------------------------------------------------
@@ -99,7 +112,8 @@ final class POAOAInterface_impl extends LocalObject implements OAInterface {
             String op, InputStream in,
             ServiceContexts requestContexts) {
         Upcall upcall = null;
-        logger.fine("Creating upcall for operation " + op); 
+        if (logger.isLoggable(Level.FINE))
+            logger.fine("Creating upcall for operation " + op);
         try {
             //
             // If discarding then throw a TRANSIENT exception
@@ -110,16 +124,26 @@ final class POAOAInterface_impl extends LocalObject implements OAInterface {
                         CompletionStatus.COMPLETED_NO);
             }
 
-            ObjectKeyData data = new ObjectKeyData();
-            if (ObjectKey.ParseObjectKey(profileInfo.key, data)) {
+            byte[] key = profileInfo.key;
+            ObjectKeyCache.Entry cached = keyCache_.get(key);
+            ObjectKeyData data = (cached == null) ? new ObjectKeyData() : cached.keyData(key);
+            if (cached != null || ObjectKey.ParseObjectKey(key, data)) {
                 while (true) {
                     //
                     // Locate the POA. This may also throw a TRANSIENT
                     // exception if the POA manager is discarding.
                     //
-                    org.omg.PortableServer.POA poa = poaManager_._OB_locatePOA(data);
+                    org.omg.PortableServer.POA poa;
+                    if (cached != null) {
+                        poa = cached.poa;
+                        cached = null;
+                    } else {
+                        int generation = keyCache_.generation();
+                        poa = poaManager_._OB_locatePOA(data);
+                        if (poa != null)
+                            keyCache_.put(key, data, poa, generation);
+                    }
                     if (poa != null) {
-                        logger.fine("Unable to locate POA " + data + " using POAManager " + poaManager_.get_id()); 
                         POA_impl poaImpl = (POA_impl) poa;
                         upcall = poaImpl._OB_createUpcall(data.oid, upcallReturn, profileInfo, transportInfo, requestId, op, in, requestContexts);
                         //
@@ -181,12 +205,22 @@ final class POAOAInterface_impl extends LocalObject implements OAInterface {
     }
 
     public int findByKey(byte[] key, IORHolder ior) {
-        ObjectKeyData data = new ObjectKeyData();
-        if (ObjectKey.ParseObjectKey(key, data)) {
+        ObjectKeyCache.Entry cached = keyCache_.get(key);
+        ObjectKeyData data = (cached == null) ? new ObjectKeyData() : cached.keyData(key);
+        if (cached != null || ObjectKey.ParseObjectKey(key, data)) {
             try {
-                logger.fine("Locate request for object key " + data);  
-                
-                org.omg.PortableServer.POA poa = poaManager_._OB_locatePOA(data);
+                if (logger.isLoggable(Level.FINE))
+                    logger.fine("Locate request for object key " + data);
+
+                org.omg.PortableServer.POA poa;
+                if (cached != null) {
+                    poa = cached.poa;
+                } else {
+                    int generation = keyCache_.generation();
+                    poa = poaManager_._OB_locatePOA(data);
+                    if (poa != null)
+                        keyCache_.put(key, data, poa, generation);
+                }
                 if (poa != null) {
                     POA_impl poaImpl = (POA_impl) poa;
                     poaImpl._OB_locateServant(data.oid);
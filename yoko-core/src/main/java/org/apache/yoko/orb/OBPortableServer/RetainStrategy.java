@@ -27,7 +27,7 @@ class RetainStrategy extends ActiveObjectOnlyStrategy {
 
     private DefaultServantHolder defaultServant_;
 
-    private void etherealize(org.apache.yoko.orb.OB.ObjectIdHasher oid,
+    private void etherealize(byte[] oid,
             org.omg.PortableServer.POA poa,
             org.omg.PortableServer.Servant servant, boolean cleanup) {
         //
@@ -51,44 +51,33 @@ class RetainStrategy extends ActiveObjectOnlyStrategy {
                     // active object map, then we still have remaining
                     // activations.
                     //
-                    java.util.Enumeration keys = activeObjectTable_.keys();
-                    while (keys.hasMoreElements()) {
-                        TableEntry entry;
-                        synchronized (activeObjectTable_) {
-                            entry = (TableEntry) activeObjectTable_.get(keys
-                                    .nextElement());
-                        }
-
-                        if (entry == null)
-                            continue;
-
+                    final boolean[] found = { false };
+                    activeObjectTable_.forEach((id, entry) -> {
+                        if (found[0])
+                            return;
                         synchronized (entry) {
                             if (entry.state() != TableEntry.DEACTIVATED
                                     && entry.state() != TableEntry.ACTIVATE_PENDING) {
-                                if (entry.getServant() == servant) {
-                                    remaining = true;
-                                    break;
-                                }
+                                if (entry.getServant() == servant)
+                                    found[0] = true;
                             }
                         }
-                    }
+                    });
+                    remaining = found[0];
                 }
             }
 
-            servantManager_.etherealize(oid.getObjectId(), poa, servant,
+            servantManager_.etherealize(oid, poa, servant,
                     cleanup, remaining);
         }
     }
 
-    protected void cleanupEntry(org.apache.yoko.orb.OB.ObjectIdHasher oid,
-            TableEntry entry) {
+    protected void cleanupEntry(byte[] oid, TableEntry entry) {
         //
         // Cleanup the active object map and mark the
         // entry as deactivated.
         //
-        synchronized (activeObjectTable_) {
-            activeObjectTable_.remove(oid);
-        }
+        activeObjectTable_.remove(oid, entry);
 
         synchronized (entry) {
             entry.setDeactivated();
@@ -96,7 +85,7 @@ class RetainStrategy extends ActiveObjectOnlyStrategy {
     }
 
     protected void completeDeactivate(org.omg.PortableServer.POA poa,
-            org.apache.yoko.orb.OB.ObjectIdHasher oid, TableEntry entry) {
+            byte[] oid, TableEntry entry) {
         org.omg.PortableServer.Servant servant = entry.getServant();
 
         super.completeDeactivate(poa, oid, entry);
@@ -115,18 +104,13 @@ class RetainStrategy extends ActiveObjectOnlyStrategy {
 
     public void destroy(org.omg.PortableServer.POA poa, boolean e) {
         if (servantManager_ != null && e) {
-            java.util.Enumeration keys = activeObjectTable_.keys();
-            while (keys.hasMoreElements()) {
+            java.util.List<byte[]> keys = new java.util.ArrayList<>();
+            activeObjectTable_.forEach((id, entry) -> keys.add(id));
+            for (byte[] key : keys) {
                 org.omg.PortableServer.Servant servant = null;
-                TableEntry entry = null;
-                org.apache.yoko.orb.OB.ObjectIdHasher key = (org.apache.yoko.orb.OB.ObjectIdHasher) keys
-                        .nextElement();
 
                 while (true) {
-                    synchronized (activeObjectTable_) {
-                        entry = (TableEntry) activeObjectTable_.get(key);
-                    }
-
+                    TableEntry entry = activeObjectTable_.get(key);
                     if (entry == null)
                         break;
 
@@ -147,9 +131,7 @@ class RetainStrategy extends ActiveObjectOnlyStrategy {
                                 //
                                 // Remove the entry from the active object map
                                 //
-                                synchronized (activeObjectTable_) {
-                                    activeObjectTable_.remove(key);
-                                }
+                                activeObjectTable_.remove(key, entry);
                             }
                             break;
 
@@ -202,35 +184,42 @@ class RetainStrategy extends ActiveObjectOnlyStrategy {
             org.omg.PortableServer.POA poa, String op,
             org.omg.PortableServer.ServantLocatorPackage.CookieHolder cookie)
             throws org.apache.yoko.orb.OB.LocationForward {
-        org.apache.yoko.orb.OB.ObjectIdHasher oid = new org.apache.yoko.orb.OB.ObjectIdHasher(
-                rawoid);
         while (true) {
             boolean incarnate = false;
-            TableEntry entry;
 
-            synchronized (activeObjectTable_) {
-                entry = (TableEntry) activeObjectTable_.get(oid);
-                if (entry == null) {
-                    if (defaultServant_ != null) {
-                        org.omg.PortableServer.Servant servant = defaultServant_
-                                .getDefaultServant();
-
-                        if (servant == null) {
-                            throw new org.omg.CORBA.OBJ_ADAPTER(
-                                    MinorCodes
-                                            .describeObjAdapter(MinorCodes.MinorNoDefaultServant),
-                                    MinorCodes.MinorNoDefaultServant,
-                                    org.omg.CORBA.CompletionStatus.COMPLETED_NO);
-                        }
-                        return servant;
+            TableEntry entry = activeObjectTable_.get(rawoid);
+            if (entry != null) {
+                //
+                // Most requests find an active servant, without locking
+                //
+                org.omg.PortableServer.Servant servant = entry.activeServant();
+                if (servant != null)
+                    return servant;
+            } else {
+                if (defaultServant_ != null) {
+                    org.omg.PortableServer.Servant servant = defaultServant_
+                            .getDefaultServant();
+
+                    if (servant == null) {
+                        throw new org.omg.CORBA.OBJ_ADAPTER(
+                                MinorCodes
+                                        .describeObjAdapter(MinorCodes.MinorNoDefaultServant),
+                                MinorCodes.MinorNoDefaultServant,
+                                org.omg.CORBA.CompletionStatus.COMPLETED_NO);
                     }
+                    return servant;
+                }
 
-                    //
-                    // Insert the servant entry in the active object table
-                    // with the provided id.
-                    //
-                    entry = new TableEntry();
-                    activeObjectTable_.put(oid, entry);
+                //
+                // Insert the servant entry in the active object table
+                // with the provided id, unless another thread has just
+                // done so, in which case wait for it to incarnate the
+                // servant.
+                //
+                TableEntry newEntry = new TableEntry();
+                entry = activeObjectTable_.putIfAbsent(rawoid, newEntry);
+                if (entry == null) {
+                    entry = newEntry;
                     incarnate = true;
                 }
             }
@@ -238,7 +227,7 @@ class RetainStrategy extends ActiveObjectOnlyStrategy {
             org.omg.PortableServer.Servant servant = null;
             if (incarnate) {
                 try {
-                    servant = servantManager_.incarnate(oid.getObjectId(), poa);
+                    servant = servantManager_.incarnate(rawoid, poa);
 
                     //
                     // 11-25:
@@ -257,7 +246,7 @@ class RetainStrategy extends ActiveObjectOnlyStrategy {
                     //
                     if (servantIdTable_ != null && // TODO: initialize anyway?
                             servantIdTable_.containsKey(servant)) {
-                        byte[] oid2 = (byte[]) servantIdTable_.get(servant);
+                        byte[] oid2 = servantIdTable_.get(servant);
                         if (!org.apache.yoko.orb.OB.ObjectIdHasher.comp(rawoid,
                                 oid2))
                             throw new org.omg.CORBA.OBJ_ADAPTER(
@@ -265,10 +254,10 @@ class RetainStrategy extends ActiveObjectOnlyStrategy {
                                             + "is already active for a different object ID");
                     }
                 } catch (org.apache.yoko.orb.OB.LocationForward l) {
-                    cleanupEntry(oid, entry);
+                    cleanupEntry(rawoid, entry);
                     throw l;
                 } catch (org.omg.CORBA.SystemException e) {
-                    cleanupEntry(oid, entry);
+                    cleanupEntry(rawoid, entry);
                     throw e;
                 }
             }
@@ -277,7 +266,7 @@ class RetainStrategy extends ActiveObjectOnlyStrategy {
                 switch (entry.state()) {
                 case TableEntry.ACTIVATE_PENDING:
                     if (incarnate) {
-                        completeActivation(oid, servant, entry);
+                        completeActivation(rawoid, servant, entry);
                         return servant;
                     } else {
                         entry.waitForStateChange();
@@ -21,9 +21,10 @@ import org.apache.yoko.util.Assert;
 
 class TableEntry {
     //
-    // The servant
+    // The servant. This and the state are only changed while holding
+    // this entry's monitor, but may be read without it.
     //
-    private org.omg.PortableServer.Servant servant_;
+    private volatile org.omg.PortableServer.Servant servant_;
 
     //
     // The state of the TableEntry
@@ -36,7 +37,7 @@ class TableEntry {
 
     final static int DEACTIVATED = 3; // Entry has been deactivated
 
-    private int state_;
+    private volatile int state_;
 
     //
     // The number of outstanding requests
@@ -65,6 +66,16 @@ class TableEntry {
         return servant_;
     }
 
+    //
+    // The servant if the entry is active, or null if it must be
+    // synchronized on to find out. Does not need the entry's monitor.
+    //
+    org.omg.PortableServer.Servant activeServant() {
+        if (state_ != ACTIVE)
+            return null;
+        return servant_;
+    }
+
     //
     // Is the table entry active?
     //
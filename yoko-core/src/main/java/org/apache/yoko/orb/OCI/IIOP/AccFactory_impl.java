@@ -21,10 +21,10 @@ import org.apache.yoko.orb.CORBA.InputStream;
 import org.apache.yoko.orb.CORBA.OutputStream;
 import org.apache.yoko.util.Assert;
 import org.apache.yoko.orb.OB.Net;
-import org.apache.yoko.orb.OCI.AccFactory;
 import org.apache.yoko.orb.OCI.Acceptor;
 import org.apache.yoko.orb.OCI.IIOP.Acceptor_impl.ProfileCardinality;
 import org.apache.yoko.orb.OCI.InvalidParam;
+import org.apache.yoko.orb.OCI.ReactiveAccFactory;
 import org.omg.CORBA.LocalObject;
 import org.omg.CORBA.ORB;
 import org.omg.CORBA.ORBPackage.InvalidName;
@@ -48,7 +48,7 @@ import static org.apache.yoko.orb.OCI.IIOP.Acceptor_impl.ProfileCardinality.MANY
 import static org.apache.yoko.orb.OCI.IIOP.Acceptor_impl.ProfileCardinality.ONE;
 import static org.apache.yoko.orb.OCI.IIOP.Acceptor_impl.ProfileCardinality.ZERO;
 
-final class AccFactory_impl extends LocalObject implements AccFactory {
+final class AccFactory_impl extends LocalObject implements ReactiveAccFactory {
     static final Logger logger = Logger.getLogger(AccFactory_impl.class.getName());
     private static final Encoding CDR_1_2_ENCODING = new Encoding(ENCODING_CDR_ENCAPS.value, (byte) 1, (byte) 2);
     private final AccFactoryInfo_impl info_;
@@ -74,6 +74,20 @@ final class AccFactory_impl extends LocalObject implements AccFactory {
     }
 
     public Acceptor create_acceptor(String[] params) throws InvalidParam {
+        return createAcceptor(params, connectionHelper_);
+    }
+
+    public Acceptor create_reactive_acceptor(String[] params) throws InvalidParam {
+        // The default helper's sockets are not selectable, so use channel-backed ones instead
+        if (connectionHelper_ != null && connectionHelper_.getClass() == DefaultConnectionHelper.class)
+            return createAcceptor(params, new NioConnectionHelper());
+        if (!(connectionHelper_ instanceof NioConnectionHelper))
+            logger.warning("Connection helper " + (connectionHelper_ == null ? extendedConnectionHelper_ : connectionHelper_)
+                    + " may not create selectable sockets, so reactive connections may fall back to threaded ones");
+        return createAcceptor(params, connectionHelper_);
+    }
+
+    private Acceptor createAcceptor(String[] params, ConnectionHelper connectionHelper) throws InvalidParam {
         String bind = null;
         String[] hosts = null;
         boolean keepAlive = true;
@@ -184,7 +198,7 @@ final class AccFactory_impl extends LocalObject implements AccFactory {
         }
 
         // this constructor modifies the provided ListenerMap
-        return new Acceptor_impl(bind, hosts, numProfiles, port, backlog, keepAlive, connectionHelper_, extendedConnectionHelper_, listenMap_, params, codec);
+        return new Acceptor_impl(bind, hosts, numProfiles, port, backlog, keepAlive, connectionHelper, extendedConnectionHelper_, listenMap_, params, codec);
     }
 
     public void change_key(IORHolder ior, byte[] key) {
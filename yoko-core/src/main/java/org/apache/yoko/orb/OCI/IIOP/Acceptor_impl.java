@@ -143,7 +143,9 @@ final class Acceptor_impl extends LocalObject implements Acceptor {
         }
 
         try {
-            Transport tr = new Transport_impl(this, socket, listenMap_);
+            Transport tr = socket.getChannel() == null
+                    ? new Transport_impl(this, socket, listenMap_)
+                    : new NioTransport_impl(this, socket.getChannel(), listenMap_);
             if (CONN_IN_LOG.isLoggable(FINE))
                 CONN_IN_LOG.fine("Inbound connection received from " + socket.getInetAddress());
             return tr;
@@ -187,7 +189,9 @@ final class Acceptor_impl extends LocalObject implements Acceptor {
 
         // Create and return new transport
         try {
-            return new Transport_impl(this, socket, listenMap_);
+            return socket.getChannel() == null
+                    ? new Transport_impl(this, socket, listenMap_)
+                    : new NioTransport_impl(this, socket.getChannel(), listenMap_);
         } catch (SystemException ex) {
             try {
                 socket.close();
@@ -76,6 +76,8 @@ final class Connector_impl extends org.omg.CORBA.LocalObject implements Connecto
 
     private final Codec codec_;
 
+    private int hash; // lazily computed, since it may need to resolve the host
+
 
     // ------------------------------------------------------------------
     // Private and protected functions
@@ -152,7 +154,9 @@ final class Connector_impl extends org.omg.CORBA.LocalObject implements Connecto
         //
         Transport tr = null;
         try {
-            tr = new Transport_impl(socket_, listenMap_);
+            tr = socket_.getChannel() == null
+                    ? new Transport_impl(socket_, listenMap_)
+                    : new NioTransport_impl(socket_.getChannel(), listenMap_);
             socket_ = null;
         } catch (org.omg.CORBA.SystemException ex) {
             logger.log(FINE, "Transport creation error", ex);
@@ -312,7 +316,9 @@ final class Connector_impl extends org.omg.CORBA.LocalObject implements Connecto
         //
         Transport tr = null;
         try {
-            tr = new Transport_impl(socket_, listenMap_);
+            tr = socket_.getChannel() == null
+                    ? new Transport_impl(socket_, listenMap_)
+                    : new NioTransport_impl(socket_.getChannel(), listenMap_);
             socket_ = null;
         } catch (org.omg.CORBA.SystemException ex) {
             logger.log(FINE, "Transport setup error", ex);
@@ -392,6 +398,14 @@ final class Connector_impl extends org.omg.CORBA.LocalObject implements Connecto
                 Arrays.equals(transportInfo, that.transportInfo) : false);
     }
 
+    /** Consistent with {@link #equal}, so that connectors can be used to look up clients */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) hash = h = (Net.HashHost(info_.getHost()) * 31 + info_.getPort()) * 31 + Arrays.hashCode(transportInfo);
+        return h;
+    }
+
     private byte[] extractTransportInfo(IOR ior) {
         ProfileInfoHolder holder = new ProfileInfoHolder();
         // we need to extract the profile information from the IOR to see if this connection has
@@ -0,0 +1,83 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OCI.IIOP;
+
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.IOP.IOR;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A connection helper that creates channel-backed sockets,
+ * so that connections can be serviced by the reactive concurrency model.
+ * This helper is used in place of {@link DefaultConnectionHelper}
+ * when the ORB is configured with <code>yoko.orb.conc_model=reactive</code>,
+ * and for the acceptors of POAManagers that use the reactive concurrency model.
+ */
+public class NioConnectionHelper implements ConnectionHelper {
+    public void init(ORB orb, String parms) {
+        // no initializer parameters required by this version.
+    }
+
+    public Socket createSocket(IOR ior, Policy[] policies, InetAddress address, int port) throws IOException {
+        return createSocket(address, port);
+    }
+
+    public Socket createSelfConnection(InetAddress address, int port) throws IOException {
+        return createSocket(address, port);
+    }
+
+    private static Socket createSocket(InetAddress address, int port) throws IOException {
+        final SocketAddress endpoint = new InetSocketAddress(address, port);
+        final SocketChannel channel = SocketChannel.open();
+        try {
+            channel.socket().setTcpNoDelay(true);
+            channel.connect(endpoint);
+            return channel.socket();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+        return createServerSocket(port, backlog, null);
+    }
+
+    public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+        final SocketAddress endpoint = new InetSocketAddress(address, port);
+        final ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            final ServerSocket serverSocket = channel.socket();
+            serverSocket.setReuseAddress(port != 0);
+            serverSocket.bind(endpoint, backlog);
+            return serverSocket;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+}
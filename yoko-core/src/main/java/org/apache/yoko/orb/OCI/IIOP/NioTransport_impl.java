@@ -0,0 +1,251 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OCI.IIOP;
+
+import org.apache.yoko.giop.MessageType;
+import org.apache.yoko.io.ReadBuffer;
+import org.apache.yoko.io.WriteBuffer;
+import org.apache.yoko.orb.OCI.Acceptor;
+import org.apache.yoko.orb.OCI.ReactiveTransport;
+import org.apache.yoko.orb.OCI.SendReceiveMode;
+import org.apache.yoko.orb.OCI.Transport;
+import org.omg.CORBA.COMM_FAILURE;
+import org.omg.CORBA.LocalObject;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.channels.SelectionKey.OP_READ;
+import static java.nio.channels.SelectionKey.OP_WRITE;
+import static java.util.logging.Level.FINE;
+import static org.apache.yoko.orb.OCI.IIOP.Exceptions.asCommFailure;
+import static org.apache.yoko.orb.OCI.SendReceiveMode.SendReceive;
+import static org.apache.yoko.util.MinorCodes.MinorRecv;
+import static org.apache.yoko.util.MinorCodes.MinorRecvZero;
+import static org.apache.yoko.util.MinorCodes.MinorSend;
+import static org.apache.yoko.util.MinorCodes.MinorSocket;
+import static org.apache.yoko.util.MinorCodes.describeCommFailure;
+import static org.omg.CORBA.CompletionStatus.COMPLETED_NO;
+
+/**
+ * An IIOP transport over a non-blocking {@link SocketChannel}.
+ * <p>
+ * The channel is switched to non-blocking mode on construction so that it can be
+ * registered with a reactor's selector. Blocking sends and receives are still
+ * supported (e.g. for the threaded concurrency model, or for replies written on
+ * the caller's thread) by waiting for readiness on a private selector.
+ */
+final class NioTransport_impl extends LocalObject implements ReactiveTransport {
+    // the real logger backing instance.  We use the interface class as the locator
+    private static final Logger logger = Logger.getLogger(Transport.class.getName());
+
+    private final SocketChannel channel_;
+    final Socket socket_;
+    private final TransportInfo_impl info_;
+    private volatile boolean shutdown_; // True if shutdown() was called
+    private Selector readSelector_; // opened on the first blocking receive
+    private Selector writeSelector_; // opened on the first blocking send
+
+    // ------------------------------------------------------------------
+    // Private and protected member implementations
+    // ------------------------------------------------------------------
+
+    private synchronized Selector selectorFor(int op) throws IOException {
+        if (op == OP_READ) {
+            if (readSelector_ == null) channel_.register(readSelector_ = Selector.open(), OP_READ);
+            return readSelector_;
+        }
+        if (writeSelector_ == null) channel_.register(writeSelector_ = Selector.open(), OP_WRITE);
+        return writeSelector_;
+    }
+
+    /** Wait until the channel is ready for <code>op</code>, or the timeout (in millis, zero meaning none) expires */
+    private void await(int op, long timeout) throws IOException {
+        if (shutdown_) throw new ClosedChannelException();
+        final Selector selector = selectorFor(op);
+        try {
+            synchronized (selector) {
+                selector.select(timeout);
+                selector.selectedKeys().clear();
+            }
+        } catch (ClosedSelectorException ex) {
+            throw (IOException) new ClosedChannelException().initCause(ex);
+        }
+    }
+
+    private void shutdownSocket() {
+        try {
+            channel_.shutdownInput();
+            channel_.shutdownOutput();
+        } catch (IOException ignored) {
+            // the channel may already have been closed
+        }
+    }
+
+    private synchronized void closeSelectors() {
+        for (Selector selector : new Selector[]{readSelector_, writeSelector_}) {
+            if (selector == null) continue;
+            try {
+                selector.close(); // wakes up any thread blocked in await()
+            } catch (IOException ex) {
+                logger.log(Level.FINE, "Selector close error", ex);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Standard IDL to Java Mapping
+    // ------------------------------------------------------------------
+
+    public SendReceiveMode mode() {
+        return SendReceive;
+    }
+
+    public void close() {
+        shutdownSocket();
+        try {
+            channel_.close();
+        } catch (IOException ignored) {
+        }
+        closeSelectors();
+    }
+
+    public void shutdown() {
+        logger.fine("shutdown: " + this);
+        shutdown_ = true;
+        close();
+    }
+
+    public void receive(WriteBuffer writeBuffer, boolean block) {
+        if (logger.isLoggable(FINE)) logger.fine("receiving a buffer of " + writeBuffer.available() + " from " + socket_ + " using transport " + this);
+        try {
+            while (!writeBuffer.isComplete()) {
+                final int read = writeBuffer.readFrom(channel_);
+                if (read < 0) throw new COMM_FAILURE(describeCommFailure(MinorRecvZero), MinorRecvZero, COMPLETED_NO);
+                if (read > 0) continue;
+                if (!block) return;
+                await(OP_READ, 0);
+            }
+        } catch (IOException ex) {
+            logger.log(Level.FINE, "Socket read error", ex);
+            throw asCommFailure(ex, MinorRecv, shutdown_ ? "I/O error during shutdown" : "I/O error during read");
+        }
+    }
+
+    public void send(ReadBuffer readBuffer, boolean block) {
+        if (logger.isLoggable(FINE)) logger.fine("Sending buffer of size " + readBuffer.available() + " to " + socket_);
+        MessageType.logOutgoingGiopMessage(readBuffer);
+        try {
+            while (!readBuffer.isComplete()) {
+                if (readBuffer.writeTo(channel_) > 0) continue;
+                if (!block) return;
+                await(OP_WRITE, 0);
+            }
+        } catch (IOException ex) {
+            logger.log(Level.FINE, "Socket write error", ex);
+            throw asCommFailure(ex, MinorSend, "I/O error during write");
+        }
+    }
+
+    public boolean send_detect(ReadBuffer readBuffer, boolean block) {
+        MessageType.logOutgoingGiopMessage(readBuffer);
+        try {
+            while (!readBuffer.isComplete()) {
+                if (readBuffer.writeTo(channel_) > 0) continue;
+                if (!block) return true;
+                await(OP_WRITE, 0);
+            }
+        } catch (IOException ex) {
+            return false;
+        }
+        return true;
+    }
+
+    public void send_timeout(ReadBuffer readBuffer, int t) {
+        if (t < 0)
+            throw new InternalError();
+
+        if (t == 0) {
+            send(readBuffer, false);
+            return;
+        }
+
+        MessageType.logOutgoingGiopMessage(readBuffer);
+        final long deadline = System.currentTimeMillis() + t;
+        try {
+            while (!readBuffer.isComplete()) {
+                if (readBuffer.writeTo(channel_) > 0) continue;
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return;
+                await(OP_WRITE, remaining);
+            }
+        } catch (IOException ex) {
+            logger.log(Level.FINE, "Socket write error", ex);
+            throw asCommFailure(ex, MinorSend, "I/O error during write");
+        }
+    }
+
+    public org.apache.yoko.orb.OCI.TransportInfo get_info() {
+        return info_;
+    }
+
+    public SelectableChannel channel() {
+        return channel_;
+    }
+
+    // ------------------------------------------------------------------
+    // Yoko internal functions
+    // Application programs must not use these functions directly
+    // ------------------------------------------------------------------
+
+    private static SocketChannel nonBlocking(SocketChannel channel) {
+        try {
+            channel.configureBlocking(false);
+            return channel;
+        } catch (IOException ex) {
+            logger.log(Level.FINE, "Socket setup error", ex);
+            throw asCommFailure(ex, MinorSocket, "unable to configure non-blocking socket channel");
+        }
+    }
+
+    // client-side constructor
+    NioTransport_impl(SocketChannel channel, ListenerMap lm) {
+        channel_ = nonBlocking(channel);
+        socket_ = channel.socket();
+        info_ = new TransportInfo_impl(this, lm);
+    }
+
+    // server-side constructor
+    NioTransport_impl(Acceptor acceptor, SocketChannel channel, ListenerMap lm) {
+        channel_ = nonBlocking(channel);
+        socket_ = channel.socket();
+        logger.fine("Creating new transport for socket " + socket_);
+        info_ = new TransportInfo_impl(this, acceptor, lm);
+    }
+
+    public String toString() {
+        return String.format("Transport to %s with channel %s", info_, channel_);
+    }
+}
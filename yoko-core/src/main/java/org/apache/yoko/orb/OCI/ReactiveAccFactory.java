@@ -0,0 +1,40 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OCI;
+
+/**
+ *
+ * An AccFactory that can create Acceptors whose Transports are
+ * {@link ReactiveTransport}s, for POAManagers that use the reactive
+ * concurrency model.
+ *
+ * @see AccFactory
+ * @see ReactiveTransport
+ *
+ **/
+public interface ReactiveAccFactory extends AccFactory {
+    /**
+     * Create an Acceptor in the same way as <code>create_acceptor</code>,
+     * except that the Transports it accepts are selectable where possible.
+     *
+     * @param params The parameters for the Acceptor.
+     * @return The new Acceptor.
+     * @exception org.apache.yoko.orb.OCI.InvalidParam If any of the parameters are invalid.
+     **/
+    Acceptor create_reactive_acceptor(String[] params) throws InvalidParam;
+}
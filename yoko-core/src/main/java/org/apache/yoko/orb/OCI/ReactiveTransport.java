@@ -0,0 +1,42 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OCI;
+
+import java.nio.channels.SelectableChannel;
+
+/**
+ *
+ * A Transport whose data can be received in response to readiness
+ * events from a {@link java.nio.channels.Selector}, rather than by
+ * a thread blocking in <code>receive</code>. The channel is always
+ * in non-blocking mode, so <code>receive(writeBuffer, false)</code>
+ * returns as soon as no more data is immediately available.
+ *
+ * @see Transport
+ *
+ **/
+public interface ReactiveTransport extends Transport {
+    /**
+     * Returns the channel underlying this Transport, for registration
+     * with a selector. Callers must not read from or write to the
+     * channel directly.
+     *
+     * @return The non-blocking channel.
+     **/
+    SelectableChannel channel();
+}
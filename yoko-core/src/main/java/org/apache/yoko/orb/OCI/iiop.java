@@ -27,7 +27,9 @@ import org.apache.yoko.osgi.ProviderLocator;
 public class iiop implements PluginInit {
     static final Logger logger = Logger.getLogger(iiop.class.getName());
     // default settings for loading the connectionHelper "plugin-to-the-plugin"
-    private String connectionHelper = "org.apache.yoko.orb.OCI.IIOP.DefaultConnectionHelper";
+    private static final String DEFAULT_CONNECTION_HELPER = "org.apache.yoko.orb.OCI.IIOP.DefaultConnectionHelper";
+    private static final String NIO_CONNECTION_HELPER = "org.apache.yoko.orb.OCI.IIOP.NioConnectionHelper";
+    private String connectionHelper = DEFAULT_CONNECTION_HELPER;
     private String helperArgs = "";
 
     //
@@ -52,6 +54,15 @@ public class iiop implements PluginInit {
         //
         args.value = parse_args(args.value, props);
 
+        //
+        // The reactive client concurrency model needs selectable sockets.
+        // Reactive POAManagers get them from ReactiveAccFactory instead.
+        //
+        if (DEFAULT_CONNECTION_HELPER.equals(connectionHelper) && "reactive".equals(props.getProperty("yoko.orb.conc_model"))) {
+            logger.fine("Using " + NIO_CONNECTION_HELPER + " for the reactive concurrency model");
+            connectionHelper = NIO_CONNECTION_HELPER;
+        }
+
         try {
             // get the appropriate class for the loading.
             ClassLoader loader = Thread.currentThread().getContextClassLoader();
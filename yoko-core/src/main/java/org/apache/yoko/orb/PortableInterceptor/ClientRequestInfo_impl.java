@@ -25,7 +25,6 @@ import org.apache.yoko.orb.OB.ObjectFactory;
 import org.apache.yoko.orb.OB.PIDowncall;
 import org.apache.yoko.orb.OB.Util;
 import org.apache.yoko.orb.OCI.ProfileInfo;
-import org.apache.yoko.util.CollectionExtras;
 import org.apache.yoko.util.cmsf.CmsfThreadLocal;
 import org.apache.yoko.util.cmsf.CmsfThreadLocal.CmsfOverride;
 import org.apache.yoko.util.yasf.YasfThreadLocal;
@@ -44,7 +43,6 @@ import org.omg.IOP.IOR;
 import org.omg.IOP.ServiceContext;
 import org.omg.IOP.TaggedComponent;
 import org.omg.IOP.TaggedProfile;
-import org.omg.PortableInterceptor.ClientRequestInfo;
 import org.omg.PortableInterceptor.ClientRequestInterceptor;
 import org.omg.PortableInterceptor.ForwardRequest;
 import org.omg.PortableInterceptor.LOCATION_FORWARD;
@@ -52,8 +50,6 @@ import org.omg.PortableInterceptor.SUCCESSFUL;
 import org.omg.PortableInterceptor.SYSTEM_EXCEPTION;
 import org.omg.PortableInterceptor.USER_EXCEPTION;
 
-import java.util.List;
-
 import static org.apache.yoko.util.Assert.ensure;
 import static org.apache.yoko.util.MinorCodes.MinorInvalidComponentId;
 import static org.apache.yoko.util.MinorCodes.MinorInvalidPICall;
@@ -61,11 +57,13 @@ import static org.apache.yoko.util.MinorCodes.MinorInvalidPolicyType;
 import static org.apache.yoko.util.MinorCodes.describeBadInvOrder;
 import static org.apache.yoko.util.MinorCodes.describeBadParam;
 import static org.apache.yoko.util.MinorCodes.describeInvPolicy;
-import static org.apache.yoko.util.CollectionExtras.newSynchronizedList;
 import static org.omg.CORBA.CompletionStatus.COMPLETED_NO;
 
-final public class ClientRequestInfo_impl extends RequestInfo_impl implements ClientRequestInfo {
-    private final List<ClientRequestInterceptor> interceptors = newSynchronizedList();
+final public class ClientRequestInfo_impl extends RequestInfo_impl implements ClientRequestInfoExt {
+    private static final ClientRequestInterceptor[] NO_INTERCEPTORS = {};
+    // The interceptors for this request, of which the first interceptorsCalled need their reply points called
+    private ClientRequestInterceptor[] interceptors = NO_INTERCEPTORS;
+    private int interceptorsCalled;
     private final IOR effectiveIor;
     private final IOR originalIor;
     private final ProfileInfo profileInfo;
@@ -81,7 +79,7 @@ final public class ClientRequestInfo_impl extends RequestInfo_impl implements Cl
      *     TODO: try fixing this?
      * </strong> (See CORBA 3.0.3 21.4.4.6 paragraph 3)
      */
-    private final Any[] newThreadScopePICurrentSlotData;
+    private final Current_impl.SlotTable newThreadScopePICurrentSlotData;
 
     // Returns the target object on which the current request was invoked.
     //
@@ -245,6 +243,12 @@ final public class ClientRequestInfo_impl extends RequestInfo_impl implements Cl
         requestContexts.mutable().add(sc, addReplace);
     }
 
+    public void addEncodedRequestServiceContext(ServiceContext sc, boolean addReplace) {
+        if (replyStatus >= 0) throw new BAD_INV_ORDER(describeBadInvOrder(MinorInvalidPICall), MinorInvalidPICall, COMPLETED_NO);
+
+        requestContexts.mutable().addEncoded(sc, addReplace);
+    }
+
     public ClientRequestInfo_impl(ORB orb, ORBInstance orbInstance, Current_impl current, PIDowncall dc) {
         super(orb, orbInstance, current, dc);
         this.effectiveIor = dc.effectiveIor;
@@ -256,7 +260,7 @@ final public class ClientRequestInfo_impl extends RequestInfo_impl implements Cl
     }
 
 
-    public void _OB_request(List<ClientRequestInterceptor> interceptors) throws LocationForward {
+    public void _OB_request(ClientRequestInterceptor[] interceptors) throws LocationForward {
         // The PICurrent needs a new set of slot data
         requestSlotData = piCurrent._OB_currentSlotData();
         currentNeedsPopping = true;
@@ -267,12 +271,13 @@ final public class ClientRequestInfo_impl extends RequestInfo_impl implements Cl
         argStrategy.setArgsAvail(true);
         argStrategy.setExceptAvail(true);
 
+        this.interceptors = interceptors;
         try (CmsfOverride cmsfo = CmsfThreadLocal.override();
              YasfOverride yasfo = YasfThreadLocal.override()) {
             for(ClientRequestInterceptor interceptor: interceptors) {
                 try {
                     interceptor.send_request(this);
-                    this.interceptors.add(interceptor);
+                    interceptorsCalled++;
                 } catch (SystemException ex) {
                     replyStatus = SYSTEM_EXCEPTION.value;
                     receivedException = ex;
@@ -297,7 +302,8 @@ final public class ClientRequestInfo_impl extends RequestInfo_impl implements Cl
 
         try (CmsfOverride cmsfo = CmsfThreadLocal.override();
              YasfOverride yasfo = YasfThreadLocal.override()) {
-            for (ClientRequestInterceptor i: CollectionExtras.removeInReverse(interceptors)) {
+            while (interceptorsCalled > 0) {
+                ClientRequestInterceptor i = interceptors[--interceptorsCalled];
                 try {
                     switch (replyStatus) {
                     case SUCCESSFUL.value:
@@ -0,0 +1,58 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.orb.PortableInterceptor;
+
+import org.omg.PortableInterceptor.ClientRequestInterceptor;
+
+/**
+ * A client request interceptor that keeps per-thread state from
+ * send_request until the receive interception point for the same request.
+ * An asynchronous invocation is received on a different thread from the one
+ * that sent it, so the ORB uses these operations to carry that state across.
+ */
+public interface ClientRequestInterceptorExt extends ClientRequestInterceptor {
+
+    /**
+     * Capture this interceptor's state for the current thread.
+     * @return an opaque token to pass to {@link #restoreThreadState(Object)}
+     */
+    public Object saveThreadState();
+
+    /**
+     * Replace this interceptor's state for the current thread with one
+     * captured by {@link #saveThreadState()}.
+     */
+    public void restoreThreadState(Object state);
+
+    /**
+     * Capture whatever send_request reads from the calling thread, such as the
+     * caller's identity, so that the request can be resent on another thread.
+     * @return an opaque token to pass to {@link #installCallerContext(Object)}
+     */
+    default Object captureCallerContext() {
+        return null;
+    }
+
+    /**
+     * Make a context captured by {@link #captureCallerContext()} the one that
+     * send_request uses on the current thread.
+     * @return the context it replaces, to be installed again afterwards
+     */
+    default Object installCallerContext(Object context) {
+        return null;
+    }
+}
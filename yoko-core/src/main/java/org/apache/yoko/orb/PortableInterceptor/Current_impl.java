@@ -28,75 +28,89 @@ package org.apache.yoko.orb.PortableInterceptor;
 
 import org.apache.yoko.util.Assert;
 
+import java.util.Arrays;
 import java.util.logging.Logger;
 
+import static java.util.logging.Level.FINE;
+
 final public class Current_impl extends org.omg.CORBA.LocalObject implements
         org.omg.PortableInterceptor.Current {
     // the real logger backing instance.  We use the interface class as the locator
     static final Logger logger = Logger.getLogger(Current_impl.class.getName());
-    
-    private class SlotData {
-        org.omg.CORBA.Any[] slots;
 
-        SlotData next;
+    //
+    // A set of slots. The slots themselves are only allocated when one
+    // is first set, since most requests never set any.
+    //
+    static final class SlotTable {
+        // Shared by every request that starts with no slots set, so it
+        // must never be written to
+        static final SlotTable EMPTY = new SlotTable();
 
-        SlotData(org.omg.CORBA.Any[] s) {
-            slots = s;
+        private org.omg.CORBA.Any[] slots;
+
+        org.omg.CORBA.Any get(int id) {
+            return slots == null ? null : slots[id];
         }
 
-        SlotData() {
-            slots = new org.omg.CORBA.Any[0];
+        void set(int id, org.omg.CORBA.Any any, int maxSlots) {
+            Assert.ensure(this != EMPTY);
+            if (slots == null)
+                slots = new org.omg.CORBA.Any[maxSlots];
+            slots[id] = any;
         }
-    }
 
-    private class SlotDataHolder {
-        SlotData head;
+        SlotTable copy() {
+            if (slots == null)
+                return EMPTY;
+            SlotTable result = new SlotTable();
+            result.slots = new org.omg.CORBA.Any[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] != null) {
+                    result.slots[i] = new org.apache.yoko.orb.CORBA.Any(slots[i]);
+                }
+            }
+            return result;
+        }
     }
 
     //
-    // The WeakHashMap is not thread-safe so we need to utilize one of
-    // these thread-safe wrappers
-    // 
-    private java.util.Map stateKey_ = java.util.Collections
-            .synchronizedMap(new java.util.WeakHashMap());
+    // The slot tables of one thread, most recent last
+    //
+    private static final class SlotStack {
+        SlotTable[] tables = {new SlotTable(), null, null, null};
 
-    private org.omg.CORBA.ORB orb_; // Java only
+        int depth = 1;
 
-    private int maxSlots_;
+        SlotTable head() {
+            return tables[depth - 1];
+        }
 
-    // ------------------------------------------------------------------
-    // Private member implementations
-    // ------------------------------------------------------------------
+        void push(SlotTable table) {
+            if (depth == tables.length)
+                tables = Arrays.copyOf(tables, depth * 2);
+            tables[depth++] = table;
+        }
 
-    private SlotDataHolder establishTSD(boolean partial) {
-        Thread t = Thread.currentThread();
-        SlotDataHolder holder_ = (SlotDataHolder) stateKey_.get(t);
-
-        //
-        // If the data isn't already allocated then allocate a new
-        // SlotDataHolder and a new set of slots
-        //
-        if (holder_ == null) {
-            holder_ = new SlotDataHolder();
-            stateKey_.put(t, holder_);
-
-            org.omg.CORBA.Any[] slots = null;
-
-            //
-            // This is an optimization. If this is a partial allocation
-            // then it's not necessary to allocate data for the actual
-            // slots.
-            //
-            if (!partial) {
-                slots = new org.omg.CORBA.Any[maxSlots_];
-            }
+        void pop() {
+            Assert.ensure(depth > 1);
+            tables[--depth] = null;
+        }
+    }
 
-            holder_.head = new SlotData(slots);
-            holder_.head.next = null;
+    //
+    // Each thread has its own stack of slot tables for this ORB
+    //
+    private final ThreadLocal<SlotStack> stacks_ = new ThreadLocal<SlotStack>() {
+        @Override
+        protected SlotStack initialValue() {
+            return new SlotStack();
         }
+    };
 
-        return holder_;
-    }
+    private org.omg.CORBA.ORB orb_; // Java only
+
+    private int maxSlots_;
 
     // ------------------------------------------------------------------
     // Public member implementations
@@ -108,12 +122,10 @@ final public class Current_impl extends org.omg.CORBA.LocalObject implements
             throw new org.omg.PortableInterceptor.InvalidSlot();
         }
 
-        logger.fine("getting slot " + id); 
+        if (logger.isLoggable(FINE)) logger.fine("getting slot " + id);
         
-        SlotDataHolder holder = establishTSD(false);
-
         org.omg.CORBA.Any result;
-        org.omg.CORBA.Any slot = holder.head.slots[id];
+        org.omg.CORBA.Any slot = stacks_.get().head().get(id);
         if (slot == null) {
             result = orb_.create_any();
         }
@@ -130,11 +142,9 @@ final public class Current_impl extends org.omg.CORBA.LocalObject implements
             throw new org.omg.PortableInterceptor.InvalidSlot();
         }
         
-        logger.fine("setting slot " + id); 
+        if (logger.isLoggable(FINE)) logger.fine("setting slot " + id);
 
-        SlotDataHolder holder = establishTSD(false);
-
-        holder.head.slots[id] = new org.apache.yoko.orb.CORBA.Any(any);
+        stacks_.get().head().set(id, new org.apache.yoko.orb.CORBA.Any(any), maxSlots_);
     }
 
     // ------------------------------------------------------------------
@@ -146,17 +156,8 @@ final public class Current_impl extends org.omg.CORBA.LocalObject implements
         orb_ = orb;
     }
 
-    org.omg.CORBA.Any[] _OB_currentSlotData() {
-        SlotDataHolder holder = establishTSD(false);
-
-        org.omg.CORBA.Any[] data = new org.omg.CORBA.Any[holder.head.slots.length];
-        for (int i = 0; i < holder.head.slots.length; i++) {
-            org.omg.CORBA.Any slot = holder.head.slots[i];
-            if (slot != null) {
-                data[i] = new org.apache.yoko.orb.CORBA.Any(slot);
-            }
-        }
-        return data;
+    SlotTable _OB_currentSlotData() {
+        return stacks_.get().head().copy();
     }
 
     //
@@ -167,25 +168,39 @@ final public class Current_impl extends org.omg.CORBA.LocalObject implements
     // On the server side the set of slots are shared between the
     // interceptor and the server side PICurrent
     //
-    void _OB_pushSlotData(org.omg.CORBA.Any[] slots) {
+    void _OB_pushSlotData(SlotTable slots) {
         logger.fine("pushing slot data"); 
-        SlotDataHolder holder = establishTSD(false);
-
-        SlotData newSlots = new SlotData(slots);
-        newSlots.next = holder.head;
-        holder.head = newSlots;
+        stacks_.get().push(slots);
     }
 
     void _OB_popSlotData() {
         logger.fine("popping slot data"); 
-        SlotDataHolder holder = establishTSD(false);
+        stacks_.get().pop();
+    }
+
+    //
+    // A request may be resent on another thread on behalf of this one,
+    // so the slots it starts with are captured here and pushed there
+    //
+    public Object _OB_captureSlotData() {
+        return _OB_currentSlotData();
+    }
+
+    public void _OB_pushCapturedSlotData(Object slots) {
+        SlotTable table = (SlotTable) slots;
+        _OB_pushSlotData(table == SlotTable.EMPTY ? new SlotTable() : table.copy());
+    }
+
+    public void _OB_popCapturedSlotData() {
+        _OB_popSlotData();
+    }
 
-        holder.head = holder.head.next;
-        Assert.ensure(holder.head != null);
+    SlotTable _OB_newSlotTable() {
+        return new SlotTable();
     }
 
-    org.omg.CORBA.Any[] _OB_newSlotTable() {
-        return new org.omg.CORBA.Any[maxSlots_];
+    int _OB_maxSlots() {
+        return maxSlots_;
     }
 
     public void _OB_setMaxSlots(int max) {
@@ -38,6 +38,7 @@ import org.omg.PortableInterceptor.RequestInfo;
 
 import java.util.logging.Logger;
 
+import static java.util.logging.Level.FINE;
 import static org.apache.yoko.util.Assert.ensure;
 import static org.apache.yoko.util.MinorCodes.MinorInvalidPICall;
 import static org.apache.yoko.util.MinorCodes.MinorInvalidServiceContextId;
@@ -64,7 +65,7 @@ public class RequestInfo_impl extends LocalObject implements RequestInfo {
     protected ArgumentStrategy argStrategy;
     protected Exception receivedException; // only when status_ == [SYSTEM|USER]_EXCEPTION)
     protected String receivedId;
-    protected Any[] requestSlotData;
+    protected Current_impl.SlotTable requestSlotData;
     protected boolean currentNeedsPopping;
 
     // The ID uniquely identifies an active request/reply sequence.
@@ -276,15 +277,16 @@ public class RequestInfo_impl extends LocalObject implements RequestInfo {
     //
     public Any get_slot(int id)
             throws InvalidSlot {
-        if (id >= requestSlotData.length) {
+        if (id >= piCurrent._OB_maxSlots()) {
             throw new InvalidSlot();
         }
         
-        logger.fine("getting slot " + id + " for operation " + operationName);
+        if (logger.isLoggable(FINE)) logger.fine("getting slot " + id + " for operation " + operationName);
 
         Any result = orb.create_any();
-        if (requestSlotData[id] != null) {
-            result.read_value(requestSlotData[id].create_input_stream(), requestSlotData[id].type());
+        Any slot = requestSlotData.get(id);
+        if (slot != null) {
+            result.read_value(slot.create_input_stream(), slot.type());
         }
         return result;
     }
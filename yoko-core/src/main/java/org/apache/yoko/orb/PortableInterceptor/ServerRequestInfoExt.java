@@ -23,10 +23,31 @@
 
 package org.apache.yoko.orb.PortableInterceptor;
 
+import org.omg.IOP.ServiceContext;
+import org.omg.PortableInterceptor.InvalidSlot;
 import org.omg.PortableInterceptor.ServerRequestInfo;
 
 public interface ServerRequestInfoExt extends org.omg.PortableInterceptor.ServerRequestInfo {
 
     public org.apache.yoko.orb.OCI.TransportInfo getTransportInfo();
+
+    /**
+     * Retrieve the private state an interceptor has kept for this request under one of its slot ids.
+     * Unlike {@link #get_slot(int)} this neither copies the state nor makes it visible in the PICurrent.
+     */
+    public Object getRequestState(int slotId) throws InvalidSlot;
+
+    /**
+     * Keep some private state for this request under one of the interceptor's slot ids.
+     * Unlike {@link #set_slot(int, org.omg.CORBA.Any)} the state need not be wrapped in an Any.
+     */
+    public void setRequestState(int slotId, Object state) throws InvalidSlot;
+
+    /**
+     * Add a service context that has already been encoded, without copying it,
+     * e.g. one from an {@link org.apache.yoko.orb.IOP.ServiceContextCache}.
+     * The context must not be modified afterwards.
+     */
+    public void addEncodedReplyServiceContext(ServiceContext sc, boolean addReplace);
 }
 
@@ -53,7 +53,6 @@ import org.omg.PortableServer.POA;
 import org.omg.PortableServer.Servant;
 
 import java.util.Arrays;
-import java.util.List;
 
 import static org.apache.yoko.util.Assert.ensure;
 import static org.apache.yoko.util.MinorCodes.MinorInvalidPICall;
@@ -62,13 +61,17 @@ import static org.apache.yoko.util.MinorCodes.MinorUnknownUserException;
 import static org.apache.yoko.util.MinorCodes.describeBadInvOrder;
 import static org.apache.yoko.util.MinorCodes.describeInvPolicy;
 import static org.apache.yoko.util.MinorCodes.describeUnknown;
-import static org.apache.yoko.util.CollectionExtras.newSynchronizedList;
-import static org.apache.yoko.util.CollectionExtras.removeInReverse;
 import static org.omg.CORBA.CompletionStatus.COMPLETED_NO;
 import static org.omg.CORBA.CompletionStatus.COMPLETED_YES;
+import static java.util.logging.Level.FINE;
 
 final public class ServerRequestInfo_impl extends RequestInfo_impl implements ServerRequestInfoExt {
-    private final List<ServerRequestInterceptor> interceptors = newSynchronizedList();
+    private static final ServerRequestInterceptor[] NO_INTERCEPTORS = {};
+    // The interceptors for this request, of which the first interceptorsCalled need their other points called
+    private ServerRequestInterceptor[] interceptors = NO_INTERCEPTORS;
+    private int interceptorsCalled;
+    // Interceptors' private state for this request, indexed by slot id and allocated on first use
+    private Object[] requestState;
     private final byte[] adapterId;
     private final byte[] objectId;
     private final ObjectReferenceTemplate adapterTemplate;
@@ -207,11 +210,11 @@ final public class ServerRequestInfo_impl extends RequestInfo_impl implements Se
     // receive_request_service_contexts: yes receive_request: yes
     // send_reply: yes send_exception: yes send_other: yes
     public void set_slot(int id, Any data) throws InvalidSlot {
-        if (id >= requestSlotData.length) {
+        if (id >= piCurrent._OB_maxSlots()) {
             throw new InvalidSlot();
         }
-        logger.fine("setting slot " + id + " for operation " + operationName);
-        requestSlotData[id] = new org.apache.yoko.orb.CORBA.Any(data);
+        if (logger.isLoggable(FINE)) logger.fine("setting slot " + id + " for operation " + operationName);
+        requestSlotData.set(id, new org.apache.yoko.orb.CORBA.Any(data), piCurrent._OB_maxSlots());
     }
 
     // Determine if the servant has the given repository id.
@@ -237,6 +240,10 @@ final public class ServerRequestInfo_impl extends RequestInfo_impl implements Se
         replyContexts.mutable().add(sc, addReplace);
     }
 
+    public void addEncodedReplyServiceContext(ServiceContext sc, boolean addReplace) {
+        replyContexts.mutable().addEncoded(sc, addReplace);
+    }
+
     public ServerRequestInfo_impl(
             ORB orb,
             int id,
@@ -272,17 +279,18 @@ final public class ServerRequestInfo_impl extends RequestInfo_impl implements Se
         requestSlotData = piCurrent._OB_newSlotTable();
     }
 
-    public void _OB_requestServiceContext(List<ServerRequestInterceptor> interceptors) throws LocationForward {
+    public void _OB_requestServiceContext(ServerRequestInterceptor[] interceptors) throws LocationForward {
         // Arguments, result and exceptions not available
         argStrategy.setResultAvail(false);
         argStrategy.setArgsAvail(false);
         argStrategy.setExceptAvail(false);
 
+        this.interceptors = interceptors;
         try (CmsfOverride cmsfo = CmsfThreadLocal.override();
              YasfOverride yasfo = YasfThreadLocal.override()) {
             for (ServerRequestInterceptor i: interceptors) {
                 i.receive_request_service_contexts(this);
-                this.interceptors.add(i);
+                interceptorsCalled++;
             }
             currentNeedsPopping = true;
             piCurrent._OB_pushSlotData(requestSlotData);
@@ -300,8 +308,8 @@ final public class ServerRequestInfo_impl extends RequestInfo_impl implements Se
 
         try (CmsfOverride cmsfo = CmsfThreadLocal.override();
              YasfOverride yasfo = YasfThreadLocal.override()) {
-            for (ServerRequestInterceptor sri: interceptors)
-                sri.receive_request(this);
+            for (int i = 0; i < interceptorsCalled; i++)
+                interceptors[i].receive_request(this);
         } catch (ForwardRequest ex) {
             Delegate p = (Delegate) (((ObjectImpl) ex.forward)._get_delegate());
             throw new LocationForward(p._OB_IOR(), false);
@@ -317,8 +325,8 @@ final public class ServerRequestInfo_impl extends RequestInfo_impl implements Se
 
         try (CmsfOverride cmsfo = CmsfThreadLocal.override();
              YasfOverride yasfo = YasfThreadLocal.override()) {
-            for (ServerRequestInterceptor i: removeInReverse(interceptors)) {
-                i.send_reply(this);
+            while (interceptorsCalled > 0) {
+                interceptors[--interceptorsCalled].send_reply(this);
             }
             popCurrent();
         }
@@ -335,8 +343,8 @@ final public class ServerRequestInfo_impl extends RequestInfo_impl implements Se
              YasfOverride yasfo = YasfThreadLocal.override()) {
             Assert.ensure(replyStatus == SYSTEM_EXCEPTION.value || replyStatus == USER_EXCEPTION.value);
 
-            for (ServerRequestInterceptor i: removeInReverse(interceptors)) {
-                i.send_exception(this);
+            while (interceptorsCalled > 0) {
+                interceptors[--interceptorsCalled].send_exception(this);
             }
 
             popCurrent();
@@ -357,8 +365,8 @@ final public class ServerRequestInfo_impl extends RequestInfo_impl implements Se
              YasfOverride yasfo = YasfThreadLocal.override()) {
             Assert.ensure(replyStatus == LOCATION_FORWARD.value || replyStatus == TRANSPORT_RETRY.value);
 
-            for (ServerRequestInterceptor i: removeInReverse(interceptors)) {
-                i.send_other(this);
+            while (interceptorsCalled > 0) {
+                interceptors[--interceptorsCalled].send_other(this);
             }
 
             popCurrent();
@@ -412,4 +420,15 @@ final public class ServerRequestInfo_impl extends RequestInfo_impl implements Se
     public TransportInfo getTransportInfo() {
         return transportInfo;
     }
+
+    public Object getRequestState(int slotId) throws InvalidSlot {
+        if (slotId < 0 || slotId >= piCurrent._OB_maxSlots()) throw new InvalidSlot();
+        return requestState == null ? null : requestState[slotId];
+    }
+
+    public void setRequestState(int slotId, Object state) throws InvalidSlot {
+        if (slotId < 0 || slotId >= piCurrent._OB_maxSlots()) throw new InvalidSlot();
+        if (requestState == null) requestState = new Object[piCurrent._OB_maxSlots()];
+        requestState[slotId] = state;
+    }
 }
@@ -9,16 +9,17 @@ import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 
+import org.apache.yoko.orb.PortableInterceptor.ClientRequestInfoExt;
+import org.apache.yoko.orb.PortableInterceptor.ClientRequestInterceptorExt;
 import org.apache.yoko.util.cmsf.CmsfThreadLocal;
 import org.omg.CORBA.BAD_PARAM;
 import org.omg.CORBA.LocalObject;
 import org.omg.IOP.TAG_RMI_CUSTOM_MAX_STREAM_FORMAT;
 import org.omg.IOP.TaggedComponent;
 import org.omg.PortableInterceptor.ClientRequestInfo;
-import org.omg.PortableInterceptor.ClientRequestInterceptor;
 import org.omg.PortableInterceptor.ForwardRequest;
 
-public final class CmsfClientInterceptor extends LocalObject implements ClientRequestInterceptor {
+public final class CmsfClientInterceptor extends LocalObject implements ClientRequestInterceptorExt {
     private static final String NAME = CmsfClientInterceptor.class.getName();
 
     @Override
@@ -34,7 +35,10 @@ public final class CmsfClientInterceptor extends LocalObject implements ClientRe
         }
         CmsfThreadLocal.push(cmsf.getValue());
         
-        if (CmsfVersion.ENABLED) ri.add_request_service_context(CMSFv2.getSc(), false);
+        if (!CmsfVersion.ENABLED) return;
+        // the context is encoded once per version, so it need not be copied
+        if (ri instanceof ClientRequestInfoExt) ((ClientRequestInfoExt) ri).addEncodedRequestServiceContext(CMSFv2.getSc(), false);
+        else ri.add_request_service_context(CMSFv2.getSc(), false);
     }
 
     @Override
@@ -56,6 +60,16 @@ public final class CmsfClientInterceptor extends LocalObject implements ClientRe
         CmsfThreadLocal.pop();
     }
 
+    @Override
+    public Object saveThreadState() {
+        return CmsfThreadLocal.save();
+    }
+
+    @Override
+    public void restoreThreadState(Object state) {
+        CmsfThreadLocal.restore(state);
+    }
+
     @Override
     public String name() {
         return NAME;
@@ -1,5 +1,6 @@
 package org.apache.yoko.orb.cmsf;
 
+import org.apache.yoko.orb.PortableInterceptor.ServerRequestInfoExt;
 import org.apache.yoko.util.cmsf.CmsfThreadLocal;
 import org.omg.CORBA.BAD_PARAM;
 import org.omg.CORBA.INTERNAL;
@@ -48,7 +49,9 @@ public final class CmsfServerInterceptor extends LocalObject implements ServerRe
             }
         }
         try {
-            ri.set_slot(slotId, cmsf.getAny());
+            // keep the version with the request without wrapping it in an Any where possible
+            if (ri instanceof ServerRequestInfoExt) ((ServerRequestInfoExt) ri).setRequestState(slotId, cmsf);
+            else ri.set_slot(slotId, cmsf.getAny());
         } catch (InvalidSlot e) {
             throw (INTERNAL)(new INTERNAL(e.getMessage())).initCause(e);
         }
@@ -61,7 +64,12 @@ public final class CmsfServerInterceptor extends LocalObject implements ServerRe
     private void setupCmsfThreadLocalValue(ServerRequestInfo ri) {
         CmsfVersion cmsf = CMSFv1;
         try {
-            cmsf = CmsfVersion.readAny(ri.get_slot(slotId));
+            if (ri instanceof ServerRequestInfoExt) {
+                Object state = ((ServerRequestInfoExt) ri).getRequestState(slotId);
+                if (state != null) cmsf = (CmsfVersion) state;
+            } else {
+                cmsf = CmsfVersion.readAny(ri.get_slot(slotId));
+            }
         } catch (InvalidSlot e) {
             throw (INTERNAL)(new INTERNAL(e.getMessage())).initCause(e);
         }
@@ -19,6 +19,9 @@ package org.apache.yoko.orb.csi;
 
 import java.util.logging.Logger;
 
+import org.apache.yoko.orb.IOP.ServiceContextCache;
+import org.apache.yoko.orb.PortableInterceptor.ClientRequestInfoExt;
+import org.apache.yoko.orb.PortableInterceptor.ClientRequestInterceptorExt;
 import org.omg.CORBA.Any;
 import org.omg.CORBA.CompletionStatus;
 import org.omg.CORBA.MARSHAL;
@@ -34,7 +37,7 @@ import org.omg.PortableInterceptor.ClientRequestInfo;
 import org.omg.PortableInterceptor.ForwardRequest;
 
 public class CSIClientRequestInterceptor extends CSIInterceptorBase
-        implements org.omg.PortableInterceptor.ClientRequestInterceptor
+        implements ClientRequestInterceptorExt
 {
 
     CSIClientRequestInterceptor(Codec codec) {
@@ -149,7 +152,8 @@ public class CSIClientRequestInterceptor extends CSIInterceptorBase
                       + target_requires_gssup);
         }
 
-        AuthenticationInfo authInfo = SecurityContext.getAuthenticationInfo();
+        CallerContext caller = callerContext.get();
+        AuthenticationInfo authInfo = (caller == null) ? SecurityContext.getAuthenticationInfo() : caller.authInfo;
 
         if (authInfo == null) {
             log.fine("no auth info");
@@ -160,53 +164,72 @@ public class CSIClientRequestInterceptor extends CSIInterceptorBase
         String realm = authInfo.getRealm();
         String password = authInfo.getPassword();
 
-        SASContextBody sasBody = new SASContextBody();
+        String scopedUserName = name + "@" + realm;
+        ServiceContext sc;
+        if (support_gssup_delegation) {
+            sc = identityContexts.get(scopedUserName);
+        } else {
+            // the token carries the password, so it is encoded afresh for every request and never kept
+            sc = new ServiceContext(SecurityAttributeService.value, encodeGSSUPContext(scopedUserName, realm, password));
+        }
+        if (ri instanceof ClientRequestInfoExt) ((ClientRequestInfoExt) ri).addEncodedRequestServiceContext(sc, true);
+        else ri.add_request_service_context(sc, true);
+    }
 
-        EstablishContext establishMsg = new EstablishContext();
+    //
+    // The establish context message that asserts an identity only depends
+    // on the caller's name, so each one is encoded once.
+    //
+    private final ServiceContextCache<String> identityContexts =
+            new ServiceContextCache<>(SecurityAttributeService.value, 64, this::encodeIdentityContext);
 
-        // Indicate stateless CSS
-        establishMsg.client_context_id = 0;
+    private byte[] encodeIdentityContext(String scopedUserName) {
+        //
+        // indicate identitytoken as ITTPrincipalName
+        //
+        IdentityToken identityToken = new IdentityToken();
+        identityToken
+                .principal_name(encapsulateByteArray(encodeGSSExportedName(scopedUserName)));
 
-        // Make empty authorization token list
-        establishMsg.authorization_token = EMPTY_AUTH_ELEMENT;
+        log.fine("send_request, name: \"" + scopedUserName + "\"");
 
-        String scopedUserName = name + "@" + realm;
+        return encodeEstablishContext(EMPTY_BARR, identityToken);
+    }
 
-        if (support_gssup_delegation) {
+    private byte[] encodeGSSUPContext(String scopedUserName, String realm, String password) {
+        // Make GSSUP InitialContextToken
+        InitialContextToken gssupToken = new InitialContextToken();
+        gssupToken.username = utf8encode(scopedUserName);
+        gssupToken.target_name = encodeGSSExportedName(realm);
+        gssupToken.password = utf8encode(password);
 
-            establishMsg.client_authentication_token = EMPTY_BARR;
+        // Indicate identity token is ITTAbsent
+        IdentityToken identityToken = new IdentityToken();
+        identityToken.absent(true);
 
-            //
-            // indicate identitytoken as ITTPrincipalName
-            //
-            IdentityToken identityToken = new IdentityToken();
-            identityToken
-                    .principal_name(encapsulateByteArray(encodeGSSExportedName(scopedUserName)));
-            establishMsg.identity_token = identityToken;
+        log.fine("send_request, name: \"" + scopedUserName
+                  + "\", pw: \"" + password + "\"");
 
-            log.fine("send_request, name: \"" + scopedUserName + "\"");
-        } else {
+        return encodeEstablishContext(encodeGSSUPToken(gssupToken), identityToken);
+    }
 
-            // Make GSSUP InitialContextToken
-            InitialContextToken gssupToken = new InitialContextToken();
-            gssupToken.username = utf8encode(scopedUserName);
-            gssupToken.target_name = encodeGSSExportedName(realm);
-            gssupToken.password = utf8encode(password);
+    private byte[] encodeEstablishContext(byte[] authenticationToken, IdentityToken identityToken) {
+        SASContextBody sasBody = new SASContextBody();
 
-            establishMsg.client_authentication_token = encodeGSSUPToken(gssupToken);
+        EstablishContext establishMsg = new EstablishContext();
 
-            // Indicate identity token is ITTAbsent
-            IdentityToken identityToken = new IdentityToken();
-            identityToken.absent(true);
-            establishMsg.identity_token = identityToken;
+        // Indicate stateless CSS
+        establishMsg.client_context_id = 0;
 
-            log.fine("send_request, name: \"" + scopedUserName
-                      + "\", pw: \"" + password + "\"");
-        }
+        // Make empty authorization token list
+        establishMsg.authorization_token = EMPTY_AUTH_ELEMENT;
+
+        establishMsg.client_authentication_token = authenticationToken;
+        establishMsg.identity_token = identityToken;
 
         sasBody.establish_msg(establishMsg);
 
-        ri.add_request_service_context(encodeSASContextBody(sasBody), true);
+        return encodeSASContextBody(sasBody).context_data;
     }
 
     public void send_poll(ClientRequestInfo ri) {
@@ -259,6 +282,45 @@ public class CSIClientRequestInterceptor extends CSIInterceptorBase
         receive_reply(ri);
     }
 
+    public Object saveThreadState() {
+        return CallStatus.save();
+    }
+
+    public void restoreThreadState(Object state) {
+        CallStatus.restore(state);
+    }
+
+    //
+    // The identity of the caller a request is resent for, on the thread
+    // that resends it
+    //
+    private static final class CallerContext {
+        final AuthenticationInfo authInfo;
+
+        CallerContext(AuthenticationInfo authInfo) {
+            this.authInfo = authInfo;
+        }
+    }
+
+    private static final ThreadLocal<CallerContext> callerContext = new ThreadLocal<>();
+
+    public Object captureCallerContext() {
+        CallerContext caller = callerContext.get();
+        if (caller != null) return caller;
+        try {
+            return new CallerContext(SecurityContext.getAuthenticationInfo());
+        } catch (InternalError e) {
+            // no security context is configured, so send_request will report it when it is needed
+            return null;
+        }
+    }
+
+    public Object installCallerContext(Object context) {
+        CallerContext replaced = callerContext.get();
+        callerContext.set((CallerContext) context);
+        return replaced;
+    }
+
     public String name() {
         return "CSI Client Interceptor";
     }
@@ -327,6 +327,14 @@ public abstract class CSIInterceptorBase extends LocalObject {
             status.set(cs.prev);
             return cs.isLocal;
         }
+
+        static Object save() {
+            return status.get();
+        }
+
+        static void restore(Object saved) {
+            status.set(saved);
+        }
     }
 
     /**
@@ -24,6 +24,8 @@ import javax.security.auth.Subject;
 import javax.security.auth.login.LoginException;
 import javax.security.auth.x500.X500Principal;
 
+import org.apache.yoko.orb.IOP.ServiceContextCache;
+import org.apache.yoko.orb.PortableInterceptor.ServerRequestInfoExt;
 import org.omg.CORBA.Any;
 import org.omg.CORBA.CompletionStatus;
 import org.omg.CORBA.MARSHAL;
@@ -162,16 +164,15 @@ public class CSIServerRequestInterceptor extends CSIInterceptorBase
 
                 case MTMessageInContext.value:
                     log.fine("MTMessageInContext");
-
-                    throw new org.omg.CORBA.NO_PERMISSION(
-                            "Stateful SAS not supported");
+                    acceptMessageInContext(ri, sasBody.in_context_msg(), gssup_domain);
+                    break;
 
                 case MTEstablishContext.value:
                     log.fine("MTEstablishContext");
-                    acceptContext(ri, sasBody.establish_msg(),
-                                  support_gssup_authorization,
-                                  require_gssup_authorization,
-                                  support_gssup_principal_identity, gssup_domain);
+                    establishContext(ri, sasBody.establish_msg(), serviceContext.context_data,
+                                     support_gssup_authorization,
+                                     require_gssup_authorization,
+                                     support_gssup_principal_identity, gssup_domain);
                     break;
             }
         }
@@ -199,19 +200,88 @@ public class CSIServerRequestInterceptor extends CSIInterceptorBase
     }
 
 
-    void acceptContext(ServerRequestInfo ri, EstablishContext establishMsg,
-                       boolean support_gssup_authorization,
-                       boolean require_gssup_authorization,
-                       boolean support_gssup_principal_identity, String gssup_domain)
+    //
+    // Stateful contexts, i.e. those with a non-zero client context id,
+    // are remembered per connection so later requests need not be
+    // authenticated again.
+    //
+    private static final int MAX_CONTEXTS_PER_CONNECTION = 100;
+
+    private final EstablishedContexts establishedContexts = new EstablishedContexts(MAX_CONTEXTS_PER_CONNECTION);
+
+    // Identifies the connection a request arrived on, or null if it cannot be told
+    private static Object connectionOf(ServerRequestInfo ri) {
+        return ri instanceof ServerRequestInfoExt ? ((ServerRequestInfoExt) ri).getTransportInfo() : null;
+    }
+
+    void establishContext(ServerRequestInfo ri, EstablishContext establishMsg, byte[] evidence,
+                          boolean support_gssup_authorization,
+                          boolean require_gssup_authorization,
+                          boolean support_gssup_principal_identity, String gssup_domain)
     {
-        if (establishMsg.client_context_id != 0) {
-            // Error, we do not support stateful mode
-            log.severe("Stateful security contexts not supported");
+        final long id = establishMsg.client_context_id;
+        if (id == 0) {
+            acceptContext(ri, establishMsg, support_gssup_authorization, require_gssup_authorization,
+                          support_gssup_principal_identity, gssup_domain);
+            return;
+        }
+
+        final Object connection = connectionOf(ri);
+        if (connection == null) {
+            log.severe("Stateful security contexts not supported without a connection");
 
             throw new org.omg.CORBA.NO_PERMISSION(
                     "Stateful security contexts not supported");
         }
 
+        switch (establishedContexts.match(connection, id, evidence, gssup_domain)) {
+            case SAME:
+                // the client sent the same evidence again, so it need not be checked again
+                log.fine("reusing established context " + id);
+                SecurityContext.setAuthenticatedSubject(establishedContexts.subject(connection, id, gssup_domain));
+                returnCompleteEstablishContext(ri, id);
+                return;
+            case CONFLICT:
+                log.warning("conflicting evidence for established context " + id);
+                returnContextError(ri, id, 3, 1);
+                throw new org.omg.CORBA.NO_PERMISSION("conflicting evidence for security context " + id);
+            default:
+                Subject subject = acceptContext(ri, establishMsg, support_gssup_authorization,
+                                                require_gssup_authorization,
+                                                support_gssup_principal_identity, gssup_domain);
+                if (subject != null) establishedContexts.establish(connection, id, evidence, gssup_domain, subject);
+        }
+    }
+
+    void acceptMessageInContext(ServerRequestInfo ri, MessageInContext msg, String gssup_domain) {
+        final long id = msg.client_context_id;
+        final Object connection = connectionOf(ri);
+        Subject subject = connection == null ? null : establishedContexts.subject(connection, id, gssup_domain);
+
+        if (subject == null) {
+            log.fine("no established context " + id);
+            returnContextError(ri, id, 4, 1);
+            throw new org.omg.CORBA.NO_PERMISSION("no established security context " + id);
+        }
+
+        SecurityContext.setAuthenticatedSubject(subject);
+
+        if (msg.discard_context) establishedContexts.discard(connection, id);
+    }
+
+    /**
+     * Check the evidence in an <code>EstablishContext</code> message,
+     * and reply with the outcome.
+     * @return the subject now authenticated, or null if none was
+     */
+    Subject acceptContext(ServerRequestInfo ri, EstablishContext establishMsg,
+                          boolean support_gssup_authorization,
+                          boolean require_gssup_authorization,
+                          boolean support_gssup_principal_identity, String gssup_domain)
+    {
+        final long id = establishMsg.client_context_id;
+        Subject established = null;
+
         log.fine("accepting context...");
 
         // Ignore authorization token list (not supported)
@@ -242,7 +312,7 @@ public class CSIServerRequestInterceptor extends CSIInterceptorBase
             }
 
             if (!realm.equals(gssup_domain)) {
-                returnContextError(ri, 1, 1);
+                returnContextError(ri, id, 1, 1);
                 throw new org.omg.CORBA.NO_PERMISSION("bad domain: \"" + realm
                                                       + "\"");
             }
@@ -258,16 +328,17 @@ public class CSIServerRequestInterceptor extends CSIInterceptorBase
 
                 // Login succeeded
                 SecurityContext.setAuthenticatedSubject(subject);
+                established = subject;
 
                 log.fine("Login succeeded");
-                returnCompleteEstablishContext(ri);
+                returnCompleteEstablishContext(ri, id);
 
             }
             catch (LoginException ex) {
                 // Login failed
                 log.log(Level.SEVERE, "Login failed", ex);
 
-                returnContextError(ri, 1, 1);
+                returnContextError(ri, id, 1, 1);
                 throw new org.omg.CORBA.NO_PERMISSION("login failed");
 
             }
@@ -277,7 +348,7 @@ public class CSIServerRequestInterceptor extends CSIInterceptorBase
 
         } else if (require_gssup_authorization) {
 
-            returnContextError(ri, 1, 1);
+            returnContextError(ri, id, 1, 1);
             throw new org.omg.CORBA.NO_PERMISSION(
                     "GSSUP authorization required");
 
@@ -318,7 +389,7 @@ public class CSIServerRequestInterceptor extends CSIInterceptorBase
             }
 
             if (gssup_domain != null && !domain.equals(gssup_domain)) {
-                returnContextError(ri, 1, 1);
+                returnContextError(ri, id, 1, 1);
 
                 log.warning("request designates wrong domain: " + userAtDomain);
                 throw new org.omg.CORBA.NO_PERMISSION("bad domain");
@@ -327,8 +398,9 @@ public class CSIServerRequestInterceptor extends CSIInterceptorBase
             // CSISubjectInfo.setPropagatedCaller (user, domain);
             Subject subject = SecurityContext.delegate(user, domain);
             SecurityContext.setAuthenticatedSubject(subject);
+            established = subject;
 
-            returnCompleteEstablishContext(ri);
+            returnCompleteEstablishContext(ri, id);
 
         } else if (establishMsg.identity_token.discriminator() == ITTAnonymous.value) {
             // establish anoynous identity
@@ -339,12 +411,16 @@ public class CSIServerRequestInterceptor extends CSIInterceptorBase
             try {
                 Subject subject = SecurityContext.anonymousLogin();
                 SecurityContext.setAuthenticatedSubject(subject);
+                established = subject;
             }
             catch (LoginException ex) {
-                // Won't happen
+                log.log(Level.SEVERE, "Anonymous login failed", ex);
+
+                returnContextError(ri, id, 1, 1);
+                throw new org.omg.CORBA.NO_PERMISSION("anonymous login failed");
             }
 
-            returnCompleteEstablishContext(ri);
+            returnCompleteEstablishContext(ri, id);
 
         } else if (establishMsg.identity_token.discriminator() == ITTDistinguishedName.value) {
 
@@ -371,50 +447,66 @@ public class CSIServerRequestInterceptor extends CSIInterceptorBase
                 Subject subject = new Subject();
                 subject.getPrincipals().add(new X500Principal(x500name_data));
                 SecurityContext.setAuthenticatedSubject(subject);
+                established = subject;
 
             }
             catch (IllegalArgumentException ex) {
 
                 log.log(Level.FINE, "cannot decode X500 name", ex);
-                returnContextError(ri, 1, 1);
+                returnContextError(ri, id, 1, 1);
                 throw new org.omg.CORBA.NO_PERMISSION("cannot decode X500 name");
             }
 
-            returnCompleteEstablishContext(ri);
+            returnCompleteEstablishContext(ri, id);
 
         } else {
 
-            returnContextError(ri, 2, 1);
+            returnContextError(ri, id, 2, 1);
             throw new org.omg.CORBA.NO_PERMISSION("Unsupported IdentityToken");
 
         }
+
+        return established;
     }
 
 
-    void returnCompleteEstablishContext(ServerRequestInfo ri) {
+    //
+    // The reply only depends on the client context id, and clients reuse the same few ids,
+    // so each reply is only encoded once
+    //
+    private final ServiceContextCache<Long> completeContexts =
+            new ServiceContextCache<>(SecurityAttributeService.value, 256, this::encodeCompleteEstablishContext);
+
+    void returnCompleteEstablishContext(ServerRequestInfo ri, long clientContextId) {
+        log.fine("Adding SASContextBody, discriminator = " + MTCompleteEstablishContext.value);
+        ServiceContext sc = completeContexts.get(clientContextId);
+        if (ri instanceof ServerRequestInfoExt) ((ServerRequestInfoExt) ri).addEncodedReplyServiceContext(sc, true);
+        else ri.add_reply_service_context(sc, true);
+    }
+
+    private byte[] encodeCompleteEstablishContext(long clientContextId) {
         // Create CompleteEstablishContext
         SASContextBody sasBody = new SASContextBody();
 
         CompleteEstablishContext completeMsg = new CompleteEstablishContext();
 
-        completeMsg.client_context_id = 0;
-        completeMsg.context_stateful = false;
+        completeMsg.client_context_id = clientContextId;
+        // a non-zero id asks for a stateful context, which is remembered if it is accepted
+        completeMsg.context_stateful = clientContextId != 0;
         completeMsg.final_context_token = EMPTY_BARR;
 
         sasBody.complete_msg(completeMsg);
 
-        log.fine("Adding SASContextBody, discriminator = "
-            + sasBody.discriminator());
-        ri.add_reply_service_context(encodeSASContextBody(sasBody), true);
+        return encodeSASContextBody(sasBody).context_data;
     }
 
-    void returnContextError(ServerRequestInfo ri, int major, int minor) {
+    void returnContextError(ServerRequestInfo ri, long clientContextId, int major, int minor) {
         // Create CompleteEstablishContext
         SASContextBody sasBody = new SASContextBody();
 
         ContextError errorMsg = new ContextError();
 
-        errorMsg.client_context_id = 0;
+        errorMsg.client_context_id = clientContextId;
         errorMsg.major_status = major;
         errorMsg.minor_status = minor;
         errorMsg.error_token = EMPTY_BARR;
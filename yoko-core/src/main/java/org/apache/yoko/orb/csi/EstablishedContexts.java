@@ -0,0 +1,124 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.orb.csi;
+
+import javax.security.auth.Subject;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * The security contexts that clients have established with stateful CSIv2
+ * <code>EstablishContext</code> messages, so that later requests can refer to them
+ * with <code>MessageInContext</code> instead of being authenticated again.
+ * <p>
+ * A client context id only means something on the connection it was established on,
+ * so each connection has its own table, which goes away with the connection.
+ * Each table holds at most <code>maxPerConnection</code> contexts,
+ * dropping the least recently used one when it is full.
+ */
+final class EstablishedContexts {
+    /** The outcome of looking up an <code>EstablishContext</code> message */
+    enum Match { NONE, SAME, CONFLICT }
+
+    private static final class Context {
+        final byte[] evidence;
+        final String domain;
+        final Subject subject;
+
+        Context(byte[] evidence, String domain, Subject subject) {
+            this.evidence = evidence;
+            this.domain = domain;
+            this.subject = subject;
+        }
+    }
+
+    private final int maxPerConnection;
+    private final Map<Object, Map<Long, Context>> byConnection = Collections.synchronizedMap(new WeakHashMap<Object, Map<Long, Context>>());
+
+    EstablishedContexts(int maxPerConnection) {
+        this.maxPerConnection = maxPerConnection;
+    }
+
+    private Map<Long, Context> table(Object connection, boolean create) {
+        synchronized (byConnection) {
+            Map<Long, Context> table = byConnection.get(connection);
+            if (table == null && create) {
+                table = new LinkedHashMap<Long, Context>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Long, Context> eldest) {
+                        return size() > maxPerConnection;
+                    }
+                };
+                byConnection.put(connection, table);
+            }
+            return table;
+        }
+    }
+
+    private Context get(Object connection, long clientContextId) {
+        Map<Long, Context> table = table(connection, false);
+        if (table == null) return null;
+        synchronized (table) {
+            return table.get(clientContextId);
+        }
+    }
+
+    /**
+     * Compare an <code>EstablishContext</code> message with the context already established under its id, if any.
+     * @param evidence the encoded message, which must be identical for the context to be reused
+     */
+    Match match(Object connection, long clientContextId, byte[] evidence, String domain) {
+        Context context = get(connection, clientContextId);
+        if (context == null) return Match.NONE;
+        if (Arrays.equals(evidence, context.evidence) && Objects.equals(domain, context.domain)) return Match.SAME;
+        return Match.CONFLICT;
+    }
+
+    /** @return the subject established under the given id, or null if there is none for the given domain */
+    Subject subject(Object connection, long clientContextId, String domain) {
+        Context context = get(connection, clientContextId);
+        return context == null || !Objects.equals(domain, context.domain) ? null : context.subject;
+    }
+
+    void establish(Object connection, long clientContextId, byte[] evidence, String domain, Subject subject) {
+        if (maxPerConnection <= 0) return;
+        Map<Long, Context> table = table(connection, true);
+        synchronized (table) {
+            table.put(clientContextId, new Context(evidence.clone(), domain, subject));
+        }
+    }
+
+    void discard(Object connection, long clientContextId) {
+        Map<Long, Context> table = table(connection, false);
+        if (table == null) return;
+        synchronized (table) {
+            table.remove(clientContextId);
+        }
+    }
+
+    int size(Object connection) {
+        Map<Long, Context> table = table(connection, false);
+        if (table == null) return 0;
+        synchronized (table) {
+            return table.size();
+        }
+    }
+}
@@ -5,14 +5,14 @@ import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 
+import org.apache.yoko.orb.PortableInterceptor.ClientRequestInterceptorExt;
 import org.apache.yoko.util.yasf.Yasf;
 import org.apache.yoko.util.yasf.YasfThreadLocal;
 import org.omg.CORBA.LocalObject;
 import org.omg.PortableInterceptor.ClientRequestInfo;
-import org.omg.PortableInterceptor.ClientRequestInterceptor;
 import org.omg.PortableInterceptor.ForwardRequest;
 
-public class YasfClientInterceptor extends LocalObject implements ClientRequestInterceptor {
+public class YasfClientInterceptor extends LocalObject implements ClientRequestInterceptorExt {
     private static final String NAME = YasfClientInterceptor.class.getName();
 
     @Override
@@ -43,6 +43,16 @@ public class YasfClientInterceptor extends LocalObject implements ClientRequestI
         YasfThreadLocal.pop();
     }
 
+    @Override
+    public Object saveThreadState() {
+        return YasfThreadLocal.save();
+    }
+
+    @Override
+    public void restoreThreadState(Object state) {
+        YasfThreadLocal.restore(state);
+    }
+
     @Override
     public String name() {
         return NAME;
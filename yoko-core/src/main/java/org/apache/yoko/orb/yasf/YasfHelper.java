@@ -1,5 +1,8 @@
 package org.apache.yoko.orb.yasf;
 
+import org.apache.yoko.orb.IOP.ServiceContextCache;
+import org.apache.yoko.orb.PortableInterceptor.ClientRequestInfoExt;
+import org.apache.yoko.orb.PortableInterceptor.ServerRequestInfoExt;
 import org.apache.yoko.util.yasf.Yasf;
 import org.omg.CORBA.Any;
 import org.omg.CORBA.BAD_PARAM;
@@ -28,18 +31,20 @@ public enum YasfHelper {
         info.add_ior_component(tc);
     }
 
-    private static ServiceContext sc(Set<Yasf> set) {
-        return new ServiceContext(Yasf.YOKO_AUXIllIARY_STREAM_FORMAT_SC, Yasf.toData(set));
-    }
+    // there are only a handful of possible sets, so encode each of them once
+    private static final ServiceContextCache<Set<Yasf>> SC_CACHE =
+            new ServiceContextCache<>(Yasf.YOKO_AUXIllIARY_STREAM_FORMAT_SC, 16, Yasf::toData);
 
     public static void addSc(ClientRequestInfo ri, Set<Yasf> set) {
-        ServiceContext sc = sc(set);
-        ri.add_request_service_context(sc, false);
+        ServiceContext sc = SC_CACHE.get(set);
+        if (ri instanceof ClientRequestInfoExt) ((ClientRequestInfoExt) ri).addEncodedRequestServiceContext(sc, false);
+        else ri.add_request_service_context(sc, false);
     }
 
     public static void addSc(ServerRequestInfo ri, Set<Yasf> set) {
-        ServiceContext sc = sc(set);
-        ri.add_reply_service_context(sc, false);
+        ServiceContext sc = SC_CACHE.get(set);
+        if (ri instanceof ServerRequestInfoExt) ((ServerRequestInfoExt) ri).addEncodedReplyServiceContext(sc, false);
+        else ri.add_reply_service_context(sc, false);
     }
 
     public static byte[] readData(ClientRequestInfo ri) {
@@ -67,9 +72,14 @@ public enum YasfHelper {
     }
 
     public static void setSlot(int slotId, ServerRequestInfo ri, byte[] data) {
-        Any any = ORB.init().create_any();
-        any.insert_Value(data);
         try {
+            // keep the data with the request without wrapping it in an Any where possible
+            if (ri instanceof ServerRequestInfoExt) {
+                ((ServerRequestInfoExt) ri).setRequestState(slotId, data);
+                return;
+            }
+            Any any = ORB.init().create_any();
+            any.insert_Value(data);
             ri.set_slot(slotId, any);
         } catch (InvalidSlot e) {
             throw (INTERNAL)(new INTERNAL(e.getMessage())).initCause(e);
@@ -78,6 +88,7 @@ public enum YasfHelper {
 
     public static byte[] getSlot(int slotId, ServerRequestInfo ri) {
         try {
+            if (ri instanceof ServerRequestInfoExt) return (byte[]) ((ServerRequestInfoExt) ri).getRequestState(slotId);
             Any any = ri.get_slot(slotId);
             return (byte[])any.extract_Value();
         } catch (InvalidSlot e) {
@@ -0,0 +1,63 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko;
+
+import org.junit.jupiter.api.Test;
+import testify.jupiter.annotation.iiop.ConfigureServer;
+import testify.jupiter.annotation.iiop.ConfigureServer.ClientStub;
+
+import javax.rmi.PortableRemoteObject;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+@ConfigureServer
+public class LargeOctetArrayTest {
+    public interface Octets extends Remote {
+        byte[] echo(byte[] bytes) throws RemoteException;
+    }
+
+    public static class OctetsImpl extends PortableRemoteObject implements Octets {
+        public OctetsImpl() throws RemoteException {}
+        public byte[] echo(byte[] bytes) { return bytes; }
+    }
+
+    @ClientStub(OctetsImpl.class)
+    public static Octets stub;
+
+    @Test
+    public void testSmallArray() throws RemoteException {
+        byte[] bytes = randomBytes(100);
+        assertArrayEquals(bytes, stub.echo(bytes));
+    }
+
+    @Test
+    public void testLargeArray() throws RemoteException {
+        // large enough for the reply to refer to the array rather than copying it
+        byte[] bytes = randomBytes(1 << 20);
+        assertArrayEquals(bytes, stub.echo(bytes));
+        assertArrayEquals(bytes, stub.echo(bytes));
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko;
+
+import acme.Echo;
+import acme.EchoImpl;
+import org.junit.jupiter.api.Test;
+import testify.jupiter.annotation.iiop.ConfigureOrb;
+import testify.jupiter.annotation.iiop.ConfigureServer;
+import testify.jupiter.annotation.iiop.ConfigureServer.ClientStub;
+
+import javax.rmi.PortableRemoteObject;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@ConfigureServer(
+        clientOrb = @ConfigureOrb(props = "yoko.orb.conc_model=reactive"),
+        serverOrb = @ConfigureOrb(props = {"yoko.orb.oa.conc_model=reactive", "yoko.orb.reactor_threads=1"})
+)
+public class ReactiveTest {
+    public interface Dispatch extends Remote {
+        boolean viaReactiveConnection() throws RemoteException;
+    }
+
+    public static class DispatchImpl extends PortableRemoteObject implements Dispatch {
+        public DispatchImpl() throws RemoteException {}
+
+        public boolean viaReactiveConnection() {
+            return isDispatchedByReactiveConnection();
+        }
+    }
+
+    @ClientStub(EchoImpl.class)
+    public static Echo stub;
+
+    @ClientStub(DispatchImpl.class)
+    public static Dispatch dispatch;
+
+    /** True if the current request was received by a reactive connection rather than a threaded one */
+    public static boolean isDispatchedByReactiveConnection() {
+        return Stream.of(new Throwable().getStackTrace())
+                .map(StackTraceElement::getClassName)
+                .anyMatch("org.apache.yoko.orb.OB.GIOPConnectionReactive"::equals);
+    }
+
+    @Test
+    public void testRequestsUseReactiveConnection() throws Exception {
+        assertThat(dispatch.viaReactiveConnection(), is(true));
+    }
+
+    @Test
+    public void testEcho() throws Exception {
+        assertThat(stub.echo("hello"), is("hello"));
+        assertThat(stub.echo("hello again"), is("hello again"));
+    }
+
+    @Test
+    public void testLargeMessage() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 1 << 18) sb.append("The quick brown fox jumps over the lazy dog. ");
+        String s = sb.toString();
+        assertThat(stub.echo(s), is(s));
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        ExecutorService xs = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final String s = "message " + i;
+                results.add(xs.submit(() -> stub.echo(s)));
+            }
+            for (int i = 0; i < 100; i++) assertThat(results.get(i).get(), is("message " + i));
+        } finally {
+            xs.shutdown();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.CORBA;
+
+import org.apache.yoko.orb.Messaging.RelativeRoundtripTimeoutPolicy_impl;
+import org.apache.yoko.orb.OB.REQUEST_TIMEOUT_POLICY_ID;
+import org.apache.yoko.orb.OBCORBA.ORB_impl;
+import org.apache.yoko.util.cmsf.CmsfThreadLocal;
+import org.apache.yoko.util.yasf.YasfThreadLocal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.Any;
+import org.omg.CORBA.BAD_OPERATION;
+import org.omg.CORBA.LocalObject;
+import org.omg.CORBA.NO_RESPONSE;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CORBA.SetOverrideType;
+import org.omg.CORBA.TCKind;
+import org.omg.CORBA.portable.ApplicationException;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.ObjectImpl;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableInterceptor.ClientRequestInfo;
+import org.omg.PortableInterceptor.ClientRequestInterceptor;
+import org.omg.PortableInterceptor.Current;
+import org.omg.PortableInterceptor.CurrentHelper;
+import org.omg.PortableInterceptor.ORBInitInfo;
+import org.omg.PortableInterceptor.ORBInitializer;
+import org.omg.PortableServer.ForwardRequest;
+import org.omg.PortableServer.IdAssignmentPolicyValue;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+import org.omg.PortableServer.RequestProcessingPolicyValue;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.ServantLocator;
+import org.omg.PortableServer.ServantLocatorPackage.CookieHolder;
+import org.omg.PortableServer.ServantRetentionPolicyValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AsyncInvocationTest {
+    static final String FAILED_ID = "IDL:test/Failed:1.0";
+
+    private static final class EchoServant extends Servant implements InvokeHandler {
+        final CountDownLatch release = new CountDownLatch(1);
+
+        public String[] _all_interfaces(POA poa, byte[] objectId) {
+            return new String[]{"IDL:test/Echo:1.0"};
+        }
+
+        public OutputStream _invoke(String method, InputStream in, ResponseHandler handler) {
+            switch (method) {
+            case "block":
+                try {
+                    release.await(30, SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+                // fall through
+            case "echo":
+                long value = in.read_longlong();
+                OutputStream out = handler.createReply();
+                out.write_longlong(value);
+                return out;
+            case "fail":
+                OutputStream ex = handler.createExceptionReply();
+                ex.write_string(FAILED_ID);
+                return ex;
+            default:
+                throw new BAD_OPERATION(method);
+            }
+        }
+    }
+
+    /** Forwards every request to another object */
+    private static final class Forwarder extends LocalObject implements ServantLocator {
+        final org.omg.CORBA.Object forwardTo;
+
+        Forwarder(org.omg.CORBA.Object forwardTo) {
+            this.forwardTo = forwardTo;
+        }
+
+        public Servant preinvoke(byte[] oid, POA adapter, String operation, CookieHolder cookie) throws ForwardRequest {
+            throw new ForwardRequest(forwardTo);
+        }
+
+        public void postinvoke(byte[] oid, POA adapter, String operation, Object cookie, Servant servant) {}
+    }
+
+    /** Records the PICurrent slot each request is sent with, and whether it was sent from the common pool */
+    public static final class SlotRecorder extends LocalObject implements ORBInitializer, ClientRequestInterceptor {
+        static int slotId;
+        static final List<String> slotsSent = new ArrayList<>();
+        static volatile boolean sentFromCommonPool;
+
+        public void pre_init(ORBInitInfo info) {}
+
+        public void post_init(ORBInitInfo info) {
+            slotId = info.allocate_slot_id();
+            try {
+                info.add_client_request_interceptor(this);
+            } catch (org.omg.PortableInterceptor.ORBInitInfoPackage.DuplicateName e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        public void send_request(ClientRequestInfo ri) {
+            if (Thread.currentThread() instanceof ForkJoinWorkerThread) sentFromCommonPool = true;
+            try {
+                Any slot = ri.get_slot(slotId);
+                synchronized (slotsSent) {
+                    slotsSent.add(slot.type().kind() == TCKind.tk_string ? slot.extract_string() : null);
+                }
+            } catch (org.omg.PortableInterceptor.InvalidSlot e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        public void send_poll(ClientRequestInfo ri) {}
+        public void receive_reply(ClientRequestInfo ri) {}
+        public void receive_exception(ClientRequestInfo ri) {}
+        public void receive_other(ClientRequestInfo ri) {}
+        public String name() { return ""; }
+        public void destroy() {}
+    }
+
+    private ORB serverOrb;
+    private ORB clientOrb;
+    private EchoServant servant;
+    private ObjectImpl stub;
+    private Delegate delegate;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        serverOrb = ORB.init((String[]) null, null);
+        POA rootPoa = POAHelper.narrow(serverOrb.resolve_initial_references("RootPOA"));
+        rootPoa.the_POAManager().activate();
+        servant = new EchoServant();
+        String ior = serverOrb.object_to_string(rootPoa.servant_to_reference(servant));
+        clientOrb = ORB.init((String[]) null, null);
+        stub = (ObjectImpl) clientOrb.string_to_object(ior);
+        delegate = (Delegate) stub._get_delegate();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        servant.release.countDown();
+        clientOrb.destroy();
+        serverOrb.destroy();
+    }
+
+    private CompletableFuture<InputStream> send(String operation, long value) {
+        return send(stub, operation, value);
+    }
+
+    private static CompletableFuture<InputStream> send(ObjectImpl target, String operation, long value) {
+        return ((Delegate) target._get_delegate()).invokeAsync(target, operation, out -> out.write_longlong(value));
+    }
+
+    private ObjectImpl withPolicy(Policy policy) {
+        return (ObjectImpl) stub._set_policy_override(new Policy[]{policy}, SetOverrideType.ADD_OVERRIDE);
+    }
+
+    private void assertNothingPending() {
+        Map<String, Integer> depths = ((ORB_impl) clientOrb)._OB_ORBInstance().getClientManager().getQueueDepths();
+        assertThat(depths.values(), everyItem(equalTo(0)));
+    }
+
+    private void assertTimesOut(ObjectImpl target) throws Exception {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> send(target, "block", 1).get(10, SECONDS));
+        assertThat(e.getCause(), instanceOf(NO_RESPONSE.class));
+        assertNothingPending();
+        // the late reply is discarded, and the connection can still be used
+        servant.release.countDown();
+        assertThat(send(target, "echo", 2).get(10, SECONDS).read_longlong(), equalTo(2L));
+        assertThat(send(target, "echo", 3).get(10, SECONDS).read_longlong(), equalTo(3L));
+    }
+
+    @Test
+    public void testManyRequestsInFlight() throws Exception {
+        List<CompletableFuture<InputStream>> replies = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) replies.add(send("echo", i));
+        for (int i = 0; i < 1000; i++) assertThat(replies.get(i).get(10, SECONDS).read_longlong(), equalTo((long) i));
+    }
+
+    @Test
+    public void testCallerIsNotBlocked() throws Exception {
+        List<CompletableFuture<InputStream>> replies = new ArrayList<>();
+        // the servant holds each reply back, so these could not be sent one after another if they blocked
+        for (int i = 0; i < 10; i++) replies.add(send("block", i));
+        for (CompletableFuture<InputStream> reply: replies) assertFalse(reply.isDone());
+        servant.release.countDown();
+        for (int i = 0; i < 10; i++) assertThat(replies.get(i).get(10, SECONDS).read_longlong(), equalTo((long) i));
+    }
+
+    @Test
+    public void testUserException() throws Exception {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> send("fail", 0).get(10, SECONDS));
+        assertThat(e.getCause(), instanceOf(ApplicationException.class));
+        assertThat(((ApplicationException) e.getCause()).getId(), equalTo(FAILED_ID));
+    }
+
+    @Test
+    public void testSystemException() throws Exception {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> send("unknown", 0).get(10, SECONDS));
+        assertThat(e.getCause(), instanceOf(BAD_OPERATION.class));
+    }
+
+    @Test
+    public void testRequestTimeout() throws Exception {
+        Any timeout = clientOrb.create_any();
+        timeout.insert_ulong(200);
+        assertTimesOut(withPolicy(clientOrb.create_policy(REQUEST_TIMEOUT_POLICY_ID.value, timeout)));
+    }
+
+    @Test
+    public void testRelativeRoundtripTimeout() throws Exception {
+        // in units of 100 nanoseconds
+        assertTimesOut(withPolicy(new RelativeRoundtripTimeoutPolicy_impl(200 * 10_000L)));
+    }
+
+    @Test
+    public void testCancelledRequestIsNotAwaited() throws Exception {
+        CompletableFuture<InputStream> reply = send("block", 1);
+        reply.cancel(false);
+        assertThrows(CancellationException.class, reply::join);
+        assertNothingPending();
+        // the late reply is discarded, and the connection can still be used
+        servant.release.countDown();
+        assertThat(send("echo", 2).get(10, SECONDS).read_longlong(), equalTo(2L));
+        assertThat(send("echo", 3).get(10, SECONDS).read_longlong(), equalTo(3L));
+    }
+
+    @Test
+    public void testInterceptorThreadStateIsRestored() throws Exception {
+        Object cmsf = CmsfThreadLocal.save();
+        Object yasf = YasfThreadLocal.save();
+        CompletableFuture<InputStream> reply = send("block", 42);
+        // the interceptors have seen send_request, but not yet a reply
+        assertThat(CmsfThreadLocal.save(), sameInstance(cmsf));
+        assertThat(YasfThreadLocal.save(), sameInstance(yasf));
+        servant.release.countDown();
+        assertThat(reply.get(10, SECONDS).read_longlong(), equalTo(42L));
+        assertThat(CmsfThreadLocal.save(), sameInstance(cmsf));
+        assertThat(YasfThreadLocal.save(), sameInstance(yasf));
+    }
+
+    @Test
+    public void testForwardedRequestIsResentInCallersContext() throws Exception {
+        POA rootPoa = POAHelper.narrow(serverOrb.resolve_initial_references("RootPOA"));
+        POA forwardingPoa = rootPoa.create_POA("forwarding", rootPoa.the_POAManager(), new Policy[]{
+                rootPoa.create_id_assignment_policy(IdAssignmentPolicyValue.USER_ID),
+                rootPoa.create_request_processing_policy(RequestProcessingPolicyValue.USE_SERVANT_MANAGER),
+                rootPoa.create_servant_retention_policy(ServantRetentionPolicyValue.NON_RETAIN)});
+        forwardingPoa.set_servant_manager(new Forwarder(rootPoa.servant_to_reference(servant)));
+        String ior = serverOrb.object_to_string(forwardingPoa.create_reference_with_id("echo".getBytes(UTF_8), "IDL:test/Echo:1.0"));
+
+        Properties props = new Properties();
+        props.put("org.omg.PortableInterceptor.ORBInitializerClass." + SlotRecorder.class.getName(), "");
+        ORB orb = ORB.init((String[]) null, props);
+        try {
+            ObjectImpl forwarded = (ObjectImpl) orb.string_to_object(ior);
+            Current piCurrent = CurrentHelper.narrow(orb.resolve_initial_references("PICurrent"));
+            Any slot = orb.create_any();
+            slot.insert_string("caller");
+            piCurrent.set_slot(SlotRecorder.slotId, slot);
+            synchronized (SlotRecorder.slotsSent) {
+                SlotRecorder.slotsSent.clear();
+            }
+
+            CompletableFuture<InputStream> reply = ((Delegate) forwarded._get_delegate())
+                    .invokeAsync(forwarded, "echo", out -> out.write_longlong(7));
+            assertThat(reply.get(10, SECONDS).read_longlong(), equalTo(7L));
+
+            // the request went to the forwarding POA, and was then resent to the servant with the caller's slots
+            synchronized (SlotRecorder.slotsSent) {
+                assertThat(SlotRecorder.slotsSent, contains("caller", "caller"));
+            }
+            assertThat(SlotRecorder.sentFromCommonPool, equalTo(false));
+        } finally {
+            orb.destroy();
+        }
+    }
+}
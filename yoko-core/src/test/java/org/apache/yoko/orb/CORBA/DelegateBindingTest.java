@@ -0,0 +1,212 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.CORBA;
+
+import org.apache.yoko.orb.OB.DowncallStub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.LocalObject;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CORBA.portable.ApplicationException;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.ObjectImpl;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.RemarshalException;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.ForwardRequest;
+import org.omg.PortableServer.IdAssignmentPolicyValue;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+import org.omg.PortableServer.RequestProcessingPolicyValue;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.ServantLocator;
+import org.omg.PortableServer.ServantLocatorPackage.CookieHolder;
+import org.omg.PortableServer.ServantRetentionPolicyValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DelegateBindingTest {
+    static final String TYPE_ID = "IDL:test/Echo:1.0";
+    static final int THREADS = 16;
+
+    private static final class EchoServant extends Servant implements InvokeHandler {
+        final AtomicInteger calls = new AtomicInteger();
+
+        public String[] _all_interfaces(POA poa, byte[] objectId) {
+            return new String[]{TYPE_ID};
+        }
+
+        public OutputStream _invoke(String method, InputStream in, ResponseHandler handler) {
+            calls.incrementAndGet();
+            long value = in.read_longlong();
+            OutputStream out = handler.createReply();
+            out.write_longlong(value);
+            return out;
+        }
+    }
+
+    /** Serves the echo servant, or forwards every request to another object once asked to */
+    private static final class Locator extends LocalObject implements ServantLocator {
+        final EchoServant servant;
+        final AtomicInteger requests = new AtomicInteger();
+        volatile org.omg.CORBA.Object forwardTo;
+
+        Locator(EchoServant servant) {
+            this.servant = servant;
+        }
+
+        public Servant preinvoke(byte[] oid, POA adapter, String operation, CookieHolder cookie) throws ForwardRequest {
+            requests.incrementAndGet();
+            if (forwardTo != null) throw new ForwardRequest(forwardTo);
+            return servant;
+        }
+
+        public void postinvoke(byte[] oid, POA adapter, String operation, Object cookie, Servant servant) {}
+    }
+
+    private ORB serverOrb;
+    private ORB clientOrb;
+    private EchoServant servant;
+    private Locator locator;
+    private org.omg.CORBA.Object target;
+    private ObjectImpl stub;
+    private Delegate delegate;
+    private ExecutorService threads;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        serverOrb = ORB.init((String[]) null, null);
+        POA rootPoa = POAHelper.narrow(serverOrb.resolve_initial_references("RootPOA"));
+        rootPoa.the_POAManager().activate();
+        servant = new EchoServant();
+        target = rootPoa.servant_to_reference(servant);
+        POA locatorPoa = rootPoa.create_POA("locator", rootPoa.the_POAManager(), new Policy[]{
+                rootPoa.create_id_assignment_policy(IdAssignmentPolicyValue.USER_ID),
+                rootPoa.create_request_processing_policy(RequestProcessingPolicyValue.USE_SERVANT_MANAGER),
+                rootPoa.create_servant_retention_policy(ServantRetentionPolicyValue.NON_RETAIN)});
+        locator = new Locator(servant);
+        locatorPoa.set_servant_manager(locator);
+        String ior = serverOrb.object_to_string(locatorPoa.create_reference_with_id("echo".getBytes(UTF_8), TYPE_ID));
+        clientOrb = ORB.init((String[]) null, null);
+        stub = (ObjectImpl) clientOrb.string_to_object(ior);
+        delegate = (Delegate) stub._get_delegate();
+        threads = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        threads.shutdownNow();
+        clientOrb.destroy();
+        serverOrb.destroy();
+    }
+
+    private static long echo(ObjectImpl stub, long value) throws ApplicationException {
+        while (true) {
+            InputStream in = null;
+            try {
+                OutputStream out = stub._request("echo", true);
+                out.write_longlong(value);
+                in = stub._invoke(out);
+                return in.read_longlong();
+            } catch (RemarshalException e) {
+                // the request was forwarded, so send it again
+            } finally {
+                stub._releaseReply(in);
+            }
+        }
+    }
+
+    /** Run the task on every thread at once, and return what each one returned */
+    private <T> List<T> race(Callable<T> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) futures.add(threads.submit(() -> {
+            start.await();
+            return task.call();
+        }));
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) results.add(future.get(30, SECONDS));
+        return results;
+    }
+
+    @Test
+    public void testConcurrentFirstBindSharesOneStub() throws Exception {
+        List<DowncallStub> stubs = race(delegate::_OB_getDowncallStub);
+        DowncallStub first = stubs.get(0);
+        for (DowncallStub s : stubs) assertThat(s, sameInstance(first));
+        assertThat(delegate._OB_getDowncallStub(), sameInstance(first));
+    }
+
+    @Test
+    public void testRebindAfterForward() throws Exception {
+        assertThat(echo(stub, 1), equalTo(1L));
+        DowncallStub original = delegate._OB_getDowncallStub();
+        assertThat(delegate._OB_IOR(), sameInstance(delegate._OB_origIOR()));
+
+        locator.forwardTo = target;
+        assertThat(echo(stub, 2), equalTo(2L));
+        assertThat(locator.requests.get(), equalTo(2));
+        // the delegate is now bound to the object it was forwarded to, but remembers where it came from
+        assertThat(delegate._OB_IOR(), not(sameInstance(delegate._OB_origIOR())));
+        DowncallStub forwarded = delegate._OB_getDowncallStub();
+        assertThat(forwarded, not(sameInstance(original)));
+
+        // later requests go straight to the new binding
+        assertThat(echo(stub, 3), equalTo(3L));
+        assertThat(locator.requests.get(), equalTo(2));
+        assertThat(servant.calls.get(), equalTo(3));
+        assertThat(delegate._OB_getDowncallStub(), sameInstance(forwarded));
+    }
+
+    @Test
+    public void testConcurrentRequestsRebindOnce() throws Exception {
+        locator.forwardTo = target;
+        AtomicInteger next = new AtomicInteger();
+        List<Boolean> results = race(() -> {
+            for (int i = 0; i < 20; i++) {
+                long value = next.incrementAndGet();
+                if (echo(stub, value) != value) return false;
+            }
+            return true;
+        });
+        for (Boolean ok : results) assertThat(ok, equalTo(true));
+        assertThat(servant.calls.get(), equalTo(THREADS * 20));
+        // every thread ends up sharing the stub for the forwarded binding
+        List<DowncallStub> stubs = race(delegate::_OB_getDowncallStub);
+        for (DowncallStub s : stubs) assertThat(s, sameInstance(stubs.get(0)));
+        assertThat(delegate._OB_IOR(), not(sameInstance(delegate._OB_origIOR())));
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.CORBA;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.LocalObject;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CORBA.TRANSIENT;
+import org.omg.CORBA.portable.ApplicationException;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.ObjectImpl;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.RemarshalException;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.ForwardRequest;
+import org.omg.PortableServer.IdAssignmentPolicyValue;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+import org.omg.PortableServer.RequestProcessingPolicyValue;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.ServantLocator;
+import org.omg.PortableServer.ServantLocatorPackage.CookieHolder;
+import org.omg.PortableServer.ServantRetentionPolicyValue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DelegateIsATest {
+    static final String TYPE_ID = "IDL:test/Thing:1.0";
+    static final String OTHER_ID = "IDL:test/Other:1.0";
+
+    private static final class CountingServant extends Servant implements InvokeHandler {
+        final AtomicInteger isACalls = new AtomicInteger();
+
+        public String[] _all_interfaces(POA poa, byte[] objectId) {
+            return new String[]{TYPE_ID};
+        }
+
+        public boolean _is_a(String id) {
+            isACalls.incrementAndGet();
+            return TYPE_ID.equals(id);
+        }
+
+        public OutputStream _invoke(String method, InputStream in, ResponseHandler handler) {
+            return handler.createReply();
+        }
+    }
+
+    /** Serves the counting servant, or forwards every request to another object once asked to */
+    private static final class Locator extends LocalObject implements ServantLocator {
+        final CountingServant servant;
+        volatile org.omg.CORBA.Object forwardTo;
+        final AtomicBoolean failNext = new AtomicBoolean();
+
+        Locator(CountingServant servant) {
+            this.servant = servant;
+        }
+
+        public Servant preinvoke(byte[] oid, POA adapter, String operation, CookieHolder cookie) throws ForwardRequest {
+            if (failNext.getAndSet(false)) throw new TRANSIENT();
+            if (forwardTo != null) throw new ForwardRequest(forwardTo);
+            return servant;
+        }
+
+        public void postinvoke(byte[] oid, POA adapter, String operation, Object cookie, Servant servant) {}
+    }
+
+    private ORB serverOrb;
+    private ORB clientOrb;
+    private CountingServant servant;
+    private Locator locator;
+    private org.omg.CORBA.Object target;
+    private ObjectImpl stub;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        serverOrb = ORB.init((String[]) null, null);
+        POA rootPoa = POAHelper.narrow(serverOrb.resolve_initial_references("RootPOA"));
+        rootPoa.the_POAManager().activate();
+        servant = new CountingServant();
+        target = rootPoa.servant_to_reference(servant);
+        POA locatorPoa = rootPoa.create_POA("locator", rootPoa.the_POAManager(), new Policy[]{
+                rootPoa.create_id_assignment_policy(IdAssignmentPolicyValue.USER_ID),
+                rootPoa.create_request_processing_policy(RequestProcessingPolicyValue.USE_SERVANT_MANAGER),
+                rootPoa.create_servant_retention_policy(ServantRetentionPolicyValue.NON_RETAIN)});
+        locator = new Locator(servant);
+        locatorPoa.set_servant_manager(locator);
+        String ior = serverOrb.object_to_string(locatorPoa.create_reference_with_id("thing".getBytes(UTF_8), TYPE_ID));
+        clientOrb = ORB.init((String[]) null, null);
+        stub = (ObjectImpl) clientOrb.string_to_object(ior);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        clientOrb.destroy();
+        serverOrb.destroy();
+    }
+
+    @Test
+    public void testAnswerIsRemembered() {
+        assertThat(stub._is_a(OTHER_ID), equalTo(false));
+        assertThat(servant.isACalls.get(), equalTo(1));
+        assertThat(stub._is_a(OTHER_ID), equalTo(false));
+        assertThat(servant.isACalls.get(), equalTo(1));
+        // the same reference from another stub shares the answer
+        ObjectImpl other = (ObjectImpl) clientOrb.string_to_object(clientOrb.object_to_string(stub));
+        assertThat(other._is_a(OTHER_ID), equalTo(false));
+        assertThat(servant.isACalls.get(), equalTo(1));
+    }
+
+    @Test
+    public void testLocationForwardForgetsAnswers() {
+        assertThat(stub._is_a(OTHER_ID), equalTo(false));
+        assertThat(servant.isACalls.get(), equalTo(1));
+        locator.forwardTo = target;
+        // this request is forwarded, which drops the remembered answers before it is resent
+        assertThat(stub._is_a("IDL:test/Third:1.0"), equalTo(false));
+        assertThat(servant.isACalls.get(), equalTo(2));
+        assertThat(stub._is_a(OTHER_ID), equalTo(false));
+        assertThat(servant.isACalls.get(), equalTo(3));
+        assertThat(stub._is_a(OTHER_ID), equalTo(false));
+        assertThat(servant.isACalls.get(), equalTo(3));
+    }
+
+    @Test
+    public void testForwardAfterRetryForgetsAnswers() {
+        assertThat(stub._is_a(OTHER_ID), equalTo(false));
+        assertThat(servant.isACalls.get(), equalTo(1));
+        // the first attempt is retried, which rebinds the reference, and the retry is forwarded
+        locator.failNext.set(true);
+        locator.forwardTo = target;
+        ping(stub);
+        assertThat(stub._is_a(OTHER_ID), equalTo(false));
+        assertThat(servant.isACalls.get(), equalTo(2));
+    }
+
+    @Test
+    public void testForwardForgetsAnswersRememberedByAnotherReference() {
+        ObjectImpl other = (ObjectImpl) clientOrb.string_to_object(clientOrb.object_to_string(stub));
+        assertThat(other._is_a(OTHER_ID), equalTo(false));
+        assertThat(servant.isACalls.get(), equalTo(1));
+        // this reference has never asked, but its forward still drops what the other one learned
+        locator.forwardTo = target;
+        ping(stub);
+        assertThat(other._is_a(OTHER_ID), equalTo(false));
+        assertThat(servant.isACalls.get(), equalTo(2));
+    }
+
+    /** Sends a request the way a portable stub does, remarshalling after retries and forwards */
+    private static void ping(ObjectImpl stub) {
+        while (true) {
+            try {
+                stub._invoke(stub._request("ping", true));
+                return;
+            } catch (RemarshalException ignored) {
+            } catch (ApplicationException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
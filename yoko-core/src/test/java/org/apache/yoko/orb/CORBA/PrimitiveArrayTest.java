@@ -0,0 +1,121 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.CORBA;
+
+import org.apache.yoko.io.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PrimitiveArrayTest {
+    static final short[] SHORTS = {0, 1, -1, Short.MIN_VALUE, Short.MAX_VALUE, 0x0102};
+    static final int[] INTS = {0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0x01020304};
+    static final long[] LONGS = {0, 1, -1, Long.MIN_VALUE, Long.MAX_VALUE, 0x0102030405060708L};
+    static final float[] FLOATS = {0.0f, -0.0f, 1.5f, Float.MIN_VALUE, Float.MAX_VALUE, Float.NaN};
+    static final double[] DOUBLES = {0.0, -0.0, 1.5, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN};
+
+    @Test
+    public void testRoundTrip() {
+        OutputStream out = new OutputStream();
+        // an odd octet first, so every array needs aligning
+        out.write_octet((byte) 7);
+        out.write_short_array(SHORTS, 0, SHORTS.length);
+        out.write_octet((byte) 7);
+        out.write_long_array(INTS, 0, INTS.length);
+        out.write_octet((byte) 7);
+        out.write_longlong_array(LONGS, 0, LONGS.length);
+        out.write_octet((byte) 7);
+        out.write_float_array(FLOATS, 0, FLOATS.length);
+        out.write_octet((byte) 7);
+        out.write_double_array(DOUBLES, 0, DOUBLES.length);
+
+        InputStream in = out.create_input_stream();
+        short[] shorts = new short[SHORTS.length];
+        int[] ints = new int[INTS.length];
+        long[] longs = new long[LONGS.length];
+        float[] floats = new float[FLOATS.length];
+        double[] doubles = new double[DOUBLES.length];
+        in.read_octet();
+        in.read_short_array(shorts, 0, shorts.length);
+        in.read_octet();
+        in.read_long_array(ints, 0, ints.length);
+        in.read_octet();
+        in.read_longlong_array(longs, 0, longs.length);
+        in.read_octet();
+        in.read_float_array(floats, 0, floats.length);
+        in.read_octet();
+        in.read_double_array(doubles, 0, doubles.length);
+        assertArrayEquals(SHORTS, shorts);
+        assertArrayEquals(INTS, ints);
+        assertArrayEquals(LONGS, longs);
+        assertArrayEquals(FLOATS, floats);
+        assertArrayEquals(DOUBLES, doubles);
+    }
+
+    @Test
+    public void testReadLittleEndian() {
+        ByteBuffer bb = ByteBuffer.allocate(256).order(LITTLE_ENDIAN);
+        for (short s: SHORTS) bb.putShort(s);
+        bb.position(12);
+        for (int i: INTS) bb.putInt(i);
+        bb.position(40);
+        for (long l: LONGS) bb.putLong(l);
+        bb.position(88);
+        for (float f: FLOATS) bb.putFloat(f);
+        bb.position(112);
+        for (double d: DOUBLES) bb.putDouble(d);
+
+        InputStream in = new InputStream(Buffer.createReadBuffer(bb.array()), true);
+        short[] shorts = new short[SHORTS.length];
+        int[] ints = new int[INTS.length];
+        long[] longs = new long[LONGS.length];
+        float[] floats = new float[FLOATS.length];
+        double[] doubles = new double[DOUBLES.length];
+        in.read_short_array(shorts, 0, shorts.length);
+        in.read_long_array(ints, 0, ints.length);
+        in.read_longlong_array(longs, 0, longs.length);
+        in.read_float_array(floats, 0, floats.length);
+        in.read_double_array(doubles, 0, doubles.length);
+        assertArrayEquals(SHORTS, shorts);
+        assertArrayEquals(INTS, ints);
+        assertArrayEquals(LONGS, longs);
+        assertArrayEquals(FLOATS, floats);
+        assertArrayEquals(DOUBLES, doubles);
+    }
+
+    @Test
+    public void testReadWithOffset() {
+        OutputStream out = new OutputStream();
+        out.write_long_array(INTS, 2, 3);
+        int[] ints = new int[5];
+        out.create_input_stream().read_long_array(ints, 1, 3);
+        assertArrayEquals(new int[]{0, INTS[2], INTS[3], INTS[4], 0}, ints);
+    }
+
+    @Test
+    public void testReadBeyondEnd() {
+        InputStream in = new InputStream(new byte[12]);
+        assertThrows(org.omg.CORBA.MARSHAL.class, () -> in.read_longlong_array(new long[2], 0, 2));
+        assertEquals(0, in.read_long());
+    }
+}
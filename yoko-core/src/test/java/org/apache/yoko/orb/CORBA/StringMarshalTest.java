@@ -0,0 +1,75 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.CORBA;
+
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.DATA_CONVERSION;
+import org.omg.CORBA.MARSHAL;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.apache.yoko.util.MinorCodes.MinorReadStringNoTerminator;
+import static org.apache.yoko.util.MinorCodes.MinorReadStringNullChar;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StringMarshalTest {
+    static final String ASCII = "IDL:org/apache/yoko/Test:1.0";
+    static final String LATIN_1 = "caf\u00e9 cr\u00e8me br\u00fbl\u00e9e \u00ff";
+
+    static InputStream marshal(String... values) {
+        OutputStream out = new OutputStream();
+        for (String s: values) out.write_string(s);
+        return out.create_input_stream();
+    }
+
+    @Test
+    public void testRoundTrip() {
+        InputStream in = marshal(ASCII, LATIN_1, "");
+        assertEquals(ASCII, in.read_string());
+        assertEquals(LATIN_1, in.read_string());
+        assertEquals("", in.read_string());
+    }
+
+    @Test
+    public void testWireFormat() {
+        byte[] expected = new byte[4 + LATIN_1.length() + 1];
+        expected[3] = (byte) (LATIN_1.length() + 1);
+        System.arraycopy(LATIN_1.getBytes(ISO_8859_1), 0, expected, 4, LATIN_1.length());
+        OutputStream out = new OutputStream();
+        out.write_string(LATIN_1);
+        assertArrayEquals(expected, out.copyWrittenBytes());
+    }
+
+    @Test
+    public void testWriteWideChar() {
+        assertThrows(DATA_CONVERSION.class, () -> new OutputStream().write_string("\u0100"));
+    }
+
+    @Test
+    public void testReadNullChar() {
+        InputStream in = new InputStream(new byte[]{0, 0, 0, 4, 'a', 0, 'b', 0});
+        assertEquals(MinorReadStringNullChar, assertThrows(MARSHAL.class, in::read_string).minor);
+    }
+
+    @Test
+    public void testReadMissingTerminator() {
+        InputStream in = new InputStream(new byte[]{0, 0, 0, 3, 'a', 'b', 'c'});
+        assertEquals(MinorReadStringNoTerminator, assertThrows(MARSHAL.class, in::read_string).minor);
+    }
+}
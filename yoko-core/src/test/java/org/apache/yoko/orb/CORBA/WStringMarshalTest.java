@@ -0,0 +1,104 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.CORBA;
+
+import org.apache.yoko.orb.OB.CodeConverters;
+import org.apache.yoko.orb.OB.ORBInstance;
+import org.apache.yoko.orb.OBCORBA.ORB_impl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.ORB;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static org.apache.yoko.orb.OB.CodeSetInfo.ISO_LATIN_1;
+import static org.apache.yoko.orb.OB.CodeSetInfo.UTF_16;
+import static org.apache.yoko.orb.OCI.GiopVersion.GIOP1_2;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WStringMarshalTest {
+    static final String CJK = "\u6771\u4eac\u90fd, \u5317\u4eac\u5e02 \uc11c\uc6b8 \ud83d\ude00";
+    static ORB orb;
+    static CodeConverters utf16;
+
+    @BeforeAll
+    public static void createOrb() {
+        orb = ORB.init((String[]) null, null);
+        ORBInstance orbInstance = ((ORB_impl) orb)._OB_ORBInstance();
+        utf16 = CodeConverters.create(orbInstance, ISO_LATIN_1.id, UTF_16.id);
+    }
+
+    @AfterAll
+    public static void destroyOrb() {
+        orb.destroy();
+    }
+
+    static byte[] encapsulate(byte[] bytes) {
+        return ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes).array();
+    }
+
+    static byte[] concat(byte[] a, byte[] b) {
+        return ByteBuffer.allocate(a.length + b.length).put(a).put(b).array();
+    }
+
+    @Test
+    public void testRoundTrip() {
+        OutputStream out = new OutputStream(utf16, GIOP1_2);
+        out.write_wstring(CJK);
+        out.write_wstring("");
+        out.write_wstring("\ufeffBOM");
+        InputStream in = new InputStream(out.copyWrittenBytes(), false, utf16, GIOP1_2);
+        assertEquals(CJK, in.read_wstring());
+        assertEquals("", in.read_wstring());
+        assertEquals("\ufeffBOM", in.read_wstring());
+    }
+
+    @Test
+    public void testWireFormat() {
+        OutputStream out = new OutputStream(utf16, GIOP1_2);
+        out.write_wstring(CJK);
+        assertArrayEquals(encapsulate(CJK.getBytes(UTF_16BE)), out.copyWrittenBytes());
+    }
+
+    @Test
+    public void testLeadingBomIsEscaped() {
+        OutputStream out = new OutputStream(utf16, GIOP1_2);
+        out.write_wstring("\ufffe");
+        assertArrayEquals(encapsulate(new byte[]{(byte) 0xfe, (byte) 0xff, (byte) 0xff, (byte) 0xfe}), out.copyWrittenBytes());
+    }
+
+    @Test
+    public void testReadWithBom() {
+        byte[] bigEndian = concat(new byte[]{(byte) 0xfe, (byte) 0xff}, CJK.getBytes(UTF_16BE));
+        byte[] littleEndian = concat(new byte[]{(byte) 0xff, (byte) 0xfe}, CJK.getBytes(UTF_16LE));
+        assertEquals(CJK, new InputStream(encapsulate(bigEndian), false, utf16, GIOP1_2).read_wstring());
+        assertEquals(CJK, new InputStream(encapsulate(littleEndian), false, utf16, GIOP1_2).read_wstring());
+    }
+
+    @Test
+    public void testReadWithoutReaderUsesStreamByteOrder() {
+        byte[] bytes = CJK.getBytes(UTF_16LE);
+        byte[] encapsulated = ByteBuffer.allocate(4 + bytes.length).put(new byte[]{(byte) bytes.length, 0, 0, 0}).put(bytes).array();
+        InputStream in = new InputStream(encapsulated, true, CodeConverters.NULL_CONVERTER, GIOP1_2);
+        assertEquals(CJK, in.read_wstring());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.IOP;
+
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.BAD_INV_ORDER;
+import org.omg.IOP.ServiceContext;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ServiceContextCacheTest {
+    static final int ID = 0x12345678;
+
+    private final AtomicInteger encodings = new AtomicInteger();
+
+    private byte[] encode(String value) {
+        encodings.incrementAndGet();
+        return value.getBytes();
+    }
+
+    @Test
+    public void testEncodesEachValueOnce() {
+        ServiceContextCache<String> cache = new ServiceContextCache<>(ID, 10, this::encode);
+        ServiceContext sc = cache.get("one");
+        assertThat(sc.context_id, equalTo(ID));
+        assertArrayEquals("one".getBytes(), sc.context_data);
+        assertThat(cache.get("one"), sameInstance(sc));
+        assertThat(cache.get(new String("one")), sameInstance(sc));
+        assertThat(cache.get("two"), not(sameInstance(sc)));
+        assertThat(encodings.get(), equalTo(2));
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        ServiceContextCache<String> cache = new ServiceContextCache<>(ID, 3, this::encode);
+        for (int i = 0; i < 10; i++) cache.get("" + i);
+        assertThat(cache.size(), lessThanOrEqualTo(3));
+        // a value that was dropped is encoded again
+        assertArrayEquals("0".getBytes(), cache.get("0").context_data);
+    }
+
+    @Test
+    public void testEncodedContextsAreNotCopied() {
+        ServiceContexts contexts = new ServiceContexts();
+        ServiceContext shared = new ServiceContextCache<>(ID, 10, this::encode).get("shared");
+        contexts.mutable().addEncoded(shared, false);
+        assertThat(contexts.iterator().next(), sameInstance(shared));
+        // callers still get their own copy
+        assertThat(contexts.get(ID), not(sameInstance(shared)));
+        assertThrows(BAD_INV_ORDER.class, () -> contexts.mutable().addEncoded(shared, false));
+        contexts.mutable().addEncoded(new ServiceContext(ID, new byte[0]), true);
+        assertThat(contexts.get(ID).context_data.length, equalTo(0));
+    }
+
+    @Test
+    public void testOtherContextsAreCopied() {
+        ServiceContexts contexts = new ServiceContexts();
+        ServiceContext sc = new ServiceContext(ID, new byte[]{1});
+        contexts.mutable().add(sc, false);
+        assertThat(contexts.iterator().next(), not(sameInstance(sc)));
+        sc.context_data[0] = 2;
+        assertThat(contexts.get(ID).context_data[0], equalTo((byte) 1));
+    }
+}
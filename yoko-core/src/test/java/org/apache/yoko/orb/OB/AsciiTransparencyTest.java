@@ -0,0 +1,46 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OB;
+
+import org.junit.jupiter.api.Test;
+
+import static org.apache.yoko.orb.OB.CodeSetDatabase.getConverter;
+import static org.apache.yoko.orb.OB.CodeSetInfo.ISO_LATIN_1;
+import static org.apache.yoko.orb.OB.CodeSetInfo.ISO_LATIN_2;
+import static org.apache.yoko.orb.OB.CodeSetInfo.UTF_16;
+import static org.apache.yoko.orb.OB.CodeSetInfo.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsciiTransparencyTest {
+    @Test
+    public void testUtf8AndLatin1() {
+        assertTrue(getConverter(UTF_8, ISO_LATIN_1).isAsciiTransparent());
+        assertTrue(getConverter(ISO_LATIN_1, UTF_8).isAsciiTransparent());
+    }
+
+    @Test
+    public void testCharMapped() {
+        assertFalse(getConverter(ISO_LATIN_2, ISO_LATIN_1).isAsciiTransparent());
+    }
+
+    @Test
+    public void testWide() {
+        assertFalse(getConverter(UTF_16, ISO_LATIN_1).isAsciiTransparent());
+    }
+}
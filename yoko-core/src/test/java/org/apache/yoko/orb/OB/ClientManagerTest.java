@@ -0,0 +1,119 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OB;
+
+import org.apache.yoko.orb.CORBA.Delegate;
+import org.apache.yoko.orb.OBCORBA.ORB_impl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CORBA.portable.ObjectImpl;
+import org.omg.IOP.IOR;
+
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ClientManagerTest {
+    static final Policy[] NO_POLICIES = {};
+    static ORB orb;
+    static ClientManager clientManager;
+
+    @BeforeAll
+    public static void createOrb() {
+        orb = ORB.init((String[]) null, null);
+        clientManager = ((ORB_impl) orb)._OB_ORBInstance().getClientManager();
+    }
+
+    @AfterAll
+    public static void destroyOrb() {
+        orb.destroy();
+    }
+
+    static IOR ior(String corbaloc) {
+        ObjectImpl obj = (ObjectImpl) orb.string_to_object(corbaloc);
+        return ((Delegate) obj._get_delegate())._OB_origIOR();
+    }
+
+    static Client obtain(String corbaloc) {
+        Vector<ClientProfilePair> pairs = clientManager.getClientProfilePairs(ior(corbaloc), NO_POLICIES);
+        for (ClientProfilePair pair: pairs.subList(1, pairs.size())) clientManager.releaseClient(pair.client);
+        return pairs.get(0).client;
+    }
+
+    @Test
+    public void testSameEndpointSharesClient() {
+        Client c1 = obtain("corbaloc::127.0.0.1:40001/one");
+        Client c2 = obtain("corbaloc::127.0.0.1:40001/two");
+        assertThat(c2, sameInstance(c1));
+        clientManager.releaseClient(c1);
+        clientManager.releaseClient(c2);
+    }
+
+    @Test
+    public void testHostAliasSharesClient() {
+        Client c1 = obtain("corbaloc::127.0.0.1:40002/one");
+        Client c2 = obtain("corbaloc::localhost:40002/two");
+        assertThat(c2, sameInstance(c1));
+        clientManager.releaseClient(c1);
+        clientManager.releaseClient(c2);
+    }
+
+    @Test
+    public void testDifferentPortsUseDifferentClients() {
+        Client c1 = obtain("corbaloc::127.0.0.1:40003/one");
+        Client c2 = obtain("corbaloc::127.0.0.1:40004/one");
+        assertThat(c2, not(sameInstance(c1)));
+        clientManager.releaseClient(c1);
+        clientManager.releaseClient(c2);
+    }
+
+    @Test
+    public void testUnusedClientIsNotReused() {
+        Client c1 = obtain("corbaloc::127.0.0.1:40005/one");
+        clientManager.releaseClient(c1);
+        Client c2 = obtain("corbaloc::127.0.0.1:40005/one");
+        assertThat(c2, not(sameInstance(c1)));
+        clientManager.releaseClient(c2);
+    }
+
+    @Test
+    public void testConcurrentLookupsShareClient() throws Exception {
+        ExecutorService xs = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Client>> futures = IntStream.range(0, 64)
+                    .mapToObj(i -> xs.submit(() -> obtain("corbaloc::127.0.0.1:40006/" + i)))
+                    .collect(Collectors.toList());
+            Client first = futures.get(0).get();
+            for (Future<Client> f: futures) assertThat(f.get(), sameInstance(first));
+            for (Future<Client> f: futures) clientManager.releaseClient(f.get());
+        } finally {
+            xs.shutdown();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OB;
+
+import org.apache.yoko.orb.OBCORBA.ORB_impl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.BAD_OPERATION;
+import org.omg.CORBA.INITIALIZE;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.ObjectImpl;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+import org.omg.PortableServer.Servant;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.everyItem;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectionPoolTest {
+    static final Policy[] POOL_OF_3 = {new ConnectionReusePolicy_impl(true, 3)};
+
+    private static final class BlockingServant extends Servant implements InvokeHandler {
+        final Semaphore arrivals = new Semaphore(0);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        public String[] _all_interfaces(POA poa, byte[] objectId) {
+            return new String[]{"IDL:test/Blocking:1.0"};
+        }
+
+        public OutputStream _invoke(String method, InputStream in, ResponseHandler handler) {
+            if (!"block".equals(method)) throw new BAD_OPERATION(method);
+            arrivals.release();
+            try {
+                release.await(30, SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+            return handler.createReply();
+        }
+    }
+
+    private ORB serverOrb;
+    private ORB clientOrb;
+    private BlockingServant servant;
+    private ObjectImpl stub;
+
+    static ORB newOrb(String connectionReuse) {
+        Properties props = new Properties();
+        if (connectionReuse != null) props.put("yoko.orb.policy.connection_reuse", connectionReuse);
+        return ORB.init((String[]) null, props);
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        serverOrb = newOrb(null);
+        POA rootPoa = POAHelper.narrow(serverOrb.resolve_initial_references("RootPOA"));
+        rootPoa.the_POAManager().activate();
+        servant = new BlockingServant();
+        String ior = serverOrb.object_to_string(rootPoa.servant_to_reference(servant));
+        clientOrb = newOrb("3");
+        stub = (ObjectImpl) clientOrb.string_to_object(ior);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        servant.release.countDown();
+        clientOrb.destroy();
+        serverOrb.destroy();
+    }
+
+    @Test
+    public void testPooledClientsShareEachProfile() {
+        ClientManager clientManager = ((ORB_impl) clientOrb)._OB_ORBInstance().getClientManager();
+        org.apache.yoko.orb.CORBA.Delegate delegate = (org.apache.yoko.orb.CORBA.Delegate) stub._get_delegate();
+        Vector<ClientProfilePair> pairs = clientManager.getClientProfilePairs(delegate._OB_origIOR(), POOL_OF_3);
+        Vector<ClientProfilePair> again = clientManager.getClientProfilePairs(delegate._OB_origIOR(), POOL_OF_3);
+        try {
+            Set<Client> clients = new HashSet<>();
+            for (int i = 0; i < 3; i++) {
+                clients.add(pairs.get(i).client);
+                assertThat(pairs.get(i).profile, sameInstance(pairs.get(0).profile));
+                // the pool is reused
+                assertThat(again.get(i).client, sameInstance(pairs.get(i).client));
+            }
+            assertThat(clients.size(), equalTo(3));
+        } finally {
+            for (ClientProfilePair pair: pairs) clientManager.releaseClient(pair.client);
+            for (ClientProfilePair pair: again) clientManager.releaseClient(pair.client);
+        }
+    }
+
+    @Test
+    public void testRequestsSpreadAcrossConnections() throws Exception {
+        ExecutorService xs = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                calls.add(xs.submit(this::block));
+                // wait for each request to be outstanding before sending the next
+                assertTrue(servant.arrivals.tryAcquire(10, SECONDS), "request " + i + " should reach the server");
+            }
+            ClientManager clientManager = ((ORB_impl) clientOrb)._OB_ORBInstance().getClientManager();
+            Map<String, Integer> depths = clientManager.getQueueDepths();
+            assertThat(depths.size(), equalTo(3));
+            assertThat(depths.values(), everyItem(equalTo(1)));
+            servant.release.countDown();
+            for (Future<?> call: calls) call.get(10, SECONDS);
+        } finally {
+            xs.shutdown();
+        }
+    }
+
+    @Test
+    public void testInvalidConnectionCount() {
+        assertThrows(INITIALIZE.class, () -> newOrb("0"));
+        assertThrows(INITIALIZE.class, () -> newOrb("several"));
+    }
+
+    private void block() {
+        InputStream in = null;
+        try {
+            in = stub._invoke(stub._request("block", true));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            stub._releaseReply(in);
+        }
+    }
+}
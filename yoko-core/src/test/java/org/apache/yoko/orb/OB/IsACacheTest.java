@@ -0,0 +1,109 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OB;
+
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.INITIALIZE;
+import org.omg.CORBA.ORB;
+import org.omg.IOP.IOR;
+import org.omg.IOP.TaggedProfile;
+
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IsACacheTest {
+    static final String BASE = "IDL:Base:1.0";
+    static final String DERIVED = "IDL:Derived:1.0";
+
+    static IsACache.Target target(String typeId, String profileData) {
+        return IsACache.target(new IOR(typeId, new TaggedProfile[]{new TaggedProfile(0, profileData.getBytes(UTF_8))}));
+    }
+
+    @Test
+    public void testRemembersAnswers() {
+        IsACache cache = new IsACache(10, 60000);
+        IsACache.Target target = target(BASE, "host:1");
+        assertThat(cache.get(target, DERIVED), nullValue());
+        cache.put(target, DERIVED, true);
+        cache.put(target, "IDL:Other:1.0", false);
+        assertThat(cache.get(target, DERIVED), equalTo(true));
+        assertThat(cache.get(target, "IDL:Other:1.0"), equalTo(false));
+        // an equal reference finds the same answers
+        assertThat(cache.get(target(BASE, "host:1"), DERIVED), equalTo(true));
+    }
+
+    @Test
+    public void testDifferentObjectsAreKeptApart() {
+        IsACache cache = new IsACache(10, 60000);
+        cache.put(target(BASE, "host:1"), DERIVED, true);
+        assertThat(cache.get(target(BASE, "host:2"), DERIVED), nullValue());
+        assertThat(cache.get(target("IDL:Another:1.0", "host:1"), DERIVED), nullValue());
+    }
+
+    @Test
+    public void testAnswersExpire() throws Exception {
+        IsACache cache = new IsACache(10, 1);
+        IsACache.Target target = target(BASE, "host:1");
+        cache.put(target, DERIVED, true);
+        Thread.sleep(5);
+        assertThat(cache.get(target, DERIVED), nullValue());
+    }
+
+    @Test
+    public void testInvalidate() {
+        IsACache cache = new IsACache(10, 60000);
+        IsACache.Target target = target(BASE, "host:1");
+        cache.put(target, DERIVED, true);
+        cache.invalidate(target);
+        assertThat(cache.get(target, DERIVED), nullValue());
+        assertThat(cache.size(), equalTo(0));
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        IsACache cache = new IsACache(3, 60000);
+        for (int i = 0; i < 10; i++) cache.put(target(BASE, "" + i), DERIVED, true);
+        assertThat(cache.size(), equalTo(3));
+        // the most recent answer is always kept
+        assertThat(cache.get(target(BASE, "9"), DERIVED), equalTo(true));
+    }
+
+    @Test
+    public void testDisabled() {
+        IsACache cache = new IsACache(0, 60000);
+        IsACache.Target target = target(BASE, "host:1");
+        cache.put(target, DERIVED, true);
+        assertThat(cache.get(target, DERIVED), nullValue());
+    }
+
+    @Test
+    public void testOrbRejectsValuesItCannotRead() {
+        // the size must fit in an int, the TTL in a long
+        for (String[] setting : new String[][]{{"yoko.orb.is_a_cache.size", "3000000000"}, {"yoko.orb.is_a_cache.size", "-1"},
+                {"yoko.orb.is_a_cache.ttl", "forever"}, {"yoko.orb.is_a_cache.ttl", "-1"}}) {
+            Properties props = new Properties();
+            props.put(setting[0], setting[1]);
+            assertThrows(INITIALIZE.class, () -> ORB.init((String[]) null, props).destroy(), setting[0] + "=" + setting[1]);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OB;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.INITIALIZE;
+import org.omg.CORBA.LocalObject;
+import org.omg.CORBA.OBJ_ADAPTER;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.TRANSIENT;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ThreadPoolTest {
+    private static final class Request extends LocalObject implements DispatchRequest {
+        final Runnable body;
+        Request(Runnable body) { this.body = body; }
+        public void invoke() { body.run(); }
+    }
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPool pool;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        if (pool != null) pool.destroy();
+    }
+
+    private Request blocking(Semaphore started) {
+        return new Request(() -> {
+            started.release();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+    }
+
+    @Test
+    public void testPoolGrowsToMaximumUnderLoad() throws Exception {
+        pool = new ThreadPool(0, 1, 3, 60, 0);
+        Semaphore started = new Semaphore(0);
+        for (int i = 0; i < 3; i++) pool.add(blocking(started));
+        // all three run at once, although only one thread is kept when idle
+        assertTrue(started.tryAcquire(3, 10, SECONDS));
+    }
+
+    @Test
+    public void testRequestsQueueWhenPoolIsFull() throws Exception {
+        pool = new ThreadPool(0, 1, 1, 60, 0);
+        Semaphore started = new Semaphore(0);
+        pool.add(blocking(started));
+        assertTrue(started.tryAcquire(10, SECONDS));
+        CountDownLatch queued = new CountDownLatch(2);
+        pool.add(new Request(queued::countDown));
+        pool.add(new Request(queued::countDown));
+        assertThat(queued.getCount(), equalTo(2L));
+        release.countDown();
+        assertTrue(queued.await(10, SECONDS));
+    }
+
+    @Test
+    public void testExcessRequestsAreDiscarded() throws Exception {
+        pool = new ThreadPool(0, 1, 1, 60, 1);
+        Semaphore started = new Semaphore(0);
+        pool.add(blocking(started));
+        assertTrue(started.tryAcquire(10, SECONDS));
+        CountDownLatch queued = new CountDownLatch(1);
+        pool.add(new Request(queued::countDown));
+        assertThrows(TRANSIENT.class, () -> pool.add(new Request(() -> {})));
+        release.countDown();
+        assertTrue(queued.await(10, SECONDS));
+    }
+
+    @Test
+    public void testDestroyedPoolRejectsRequests() {
+        pool = new ThreadPool(0, 1);
+        pool.destroy();
+        assertThrows(OBJ_ADAPTER.class, () -> pool.add(new Request(() -> {})));
+    }
+
+    @Test
+    public void testOrbRejectsInvalidThreadPoolProperties() {
+        for (String[] setting : new String[][]{
+                {"yoko.orb.oa.thread_pool.max", "0"}, {"yoko.orb.oa.thread_pool.max", "many"},
+                {"yoko.orb.oa.thread_pool.max", "3000000000"}, {"yoko.orb.oa.thread_pool.keep_alive", "-1"},
+                {"yoko.orb.oa.thread_pool.keep_alive", "soon"}, {"yoko.orb.oa.thread_pool.max_queued", "-1"}}) {
+            Properties props = new Properties();
+            props.put("org.omg.CORBA.ORBClass", "org.apache.yoko.orb.CORBA.ORB");
+            props.put("org.omg.CORBA.ORBSingletonClass", "org.apache.yoko.orb.CORBA.ORBSingleton");
+            props.put(setting[0], setting[1]);
+            assertThrows(INITIALIZE.class, () -> ORB.init((String[]) null, props).destroy(), setting[0] + "=" + setting[1]);
+        }
+    }
+
+    @Test
+    public void testOrbAcceptsThreadPoolProperties() {
+        Properties props = new Properties();
+        props.put("org.omg.CORBA.ORBClass", "org.apache.yoko.orb.CORBA.ORB");
+        props.put("org.omg.CORBA.ORBSingletonClass", "org.apache.yoko.orb.CORBA.ORBSingleton");
+        props.put("yoko.orb.oa.thread_pool.max", "1");
+        props.put("yoko.orb.oa.thread_pool.keep_alive", "0");
+        props.put("yoko.orb.oa.thread_pool.max_queued", "0");
+        ORB.init((String[]) null, props).destroy();
+    }
+}
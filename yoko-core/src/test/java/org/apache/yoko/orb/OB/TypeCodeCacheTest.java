@@ -0,0 +1,139 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OB;
+
+import org.apache.yoko.io.Buffer;
+import org.apache.yoko.orb.CORBA.InputStream;
+import org.apache.yoko.orb.CORBA.OutputStream;
+import org.apache.yoko.orb.CORBA.TypeCode;
+import org.apache.yoko.orb.OBCORBA.ORB_impl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.INITIALIZE;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.StructMember;
+
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.number.OrderingComparison.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.omg.CORBA.TCKind.tk_double;
+
+public class TypeCodeCacheTest {
+    private ORB orb;
+
+    static TypeCodeCache.Encoding encoding(String bytes) {
+        return new TypeCodeCache.Encoding(bytes.getBytes(UTF_8), 0, false, null);
+    }
+
+    static TypeCode primitive() {
+        return (TypeCode) TypeCodeFactory.createPrimitiveTC(tk_double);
+    }
+
+    @BeforeEach
+    public void setup() {
+        Properties props = new Properties();
+        props.put("yoko.orb.type_code_cache.size", "10");
+        orb = ORB.init((String[]) null, props);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    @Test
+    public void testCountsHitsAndMisses() {
+        TypeCodeCache cache = new TypeCodeCache(10, 1000);
+        assertThat(cache.get("IDL:A:1.0"), nullValue());
+        cache.put("IDL:A:1.0", primitive());
+        assertThat(cache.get("IDL:A:1.0"), sameInstance(primitive()));
+        cache.put(encoding("abcd"), primitive());
+        assertThat(cache.get(encoding("abcd")), sameInstance(primitive()));
+        assertThat(cache.get(encoding("abce")), nullValue());
+        assertThat(cache.hits(), equalTo(2L));
+        assertThat(cache.misses(), equalTo(2L));
+    }
+
+    @Test
+    public void testEntriesAreBounded() {
+        TypeCodeCache cache = new TypeCodeCache(3, 1000);
+        for (int i = 0; i < 10; i++) cache.put("IDL:T" + i + ":1.0", primitive());
+        assertThat(cache.size(), equalTo(3));
+        assertThat(cache.evictions(), equalTo(7L));
+        // the most recent entry is always kept
+        assertThat(cache.get("IDL:T9:1.0"), sameInstance(primitive()));
+    }
+
+    @Test
+    public void testEncodingsAreBoundedByWeight() {
+        TypeCodeCache cache = new TypeCodeCache(3, 10);
+        for (int i = 0; i < 10; i++) cache.put(encoding("enc" + i), primitive());
+        assertThat(cache.encodedBytes(), lessThanOrEqualTo(10L));
+        assertThat(cache.size(), equalTo(2));
+        // an encoding larger than the whole cache is never kept
+        cache.put(encoding("much too long"), primitive());
+        assertThat(cache.get(encoding("much too long")), nullValue());
+    }
+
+    @Test
+    public void testReaderReusesEncodedTypeCode() {
+        ORBInstance orbInstance = ((ORB_impl) orb)._OB_ORBInstance();
+        TypeCodeCache cache = orbInstance.getTypeCodeCache();
+        // anonymous, so that it cannot be found by repository ID
+        org.omg.CORBA.TypeCode point = orb.create_struct_tc("", "Point", new StructMember[]{
+                new StructMember("x", orb.get_primitive_tc(tk_double), null),
+                new StructMember("y", orb.get_primitive_tc(tk_double), null)});
+        OutputStream out = new OutputStream();
+        out.write_TypeCode(point);
+        out.write_double(1.0);
+        byte[] message = out.copyWrittenBytes();
+
+        long hits = cache.hits();
+        assertThat(read(orbInstance, message), sameInstance(point));
+        assertThat(cache.hits(), equalTo(hits));
+        assertThat(read(orbInstance, message), sameInstance(point));
+        assertThat(cache.hits(), equalTo(hits + 1));
+    }
+
+    @Test
+    public void testOrbRejectsValuesItCannotRead() {
+        // the size must fit in an int, the byte limit in a long
+        for (String[] setting : new String[][]{{"yoko.orb.type_code_cache.size", "3000000000"}, {"yoko.orb.type_code_cache.size", "-1"},
+                {"yoko.orb.type_code_cache.max_bytes", "lots"}, {"yoko.orb.type_code_cache.max_bytes", "-1"}}) {
+            Properties props = new Properties();
+            props.put(setting[0], setting[1]);
+            assertThrows(INITIALIZE.class, () -> ORB.init((String[]) null, props).destroy(), setting[0] + "=" + setting[1]);
+        }
+    }
+
+    private static org.omg.CORBA.TypeCode read(ORBInstance orbInstance, byte[] message) {
+        InputStream in = new InputStream(Buffer.createReadBuffer(message), false);
+        in._OB_ORBInstance(orbInstance);
+        org.omg.CORBA.TypeCode tc = in.read_TypeCode();
+        // the reader is left just after the TypeCode
+        assertThat(in.read_double(), equalTo(1.0));
+        return tc;
+    }
+}
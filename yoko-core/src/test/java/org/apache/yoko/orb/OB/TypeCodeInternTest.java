@@ -0,0 +1,145 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OB;
+
+import org.apache.yoko.orb.CORBA.Any;
+import org.apache.yoko.orb.CORBA.CanonicalTypeCodes;
+import org.apache.yoko.orb.CORBA.InputStream;
+import org.apache.yoko.orb.CORBA.OutputStream;
+import org.apache.yoko.orb.CORBA.TypeCode;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.PUBLIC_MEMBER;
+import org.omg.CORBA.StructMember;
+import org.omg.CORBA.UnionMember;
+import org.omg.CORBA.VM_NONE;
+import org.omg.CORBA.ValueMember;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.omg.CORBA.TCKind.tk_double;
+import static org.omg.CORBA.TCKind.tk_long;
+
+public class TypeCodeInternTest {
+    static org.omg.CORBA.TypeCode newPointType(String name) {
+        return TypeCodeFactory.createStructTC("", name, new StructMember[]{
+                new StructMember("x", TypeCodeFactory.createPrimitiveTC(tk_double), null),
+                new StructMember("y", TypeCodeFactory.createPrimitiveTC(tk_double), null)});
+    }
+
+    static org.omg.CORBA.TypeCode newNestedType() {
+        org.omg.CORBA.TypeCode point = newPointType("Point");
+        org.omg.CORBA.TypeCode path = TypeCodeFactory.createSequenceTC(0, point);
+        Any one = new Any();
+        one.insert_long(1);
+        Any two = new Any();
+        two.insert_long(2);
+        org.omg.CORBA.TypeCode shape = TypeCodeFactory.createUnionTC("", "Shape", TypeCodeFactory.createPrimitiveTC(tk_long), new UnionMember[]{
+                new UnionMember("dot", one, point, null),
+                new UnionMember("line", two, path, null)});
+        return TypeCodeFactory.createValueTC("", "Drawing", VM_NONE.value, null, new ValueMember[]{
+                new ValueMember("title", "", "", "", TypeCodeFactory.createStringTC(0), null, PUBLIC_MEMBER.value),
+                new ValueMember("shape", "", "", "", shape, null, PUBLIC_MEMBER.value)});
+    }
+
+    @Test
+    public void testEqualTypeCodesShareOneInstance() {
+        assertThat(newPointType("Point"), sameInstance(newPointType("Point")));
+        assertThat(newNestedType(), sameInstance(newNestedType()));
+        assertThat(TypeCodeFactory.createStringTC(0), sameInstance(TypeCodeFactory.createPrimitiveTC(org.omg.CORBA.TCKind.tk_string)));
+    }
+
+    @Test
+    public void testDifferentTypeCodesAreKeptApart() {
+        assertThat(newPointType("Point"), not(sameInstance(newPointType("Vector"))));
+        assertThat(TypeCodeFactory.createStringTC(5), not(sameInstance(TypeCodeFactory.createStringTC(6))));
+    }
+
+    @Test
+    public void testTypeCodesReadFromTheWireAreShared() {
+        org.omg.CORBA.TypeCode nested = newNestedType();
+        OutputStream out = new OutputStream();
+        out.write_TypeCode(nested);
+        out.write_TypeCode(nested);
+        InputStream in = out.create_input_stream();
+        assertThat(in.read_TypeCode(), sameInstance(nested));
+        assertThat(in.read_TypeCode(), sameInstance(nested));
+    }
+
+    @Test
+    public void testTypeCodesAreStillSharedAfterManyOthers() {
+        for (int i = 0; i < 10_000; i++)
+            newPointType("Point" + i);
+        org.omg.CORBA.TypeCode latest = newPointType("Latest");
+        assertThat(CanonicalTypeCodes.isCanonical((TypeCode) latest), is(true));
+        assertThat(newPointType("Latest"), sameInstance(latest));
+    }
+
+    @Test
+    public void testRecursiveTypeCodesAreNotInterned() {
+        org.omg.CORBA.TypeCode list = newListType();
+        assertThat(CanonicalTypeCodes.isCanonical((TypeCode) list), is(false));
+        assertThat(list, not(sameInstance(newListType())));
+        assertTrue(list.equal(newListType()));
+        assertTrue(list.equivalent(newListType()));
+
+        OutputStream out = new OutputStream();
+        out.write_TypeCode(list);
+        org.omg.CORBA.TypeCode read = out.create_input_stream().read_TypeCode();
+        assertThat(CanonicalTypeCodes.isCanonical((TypeCode) read), is(false));
+        assertTrue(read.equal(list));
+    }
+
+    static org.omg.CORBA.TypeCode newListType() {
+        org.omg.CORBA.TypeCode self = TypeCodeFactory.createRecursiveTC("IDL:test/List:1.0");
+        return TypeCodeFactory.createStructTC("IDL:test/List:1.0", "List", new StructMember[]{
+                new StructMember("value", TypeCodeFactory.createPrimitiveTC(tk_long), null),
+                new StructMember("next", TypeCodeFactory.createSequenceTC(0, self), null)});
+    }
+
+    @Test
+    public void testSharedUnionsKeepTheirOwnLabels() throws Exception {
+        ORB orb = ORB.init((String[]) null, null);
+        try {
+            org.omg.CORBA.Any label = orb.create_any();
+            label.insert_long(1);
+            org.omg.CORBA.TypeCode point = newPointType("Point");
+            org.omg.CORBA.TypeCode union = TypeCodeFactory.createUnionTC("", "Choice", TypeCodeFactory.createPrimitiveTC(tk_long),
+                    new UnionMember[]{new UnionMember("dot", label, point, null)});
+            assertThat(CanonicalTypeCodes.isCanonical((TypeCode) union), is(true));
+            // the shared TypeCode does not keep the caller's Any, nor through it the caller's ORB
+            assertThat(((TypeCode) union).labels_[0], not(sameInstance(label)));
+
+            // changing the caller's label or the one handed out does not change the shared TypeCode
+            label.insert_long(2);
+            union.member_label(0).insert_long(3);
+            assertThat(union.member_label(0).extract_long(), equalTo(1));
+
+            Any one = new Any();
+            one.insert_long(1);
+            assertThat(TypeCodeFactory.createUnionTC("", "Choice", TypeCodeFactory.createPrimitiveTC(tk_long),
+                    new UnionMember[]{new UnionMember("dot", one, point, null)}), sameInstance(union));
+        } finally {
+            orb.destroy();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OBPortableServer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ObjectIdMapTest {
+    static byte[] id(String s) {
+        return s.getBytes(UTF_8);
+    }
+
+    @Test
+    public void testLookupByEqualIds() {
+        ObjectIdMap<String> map = new ObjectIdMap<>();
+        assertThat(map.putIfAbsent(id("one"), "1"), nullValue());
+        // a different array with the same contents finds the same value
+        assertThat(map.get(id("one")), equalTo("1"));
+        assertThat(map.get(id("two")), nullValue());
+        assertThat(map.get(new byte[0]), nullValue());
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        ObjectIdMap<String> map = new ObjectIdMap<>();
+        map.putIfAbsent(id("one"), "1");
+        assertThat(map.putIfAbsent(id("one"), "uno"), equalTo("1"));
+        assertThat(map.get(id("one")), equalTo("1"));
+        assertThat(map.size(), equalTo(1));
+    }
+
+    @Test
+    public void testRemove() {
+        ObjectIdMap<String> map = new ObjectIdMap<>();
+        map.putIfAbsent(id("one"), "1");
+        map.putIfAbsent(id("two"), "2");
+        // only removed if still mapped to the given value
+        assertThat(map.remove(id("one"), "uno"), equalTo(false));
+        assertThat(map.remove(id("one"), "1"), equalTo(true));
+        assertThat(map.get(id("one")), nullValue());
+        assertThat(map.remove(id("two")), equalTo("2"));
+        assertThat(map.remove(id("two")), nullValue());
+        assertThat(map.size(), equalTo(0));
+    }
+
+    @Test
+    public void testManyEntries() {
+        ObjectIdMap<Integer> map = new ObjectIdMap<>();
+        for (int i = 0; i < 100000; i++) map.putIfAbsent(id("object-" + i), i);
+        assertThat(map.size(), equalTo(100000));
+        for (int i = 0; i < 100000; i += 2) assertThat(map.remove(id("object-" + i), i), equalTo(true));
+        for (int i = 0; i < 100000; i++) assertThat(map.get(id("object-" + i)), equalTo(i % 2 == 0 ? null : i));
+        Set<Integer> values = new HashSet<>();
+        map.forEach((id, value) -> {
+            assertThat(new String(id, UTF_8), equalTo("object-" + value));
+            values.add(value);
+        });
+        assertThat(values.size(), equalTo(50000));
+        map.clear();
+        assertThat(map.size(), equalTo(0));
+        assertThat(map.get(id("object-1")), nullValue());
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        ObjectIdMap<Integer> map = new ObjectIdMap<>();
+        ExecutorService xs = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int thread = t;
+                tasks.add(xs.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        byte[] id = id(thread + "-" + i);
+                        map.putIfAbsent(id, i);
+                        assertThat(map.get(id), equalTo(i));
+                        if (i % 2 == 0) map.remove(id, i);
+                    }
+                }));
+            }
+            for (Future<?> task: tasks) task.get(30, SECONDS);
+        } finally {
+            xs.shutdown();
+        }
+        assertThat(map.size(), equalTo(40000));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OBPortableServer;
+
+import org.apache.yoko.orb.OB.ObjectKey;
+import org.apache.yoko.orb.OB.ObjectKeyData;
+import org.junit.jupiter.api.Test;
+import org.omg.PortableServer.POA;
+
+import java.lang.reflect.Proxy;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ObjectKeyCacheTest {
+    static POA poa() {
+        return (POA) Proxy.newProxyInstance(POA.class.getClassLoader(), new Class<?>[]{POA.class}, (p, m, a) -> {
+            throw new UnsupportedOperationException(m.getName());
+        });
+    }
+
+    static byte[] key(boolean persistent, String oid, String... poaId) {
+        return ObjectKey.CreateObjectKey(new ObjectKeyData("server", poaId, oid.getBytes(UTF_8), persistent, 1234));
+    }
+
+    static ObjectKeyData parse(byte[] key) {
+        ObjectKeyData data = new ObjectKeyData();
+        assertTrue(ObjectKey.ParseObjectKey(key, data));
+        return data;
+    }
+
+    @Test
+    public void testPrefixLengthAgreesWithParser() {
+        for (boolean persistent: new boolean[]{true, false}) {
+            for (byte[] key: new byte[][]{key(persistent, "obj"), key(persistent, "obj", "a"), key(persistent, "o", "a", "b", "c")}) {
+                assertThat(ObjectKeyCache.prefixLength(key), equalTo(key.length - parse(key).oid.length));
+            }
+        }
+    }
+
+    @Test
+    public void testPrefixLengthOfForeignKeys() {
+        assertThat(ObjectKeyCache.prefixLength("not an OB key".getBytes(UTF_8)), equalTo(-1));
+        assertThat(ObjectKeyCache.prefixLength(new byte[]{(byte) 0xab, (byte) 0xac, (byte) 0xab, '0', 's', 0}), equalTo(-1));
+        // the parser rejects keys without an object id
+        assertThat(ObjectKeyCache.prefixLength(new byte[]{(byte) 0xab, (byte) 0xac, (byte) 0xab, '0', 's', 0, 0}), equalTo(-1));
+    }
+
+    @Test
+    public void testHitForOtherObjectInSamePoa() {
+        ObjectKeyCache cache = new ObjectKeyCache(16);
+        POA poa = poa();
+        byte[] first = key(false, "first", "a", "b");
+        assertThat(cache.get(first), nullValue());
+        cache.put(first, parse(first), poa, cache.generation());
+
+        byte[] second = key(false, "second", "a", "b");
+        ObjectKeyCache.Entry entry = cache.get(second);
+        assertThat(entry.poa, sameInstance(poa));
+        ObjectKeyData data = entry.keyData(second);
+        ObjectKeyData expected = parse(second);
+        assertThat(data.serverId, equalTo(expected.serverId));
+        assertThat(data.poaId, equalTo(expected.poaId));
+        assertThat(data.oid, equalTo(expected.oid));
+        assertThat(data.persistent, equalTo(expected.persistent));
+        assertThat(data.createTime, equalTo(expected.createTime));
+    }
+
+    @Test
+    public void testMissForOtherPoa() {
+        ObjectKeyCache cache = new ObjectKeyCache(16);
+        byte[] key = key(true, "obj", "a", "b");
+        cache.put(key, parse(key), poa(), cache.generation());
+        assertThat(cache.get(key(true, "obj", "a", "c")), nullValue());
+        assertThat(cache.get(key(true, "obj", "a")), nullValue());
+        // a transient POA with the same name is a different POA
+        assertThat(cache.get(key(false, "obj", "a", "b")), nullValue());
+    }
+
+    @Test
+    public void testInvalidate() {
+        ObjectKeyCache cache = new ObjectKeyCache(16);
+        byte[] key = key(true, "obj", "a");
+        int generation = cache.generation();
+        cache.put(key, parse(key), poa(), generation);
+        cache.invalidate();
+        assertThat(cache.get(key), nullValue());
+        // a POA resolved before the invalidation is not remembered
+        cache.put(key, parse(key), poa(), generation);
+        assertThat(cache.get(key), nullValue());
+        POA poa = poa();
+        cache.put(key, parse(key), poa, cache.generation());
+        assertThat(cache.get(key).poa, sameInstance(poa));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.OBPortableServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.INITIALIZE;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.ObjectImpl;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+import org.omg.PortableServer.POAManager;
+import org.omg.PortableServer.Servant;
+
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ReactivePolicyTest {
+    static final String TYPE_ID = "IDL:test/Dispatch:1.0";
+
+    /** Replies whether the request was received by a reactive connection rather than a threaded one */
+    private static final class DispatchServant extends Servant implements InvokeHandler {
+        public String[] _all_interfaces(POA poa, byte[] objectId) {
+            return new String[]{TYPE_ID};
+        }
+
+        public OutputStream _invoke(String method, InputStream in, ResponseHandler handler) {
+            boolean reactive = Stream.of(new Throwable().getStackTrace())
+                    .map(StackTraceElement::getClassName)
+                    .anyMatch("org.apache.yoko.orb.OB.GIOPConnectionReactive"::equals);
+            OutputStream out = handler.createReply();
+            out.write_boolean(reactive);
+            return out;
+        }
+    }
+
+    private ORB serverOrb;
+    private ORB clientOrb;
+    private POA rootPoa;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        // dispatch on the receiving thread, so the servant can see which kind of connection that is
+        Properties props = new Properties();
+        props.setProperty("yoko.orb.oa.conc_model", "threaded");
+        serverOrb = ORB.init((String[]) null, props);
+        rootPoa = POAHelper.narrow(serverOrb.resolve_initial_references("RootPOA"));
+        clientOrb = ORB.init((String[]) null, null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        clientOrb.destroy();
+        serverOrb.destroy();
+    }
+
+    private ObjectImpl serveWith(short concurrencyModel) throws Exception {
+        POAManagerFactory factory = (POAManagerFactory) rootPoa.the_POAManagerFactory();
+        POAManager manager = factory.create_POAManager("manager" + concurrencyModel,
+                new Policy[]{factory.create_communications_concurrency_policy(concurrencyModel)});
+        POA poa = rootPoa.create_POA("poa" + concurrencyModel, manager, new Policy[0]);
+        manager.activate();
+        String ior = serverOrb.object_to_string(poa.id_to_reference(poa.activate_object(new DispatchServant())));
+        return (ObjectImpl) clientOrb.string_to_object(ior);
+    }
+
+    private static boolean viaReactiveConnection(ObjectImpl stub) throws Exception {
+        InputStream in = stub._invoke(stub._request("dispatch", true));
+        try {
+            return in.read_boolean();
+        } finally {
+            stub._releaseReply(in);
+        }
+    }
+
+    @Test
+    public void testReactivePolicySelectsReactiveConnections() throws Exception {
+        assertThat(viaReactiveConnection(serveWith(COMMUNICATIONS_CONCURRENCY_POLICY_REACTIVE.value)), equalTo(true));
+    }
+
+    @Test
+    public void testThreadedPolicySelectsThreadedConnections() throws Exception {
+        assertThat(viaReactiveConnection(serveWith(COMMUNICATIONS_CONCURRENCY_POLICY_THREADED.value)), equalTo(false));
+    }
+
+    @Test
+    public void testOrbRejectsInvalidReactorThreads() {
+        for (String value : new String[]{"0", "-1", "some"}) {
+            Properties props = new Properties();
+            props.put("yoko.orb.reactor_threads", value);
+            assertThrows(INITIALIZE.class, () -> ORB.init((String[]) null, props).destroy(), value);
+        }
+    }
+}
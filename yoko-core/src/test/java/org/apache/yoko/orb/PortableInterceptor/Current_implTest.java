@@ -0,0 +1,104 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.PortableInterceptor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.Any;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.TCKind;
+import org.omg.PortableInterceptor.InvalidSlot;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class Current_implTest {
+    private ORB orb;
+    private Current_impl current;
+
+    @BeforeEach
+    public void setup() {
+        orb = ORB.init((String[]) null, null);
+        current = new Current_impl(orb);
+        current._OB_setMaxSlots(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    private Any longAny(int value) {
+        Any any = orb.create_any();
+        any.insert_long(value);
+        return any;
+    }
+
+    @Test
+    public void testUnsetSlotIsEmpty() throws Exception {
+        assertThat(current.get_slot(1).type().kind(), equalTo(TCKind.tk_null));
+        assertThrows(InvalidSlot.class, () -> current.get_slot(2));
+        assertThrows(InvalidSlot.class, () -> current.set_slot(2, longAny(0)));
+    }
+
+    @Test
+    public void testUntouchedSlotsAreShared() {
+        // no slots have been set, so there is nothing to copy
+        assertThat(current._OB_currentSlotData(), sameInstance(Current_impl.SlotTable.EMPTY));
+        assertThat(current._OB_currentSlotData(), sameInstance(current._OB_currentSlotData()));
+    }
+
+    @Test
+    public void testSlotDataIsCopied() throws Exception {
+        current.set_slot(0, longAny(1));
+        Current_impl.SlotTable copy = current._OB_currentSlotData();
+        current.set_slot(0, longAny(2));
+        assertThat(copy.get(0).extract_long(), equalTo(1));
+        assertThat(current.get_slot(0).extract_long(), equalTo(2));
+    }
+
+    @Test
+    public void testPushAndPop() throws Exception {
+        current.set_slot(0, longAny(1));
+        current._OB_pushSlotData(current._OB_newSlotTable());
+        assertThat(current.get_slot(0).type().kind(), equalTo(TCKind.tk_null));
+        current.set_slot(0, longAny(2));
+        current._OB_popSlotData();
+        assertThat(current.get_slot(0).extract_long(), equalTo(1));
+    }
+
+    @Test
+    public void testThreadsHaveTheirOwnSlots() throws Exception {
+        current.set_slot(0, longAny(1));
+        ExecutorService xs = Executors.newSingleThreadExecutor();
+        try {
+            Any other = xs.submit(() -> current.get_slot(0)).get(10, SECONDS);
+            assertThat(other.type().kind(), equalTo(TCKind.tk_null));
+        } finally {
+            xs.shutdown();
+        }
+        assertThat(current.get_slot(0).extract_long(), equalTo(1));
+    }
+}
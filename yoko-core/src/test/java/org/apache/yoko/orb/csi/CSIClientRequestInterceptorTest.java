@@ -0,0 +1,129 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.csi;
+
+import org.apache.yoko.orb.PortableInterceptor.ClientRequestInfoExt;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.INV_POLICY;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CSI.SASContextBody;
+import org.omg.IOP.Codec;
+import org.omg.IOP.ServiceContext;
+import org.omg.IOP.TaggedComponent;
+import org.omg.PortableInterceptor.IORInfo;
+import org.omg.Security.RequiresSupports;
+import org.omg.Security.SecDelegationDirectivePolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.yoko.orb.csi.TestSecurityContext.authenticationInfo;
+import static org.apache.yoko.orb.csi.TestSecurityContext.fake;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CSIClientRequestInterceptorTest {
+    private ORB orb;
+    private Codec codec;
+    private CSIClientRequestInterceptor interceptor;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        TestSecurityContext.reset();
+        orb = ORB.init((String[]) null, null);
+        codec = TestSecurityContext.codec(orb);
+        interceptor = new CSIClientRequestInterceptor(codec);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TestSecurityContext.reset();
+        orb.destroy();
+    }
+
+    /** The security mechanisms a target with these policies puts in its IOR */
+    private TaggedComponent mechanisms(Policy gssup, Policy delegation) {
+        List<TaggedComponent> components = new ArrayList<>();
+        IORInfo info = fake(IORInfo.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "get_effective_policy":
+                Policy policy = (int) args[0] == SecDelegationDirectivePolicy.value ? delegation : gssup;
+                if (policy == null) throw new INV_POLICY();
+                return policy;
+            case "add_ior_component":
+                components.add((TaggedComponent) args[0]);
+                return null;
+            default:
+                return null;
+            }
+        });
+        new GSSUPIORInterceptor(codec).establish_components(info);
+        return components.get(0);
+    }
+
+    /** Send a request to a target with the given security mechanisms, and return the security context it carried */
+    private ServiceContext send(TaggedComponent mechanisms) throws Exception {
+        List<ServiceContext> contexts = new ArrayList<>();
+        ClientRequestInfoExt info = fake(ClientRequestInfoExt.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "get_effective_component":
+                return mechanisms;
+            case "addEncodedRequestServiceContext":
+            case "add_request_service_context":
+                contexts.add((ServiceContext) args[0]);
+                return null;
+            default:
+                return null;
+            }
+        });
+        interceptor.send_request(info);
+        assertThat(contexts.size(), equalTo(1));
+        return contexts.get(0);
+    }
+
+    @Test
+    public void testPasswordContextsAreNotKept() throws Exception {
+        TaggedComponent target = mechanisms(TestSecurityContext.gssupPolicy(orb, RequiresSupports.SecRequires, "default"), null);
+        TestSecurityContext.caller = authenticationInfo("alice", "default", TestSecurityContext.PASSWORD);
+        ServiceContext first = send(target);
+        ServiceContext second = send(target);
+        // the same token is sent, but it is encoded again for each request
+        assertThat(second, not(sameInstance(first)));
+        assertThat(second.context_data, equalTo(first.context_data));
+        SASContextBody body = interceptor.decodeSASContextBody(second);
+        assertThat(body.establish_msg().client_authentication_token.length > 0, equalTo(true));
+    }
+
+    @Test
+    public void testIdentityContextsAreShared() throws Exception {
+        TaggedComponent target = mechanisms(null, TestSecurityContext.delegationPolicy(orb));
+        TestSecurityContext.caller = authenticationInfo("alice", "default", TestSecurityContext.PASSWORD);
+        ServiceContext alice = send(target);
+        assertThat(send(target), sameInstance(alice));
+        // the identity asserted does not depend on the password
+        TestSecurityContext.caller = authenticationInfo("alice", "default", "other");
+        assertThat(send(target), sameInstance(alice));
+        TestSecurityContext.caller = authenticationInfo("bob", "default", TestSecurityContext.PASSWORD);
+        assertThat(send(target), not(sameInstance(alice)));
+    }
+}
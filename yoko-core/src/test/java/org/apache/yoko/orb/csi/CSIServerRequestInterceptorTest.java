@@ -0,0 +1,170 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.csi;
+
+import org.apache.yoko.orb.OCI.TransportInfo;
+import org.apache.yoko.orb.PortableInterceptor.ServerRequestInfoExt;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.BAD_PARAM;
+import org.omg.CORBA.INV_POLICY;
+import org.omg.CORBA.NO_PERMISSION;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CSI.AuthorizationElement;
+import org.omg.CSI.CompleteEstablishContext;
+import org.omg.CSI.EstablishContext;
+import org.omg.CSI.IdentityToken;
+import org.omg.CSI.MTContextError;
+import org.omg.CSI.MessageInContext;
+import org.omg.CSI.SASContextBody;
+import org.omg.IOP.ServiceContext;
+import org.omg.Security.SecDelegationDirectivePolicy;
+
+import javax.security.auth.Subject;
+
+import static org.apache.yoko.orb.csi.TestSecurityContext.fake;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CSIServerRequestInterceptorTest {
+    private ORB orb;
+    private CSIServerRequestInterceptor interceptor;
+    private Policy delegation;
+    // the connection the requests arrive on
+    private final TransportInfo connection = fake(TransportInfo.class, (proxy, method, args) -> null);
+    private ServiceContext reply;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        TestSecurityContext.reset();
+        orb = ORB.init((String[]) null, null);
+        interceptor = new CSIServerRequestInterceptor(TestSecurityContext.codec(orb));
+        // the target accepts asserted identities
+        delegation = TestSecurityContext.delegationPolicy(orb);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TestSecurityContext.reset();
+        orb.destroy();
+    }
+
+    /** Receive a request carrying the given SAS message, and return the subject it was authenticated as */
+    private Subject receive(SASContextBody body) throws Exception {
+        ServiceContext request = interceptor.encodeSASContextBody(body);
+        reply = null;
+        TestSecurityContext.authenticated = null;
+        ServerRequestInfoExt info = fake(ServerRequestInfoExt.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "operation":
+                return "op";
+            case "get_server_policy":
+                if ((int) args[0] == SecDelegationDirectivePolicy.value) return delegation;
+                throw new INV_POLICY();
+            case "get_request_service_context":
+                if ((int) args[0] == request.context_id) return request;
+                throw new BAD_PARAM();
+            case "getTransportInfo":
+                return connection;
+            case "addEncodedReplyServiceContext":
+            case "add_reply_service_context":
+                reply = (ServiceContext) args[0];
+                return null;
+            default:
+                return null;
+            }
+        });
+        interceptor.receive_request_service_contexts(info);
+        return TestSecurityContext.authenticated;
+    }
+
+    private SASContextBody establish(long id, IdentityToken identity) {
+        SASContextBody body = new SASContextBody();
+        body.establish_msg(new EstablishContext(id, new AuthorizationElement[0], identity, new byte[0]));
+        return body;
+    }
+
+    private IdentityToken principal(String scopedName) {
+        IdentityToken identity = new IdentityToken();
+        identity.principal_name(interceptor.encapsulateByteArray(interceptor.encodeGSSExportedName(scopedName)));
+        return identity;
+    }
+
+    private IdentityToken anonymous() {
+        IdentityToken identity = new IdentityToken();
+        identity.anonymous(true);
+        return identity;
+    }
+
+    private SASContextBody inContext(long id, boolean discard) {
+        SASContextBody body = new SASContextBody();
+        body.in_context_msg(new MessageInContext(id, discard));
+        return body;
+    }
+
+    private SASContextBody replied() {
+        return interceptor.decodeSASContextBody(reply);
+    }
+
+    @Test
+    public void testStatefulContextIsEstablishedReusedAndDiscarded() throws Exception {
+        Subject alice = receive(establish(7, principal("alice@default")));
+        assertThat(alice, notNullValue());
+        CompleteEstablishContext complete = replied().complete_msg();
+        assertThat(complete.client_context_id, equalTo(7L));
+        assertThat(complete.context_stateful, equalTo(true));
+
+        // the same evidence again is answered from the established context
+        assertThat(receive(establish(7, principal("alice@default"))), sameInstance(alice));
+        assertThat(replied().complete_msg().context_stateful, equalTo(true));
+
+        assertThat(receive(inContext(7, false)), sameInstance(alice));
+        assertThat(receive(inContext(7, true)), sameInstance(alice));
+        // the context was discarded with the last message
+        assertThrows(NO_PERMISSION.class, () -> receive(inContext(7, false)));
+        assertThat(replied().discriminator(), equalTo(MTContextError.value));
+    }
+
+    @Test
+    public void testConflictingEvidenceIsRejected() throws Exception {
+        Subject alice = receive(establish(7, principal("alice@default")));
+        assertThrows(NO_PERMISSION.class, () -> receive(establish(7, principal("bob@default"))));
+        assertThat(replied().discriminator(), equalTo(MTContextError.value));
+        // the established context is kept
+        assertThat(receive(inContext(7, false)), sameInstance(alice));
+    }
+
+    @Test
+    public void testFailedAnonymousLoginIsRejected() throws Exception {
+        TestSecurityContext.anonymousLoginFails = true;
+        assertThrows(NO_PERMISSION.class, () -> receive(establish(8, anonymous())));
+        assertThat(replied().discriminator(), equalTo(MTContextError.value));
+        // no context was established, so none can be used
+        assertThrows(NO_PERMISSION.class, () -> receive(inContext(8, false)));
+
+        TestSecurityContext.anonymousLoginFails = false;
+        assertThat(receive(establish(8, anonymous())), notNullValue());
+        assertThat(replied().complete_msg().context_stateful, equalTo(true));
+        assertThat(receive(inContext(8, false)), notNullValue());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.csi;
+
+import org.junit.jupiter.api.Test;
+
+import javax.security.auth.Subject;
+
+import static org.apache.yoko.orb.csi.EstablishedContexts.Match.CONFLICT;
+import static org.apache.yoko.orb.csi.EstablishedContexts.Match.NONE;
+import static org.apache.yoko.orb.csi.EstablishedContexts.Match.SAME;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class EstablishedContextsTest {
+    static final byte[] EVIDENCE = {1, 2, 3};
+    static final String DOMAIN = "default";
+
+    private final Object connection = new Object();
+    private final Subject subject = new Subject();
+
+    @Test
+    public void testReuseEstablishedContext() {
+        EstablishedContexts contexts = new EstablishedContexts(10);
+        assertThat(contexts.match(connection, 1, EVIDENCE, DOMAIN), equalTo(NONE));
+        assertThat(contexts.subject(connection, 1, DOMAIN), nullValue());
+        contexts.establish(connection, 1, EVIDENCE, DOMAIN, subject);
+        assertThat(contexts.match(connection, 1, EVIDENCE.clone(), DOMAIN), equalTo(SAME));
+        assertThat(contexts.subject(connection, 1, DOMAIN), sameInstance(subject));
+    }
+
+    @Test
+    public void testConflictingEvidence() {
+        EstablishedContexts contexts = new EstablishedContexts(10);
+        contexts.establish(connection, 1, EVIDENCE, DOMAIN, subject);
+        assertThat(contexts.match(connection, 1, new byte[]{1, 2, 4}, DOMAIN), equalTo(CONFLICT));
+        assertThat(contexts.match(connection, 1, EVIDENCE, "other"), equalTo(CONFLICT));
+        // a context established for one domain cannot be used for another
+        assertThat(contexts.subject(connection, 1, "other"), nullValue());
+    }
+
+    @Test
+    public void testContextsBelongToTheirConnection() {
+        EstablishedContexts contexts = new EstablishedContexts(10);
+        contexts.establish(connection, 1, EVIDENCE, DOMAIN, subject);
+        Object otherConnection = new Object();
+        assertThat(contexts.match(otherConnection, 1, EVIDENCE, DOMAIN), equalTo(NONE));
+        assertThat(contexts.subject(otherConnection, 1, DOMAIN), nullValue());
+    }
+
+    @Test
+    public void testDiscard() {
+        EstablishedContexts contexts = new EstablishedContexts(10);
+        contexts.establish(connection, 1, EVIDENCE, DOMAIN, subject);
+        contexts.discard(connection, 1);
+        assertThat(contexts.subject(connection, 1, DOMAIN), nullValue());
+        assertThat(contexts.size(connection), equalTo(0));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsDropped() {
+        EstablishedContexts contexts = new EstablishedContexts(2);
+        contexts.establish(connection, 1, EVIDENCE, DOMAIN, subject);
+        contexts.establish(connection, 2, EVIDENCE, DOMAIN, subject);
+        // use the first context, so the second is the least recently used
+        contexts.subject(connection, 1, DOMAIN);
+        contexts.establish(connection, 3, EVIDENCE, DOMAIN, subject);
+        assertThat(contexts.size(connection), equalTo(2));
+        assertThat(contexts.subject(connection, 1, DOMAIN), sameInstance(subject));
+        assertThat(contexts.subject(connection, 2, DOMAIN), nullValue());
+        assertThat(contexts.subject(connection, 3, DOMAIN), sameInstance(subject));
+    }
+
+    @Test
+    public void testDisabled() {
+        EstablishedContexts contexts = new EstablishedContexts(0);
+        contexts.establish(connection, 1, EVIDENCE, DOMAIN, subject);
+        assertThat(contexts.subject(connection, 1, DOMAIN), nullValue());
+    }
+}
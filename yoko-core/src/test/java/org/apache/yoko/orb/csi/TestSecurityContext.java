@@ -0,0 +1,133 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.orb.csi;
+
+import org.apache.yoko.orb.csi.gssup.GSSUPPolicyValue;
+import org.apache.yoko.orb.csi.gssup.GSSUPPolicyValueHelper;
+import org.apache.yoko.orb.csi.gssup.SecGSSUPPolicy;
+import org.omg.CORBA.Any;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CORBA.PolicyError;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.IOP.Codec;
+import org.omg.IOP.CodecFactory;
+import org.omg.IOP.CodecFactoryHelper;
+import org.omg.IOP.ENCODING_CDR_ENCAPS;
+import org.omg.IOP.Encoding;
+import org.omg.Security.DelegationDirective;
+import org.omg.Security.DelegationDirectiveHelper;
+import org.omg.Security.RequiresSupports;
+import org.omg.Security.SecDelegationDirectivePolicy;
+
+import javax.security.auth.Subject;
+import javax.security.auth.login.LoginException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The application server side of CSI for the interceptor tests,
+ * and some helpers to drive the interceptors without a real request.
+ */
+public class TestSecurityContext implements SecurityContextDelegate {
+    static final String PASSWORD = "secret";
+
+    static final AtomicInteger logins = new AtomicInteger();
+    static volatile boolean anonymousLoginFails;
+    static volatile AuthenticationInfo caller;
+    static volatile Subject authenticated;
+
+    static {
+        // SecurityContext creates its delegate on first use
+        System.setProperty("org.freeorb.csi.SecurityContextClass", TestSecurityContext.class.getName());
+    }
+
+    static void reset() {
+        logins.set(0);
+        anonymousLoginFails = false;
+        caller = null;
+        authenticated = null;
+    }
+
+    public AuthenticationInfo getAuthenticationInfo() {
+        return caller;
+    }
+
+    public Subject login(String name, String realm, String password) throws LoginException {
+        logins.incrementAndGet();
+        if (!PASSWORD.equals(password)) throw new LoginException("bad password for " + name);
+        return new Subject();
+    }
+
+    public Subject anonymousLogin() throws LoginException {
+        if (anonymousLoginFails) throw new LoginException("no anonymous access");
+        return new Subject();
+    }
+
+    public void setAuthenticatedSubject(Subject subject) {
+        authenticated = subject;
+    }
+
+    public Subject delegate(String user, String domain) {
+        return new Subject();
+    }
+
+    static AuthenticationInfo authenticationInfo(String name, String realm, String password) {
+        return fake(AuthenticationInfo.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "getPrincipalName": return name;
+            case "getRealm": return realm;
+            case "getPassword": return password;
+            default: return null;
+            }
+        });
+    }
+
+    static Codec codec(ORB orb) throws Exception {
+        CodecFactory factory = CodecFactoryHelper.narrow(orb.resolve_initial_references("CodecFactory"));
+        return factory.create_codec(new Encoding(ENCODING_CDR_ENCAPS.value, (byte) 1, (byte) 2));
+    }
+
+    static Policy gssupPolicy(ORB orb, RequiresSupports mode, String domain) throws PolicyError {
+        // GSSUPPolicyValueHelper.insert() does not keep the value it writes
+        OutputStream out = orb.create_output_stream();
+        GSSUPPolicyValueHelper.write(out, new GSSUPPolicyValue(mode, domain));
+        Any any = orb.create_any();
+        any.read_value(out.create_input_stream(), GSSUPPolicyValueHelper.type());
+        return new CSIPolicyFactory().create_policy(SecGSSUPPolicy.value, any);
+    }
+
+    static Policy delegationPolicy(ORB orb) throws PolicyError {
+        Any any = orb.create_any();
+        DelegationDirectiveHelper.insert(any, DelegationDirective.Delegate);
+        return new CSIPolicyFactory().create_policy(SecDelegationDirectivePolicy.value, any);
+    }
+
+    /** An implementation of an interface whose every operation is answered by the handler, with the identity of an Object */
+    static <T> T fake(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "hashCode": if (args == null) return System.identityHashCode(proxy); break;
+            case "equals": if (args != null && args.length == 1 && method.getParameterTypes()[0] == Object.class) return proxy == args[0]; break;
+            case "toString": if (args == null) return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy)); break;
+            }
+            return handler.invoke(proxy, method, args);
+        }));
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.rmi.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares that instances of a value class are never modified once constructed,
+ * and that the same is true of every object they refer to.
+ * <p>
+ * RMI-IIOP copies the arguments and results of a call to an object in the same JVM,
+ * so that the callee cannot observe the caller's objects, nor the reverse.
+ * When the system property {@value #PASS_BY_REFERENCE_PROPERTY} is set to <code>true</code>,
+ * instances of a class bearing this annotation are passed by reference instead.
+ * The annotation applies only to the class that carries it, not to its subclasses.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Immutable {
+    String PASS_BY_REFERENCE_PROPERTY = "org.apache.yoko.rmi.passImmutablesByReference";
+}
@@ -18,6 +18,8 @@
 
 package org.apache.yoko.rmi.impl;
 
+import java.lang.invoke.MethodHandle;
+
 final class BooleanDescriptor extends SimpleDescriptor {
     BooleanDescriptor(TypeRepository repository) {
         super(Boolean.TYPE, repository, "boolean",
@@ -28,6 +30,11 @@ final class BooleanDescriptor extends SimpleDescriptor {
         return new Boolean(in.read_boolean());
     }
 
+    @Override
+    MethodHandle readHandle() {
+        return streamReader("read_boolean");
+    }
+
     public void write(org.omg.CORBA.portable.OutputStream out, Object val) {
         out.write_boolean(((Boolean) val).booleanValue());
     }
@@ -18,6 +18,8 @@
 
 package org.apache.yoko.rmi.impl;
 
+import java.lang.invoke.MethodHandle;
+
 final class ByteDescriptor extends SimpleDescriptor {
     ByteDescriptor(TypeRepository repository) {
         super(Byte.TYPE, repository, "octet", org.omg.CORBA.TCKind.tk_octet);
@@ -27,6 +29,11 @@ final class ByteDescriptor extends SimpleDescriptor {
         return new Byte(in.read_octet());
     }
 
+    @Override
+    MethodHandle readHandle() {
+        return streamReader("read_octet");
+    }
+
     public void write(org.omg.CORBA.portable.OutputStream out, Object val) {
         out.write_octet(((Byte) val).byteValue());
     }
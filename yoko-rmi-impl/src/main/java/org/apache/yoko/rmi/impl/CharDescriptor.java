@@ -18,6 +18,8 @@
 
 package org.apache.yoko.rmi.impl;
 
+import java.lang.invoke.MethodHandle;
+
 final class CharDescriptor extends SimpleDescriptor {
     CharDescriptor(TypeRepository repository) {
         super(Character.TYPE, repository, "wchar",
@@ -28,6 +30,11 @@ final class CharDescriptor extends SimpleDescriptor {
         return new Character(in.read_wchar());
     }
 
+    @Override
+    MethodHandle readHandle() {
+        return streamReader("read_wchar");
+    }
+
     public void write(org.omg.CORBA.portable.OutputStream out, Object val) {
         out.write_wchar(((Character) val).charValue());
     }
@@ -23,6 +23,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.omg.CORBA.MARSHAL;
@@ -52,8 +53,9 @@ public final class CopyState {
         resolver.next = orig;
         recursionResolverMap.put(key, resolver);
 
-        logger.fine("registering recursion resolver " + resolver + " for "
-                + key.getClass() + "@" + System.identityHashCode(key));
+        if (logger.isLoggable(Level.FINE))
+            logger.fine("registering recursion resolver " + resolver + " for "
+                    + key.getClass() + "@" + System.identityHashCode(key));
 
     }
 
@@ -63,12 +65,12 @@ public final class CopyState {
             for (CopyRecursionResolver resolver = (CopyRecursionResolver) recursionResolverMap
                     .get(orig); resolver != null; resolver = resolver.next) {
 
-                logger
-                        .fine("invoking " + resolver + " for "
-                                + orig.getClass() + "@"
-                                + System.identityHashCode(orig) + " ===> "
-                                + copy.getClass() + "@"
-                                + System.identityHashCode(copy));
+                if (logger.isLoggable(Level.FINE))
+                    logger.fine("invoking " + resolver + " for "
+                            + orig.getClass() + "@"
+                            + System.identityHashCode(orig) + " ===> "
+                            + copy.getClass() + "@"
+                            + System.identityHashCode(copy));
 
                 resolver.resolve(copy);
             }
@@ -89,35 +91,46 @@ public final class CopyState {
         if (orig == null)
             return orig;
 
+        Class origClass = orig.getClass();
+
+        // values that cannot change need not be copied, nor remembered
+        if (Immutables.isImmutable(origClass))
+            return orig;
+
         Object copy = copied.get(orig);
         if (copy != null) {
             if (copy == recursionCheck) {
-                logger.fine("throwign CopyRecursion for " + orig.getClass()
-                        + "@" + System.identityHashCode(orig));
+                if (logger.isLoggable(Level.FINE))
+                    logger.fine("throwign CopyRecursion for " + orig.getClass()
+                            + "@" + System.identityHashCode(orig));
 
                 throw new CopyRecursionException(this, orig);
             }
             return copy;
         }
 
-        Class origClass = orig.getClass();
-
-        logger.fine("[" + hashCode() + "]" + spaces(idx++)
-                + "copying instance of " + origClass);
+        final boolean fine = logger.isLoggable(Level.FINE);
+        if (fine)
+            logger.fine("[" + hashCode() + "]" + spaces(idx++)
+                    + "copying instance of " + origClass);
 
         TypeDescriptor desc = rep.getDescriptor(origClass);
 
         copied.put(orig, recursionCheck);
         copy = desc.copyObject(orig, this);
-        copied.put(orig, copy);
+        // resolve any references to orig made while it was being copied
+        put(orig, copy);
 
-        logger.fine(spaces(--idx) + "=> " + copy);
+        if (fine)
+            logger.fine(spaces(--idx) + "=> " + copy);
 
         return copy;
     }
 
     public ObjectWriter createObjectWriter(final java.io.Serializable obj) {
         try {
+            if (System.getSecurityManager() == null)
+                return new Writer(obj);
             return (ObjectWriter) java.security.AccessController
                     .doPrivileged(new java.security.PrivilegedExceptionAction() {
                         public Object run() throws IOException {
@@ -125,7 +138,7 @@ public final class CopyState {
                         }
                     });
 
-        } catch (java.security.PrivilegedActionException e) {
+        } catch (java.security.PrivilegedActionException | IOException e) {
             throw (InternalError)new InternalError(e.getMessage()).initCause(e);
         }
     }
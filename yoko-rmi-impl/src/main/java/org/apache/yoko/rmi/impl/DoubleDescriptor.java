@@ -18,6 +18,8 @@
 
 package org.apache.yoko.rmi.impl;
 
+import java.lang.invoke.MethodHandle;
+
 final class DoubleDescriptor extends SimpleDescriptor {
     DoubleDescriptor(TypeRepository repository) {
         super(Double.TYPE, repository, "double", org.omg.CORBA.TCKind.tk_double);
@@ -27,6 +29,11 @@ final class DoubleDescriptor extends SimpleDescriptor {
         return new Double(in.read_double());
     }
 
+    @Override
+    MethodHandle readHandle() {
+        return streamReader("read_double");
+    }
+
     public void write(org.omg.CORBA.portable.OutputStream out, Object val) {
         out.write_double(((Double) val).doubleValue());
     }
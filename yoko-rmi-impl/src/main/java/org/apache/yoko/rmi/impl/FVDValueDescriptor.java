@@ -54,6 +54,8 @@ class FVDValueDescriptor extends ValueDescriptor {
         }
 
         _fields = new_fields;
+        // the sender's member order may differ from our own sorted fields
+        _primitive_fields = PrimitiveFields.of(java_name, new_fields);
     }
 
     private FieldDescriptor findField(ValueMember valueMember) {
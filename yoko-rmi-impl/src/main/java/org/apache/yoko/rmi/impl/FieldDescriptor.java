@@ -279,7 +279,7 @@ class RemoteFieldDescriptor extends FieldDescriptor {
         try {
             field.set(copy, state.copy(field.get(orig)));
         } catch (CopyRecursionException e) {
-            state.registerRecursion(new CopyRecursionResolver(orig) {
+            state.registerRecursion(new CopyRecursionResolver(e.original) {
                 public void resolve(Object value) {
                     try {
                         field.set(copy, value);
@@ -360,7 +360,7 @@ class AnyFieldDescriptor extends FieldDescriptor {
         try {
             field.set(copy, state.copy(field.get(orig)));
         } catch (CopyRecursionException e) {
-            state.registerRecursion(new CopyRecursionResolver(orig) {
+            state.registerRecursion(new CopyRecursionResolver(e.original) {
                 public void resolve(Object value) {
                     try {
                         field.set(copy, value);
@@ -421,7 +421,7 @@ class ValueFieldDescriptor extends FieldDescriptor {
         try {
             field.set(copy, state.copy(field.get(orig)));
         } catch (CopyRecursionException e) {
-            state.registerRecursion(new CopyRecursionResolver(orig) {
+            state.registerRecursion(new CopyRecursionResolver(e.original) {
                 public void resolve(Object value) {
                     try {
                         field.set(copy, value);
@@ -536,7 +536,7 @@ class ObjectFieldDescriptor extends FieldDescriptor {
         try {
             field.set(copy, state.copy(field.get(orig)));
         } catch (CopyRecursionException e) {
-            state.registerRecursion(new CopyRecursionResolver(orig) {
+            state.registerRecursion(new CopyRecursionResolver(e.original) {
                 public void resolve(Object value) {
                     try {
                         field.set(copy, value);
@@ -874,7 +874,8 @@ class IntFieldDescriptor extends FieldDescriptor {
         }
         try {
             int value = reader.readInt();
-            logger.finest("Read int field value " + value); 
+            if (logger.isLoggable(Level.FINEST))
+                logger.finest("Read int field value " + value);
             field.setInt(obj, value);
         } catch (IllegalAccessException ex) {
             throw (IOException)new IOException(ex.getMessage()).initCause(ex);
@@ -947,7 +948,8 @@ class LongFieldDescriptor extends FieldDescriptor {
         }
         try {
             long value = reader.readLong();
-            logger.finest("Read long field value " + value); 
+            if (logger.isLoggable(Level.FINEST))
+                logger.finest("Read long field value " + value);
             field.setLong(obj, value);
         } catch (IllegalAccessException ex) {
             throw (IOException)new IOException(ex.getMessage()).initCause(ex);
@@ -1160,7 +1162,7 @@ class CorbaObjectFieldDescriptor extends FieldDescriptor {
         try {
             field.set(copy, state.copy(field.get(orig)));
         } catch (CopyRecursionException e) {
-            state.registerRecursion(new CopyRecursionResolver(orig) {
+            state.registerRecursion(new CopyRecursionResolver(e.original) {
                 public void resolve(Object value) {
                     try {
                         field.set(copy, value);
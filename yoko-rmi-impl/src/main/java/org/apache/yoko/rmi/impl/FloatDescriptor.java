@@ -18,6 +18,8 @@
 
 package org.apache.yoko.rmi.impl;
 
+import java.lang.invoke.MethodHandle;
+
 final class FloatDescriptor extends SimpleDescriptor {
     FloatDescriptor(TypeRepository repository) {
         super(Float.TYPE, repository, "float", org.omg.CORBA.TCKind.tk_float);
@@ -27,6 +29,11 @@ final class FloatDescriptor extends SimpleDescriptor {
         return new Float(in.read_float());
     }
 
+    @Override
+    MethodHandle readHandle() {
+        return streamReader("read_float");
+    }
+
     public void write(org.omg.CORBA.portable.OutputStream out, Object val) {
         out.write_float(((Float) val).floatValue());
     }
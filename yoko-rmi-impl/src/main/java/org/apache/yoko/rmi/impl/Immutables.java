@@ -0,0 +1,115 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.rmi.impl;
+
+import org.apache.yoko.rmi.api.Immutable;
+import org.apache.yoko.rmi.util.GetSystemPropertyAction;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.security.AccessController;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Decides which values can be shared, rather than copied, when they are passed to an object in the same JVM.
+ * These are the immutable JDK value types (strings, boxed primitives, big numbers and the <code>java.time</code> types),
+ * enums, whose constants are never copied even by serialization, records whose components are all immutable,
+ * and, if the system property {@value Immutable#PASS_BY_REFERENCE_PROPERTY} is <code>true</code>,
+ * classes annotated {@link Immutable}.
+ * <p>
+ * The decision is about the exact class of a value, since a subclass of an immutable class may well be mutable.
+ */
+enum Immutables {
+    ;
+    private static final byte MUTABLE = 0;
+    private static final byte IMMUTABLE = 1;
+    private static final byte ANNOTATED = 2;
+
+    private static final Set<Class<?>> JDK_VALUE_CLASSES = unmodifiableSet(new HashSet<>(Arrays.<Class<?>>asList(
+            String.class, Boolean.class, Byte.class, Short.class, Character.class, Integer.class, Long.class,
+            Float.class, Double.class, BigInteger.class, BigDecimal.class)));
+
+    private static final boolean PASS_ANNOTATED_BY_REFERENCE = Boolean.parseBoolean(
+            AccessController.doPrivileged(new GetSystemPropertyAction(Immutable.PASS_BY_REFERENCE_PROPERTY)));
+
+    private static final ClassValue<Byte> KINDS = new ClassValue<Byte>() {
+        protected Byte computeValue(Class<?> type) {
+            return kindOf(type, new HashSet<Class<?>>());
+        }
+    };
+
+    /** Whether instances of exactly this class can be passed by reference */
+    static boolean isImmutable(Class<?> type) {
+        return isImmutable(type, PASS_ANNOTATED_BY_REFERENCE);
+    }
+
+    static boolean isImmutable(Class<?> type, boolean passAnnotatedByReference) {
+        switch (KINDS.get(type)) {
+            case IMMUTABLE: return true;
+            case ANNOTATED: return passAnnotatedByReference;
+            default: return false;
+        }
+    }
+
+    /**
+     * Whether every value of a declared type can be passed by reference,
+     * i.e. the type is immutable and has no subclasses other than enum constant bodies.
+     */
+    static boolean isImmutableType(Class<?> type) {
+        return isImmutable(type) && (Modifier.isFinal(type.getModifiers()) || Enum.class.isAssignableFrom(type));
+    }
+
+    private static byte kindOf(Class<?> type, Set<Class<?>> enclosing) {
+        if (type.isPrimitive() || JDK_VALUE_CLASSES.contains(type) || Enum.class.isAssignableFrom(type)) return IMMUTABLE;
+        if (!Serializable.class.isAssignableFrom(type)) return MUTABLE;
+        if (isJavaTime(type)) return IMMUTABLE;
+        if (isRecord(type) && hasImmutableComponents(type, enclosing)) return IMMUTABLE;
+        if (type.isAnnotationPresent(Immutable.class)) return ANNOTATED;
+        return MUTABLE;
+    }
+
+    private static boolean isJavaTime(Class<?> type) {
+        return type.getClassLoader() == null && type.getName().startsWith("java.time.");
+    }
+
+    // java.lang.Record is not there to refer to on older JVMs
+    private static boolean isRecord(Class<?> type) {
+        final Class<?> superClass = type.getSuperclass();
+        return superClass != null && "java.lang.Record".equals(superClass.getName()) && Modifier.isFinal(type.getModifiers());
+    }
+
+    private static boolean hasImmutableComponents(Class<?> record, Set<Class<?>> enclosing) {
+        // a record that refers to itself, directly or not, is as immutable as its other components
+        enclosing.add(record);
+        for (Field f : record.getDeclaredFields()) {
+            if (Modifier.isStatic(f.getModifiers())) continue;
+            final Class<?> type = f.getType();
+            if (enclosing.contains(type)) continue;
+            if (!Modifier.isFinal(type.getModifiers()) && !type.isPrimitive() && !Enum.class.isAssignableFrom(type)) return false;
+            if (kindOf(type, enclosing) != IMMUTABLE) return false;
+        }
+        return true;
+    }
+}
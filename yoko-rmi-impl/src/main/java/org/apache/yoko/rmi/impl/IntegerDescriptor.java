@@ -18,6 +18,8 @@
 
 package org.apache.yoko.rmi.impl;
 
+import java.lang.invoke.MethodHandle;
+
 final class IntegerDescriptor extends SimpleDescriptor {
     IntegerDescriptor(TypeRepository repository) {
         super(Integer.TYPE, repository, "long", org.omg.CORBA.TCKind.tk_long);
@@ -27,6 +29,11 @@ final class IntegerDescriptor extends SimpleDescriptor {
         return new Integer(in.read_long());
     }
 
+    @Override
+    MethodHandle readHandle() {
+        return streamReader("read_long");
+    }
+
     public void write(org.omg.CORBA.portable.OutputStream out, Object val) {
         out.write_long(((Integer) val).intValue());
     }
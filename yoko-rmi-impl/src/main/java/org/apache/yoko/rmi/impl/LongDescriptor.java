@@ -18,6 +18,8 @@
 
 package org.apache.yoko.rmi.impl;
 
+import java.lang.invoke.MethodHandle;
+
 final class LongDescriptor extends SimpleDescriptor {
     LongDescriptor(TypeRepository repository) {
         super(Long.TYPE, repository, "long_long",
@@ -28,6 +30,11 @@ final class LongDescriptor extends SimpleDescriptor {
         return new Long(in.read_longlong());
     }
 
+    @Override
+    MethodHandle readHandle() {
+        return streamReader("read_longlong");
+    }
+
     public void write(org.omg.CORBA.portable.OutputStream out, Object val) {
         out.write_longlong(((Long) val).longValue());
     }
@@ -19,6 +19,10 @@
 package org.apache.yoko.rmi.impl;
 
 import java.io.PrintWriter;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.rmi.MarshalException;
 import java.rmi.RemoteException;
@@ -188,6 +192,81 @@ public final class MethodDescriptor extends ModelElement {
         return args;
     }
 
+    /** Reads the arguments of a request and invokes this method, built on first use */
+    private volatile MethodHandle dispatcher;
+
+    /**
+     * Read the arguments to this method and invoke it on the target, returning the result.
+     * Each argument is passed straight from the stream to the target, without boxing.
+     * Exceptions thrown by the target are thrown directly.
+     */
+    Object invoke(Object target, org.omg.CORBA.portable.InputStream in) throws Throwable {
+        MethodHandle mh = dispatcher;
+        if (mh == null) dispatcher = mh = genDispatcher();
+        return (Object) mh.invokeExact(in, target);
+    }
+
+    private static final MethodHandle INVOKE_REFLECTIVELY;
+    static {
+        try {
+            INVOKE_REFLECTIVELY = MethodHandles.lookup().findVirtual(MethodDescriptor.class, "invokeReflectively",
+                    MethodType.methodType(Object.class, org.omg.CORBA.portable.InputStream.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Object invokeReflectively(org.omg.CORBA.portable.InputStream in, Object target) throws Throwable {
+        Object[] args = readArguments(in);
+        try {
+            return reflected_method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    /**
+     * Build a method handle of type <code>(InputStream, Object)Object</code>
+     * that reads each argument in turn and then invokes the method on the target.
+     */
+    private MethodHandle genDispatcher() {
+        final MethodHandle method;
+        try {
+            method = MethodHandles.lookup().unreflect(reflected_method);
+        } catch (IllegalAccessException e) {
+            logger.log(Level.FINE, "Cannot dispatch directly to " + reflected_method, e);
+            return INVOKE_REFLECTIVELY.bindTo(this);
+        }
+
+        final Class<?>[] params = reflected_method.getParameterTypes();
+        final int n = params.length;
+
+        // Take the arguments in reverse order, followed by the stream (unused here) and the target:
+        // (Pn, ..., P1, InputStream, Object)Object
+        Class<?>[] types = new Class<?>[n + 2];
+        int[] reorder = new int[n + 1];
+        reorder[0] = n + 1;
+        for (int i = 0; i < n; i++) {
+            types[n - 1 - i] = params[i];
+            reorder[i + 1] = n - 1 - i;
+        }
+        types[n] = org.omg.CORBA.portable.InputStream.class;
+        types[n + 1] = Object.class;
+        MethodHandle mh = method.asType(method.type().changeParameterType(0, Object.class).changeReturnType(Object.class));
+        mh = MethodHandles.permuteArguments(mh, MethodType.methodType(Object.class, types), reorder);
+
+        // Read the arguments, from the last to the first. Each fold invokes its reader
+        // before the handle it wraps, so the outermost reader, for the first argument,
+        // reads from the stream first.
+        for (int i = n - 1; i >= 0; i--) {
+            MethodHandle reader = parameter_types[i].readHandle().asType(MethodType.methodType(params[i], org.omg.CORBA.portable.InputStream.class));
+            // the reader is passed the arguments already read, which it ignores, before the stream
+            reader = MethodHandles.dropArguments(reader, 0, java.util.Arrays.copyOfRange(types, n - i, n));
+            mh = MethodHandles.foldArguments(mh, reader);
+        }
+        return mh;
+    }
+
     public void writeArguments(org.omg.CORBA.portable.OutputStream out,
             Object[] args) {
         /*
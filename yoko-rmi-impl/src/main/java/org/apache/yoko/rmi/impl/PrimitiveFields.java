@@ -0,0 +1,155 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.rmi.impl;
+
+import org.apache.yoko.rmi.util.corba.Field;
+import org.omg.CORBA.MARSHAL;
+
+import java.io.IOException;
+
+/**
+ * Reads, writes and copies the primitive fields of one class of a value type.
+ * A {@link ValueDescriptor} sorts the primitive fields of its class before the others,
+ * and marshals them all in one loop through this accessor rather than through
+ * a virtual call on each field's descriptor.
+ */
+final class PrimitiveFields {
+    private static final byte BOOLEAN = 0;
+    private static final byte BYTE = 1;
+    private static final byte SHORT = 2;
+    private static final byte CHAR = 3;
+    private static final byte INT = 4;
+    private static final byte LONG = 5;
+    private static final byte FLOAT = 6;
+    private static final byte DOUBLE = 7;
+
+    private final String owner;
+    private final FieldDescriptor[] descriptors;
+    private final Field[] fields;
+    private final byte[] kinds;
+
+    private PrimitiveFields(String owner, FieldDescriptor[] descriptors) {
+        this.owner = owner;
+        this.descriptors = descriptors;
+        fields = new Field[descriptors.length];
+        kinds = new byte[descriptors.length];
+        for (int i = 0; i < descriptors.length; i++) {
+            fields[i] = descriptors[i].field;
+            kinds[i] = kindOf(descriptors[i].type);
+        }
+    }
+
+    private static byte kindOf(Class type) {
+        if (type == Boolean.TYPE) return BOOLEAN;
+        if (type == Byte.TYPE) return BYTE;
+        if (type == Short.TYPE) return SHORT;
+        if (type == Character.TYPE) return CHAR;
+        if (type == Integer.TYPE) return INT;
+        if (type == Long.TYPE) return LONG;
+        if (type == Float.TYPE) return FLOAT;
+        if (type == Double.TYPE) return DOUBLE;
+        throw new RuntimeException("unknown field type " + type);
+    }
+
+    /**
+     * Get an accessor for the primitive fields at the start of a sorted array of field descriptors.
+     * Fields with no corresponding Java field, as declared by <code>serialPersistentFields</code>,
+     * are left to their descriptors.
+     * @return the accessor, or null if the array does not start with any such fields
+     */
+    static PrimitiveFields of(String owner, FieldDescriptor[] descriptors) {
+        int count = 0;
+        while (count < descriptors.length) {
+            FieldDescriptor fd = descriptors[count];
+            if (fd == null || !fd.isPrimitive() || fd.field == null) break;
+            count++;
+        }
+        if (count == 0) return null;
+        FieldDescriptor[] primitives = new FieldDescriptor[count];
+        System.arraycopy(descriptors, 0, primitives, 0, count);
+        return new PrimitiveFields(owner, primitives);
+    }
+
+    /** The number of fields, which come first in the descriptor array this accessor was made from */
+    int size() {
+        return kinds.length;
+    }
+
+    void write(ObjectWriter writer, Object obj) throws IOException {
+        try {
+            for (int i = 0; i < kinds.length; i++) {
+                final Field f = fields[i];
+                switch (kinds[i]) {
+                    case BOOLEAN: writer.writeBoolean(f.getBoolean(obj)); break;
+                    case BYTE: writer.writeByte(f.getByte(obj)); break;
+                    case SHORT: writer.writeShort(f.getShort(obj)); break;
+                    case CHAR: writer.writeChar(f.getChar(obj)); break;
+                    case INT: writer.writeInt(f.getInt(obj)); break;
+                    case LONG: writer.writeLong(f.getLong(obj)); break;
+                    case FLOAT: writer.writeFloat(f.getFloat(obj)); break;
+                    case DOUBLE: writer.writeDouble(f.getDouble(obj)); break;
+                }
+            }
+        } catch (IllegalAccessException ex) {
+            throw (IOException)new IOException(ex.getMessage()).initCause(ex);
+        }
+    }
+
+    void copy(Object orig, Object copy) {
+        try {
+            for (int i = 0; i < kinds.length; i++) {
+                final Field f = fields[i];
+                switch (kinds[i]) {
+                    case BOOLEAN: f.setBoolean(copy, f.getBoolean(orig)); break;
+                    case BYTE: f.setByte(copy, f.getByte(orig)); break;
+                    case SHORT: f.setShort(copy, f.getShort(orig)); break;
+                    case CHAR: f.setChar(copy, f.getChar(orig)); break;
+                    case INT: f.setInt(copy, f.getInt(orig)); break;
+                    case LONG: f.setLong(copy, f.getLong(orig)); break;
+                    case FLOAT: f.setFloat(copy, f.getFloat(orig)); break;
+                    case DOUBLE: f.setDouble(copy, f.getDouble(orig)); break;
+                }
+            }
+        } catch (IllegalAccessException ex) {
+            throw (InternalError)new InternalError(ex.getMessage()).initCause(ex);
+        }
+    }
+
+    void read(ObjectReader reader, Object obj) throws IOException {
+        int i = 0;
+        try {
+            for (; i < kinds.length; i++) {
+                final Field f = fields[i];
+                switch (kinds[i]) {
+                    case BOOLEAN: f.setBoolean(obj, reader.readBoolean()); break;
+                    case BYTE: f.setByte(obj, reader.readByte()); break;
+                    case SHORT: f.setShort(obj, reader.readShort()); break;
+                    case CHAR: f.setChar(obj, reader.readChar()); break;
+                    case INT: f.setInt(obj, reader.readInt()); break;
+                    case LONG: f.setLong(obj, reader.readLong()); break;
+                    case FLOAT: f.setFloat(obj, reader.readFloat()); break;
+                    case DOUBLE: f.setDouble(obj, reader.readDouble()); break;
+                }
+            }
+        } catch (IllegalAccessException ex) {
+            throw (IOException)new IOException(ex.getMessage()).initCause(ex);
+        } catch (MARSHAL ex) {
+            throw ValueDescriptor.whileReading(ex, owner, descriptors[i]);
+        }
+    }
+}
@@ -80,17 +80,17 @@ public class RMIServant extends org.omg.PortableServer.Servant implements
 
         java.lang.reflect.Method m = method.getReflectedMethod();
 
-        logger.finer(debug_name(m) + ": invoking on " + _id);
+        if (logger.isLoggable(Level.FINER))
+            logger.finer(debug_name(m) + ": invoking on " + _id);
 
         try {
-            Object[] args = method.readArguments(_input);
-
-            Object result = invoke_method(m, args);
+            Object result = invoke_method(method, _input);
 
             org.omg.CORBA.portable.OutputStream _out = response.createReply();
 
             method.writeResult(_out, result);
-            logger.finer(debug_name(m) + ": returning normally");
+            if (logger.isLoggable(Level.FINER))
+                logger.finer(debug_name(m) + ": returning normally");
 
             return _out;
         } catch (org.omg.CORBA.SystemException ex) {
@@ -119,6 +119,17 @@ public class RMIServant extends org.omg.PortableServer.Servant implements
         }
     }
 
+    /* package */
+    Object invoke_method(MethodDescriptor method, org.omg.CORBA.portable.InputStream in)
+    throws Throwable {
+
+        if (_target != null) {
+            return method.invoke(_target, in);
+        } else {
+            throw new OBJECT_NOT_EXIST();
+        }
+    }
+
     /* package */
     Object invoke_method(java.lang.reflect.Method m, Object[] args)
     throws java.rmi.RemoteException, Throwable {
@@ -43,11 +43,11 @@ import java.util.logging.Level;
 import javax.rmi.PortableRemoteObject;
 
 abstract class RemoteDescriptor extends TypeDescriptor {
-    private java.util.Map method_map;
+    private volatile java.util.Map method_map;
 
-    private java.util.Map refl_method_map;
+    private volatile java.util.Map refl_method_map;
 
-    private MethodDescriptor[] operations;
+    private volatile MethodDescriptor[] operations;
 
     private Class[] remote_interfaces;
 
@@ -81,14 +81,17 @@ abstract class RemoteDescriptor extends TypeDescriptor {
             init_methods();
         }
 
-        if (method_map == null) {
-            method_map = new HashMap();
+        java.util.Map map = method_map;
+        if (map == null) {
+            // fill in the map before publishing it to other dispatching threads
+            map = new HashMap();
             for (int i = 0; i < operations.length; i++) {
-                method_map.put(operations[i].getIDLName(), operations[i]);
+                map.put(operations[i].getIDLName(), operations[i]);
             }
+            method_map = map;
         }
 
-        return (MethodDescriptor) method_map.get(idl_name);
+        return (MethodDescriptor) map.get(idl_name);
     }
 
     void debugMethodMap() {
@@ -109,14 +112,16 @@ abstract class RemoteDescriptor extends TypeDescriptor {
             init_methods();
         }
 
-        if (refl_method_map == null) {
-            refl_method_map = new HashMap();
+        java.util.Map map = refl_method_map;
+        if (map == null) {
+            map = new HashMap();
             for (int i = 0; i < operations.length; i++) {
-                refl_method_map.put(operations[i].getReflectedMethod(), operations[i]);
+                map.put(operations[i].getReflectedMethod(), operations[i]);
             }
+            refl_method_map = map;
         }
 
-        return (MethodDescriptor) refl_method_map.get(refl_method);
+        return (MethodDescriptor) map.get(refl_method);
     }
 
     RemoteDescriptor(Class type, TypeRepository repository) {
@@ -217,18 +222,19 @@ abstract class RemoteDescriptor extends TypeDescriptor {
         }
 
         // init method map...
-        method_map = new HashMap();
+        Map map = new HashMap();
         for (int i = 0; i < method_list.size(); i++) {
             MethodDescriptor desc = (MethodDescriptor) method_list.get(i);
             logger.finer("Adding method " + desc.java_name + " to method map under " + desc.getIDLName());
-            method_map.put(desc.getIDLName(), desc);
+            map.put(desc.getIDLName(), desc);
         }
+        method_map = map;
 
         //
         // initialize "operations" from the values of the map, such
         // that repeat methods are eliminated.
         //
-        operations = (MethodDescriptor[]) method_map.values().toArray(
+        operations = (MethodDescriptor[]) map.values().toArray(
                 new MethodDescriptor[0]);
 
         debugMethodMap();
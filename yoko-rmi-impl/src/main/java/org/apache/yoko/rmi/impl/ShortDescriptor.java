@@ -18,6 +18,8 @@
 
 package org.apache.yoko.rmi.impl;
 
+import java.lang.invoke.MethodHandle;
+
 final class ShortDescriptor extends SimpleDescriptor {
     ShortDescriptor(TypeRepository repository) {
         super(Short.TYPE, repository, "short", org.omg.CORBA.TCKind.tk_short);
@@ -27,6 +29,11 @@ final class ShortDescriptor extends SimpleDescriptor {
         return new Short(in.read_short());
     }
 
+    @Override
+    MethodHandle readHandle() {
+        return streamReader("read_short");
+    }
+
     public void write(org.omg.CORBA.portable.OutputStream out, Object val) {
         out.write_short(((Short) val).shortValue());
     }
@@ -21,6 +21,11 @@ package org.apache.yoko.rmi.impl;
 import org.omg.CORBA.ORB;
 import org.omg.CORBA.TCKind;
 import org.omg.CORBA.TypeCode;
+import org.omg.CORBA.portable.InputStream;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 
 abstract class SimpleDescriptor extends TypeDescriptor {
     private final String idl_name;
@@ -31,6 +36,15 @@ abstract class SimpleDescriptor extends TypeDescriptor {
         this.tc = tc;
     }
 
+    /** Get a handle on the method of {@link InputStream} that reads a value of this primitive type */
+    final MethodHandle streamReader(String name) {
+        try {
+            return MethodHandles.publicLookup().findVirtual(InputStream.class, name, MethodType.methodType(type));
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("cannot find reader for primitive class " + type, e);
+        }
+    }
+
     @Override
     protected final String genIDLName() {
         return idl_name;
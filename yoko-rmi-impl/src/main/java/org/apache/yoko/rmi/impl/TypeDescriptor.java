@@ -23,6 +23,9 @@ import org.omg.CORBA.portable.InputStream;
 import org.omg.CORBA.portable.OutputStream;
 
 import java.io.PrintWriter;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.rmi.Remote;
 import java.util.Map;
 import java.util.Objects;
@@ -156,6 +159,24 @@ abstract class TypeDescriptor extends ModelElement {
     /** Write an instance of this value to a CDR stream */
     public abstract void write(OutputStream out, Object val);
 
+    private static final MethodHandle READ;
+    static {
+        try {
+            READ = MethodHandles.lookup().findVirtual(TypeDescriptor.class, "read", MethodType.methodType(Object.class, InputStream.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Get a method handle that reads an instance of this value from a CDR stream,
+     * as {@link #read(InputStream)} does. Its type is <code>(InputStream)Object</code>,
+     * except for primitive types, which are read without boxing.
+     */
+    MethodHandle readHandle() {
+        return READ.bindTo(this);
+    }
+
     public boolean isCustomMarshalled() {
         return false;
     }
@@ -767,7 +767,7 @@ public class UtilImpl implements UtilDelegate {
         if (orb == null)
             throw new NullPointerException();
 
-        if (obj instanceof String || obj instanceof Number)
+        if (obj instanceof Number || Immutables.isImmutable(obj.getClass()))
             return obj;
 
         if (obj instanceof RMIStub) {
@@ -59,16 +59,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import static java.util.Arrays.asList;
-import static java.util.Collections.unmodifiableSet;
-
 class ValueDescriptor extends TypeDescriptor {
     static final Logger logger = Logger.getLogger(ValueDescriptor.class.getName());
 
@@ -92,16 +88,19 @@ class ValueDescriptor extends TypeDescriptor {
 
     protected FieldDescriptor[] _fields;
 
+    /** the leading primitive fields of _fields, or null if there are none */
+    PrimitiveFields _primitive_fields;
+
     private ObjectDeserializer _object_deserializer;
 
     private boolean _is_immutable_value;
 
     private boolean _is_rmi_stub;
 
-    private String _custom_repid;
+    /** true if this class and its super-classes can be copied field by field */
+    private boolean _copy_fields;
 
-    private static final Set<? extends Class<? extends Serializable>> _immutable_value_classes = unmodifiableSet(new HashSet<>(asList(Integer.class,
-            Character.class, Boolean.class, Byte.class, Long.class, Float.class, Double.class, Short.class)));
+    private String _custom_repid;
 
     private long _hash_code;
 
@@ -167,7 +166,7 @@ class ValueDescriptor extends TypeDescriptor {
         _is_externalizable = Externalizable.class.isAssignableFrom(type);
         _is_serializable = Serializable.class.isAssignableFrom(type);
 
-        _is_immutable_value = _immutable_value_classes.contains(type);
+        _is_immutable_value = Immutables.isImmutableType(type);
 
         if ((superClass != null) && (superClass != Object.class)) {
             TypeDescriptor superDesc = repo.getDescriptor(superClass);
@@ -387,6 +386,10 @@ class ValueDescriptor extends TypeDescriptor {
                     Arrays.sort(_fields);
                 }
 
+                _primitive_fields = PrimitiveFields.of(java_name, _fields);
+
+                _copy_fields = canCopyFields();
+
                 //
                 // Compute the structural hash
                 //
@@ -403,6 +406,30 @@ class ValueDescriptor extends TypeDescriptor {
         });
     }
 
+    /**
+     * A copy made by writing out each field and reading it back in is the same as
+     * a copy of each field, unless some class in the hierarchy takes over its own
+     * serialization, or declares a serializable field with no Java field behind it.
+     */
+    private boolean canCopyFields() {
+        if (getClass() != ValueDescriptor.class || _is_externalizable
+                || _write_object_method != null || _read_object_method != null) {
+            return false;
+        }
+
+        if (_super_descriptor != null && !_super_descriptor._copy_fields) {
+            return false;
+        }
+
+        for (FieldDescriptor fd : _fields) {
+            if (fd == null || fd.field == null) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private boolean samePackage(Class type, Class initClass) {
         String pkg1 = getPackageName(type);
         String pkg2 = getPackageName(initClass);
@@ -478,7 +505,8 @@ class ValueDescriptor extends TypeDescriptor {
     public void writeValue(final OutputStream out, final Serializable value) {
         try {
 
-            ObjectWriter writer = (ObjectWriter) AccessController.doPrivileged(new PrivilegedAction() {
+            ObjectWriter writer = (System.getSecurityManager() == null) ? new CorbaObjectWriter(out, value)
+                    : (ObjectWriter) AccessController.doPrivileged(new PrivilegedAction() {
                 public Object run() {
                     try {
                         return new CorbaObjectWriter(out, value);
@@ -496,15 +524,24 @@ class ValueDescriptor extends TypeDescriptor {
     }
 
     protected void defaultWriteValue(ObjectWriter writer, Serializable val) throws IOException {
-        logger.finer("writing fields for " + type);
+        if (logger.isLoggable(Level.FINER))
+            logger.finer("writing fields for " + type);
         FieldDescriptor[] fields = _fields;
 
         if (fields == null) {
             return;
         }
 
-        for (int i = 0; i < fields.length; i++) {
-            logger.finer("writing field " + _fields[i].java_name);
+        int i = 0;
+        PrimitiveFields primitives = _primitive_fields;
+        if (primitives != null) {
+            primitives.write(writer, val);
+            i = primitives.size();
+        }
+
+        for (; i < fields.length; i++) {
+            if (logger.isLoggable(Level.FINER))
+                logger.finer("writing field " + fields[i].java_name);
 
             fields[i].write(writer, val);
         }
@@ -570,7 +607,8 @@ class ValueDescriptor extends TypeDescriptor {
         offsetMap.put(offset, value);
 
         try {
-            ObjectReader reader = (ObjectReader) AccessController.doPrivileged(new PrivilegedAction() {
+            ObjectReader reader = (System.getSecurityManager() == null) ? new CorbaObjectReader(in, offsetMap, value)
+                    : (ObjectReader) AccessController.doPrivileged(new PrivilegedAction() {
                 public Object run() {
                     try {
                         return new CorbaObjectReader(in, offsetMap, value);
@@ -642,36 +680,54 @@ class ValueDescriptor extends TypeDescriptor {
             return;
         }
 
-        logger.fine("reading fields for " + type.getName());
+        if (logger.isLoggable(Level.FINE))
+            logger.fine("reading fields for " + type.getName());
 
-        for (FieldDescriptor _field : _fields) {
+        final FieldDescriptor[] fields = _fields;
+        int i = 0;
+        PrimitiveFields primitives = _primitive_fields;
+        if (primitives != null) {
+            primitives.read(reader, value);
+            i = primitives.size();
+        }
+
+        for (; i < fields.length; i++) {
+            final FieldDescriptor _field = fields[i];
             if (null == _field) continue;
-            logger.fine("reading field " + _field.java_name + " of type " + _field.getType().getName() + " using " + _field.getClass().getName());
+            if (logger.isLoggable(Level.FINE))
+                logger.fine("reading field " + _field.java_name + " of type " + _field.getType().getName() + " using " + _field.getClass().getName());
 
             try {
                 _field.read(reader, value);
             } catch (MARSHAL ex) {
-                if (ex.getMessage() != null)
-                    throw ex;
-
-                String msg = String.format("%s, while reading %s.%s", ex, java_name, _field.java_name);
-                throw (MARSHAL) new MARSHAL(msg, ex.minor, ex.completed).initCause(ex);
+                throw whileReading(ex, java_name, _field);
             }
         }
     }
 
+    /** Add the field being read to the message of an exception that has none */
+    static MARSHAL whileReading(MARSHAL ex, String owner, FieldDescriptor field) {
+        if (ex.getMessage() != null)
+            return ex;
+
+        String msg = String.format("%s, while reading %s.%s", ex, owner, field.java_name);
+        return (MARSHAL) new MARSHAL(msg, ex.minor, ex.completed).initCause(ex);
+    }
+
     Map readFields(ObjectReader reader) throws IOException {
         if ((_fields == null) || (_fields.length == 0)) {
             return Collections.EMPTY_MAP;
         }
 
-        logger.finer("reading fields for " + type.getName());
+        if (logger.isLoggable(Level.FINER))
+            logger.finer("reading fields for " + type.getName());
 
         Map map = new HashMap();
 
         for (FieldDescriptor _field : _fields) {
 
-            logger.finer("reading field " + _field.java_name);
+            if (logger.isLoggable(Level.FINER))
+                logger.finer("reading field " + _field.java_name);
 
             _field.readFieldIntoMap(reader, map);
         }
@@ -684,11 +740,13 @@ class ValueDescriptor extends TypeDescriptor {
             return;
         }
 
-        logger.finer("writing fields for " + type.getName());
+        if (logger.isLoggable(Level.FINER))
+            logger.finer("writing fields for " + type.getName());
 
         for (FieldDescriptor _field : _fields) {
 
-            logger.finer("writing field " + _field.java_name);
+            if (logger.isLoggable(Level.FINER))
+                logger.finer("writing field " + _field.java_name);
 
             _field.writeFieldFromMap(writer, fieldMap);
         }
@@ -717,7 +775,8 @@ class ValueDescriptor extends TypeDescriptor {
             // read custom marshalling value header
             byte cmsfVersion = reader.readByte(); // custom marshal stream format version
             boolean dwoCalled = reader.readBoolean(); // was defaultWriteObject() called?
-            logger.log(Level.FINE, "Reading value in streamFormatVersion=" + cmsfVersion + " defaultWriteObject=" + dwoCalled);
+            if (logger.isLoggable(Level.FINE))
+                logger.fine("Reading value in streamFormatVersion=" + cmsfVersion + " defaultWriteObject=" + dwoCalled);
 
             if (cmsfVersion == 2) {
                 // use a wrapped reader to open the secondary custom valuetype
@@ -958,7 +1017,8 @@ class ValueDescriptor extends TypeDescriptor {
 
         Serializable oorig = (Serializable) orig;
 
-        logger.finer("copying " + orig);
+        if (logger.isLoggable(Level.FINER))
+            logger.finer("copying " + orig);
 
         oorig = writeReplace(oorig);
 
@@ -968,7 +1028,8 @@ class ValueDescriptor extends TypeDescriptor {
         } else {
             wdesc = (ValueDescriptor) repo.getDescriptor(oorig.getClass());
 
-            logger.finer("writeReplace -> " + type.getName());
+            if (logger.isLoggable(Level.FINER))
+                logger.finer("writeReplace -> " + type.getName());
         }
 
         return wdesc.copyObject2(oorig, state);
@@ -984,6 +1045,11 @@ class ValueDescriptor extends TypeDescriptor {
         Serializable copy = createBlankInstance();
         state.put(oorig, copy);
 
+        if (_copy_fields && copy != null) {
+            copyFields(oorig, copy, state);
+            return readResolve(copy);
+        }
+
         // write original object
         ObjectWriter writer = writeObject(oorig, state);
 
@@ -991,6 +1057,22 @@ class ValueDescriptor extends TypeDescriptor {
         return readObject(writer, copy);
     }
 
+    private void copyFields(Serializable orig, Serializable copy, CopyState state) {
+        if (_super_descriptor != null) {
+            _super_descriptor.copyFields(orig, copy, state);
+        }
+
+        int i = 0;
+        if (_primitive_fields != null) {
+            _primitive_fields.copy(orig, copy);
+            i = _primitive_fields.size();
+        }
+
+        for (; i < _fields.length; i++) {
+            _fields[i].copyState(orig, copy, state);
+        }
+    }
+
     private ObjectWriter writeObject(Serializable oorig, CopyState state) {
         try {
             ObjectWriter writer = state.createObjectWriter(oorig);
@@ -0,0 +1,182 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.rmi.impl;
+
+import org.apache.yoko.rmi.api.Immutable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class LocalCopyTest {
+    public static class Base implements Serializable {
+        private static final long serialVersionUID = 1L;
+        long id;
+        String label;
+    }
+
+    public static class Node extends Base {
+        private static final long serialVersionUID = 1L;
+        int value;
+        double weight;
+        int[] data;
+        Node next;
+        Object other;
+        transient int scratch;
+    }
+
+    public static class Custom implements Serializable {
+        private static final long serialVersionUID = 1L;
+        int value;
+        transient int written;
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            out.writeInt(value + 1);
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            written = in.readInt();
+        }
+    }
+
+    /** Replaced, when serialized, by a holder that refers back to it */
+    public static class Replaced implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        Object writeReplace() {
+            Holder holder = new Holder();
+            holder.ref = this;
+            return holder;
+        }
+    }
+
+    public static class Holder implements Serializable {
+        private static final long serialVersionUID = 1L;
+        Object ref;
+    }
+
+    @Immutable
+    public static final class Annotated implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final String name = "annotated";
+    }
+
+    @Immutable
+    public static class AnnotatedBase implements Serializable {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class AnnotatedSub extends AnnotatedBase {
+        private static final long serialVersionUID = 1L;
+    }
+
+    enum Planet {
+        MERCURY,
+        VENUS { public String toString() { return "Venus"; } }
+    }
+
+    private static Object copy(Object orig) throws CopyRecursionException {
+        return new CopyState(TypeRepository.get()).copy(orig);
+    }
+
+    @Test
+    public void testImmutablesAreNotCopied() throws Exception {
+        for (Object o : new Object[]{"text", 42, 'c', 4.2d, BigDecimal.TEN, LocalDate.of(2000, 1, 1), Duration.ofSeconds(1),
+                TimeUnit.SECONDS, Planet.MERCURY, Planet.VENUS}) {
+            assertThat(copy(o), sameInstance(o));
+        }
+    }
+
+    @Test
+    public void testImmutableTypes() {
+        assertThat(Immutables.isImmutableType(Integer.class), equalTo(true));
+        assertThat(Immutables.isImmutableType(Planet.class), equalTo(true));
+        assertThat(Immutables.isImmutableType(Number.class), equalTo(false));
+        assertThat(Immutables.isImmutableType(int[].class), equalTo(false));
+        assertThat(Immutables.isImmutableType(Base.class), equalTo(false));
+    }
+
+    @Test
+    public void testAnnotatedTypesArePassedByReferenceOnlyOnRequest() throws Exception {
+        assertThat(Immutables.isImmutable(Annotated.class, false), equalTo(false));
+        assertThat(Immutables.isImmutable(Annotated.class, true), equalTo(true));
+        assertThat(Immutables.isImmutable(AnnotatedBase.class, true), equalTo(true));
+        assertThat(Immutables.isImmutable(AnnotatedSub.class, true), equalTo(false));
+        // the mode is off by default
+        Annotated annotated = new Annotated();
+        assertThat(copy(annotated), not(sameInstance(annotated)));
+    }
+
+    @Test
+    public void testGraphIsCopiedFieldByField() throws Exception {
+        Node shared = new Node();
+        shared.value = 7;
+        Node node = new Node();
+        node.id = 1L;
+        node.label = "first";
+        node.value = 2;
+        node.weight = 0.5;
+        node.data = new int[]{1, 2, 3};
+        node.next = shared;
+        node.other = shared;
+        node.scratch = 99;
+        shared.next = node;
+
+        Node copy = (Node) copy(node);
+        assertThat(copy, not(sameInstance(node)));
+        assertThat(copy.id, equalTo(1L));
+        assertThat(copy.label, sameInstance(node.label));
+        assertThat(copy.value, equalTo(2));
+        assertThat(copy.weight, equalTo(0.5));
+        assertThat(copy.data, equalTo(node.data));
+        assertThat(copy.data, not(sameInstance(node.data)));
+        assertThat(copy.scratch, equalTo(0));
+        assertThat(copy.next, not(sameInstance(shared)));
+        assertThat(copy.next.value, equalTo(7));
+        assertThat(copy.other, sameInstance(copy.next));
+        assertThat(copy.next.next, sameInstance(copy));
+    }
+
+    @Test
+    public void testCustomSerializationIsHonoured() throws Exception {
+        Custom custom = new Custom();
+        custom.value = 41;
+        Custom copy = (Custom) copy(custom);
+        assertThat(copy.value, equalTo(41));
+        assertThat(copy.written, equalTo(42));
+    }
+
+    @Test
+    public void testReferenceToReplacedObjectIsResolved() throws Exception {
+        Holder copy = (Holder) copy(new Replaced());
+        assertThat(copy.ref, sameInstance(copy));
+    }
+}
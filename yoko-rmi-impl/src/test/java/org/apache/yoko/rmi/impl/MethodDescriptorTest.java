@@ -0,0 +1,120 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.rmi.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.OutputStream;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.Properties;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MethodDescriptorTest {
+    public static class Failure extends Exception {}
+
+    public interface Target extends Remote {
+        String all(boolean z, byte b, char c, short s, int i, long j, float f, double d, String str) throws RemoteException;
+        long sum(int first, long second, int third) throws RemoteException;
+        void nothing() throws RemoteException;
+        void fail() throws RemoteException, Failure;
+    }
+
+    static final class TargetImpl implements Target {
+        static final Failure FAILURE = new Failure();
+        boolean called;
+
+        public String all(boolean z, byte b, char c, short s, int i, long j, float f, double d, String str) {
+            return "" + z + b + c + s + i + j + f + d + str;
+        }
+
+        public long sum(int first, long second, int third) {
+            return first * 100 + second * 10 + third;
+        }
+
+        public void nothing() {
+            called = true;
+        }
+
+        public void fail() throws Failure {
+            throw FAILURE;
+        }
+    }
+
+    private ORB orb;
+    private RemoteDescriptor descriptor;
+
+    @BeforeEach
+    public void setup() {
+        Properties props = new Properties();
+        props.put("org.omg.CORBA.ORBClass", "org.apache.yoko.orb.CORBA.ORB");
+        props.put("org.omg.CORBA.ORBSingletonClass", "org.apache.yoko.orb.CORBA.ORBSingleton");
+        orb = ORB.init((String[]) null, props);
+        descriptor = (RemoteDescriptor) TypeRepository.get().getDescriptor(Target.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    private Object invoke(Object target, String operation, Object... args) throws Throwable {
+        MethodDescriptor method = descriptor.getMethod(operation);
+        OutputStream out = orb.create_output_stream();
+        method.writeArguments(out, args);
+        InputStream in = out.create_input_stream();
+        return method.invoke(target, in);
+    }
+
+    @Test
+    public void testArgumentsOfEveryPrimitiveType() throws Throwable {
+        TargetImpl target = new TargetImpl();
+        Object[] args = {true, (byte) 1, 'c', (short) 2, 3, 4L, 5.5f, 6.5d, "str"};
+        String expected = target.all(true, (byte) 1, 'c', (short) 2, 3, 4L, 5.5f, 6.5d, "str");
+        assertThat(invoke(target, "all", args), equalTo(expected));
+        // a second call uses the dispatcher built by the first
+        assertThat(invoke(target, "all", args), equalTo(expected));
+    }
+
+    @Test
+    public void testArgumentsAreReadInOrder() throws Throwable {
+        assertThat(invoke(new TargetImpl(), "sum", 1, 2L, 3), equalTo(123L));
+    }
+
+    @Test
+    public void testVoidMethod() throws Throwable {
+        TargetImpl target = new TargetImpl();
+        assertThat(invoke(target, "nothing"), nullValue());
+        assertThat(target.called, equalTo(true));
+    }
+
+    @Test
+    public void testExceptionIsNotWrapped() {
+        Failure failure = assertThrows(Failure.class, () -> invoke(new TargetImpl(), "fail"));
+        assertThat(failure, sameInstance(TargetImpl.FAILURE));
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.rmi.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.ValueDefPackage.FullValueDescription;
+import org.omg.CORBA.ValueMember;
+import org.omg.CORBA_2_3.portable.InputStream;
+import org.omg.CORBA_2_3.portable.OutputStream;
+
+import java.io.ObjectStreamField;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Properties;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PrimitiveFieldsTest {
+    public static class Base implements Serializable {
+        private static final long serialVersionUID = 1L;
+        long id;
+        String label;
+    }
+
+    public static class AllTypes extends Base {
+        private static final long serialVersionUID = 1L;
+        boolean z;
+        byte b;
+        short s;
+        char c;
+        int i;
+        long j;
+        float f;
+        double d;
+        String str;
+        transient int ignored;
+    }
+
+    public static class OnlyObjects implements Serializable {
+        private static final long serialVersionUID = 1L;
+        String str;
+    }
+
+    public static class Persistent implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private static final ObjectStreamField[] serialPersistentFields = {
+                new ObjectStreamField("missing", Integer.TYPE),
+                new ObjectStreamField("present", Integer.TYPE)
+        };
+        int present;
+    }
+
+    public static class Evolved implements Serializable {
+        private static final long serialVersionUID = 1L;
+        int a;
+        long b;
+    }
+
+    private ORB orb;
+
+    @BeforeEach
+    public void setup() {
+        Properties props = new Properties();
+        props.put("org.omg.CORBA.ORBClass", "org.apache.yoko.orb.CORBA.ORB");
+        props.put("org.omg.CORBA.ORBSingletonClass", "org.apache.yoko.orb.CORBA.ORBSingleton");
+        orb = ORB.init((String[]) null, props);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        orb.destroy();
+    }
+
+    private FieldDescriptor[] fields(Class<?> type) {
+        return ((ValueDescriptor) TypeRepository.get().getDescriptor(type))._fields;
+    }
+
+    @Test
+    public void testLeadingPrimitiveFields() {
+        FieldDescriptor[] fields = fields(AllTypes.class);
+        PrimitiveFields primitives = PrimitiveFields.of("AllTypes", fields);
+        assertThat(primitives.size(), equalTo(8));
+        assertThat(fields[8].java_name, equalTo("str"));
+        assertThat(PrimitiveFields.of("OnlyObjects", fields(OnlyObjects.class)), nullValue());
+    }
+
+    @Test
+    public void testSerialPersistentFieldWithoutJavaField() {
+        // "missing" sorts first and has no Java field, so it is left to its descriptor
+        assertThat(PrimitiveFields.of("Persistent", fields(Persistent.class)), nullValue());
+    }
+
+    @Test
+    public void testRoundTrip() {
+        AllTypes value = new AllTypes();
+        value.id = -1L;
+        value.label = "base";
+        value.z = true;
+        value.b = (byte) 0x80;
+        value.s = Short.MIN_VALUE;
+        value.c = '\u20ac';
+        value.i = Integer.MAX_VALUE;
+        value.j = Long.MIN_VALUE;
+        value.f = 1.5f;
+        value.d = Math.PI;
+        value.str = "derived";
+        value.ignored = 42;
+
+        OutputStream out = (OutputStream) orb.create_output_stream();
+        out.write_value(value, AllTypes.class);
+        AllTypes copy = (AllTypes) ((InputStream) out.create_input_stream()).read_value(AllTypes.class);
+
+        assertThat(copy.id, equalTo(value.id));
+        assertThat(copy.label, equalTo(value.label));
+        assertThat(copy.z, equalTo(value.z));
+        assertThat(copy.b, equalTo(value.b));
+        assertThat(copy.s, equalTo(value.s));
+        assertThat(copy.c, equalTo(value.c));
+        assertThat(copy.i, equalTo(value.i));
+        assertThat(copy.j, equalTo(value.j));
+        assertThat(copy.f, equalTo(value.f));
+        assertThat(copy.d, equalTo(value.d));
+        assertThat(copy.str, equalTo(value.str));
+        assertThat(copy.ignored, equalTo(0));
+    }
+
+    @Test
+    public void testReadInSenderMemberOrder() {
+        TypeRepository repo = TypeRepository.get();
+        ValueDescriptor local = (ValueDescriptor) repo.getDescriptor(Evolved.class);
+        FullValueDescription fvd = local.getFullValueDescription();
+        // the sender's class declares its members as (b, a) rather than our sorted (a, b)
+        ValueMember[] members = fvd.members;
+        assertThat(members[0].name, equalTo("a"));
+        fvd.members = new ValueMember[] { members[1], members[0] };
+        ValueDescriptor remote = new FVDValueDescriptor(fvd, Evolved.class, repo, fvd.id, null);
+
+        OutputStream out = (OutputStream) orb.create_output_stream();
+        out.write_longlong(Long.MIN_VALUE);
+        out.write_long(7);
+        Evolved copy = (Evolved) remote.readValue((InputStream) out.create_input_stream(), new HashMap<>(), 0);
+
+        assertThat(copy.a, equalTo(7));
+        assertThat(copy.b, equalTo(Long.MIN_VALUE));
+    }
+}
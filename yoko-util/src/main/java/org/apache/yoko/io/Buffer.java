@@ -20,7 +20,11 @@ import org.apache.yoko.util.Assert;
 import org.omg.CORBA.INTERNAL;
 import org.omg.CORBA.NO_MEMORY;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static java.lang.Math.max;
 import static java.lang.Math.min;
@@ -41,14 +45,27 @@ public abstract class Buffer<T extends Buffer> implements Cloneable {
     public static WriteBuffer createWriteBuffer() { return new WriteBuffer(new Core()); }
     public static WriteBuffer createWriteBuffer(int initialBufferSize) { return new WriteBuffer(new Core(initialBufferSize)); }
 
+    /**
+     * Create a buffer whose storage is taken from, and on {@link #release()} returned to, a shared pool.
+     * Use this only where the end of the buffer's life is known, since a released buffer must not be used again.
+     */
+    public static WriteBuffer createPooledWriteBuffer(int initialBufferSize) {
+        final byte[] data = BufferPool.acquire(initialBufferSize);
+        return new WriteBuffer(data == null ? new Core(initialBufferSize) : new Core(data, initialBufferSize, true));
+    }
+
     /**
      * Holds the actual buffer data. Objects of this type are shared between potentially many read or write buffers.
      * This class and its members have package visibility so that the child classes can access them, but note that the
      * constructors are private. Instance objects should always be held in private fields to preserve encapsulation.
      */
     static final class Core {
+        private static final byte[] NO_BYTES = {};
         byte[] data; // The octet core
         int length; // The requested size of the core
+        private boolean pooled; // Whether data belongs to the BufferPool
+        List<Segment> segments; // Arrays held by reference, in position order, whose bytes are not in data
+        int segmentBytes; // The total length of the segments
 
         /**
          * Create a Core with initial length zero.
@@ -70,8 +87,13 @@ public abstract class Buffer<T extends Buffer> implements Cloneable {
         }
 
         private Core(byte[] data, int len) {
+            this(data, len, false);
+        }
+
+        private Core(byte[] data, int len, boolean pooled) {
             this.data = data;
             this.length = len;
+            this.pooled = pooled;
         }
 
         /**
@@ -88,10 +110,97 @@ public abstract class Buffer<T extends Buffer> implements Cloneable {
                 return false;
             }
             // ok, we need a bigger core
-            data = copyOf(data, computeNewBufferSize(length));
+            final int newSize = computeNewBufferSize(length);
+            if (pooled) {
+                final byte[] oldData = data;
+                data = BufferPool.acquire(newSize);
+                if (data == null) {
+                    // too big to pool, so allocate as normal from here on
+                    data = copyOf(oldData, newSize);
+                    pooled = false;
+                } else {
+                    System.arraycopy(oldData, 0, data, 0, oldData.length);
+                }
+                BufferPool.release(oldData);
+            } else {
+                data = copyOf(data, newSize);
+            }
             return true;
         }
 
+        /**
+         * Return pooled data to the pool, leaving this core empty.
+         * Any buffer still sharing this core will find no data to read or write.
+         */
+        synchronized void release() {
+            segments = null;
+            segmentBytes = 0;
+            if (!pooled) return;
+            final byte[] oldData = data;
+            data = NO_BYTES;
+            length = 0;
+            pooled = false;
+            BufferPool.release(oldData);
+        }
+
+        /**
+         * Hold an array by reference at the given position, between the bytes of the data before and after index <code>at</code>.
+         * No space is taken up in the data.
+         */
+        void addSegment(int start, int at, byte[] bytes, int offset, int length) {
+            if (segments == null) segments = new ArrayList<>();
+            segments.add(new Segment(start, at, bytes, offset, length));
+            segmentBytes += length;
+        }
+
+        /**
+         * @return the number of bytes of the segments that come before the given position
+         */
+        int segmentBytesBefore(int pos) {
+            if (segments == null) return 0;
+            int result = 0;
+            for (Segment s: segments) {
+                if (s.start >= pos) break;
+                result += min(s.length, pos - s.start);
+            }
+            return result;
+        }
+
+        /**
+         * Copy any arrays held by reference into the data, so that it can be read directly.
+         * Positions are unchanged, but buffers positioned after a segment must then be positioned again.
+         */
+        synchronized void materialize() {
+            if (segments == null) return;
+            final byte[] oldData = data;
+            data = contents();
+            length = data.length;
+            segments = null;
+            segmentBytes = 0;
+            if (pooled) {
+                pooled = false;
+                BufferPool.release(oldData);
+            }
+        }
+
+        /**
+         * @return the data with any arrays held by reference copied in, which may be longer than <code>length</code>
+         */
+        private byte[] contents() {
+            if (segments == null) return data;
+            final byte[] result = copyOf(NO_BYTES, length + segmentBytes);
+            int from = 0, to = 0;
+            for (Segment s: segments) {
+                System.arraycopy(data, from, result, to, s.at - from);
+                to += s.at - from;
+                from = s.at;
+                System.arraycopy(s.bytes, s.offset, result, to, s.length);
+                to += s.length;
+            }
+            System.arraycopy(data, from, result, to, length - from);
+            return result;
+        }
+
         private int computeNewBufferSize(int len) {
             // use an allocation threshold of 4 megabytes
             final int MAX_OVERALLOC = 4 * 1024 * 1024;
@@ -104,13 +213,27 @@ public abstract class Buffer<T extends Buffer> implements Cloneable {
         boolean dataEquals(Core that) {
             if (this == that) return true;
             if (that == null) return false;
-            if (this.length != that.length) return false;
-            for (int i = 0; i < length; i++) if (this.data[i] != that.data[i]) return false;
+            final int length = this.length + this.segmentBytes;
+            if (length != that.length + that.segmentBytes) return false;
+            final byte[] thisData = this.contents(), thatData = that.contents();
+            for (int i = 0; i < length; i++) if (thisData[i] != thatData[i]) return false;
             return true;
         }
 
         StringBuilder dumpTo(StringBuilder dump) {
-            return formatHexPara(data, 0, length, dump);
+            return formatHexPara(contents(), 0, length + segmentBytes, dump);
+        }
+
+        /**
+         * Dump the data, with any arrays held by reference, from and after the given position.
+         */
+        StringBuilder dumpTo(StringBuilder dump, int pos, boolean markPosition) {
+            final byte[] contents = contents();
+            if (markPosition) {
+                formatHexPara(contents, 0, pos, dump);
+                dump.append(String.format("------------------ pos = 0x%08X -------------------%n", pos));
+            }
+            return formatHexPara(contents, pos, length + segmentBytes - pos, dump);
         }
 
         @Override
@@ -119,15 +242,39 @@ public abstract class Buffer<T extends Buffer> implements Cloneable {
         }
     }
 
+    /**
+     * A range of bytes that a {@link Core} holds by reference instead of in its data.
+     */
+    static final class Segment {
+        final int start; // The position that this segment occupies
+        final int at; // The index in the data of the byte that follows this segment
+        final byte[] bytes;
+        final int offset;
+        final int length;
+
+        private Segment(int start, int at, byte[] bytes, int offset, int length) {
+            this.start = start;
+            this.at = at;
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        int end() { return start + length; }
+    }
+
     final Core core;
+    /** The index in the core's data of the next byte to read or write, which lags behind the position by any segments before it */
     int position = 0;
+    /** The number of bytes of segments before the position */
+    int skipped = 0;
 
     Buffer(Core core) { this.core = core; }
 
-    public final boolean isComplete() { return position >= length(); }
-    public final int getPosition() { return position; }
-    public final int available() { return length() - position; }
-    public final int length() { return core.length; }
+    public final boolean isComplete() { return getPosition() >= length(); }
+    public final int getPosition() { return position + skipped; }
+    public final int available() { return length() - getPosition(); }
+    public final int length() { return core.length + core.segmentBytes; }
 
     public final T clone() {
         try {
@@ -145,8 +292,27 @@ public abstract class Buffer<T extends Buffer> implements Cloneable {
     public final String dumpAllData() { return dumpData(new StringBuilder()).toString(); }
     final StringBuilder dumpData(StringBuilder dump) { return core.dumpTo(dump); }
 
-    public final T setPosition(int p) { position = p; return (T)this; }
-    public final T rewind(int n) { position -= n; return (T)this;}
+    /**
+     * Give up the storage of a pooled buffer, so that later buffers can reuse it.
+     * This affects every buffer sharing the same data, none of which may be used afterwards.
+     * It has no effect on a buffer that was not created from the pool.
+     */
+    public final void release() { core.release(); }
+
+    /**
+     * View the bytes from the current position as a ByteBuffer sharing this buffer's storage.
+     * The typed views of the result let primitive arrays be copied in bulk rather than byte by byte.
+     */
+    final ByteBuffer viewBytes(int byteCount, ByteOrder order) {
+        return ByteBuffer.wrap(core.data, position, byteCount).order(order);
+    }
+
+    public final T setPosition(int p) {
+        skipped = core.segmentBytesBefore(p);
+        position = p - skipped;
+        return (T)this;
+    }
+    public final T rewind(int n) { return setPosition(getPosition() - n); }
     public abstract ReadBuffer newReadBuffer();
 
     static byte[] copyOf(byte[] data, int length) {
@@ -157,7 +323,7 @@ public abstract class Buffer<T extends Buffer> implements Cloneable {
         }
     }
 
-    private static byte[] newBytes(int len) {
+    static byte[] newBytes(int len) {
         try {
             // allocate only multiples of 16 so we can pad without checking
             return new byte[(len + 0xFF) & ~0xFF];
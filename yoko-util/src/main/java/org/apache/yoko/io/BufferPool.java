@@ -0,0 +1,78 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.yoko.io;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.lang.Integer.numberOfLeadingZeros;
+
+/**
+ * A size-classed pool of byte arrays for buffers with an explicitly managed lifetime.
+ * Each size class is a power of two and holds a fixed number of slots,
+ * so neither taking nor returning an array allocates.
+ * Requests too large for the biggest class are not pooled.
+ */
+enum BufferPool {
+    ;
+    private static final int MIN_SHIFT = 8;   // 256 bytes
+    private static final int MAX_SHIFT = 16;  // 64 KiB
+    private static final int SLOTS = 32;      // per size class, must be a power of 2
+    private static final AtomicReferenceArray<byte[]> POOL = new AtomicReferenceArray<>((MAX_SHIFT - MIN_SHIFT + 1) * SLOTS);
+
+    static int maxPooledSize() { return 1 << MAX_SHIFT; }
+
+    /**
+     * @param minSize the minimum number of bytes required
+     * @return an array of at least <code>minSize</code> bytes, or <code>null</code> if that is too large to pool
+     */
+    static byte[] acquire(int minSize) {
+        final int shift = shiftFor(minSize);
+        if (shift > MAX_SHIFT) return null;
+        final int base = (shift - MIN_SHIFT) * SLOTS;
+        final int probe = probe();
+        for (int i = 0; i < SLOTS; i++) {
+            final int slot = base + ((probe + i) & (SLOTS - 1));
+            final byte[] bytes = POOL.get(slot);
+            if (bytes != null && POOL.compareAndSet(slot, bytes, null)) return bytes;
+        }
+        return Buffer.newBytes(1 << shift);
+    }
+
+    /**
+     * Return an array obtained from {@link #acquire(int)}.
+     * The array is discarded if its size class is already full.
+     */
+    static void release(byte[] bytes) {
+        final int shift = shiftFor(bytes.length);
+        if (shift > MAX_SHIFT || bytes.length != 1 << shift) return;
+        final int base = (shift - MIN_SHIFT) * SLOTS;
+        final int probe = probe();
+        for (int i = 0; i < SLOTS; i++) {
+            final int slot = base + ((probe + i) & (SLOTS - 1));
+            if (POOL.get(slot) == null && POOL.compareAndSet(slot, null, bytes)) return;
+        }
+    }
+
+    private static int shiftFor(int size) {
+        return size <= 1 << MIN_SHIFT ? MIN_SHIFT : 32 - numberOfLeadingZeros(size - 1);
+    }
+
+    /** Start each thread's search at a different slot to reduce contention. */
+    private static int probe() {
+        return (int) Thread.currentThread().getId();
+    }
+}
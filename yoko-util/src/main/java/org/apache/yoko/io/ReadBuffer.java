@@ -21,8 +21,14 @@ import org.apache.yoko.util.HexConverter;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
 
-import static org.apache.yoko.util.Hex.formatHexPara;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 
 public final class ReadBuffer extends Buffer<ReadBuffer> {
     ReadBuffer(Core core) { super(core); }
@@ -31,7 +37,23 @@ public final class ReadBuffer extends Buffer<ReadBuffer> {
 
     public byte readByte() { return core.data[position++]; }
 
-    public char readByteAsChar() { return (char) core.data[position++]; }
+    public char readByteAsChar() { return (char) (core.data[position++] & 0xff); }
+
+    /** Count the 7-bit bytes from the current position, stopping at the first other byte or after {@code limit} bytes */
+    public int countAsciiBytes(int limit) {
+        final int end = position + Math.min(limit, available());
+        int i = position;
+        while (i < end && core.data[i] >= 0) i++;
+        return i - position;
+    }
+
+    /** Read the next {@code length} bytes as ISO-8859-1 chars */
+    public String readLatin1String(int length) {
+        if (available() < length) throw new IndexOutOfBoundsException();
+        final String result = new String(core.data, position, length, ISO_8859_1);
+        position += length;
+        return result;
+    }
 
     public void readBytes(byte[] buffer, int offset, int length) {
         if (available() < length) throw new IndexOutOfBoundsException();
@@ -39,6 +61,48 @@ public final class ReadBuffer extends Buffer<ReadBuffer> {
         position += length;
     }
 
+    public void readChars(char[] buffer, int offset, int length, ByteOrder order) {
+        final int byteCount = length * 2;
+        if (available() < byteCount) throw new IndexOutOfBoundsException();
+        viewBytes(byteCount, order).asCharBuffer().get(buffer, offset, length);
+        position += byteCount;
+    }
+
+    public void readShorts(short[] buffer, int offset, int length, ByteOrder order) {
+        final int byteCount = length * 2;
+        if (available() < byteCount) throw new IndexOutOfBoundsException();
+        viewBytes(byteCount, order).asShortBuffer().get(buffer, offset, length);
+        position += byteCount;
+    }
+
+    public void readInts(int[] buffer, int offset, int length, ByteOrder order) {
+        final int byteCount = length * 4;
+        if (available() < byteCount) throw new IndexOutOfBoundsException();
+        viewBytes(byteCount, order).asIntBuffer().get(buffer, offset, length);
+        position += byteCount;
+    }
+
+    public void readLongs(long[] buffer, int offset, int length, ByteOrder order) {
+        final int byteCount = length * 8;
+        if (available() < byteCount) throw new IndexOutOfBoundsException();
+        viewBytes(byteCount, order).asLongBuffer().get(buffer, offset, length);
+        position += byteCount;
+    }
+
+    public void readFloats(float[] buffer, int offset, int length, ByteOrder order) {
+        final int byteCount = length * 4;
+        if (available() < byteCount) throw new IndexOutOfBoundsException();
+        viewBytes(byteCount, order).asFloatBuffer().get(buffer, offset, length);
+        position += byteCount;
+    }
+
+    public void readDoubles(double[] buffer, int offset, int length, ByteOrder order) {
+        final int byteCount = length * 8;
+        if (available() < byteCount) throw new IndexOutOfBoundsException();
+        viewBytes(byteCount, order).asDoubleBuffer().get(buffer, offset, length);
+        position += byteCount;
+    }
+
     public void readBytes(WriteBuffer buffer) {
         buffer.writeBytes(core.data, position, available());
     }
@@ -79,32 +143,80 @@ public final class ReadBuffer extends Buffer<ReadBuffer> {
 
     public String dumpRemainingData() {
         StringBuilder dump = new StringBuilder();
-        dump.append(String.format("Core pos=0x%x Core len=0x%x Remaining core data=%n%n", position, core.length));
-        return formatHexPara(core.data, position, available(), dump).toString();
+        dump.append(String.format("Core pos=0x%x Core len=0x%x Remaining core data=%n%n", getPosition(), length()));
+        return core.dumpTo(dump, getPosition(), false).toString();
     }
 
     public String dumpAllDataWithPosition() {
-        StringBuilder sb = new StringBuilder();
-        formatHexPara(core.data, 0, position, sb);
-        sb.append(String.format("------------------ pos = 0x%08X -------------------%n", position));
-        return formatHexPara(core.data, position, available(), sb).toString();
+        return core.dumpTo(new StringBuilder(), getPosition(), true).toString();
     }
 
     public ReadBuffer writeTo(OutputStream out) throws IOException {
         try {
-            out.write(core.data, position, available());
+            final List<Segment> segments = core.segments;
+            if (segments != null) {
+                // write the data and the arrays held by reference in turn, never copying the arrays
+                for (Segment s: segments) {
+                    if (s.end() <= getPosition()) continue;
+                    if (position < s.at) {
+                        out.write(core.data, position, s.at - position);
+                        setPosition(s.start);
+                    }
+                    final int skip = getPosition() - s.start;
+                    out.write(s.bytes, s.offset + skip, s.length - skip);
+                    setPosition(s.end());
+                }
+            }
+            out.write(core.data, position, core.length - position);
             out.flush();
-            position = core.length;
+            setPosition(length());
             return this;
         } catch (InterruptedIOException ex) {
-            position += ex.bytesTransferred;
+            setPosition(getPosition() + ex.bytesTransferred);
             throw ex;
         }
     }
 
+    /**
+     * Write as many of the remaining bytes as the channel will currently accept.
+     * Any arrays held by reference are passed to a gathering channel in a single write.
+     * @return the number of bytes written, possibly zero for a non-blocking channel
+     */
+    public int writeTo(WritableByteChannel out) throws IOException {
+        final List<Segment> segments = core.segments;
+        final int result;
+        if (segments == null) {
+            result = out.write(ByteBuffer.wrap(core.data, position, available()));
+        } else if (out instanceof GatheringByteChannel) {
+            result = (int) ((GatheringByteChannel) out).write(remainingByteBuffers(segments));
+        } else {
+            int written = 0;
+            for (ByteBuffer bb: remainingByteBuffers(segments)) {
+                written += out.write(bb);
+                if (bb.hasRemaining()) break;
+            }
+            result = written;
+        }
+        setPosition(getPosition() + result);
+        return result;
+    }
+
+    private ByteBuffer[] remainingByteBuffers(List<Segment> segments) {
+        final List<ByteBuffer> buffers = new ArrayList<>(2 * segments.size() + 1);
+        int index = position;
+        for (Segment s: segments) {
+            if (s.end() <= getPosition()) continue;
+            if (index < s.at) buffers.add(ByteBuffer.wrap(core.data, index, s.at - index));
+            final int skip = Math.max(0, getPosition() - s.start);
+            buffers.add(ByteBuffer.wrap(s.bytes, s.offset + skip, s.length - skip));
+            index = s.at;
+        }
+        buffers.add(ByteBuffer.wrap(core.data, index, core.length - index));
+        return buffers.toArray(new ByteBuffer[0]);
+    }
+
     public ReadBuffer rewindToStart() {
-        position = 0;
-        return this;
+        return setPosition(0);
     }
 
     public ReadBuffer align(AlignmentBoundary boundary) {
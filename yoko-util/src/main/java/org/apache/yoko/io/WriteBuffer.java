@@ -19,9 +19,13 @@ package org.apache.yoko.io;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Arrays;
 import java.util.logging.Logger;
 
+import static java.nio.ByteOrder.BIG_ENDIAN;
+
 @SuppressWarnings({"PointlessBitwiseExpression", "OctalInteger"})
 public final class WriteBuffer extends Buffer<WriteBuffer> {
     private static final byte PAD_BYTE = (byte) 0xBD;
@@ -33,9 +37,26 @@ public final class WriteBuffer extends Buffer<WriteBuffer> {
     private static final int PADDING_POWER = 5;
     private static final byte[] PADDING = new byte[1<<PADDING_POWER];
     static { Arrays.fill(PADDING, PAD_BYTE); }
+    /**
+     * The smallest array {@link #writeSegment(byte[], int, int)} holds by reference.
+     * Below this size, an extra system call to write the array out costs more than copying it.
+     */
+    static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    private boolean segmentsEnabled;
 
     WriteBuffer(Core core) { super(core); }
 
+    /**
+     * Allow large arrays passed to {@link #writeSegment(byte[], int, int)} to be held by reference,
+     * so that they are written straight from the caller's array by {@link ReadBuffer#writeTo}.
+     * Use this only for a buffer that is sent using {@link #readFromStartForSending()}.
+     */
+    public WriteBuffer enableSegments() {
+        segmentsEnabled = true;
+        return this;
+    }
+
     public boolean readFrom(InputStream in) throws IOException {
         try {
             int result = in.read(core.data, position, available());
@@ -49,6 +70,17 @@ public final class WriteBuffer extends Buffer<WriteBuffer> {
         }
     }
 
+    /**
+     * Read as many bytes as the channel will currently supply, up to the end of this buffer.
+     * @return the number of bytes read, possibly zero for a non-blocking channel, or -1 at end of stream
+     */
+    public int readFrom(ReadableByteChannel in) throws IOException {
+        final int result = in.read(ByteBuffer.wrap(core.data, position, available()));
+        if (result > 0) position += result;
+        assert position <= core.length;
+        return result;
+    }
+
     public WriteBuffer readFrom(org.omg.CORBA.portable.InputStream source) {
         final int length = available();
         source.read_octet_array(core.data, position, length);
@@ -68,6 +100,40 @@ public final class WriteBuffer extends Buffer<WriteBuffer> {
         return this;
     }
 
+    /**
+     * Write the low byte of each char in the string, i.e. its ISO-8859-1 encoding
+     * if it contains no chars above 0xFF. The caller must ensure there is enough space.
+     */
+    @SuppressWarnings("deprecation")
+    public WriteBuffer writeLatin1(String value) {
+        final int length = value.length();
+        // this String.getBytes() overload keeps the low byte of each char without allocating
+        value.getBytes(0, length, core.data, position);
+        position += length;
+        assert position <= core.length;
+        return this;
+    }
+
+    /**
+     * @return <code>true</code> iff {@link #writeSegment(byte[], int, int)} would hold an array of this length by reference,
+     * in which case it needs no space to be made available first
+     */
+    public boolean holdsByReference(int length) {
+        return segmentsEnabled && length >= MIN_SEGMENT_SIZE;
+    }
+
+    /**
+     * Write bytes from an array that the caller will not modify again while this buffer is in use.
+     * If segments are enabled and the array is large, it is held by reference instead of being copied.
+     * The array then takes up no space in this buffer's data, but positions and lengths still count its bytes.
+     */
+    public WriteBuffer writeSegment(byte[] bytes, int offset, int length) {
+        if (!holdsByReference(length)) return writeBytes(bytes, offset, length);
+        core.addSegment(getPosition(), position, bytes, offset, length);
+        skipped += length;
+        return this;
+    }
+
     public WriteBuffer writeByte(int i) {
         core.data[position++] = (byte)i;
         assert position <= core.length;
@@ -116,22 +182,72 @@ public final class WriteBuffer extends Buffer<WriteBuffer> {
         return this;
     }
 
+    public WriteBuffer writeChars(char[] values, int offset, int length) {
+        final int byteCount = length * 2;
+        viewBytes(byteCount, BIG_ENDIAN).asCharBuffer().put(values, offset, length);
+        position += byteCount;
+        assert position <= core.length;
+        return this;
+    }
+
+    public WriteBuffer writeShorts(short[] values, int offset, int length) {
+        final int byteCount = length * 2;
+        viewBytes(byteCount, BIG_ENDIAN).asShortBuffer().put(values, offset, length);
+        position += byteCount;
+        assert position <= core.length;
+        return this;
+    }
+
+    public WriteBuffer writeInts(int[] values, int offset, int length) {
+        final int byteCount = length * 4;
+        viewBytes(byteCount, BIG_ENDIAN).asIntBuffer().put(values, offset, length);
+        position += byteCount;
+        assert position <= core.length;
+        return this;
+    }
+
+    public WriteBuffer writeLongs(long[] values, int offset, int length) {
+        final int byteCount = length * 8;
+        viewBytes(byteCount, BIG_ENDIAN).asLongBuffer().put(values, offset, length);
+        position += byteCount;
+        assert position <= core.length;
+        return this;
+    }
+
+    public WriteBuffer writeFloats(float[] values, int offset, int length) {
+        final int byteCount = length * 4;
+        viewBytes(byteCount, BIG_ENDIAN).asFloatBuffer().put(values, offset, length);
+        position += byteCount;
+        assert position <= core.length;
+        return this;
+    }
+
+    public WriteBuffer writeDoubles(double[] values, int offset, int length) {
+        final int byteCount = length * 8;
+        viewBytes(byteCount, BIG_ENDIAN).asDoubleBuffer().put(values, offset, length);
+        position += byteCount;
+        assert position <= core.length;
+        return this;
+    }
+
     /**
      * Leaves a 4 byte space to write a length. When {@link SimplyCloseable#close()} is called,
      * the number of intervening bytes is written as a length to the remembered location.
      * @param logger the logger to use to log the operations - must not be null
      */
     public SimplyCloseable recordLength(final Logger logger) {
-        final int lengthPosition = position;
+        final int lengthPosition = getPosition();
         logger.finest("Writing a gap value for a length at offset " + lengthPosition);
         pad(4);
         return new SimplyCloseable() {
             public void close() {
-                final int length = position - (lengthPosition + 4);
-                core.data[lengthPosition + 0] = (byte) (length >> 030);
-                core.data[lengthPosition + 1] = (byte) (length >> 020);
-                core.data[lengthPosition + 2] = (byte) (length >> 010);
-                core.data[lengthPosition + 3] = (byte) (length >> 000);
+                final int length = getPosition() - (lengthPosition + 4);
+                // the data may have been rearranged since, so find the gap again
+                final int index = lengthPosition - core.segmentBytesBefore(lengthPosition);
+                core.data[index + 0] = (byte) (length >> 030);
+                core.data[index + 1] = (byte) (length >> 020);
+                core.data[index + 2] = (byte) (length >> 010);
+                core.data[index + 3] = (byte) (length >> 000);
                 logger.finest("Wrote a length value of " + length + " at offset " + lengthPosition);
             }
         };
@@ -167,7 +283,7 @@ public final class WriteBuffer extends Buffer<WriteBuffer> {
      * @return <code>true</code> iff an existing buffer had to be resized
      */
     public boolean ensureAvailable(int size, AlignmentBoundary boundary) {
-        final int gap = boundary.gap(position);
+        final int gap = boundary.gap(getPosition());
         try { return ensureAvailable(gap + size); }
         finally { this.pad(gap); }
     }
@@ -178,20 +294,38 @@ public final class WriteBuffer extends Buffer<WriteBuffer> {
      * @return <code>true</code> iff an existing buffer had to be resized
      */
     public boolean ensureAvailable(int size) {
-        final int shortfall = size - available();
+        final int shortfall = size - (core.length - position);
         return shortfall > 0 && core.growBy(shortfall);
     }
 
-    public WriteBuffer padAlign(AlignmentBoundary boundary) { return pad(boundary.gap(position)); }
+    public WriteBuffer padAlign(AlignmentBoundary boundary) { return pad(boundary.gap(getPosition())); }
 
     public WriteBuffer padAll() { return pad(core.length); }
 
     public WriteBuffer trim() {
+        materialize();
         core.length = position;
         return this;
     }
 
-    public ReadBuffer readFromStart() { return new ReadBuffer(core); }
+    public ReadBuffer readFromStart() {
+        materialize();
+        return new ReadBuffer(core);
+    }
+
+    private void materialize() {
+        if (core.segments == null) return;
+        final int pos = getPosition();
+        core.materialize();
+        setPosition(pos);
+    }
+
+    /**
+     * Create a buffer only for writing this buffer's contents out with {@link ReadBuffer#writeTo},
+     * which gathers any arrays held by reference without copying them.
+     * The read methods of the returned buffer do not see those arrays.
+     */
+    public ReadBuffer readFromStartForSending() { return new ReadBuffer(core); }
 
     public ReadBuffer newReadBuffer() { return readFromStart(); }
 }
@@ -91,6 +91,23 @@ public final class CmsfThreadLocal {
         return version.value;
     }
 
+    /**
+     * Capture the stack of this thread, e.g. to carry it across to another thread.
+     * @return an opaque token to pass to {@link #restore(Object)}
+     */
+    public static Object save() {
+        return cmsfInfo.get().head;
+    }
+
+    /**
+     * Replace the stack of this thread with one captured by {@link #save()}.
+     */
+    public static void restore(Object saved) {
+        if (LOGGER.isLoggable(Level.FINER))
+            LOGGER.finer("CMSF thread local stack restored");
+        cmsfInfo.get().head = (Frame) saved;
+    }
+
     public static void reset() {
         if (LOGGER.isLoggable(Level.FINER))
             LOGGER.finer("CMSF thread local stack reset");
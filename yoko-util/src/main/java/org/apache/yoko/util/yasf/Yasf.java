@@ -18,8 +18,10 @@ public enum Yasf {
         this.itemIndex = itemIndex;
     }
 
+    private static final Set<Yasf> SUPPORTED = Collections.unmodifiableSet(EnumSet.of(ENUM_FIXED));
+
     public static Set<Yasf> supported() {
-        return Collections.unmodifiableSet(EnumSet.of(ENUM_FIXED));
+        return SUPPORTED;
     }
 
     public static Set<Yasf> toSet(byte[] data) {
@@ -79,6 +79,23 @@ public final class YasfThreadLocal {
         return items;
     }
 
+    /**
+     * Capture the stack of this thread, e.g. to carry it across to another thread.
+     * @return an opaque token to pass to {@link #restore(Object)}
+     */
+    public static Object save() {
+        return yasfInfo.get().head;
+    }
+
+    /**
+     * Replace the stack of this thread with one captured by {@link #save()}.
+     */
+    public static void restore(Object saved) {
+        if (LOGGER.isLoggable(Level.FINER))
+            LOGGER.finer("YASF thread local stack restored");
+        yasfInfo.get().head = (Frame) saved;
+    }
+
     public static void reset() {
         if (LOGGER.isLoggable(Level.FINER))
             LOGGER.finer("YASF thread local stack reset");
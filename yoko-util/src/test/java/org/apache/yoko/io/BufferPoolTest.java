@@ -0,0 +1,89 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.io;
+
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.yoko.io.BufferTest.TEXT;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BufferPoolTest {
+    @Test
+    public void testAcquireRoundsUpToSizeClass() {
+        assertThat(BufferPool.acquire(1).length, equalTo(256));
+        assertThat(BufferPool.acquire(256).length, equalTo(256));
+        assertThat(BufferPool.acquire(257).length, equalTo(512));
+        assertThat(BufferPool.acquire(BufferPool.maxPooledSize()).length, equalTo(BufferPool.maxPooledSize()));
+    }
+
+    @Test
+    public void testAcquireTooLargeToPool() {
+        assertThat(BufferPool.acquire(BufferPool.maxPooledSize() + 1), nullValue());
+    }
+
+    @Test
+    public void testReleasedArrayIsReused() {
+        // use a size class no other test uses
+        byte[] bytes = BufferPool.acquire(2000);
+        BufferPool.release(bytes);
+        assertThat(BufferPool.acquire(2000), sameInstance(bytes));
+    }
+
+    @Test
+    public void testPooledBufferGrowsAndKeepsData() {
+        final byte[] bytes = TEXT.getBytes(UTF_8);
+        WriteBuffer writeBuffer = Buffer.createPooledWriteBuffer(12);
+        writeBuffer.writeBytes(bytes, 0, 12);
+        for (int i = 0; i < 100; i++) {
+            writeBuffer.ensureAvailable(bytes.length);
+            writeBuffer.writeBytes(bytes);
+        }
+        ReadBuffer readBuffer = writeBuffer.readFromStart();
+        assertThat(readBuffer.available(), equalTo(12 + 100 * bytes.length));
+        readBuffer.skipBytes(12 + 99 * bytes.length);
+        final byte[] lastCopy = new byte[bytes.length];
+        readBuffer.readBytes(lastCopy, 0, lastCopy.length);
+        assertThat(new String(lastCopy, UTF_8), equalTo(TEXT));
+        writeBuffer.release();
+    }
+
+    @Test
+    public void testReleaseEmptiesSharedBuffers() {
+        WriteBuffer writeBuffer = Buffer.createPooledWriteBuffer(16);
+        writeBuffer.writeInt(42);
+        ReadBuffer readBuffer = writeBuffer.readFromStart();
+        writeBuffer.release();
+        assertThat(readBuffer.available(), equalTo(0));
+        assertThrows(IndexOutOfBoundsException.class, readBuffer::readInt);
+        // releasing again has no effect
+        readBuffer.release();
+    }
+
+    @Test
+    public void testReleaseUnpooledBufferHasNoEffect() {
+        WriteBuffer writeBuffer = Buffer.createWriteBuffer(16);
+        writeBuffer.writeInt(42);
+        writeBuffer.release();
+        assertThat(writeBuffer.readFromStart().readInt(), equalTo(42));
+    }
+}
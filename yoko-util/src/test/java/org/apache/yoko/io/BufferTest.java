@@ -6,10 +6,15 @@ import org.apache.yoko.io.WriteBuffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class BufferTest {
     WriteBuffer writeBuffer;
@@ -90,6 +95,52 @@ class BufferTest {
         rb2.skipBytes(100);
     }
 
+    @Test
+    public void testWriteAndReadInts() {
+        int[] values = {0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0x01020304};
+        writeBuffer.ensureAvailable(4 + (values.length - 1) * 4);
+        writeBuffer.writeInt(42).writeInts(values, 1, values.length - 1);
+        ReadBuffer readBuffer = writeBuffer.readFromStart();
+        assertThat(readBuffer.readInt(), equalTo(42));
+        int[] actual = new int[values.length];
+        readBuffer.readInts(actual, 1, values.length - 1, BIG_ENDIAN);
+        assertThat(actual, equalTo(values));
+        assertThat(readBuffer.isComplete(), equalTo(true));
+    }
+
+    @Test
+    public void testReadLittleEndianInts() {
+        ReadBuffer readBuffer = Buffer.createReadBuffer(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        int[] actual = new int[2];
+        readBuffer.readInts(actual, 0, 2, LITTLE_ENDIAN);
+        assertThat(actual, equalTo(new int[]{0x04030201, 0x08070605}));
+    }
+
+    @Test
+    public void testWriteAndReadDoubles() {
+        double[] values = {0.0, -0.0, 1.5, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.NEGATIVE_INFINITY};
+        writeBuffer.ensureAvailable(values.length * 8);
+        writeBuffer.writeDoubles(values, 0, values.length);
+        double[] actual = new double[values.length];
+        writeBuffer.readFromStart().readDoubles(actual, 0, values.length, BIG_ENDIAN);
+        assertThat(actual, equalTo(values));
+    }
+
+    @Test
+    public void testReadLittleEndianDoubles() {
+        byte[] bytes = ByteBuffer.allocate(8).order(LITTLE_ENDIAN).putDouble(Math.PI).array();
+        double[] actual = new double[1];
+        Buffer.createReadBuffer(bytes).readDoubles(actual, 0, 1, LITTLE_ENDIAN);
+        assertThat(actual[0], equalTo(Math.PI));
+    }
+
+    @Test
+    public void testReadIntsBeyondEnd() {
+        ReadBuffer readBuffer = Buffer.createReadBuffer(new byte[7]);
+        assertThrows(IndexOutOfBoundsException.class, () -> readBuffer.readInts(new int[2], 0, 2, BIG_ENDIAN));
+        assertThat(readBuffer.getPosition(), equalTo(0));
+    }
+
     public void assertBufferContains(String expected) {
         final ReadBuffer readBuffer = writeBuffer.readFromStart();
         final String actual = new String(readBuffer.copyRemainingBytes(), UTF_8);
@@ -0,0 +1,176 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.yoko.io;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.apache.yoko.io.AlignmentBoundary.FOUR_BYTE_BOUNDARY;
+import static org.apache.yoko.io.WriteBuffer.MIN_SEGMENT_SIZE;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+class SegmentTest {
+    private byte[] payload;
+    private byte[] expected;
+
+    @BeforeEach
+    public void setup() {
+        payload = new byte[MIN_SEGMENT_SIZE];
+        for (int i = 0; i < payload.length; i++) payload[i] = (byte) i;
+        expected = ByteBuffer.allocate(4 + payload.length + 4).putInt(0xCAFE).put(payload).putInt(0xBABE).array();
+    }
+
+    private WriteBuffer writeWithSegment(boolean enableSegments) {
+        // a segment needs no space of its own
+        WriteBuffer writeBuffer = Buffer.createWriteBuffer(enableSegments ? 8 : expected.length);
+        if (enableSegments) writeBuffer.enableSegments();
+        return writeBuffer.writeInt(0xCAFE).writeSegment(payload, 0, payload.length).writeInt(0xBABE);
+    }
+
+    @Test
+    public void testSegmentIsHeldByReference() {
+        WriteBuffer writeBuffer = writeWithSegment(true);
+        // a change to the array after writing is still seen
+        payload[0] = expected[4] = 42;
+        assertThat(writeBuffer.readFromStart().copyRemainingBytes(), equalTo(expected));
+    }
+
+    @Test
+    public void testSegmentIsCopiedUnlessEnabled() {
+        WriteBuffer writeBuffer = writeWithSegment(false);
+        payload[0] = 42;
+        assertThat(writeBuffer.readFromStart().copyRemainingBytes()[4], equalTo((byte) 0));
+    }
+
+    @Test
+    public void testSmallArrayIsCopied() {
+        WriteBuffer writeBuffer = Buffer.createWriteBuffer(16).enableSegments();
+        byte[] small = {1, 2, 3, 4};
+        writeBuffer.writeSegment(small, 0, small.length);
+        small[0] = 42;
+        assertThat(writeBuffer.readFromStart().readByte(), equalTo((byte) 1));
+    }
+
+    @Test
+    public void testSegmentTakesNoSpace() throws Exception {
+        WriteBuffer writeBuffer = Buffer.createWriteBuffer(4).enableSegments();
+        writeBuffer.writeInt(0xCAFE).writeSegment(payload, 0, payload.length);
+        writeBuffer.ensureAvailable(4);
+        writeBuffer.writeInt(0xBABE);
+        assertThat(writeBuffer.getPosition(), equalTo(expected.length));
+        assertThat(writeBuffer.length(), equalTo(expected.length));
+        assertThat(writeBuffer.core.data.length, lessThan(payload.length));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeBuffer.readFromStartForSending().writeTo(out);
+        assertThat(out.toByteArray(), equalTo(expected));
+        assertThat(writeBuffer.readFromStart().copyRemainingBytes(), equalTo(expected));
+    }
+
+    @Test
+    public void testPositionsCountSegments() throws Exception {
+        byte[] odd = Arrays.copyOf(payload, payload.length + 1);
+        WriteBuffer writeBuffer = Buffer.createWriteBuffer(8).enableSegments();
+        writeBuffer.writeInt(0);
+        try (SimplyCloseable length = writeBuffer.recordLength(Logger.getLogger(SegmentTest.class.getName()))) {
+            writeBuffer.writeSegment(odd, 0, odd.length);
+            // alignment is worked out from the position, not from the index in the data
+            writeBuffer.ensureAvailable(4, FOUR_BYTE_BOUNDARY);
+            writeBuffer.writeInt(0xBABE);
+        }
+        // rewrite the header once the rest is known
+        final int end = writeBuffer.getPosition();
+        writeBuffer.setPosition(0).writeInt(0xCAFE).setPosition(end);
+
+        byte[] padding = {(byte) 0xBD, (byte) 0xBD, (byte) 0xBD};
+        byte[] expected = ByteBuffer.allocate(8 + odd.length + 3 + 4)
+                .putInt(0xCAFE).putInt(odd.length + 3 + 4).put(odd).put(padding).putInt(0xBABE).array();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeBuffer.readFromStartForSending().writeTo(out);
+        assertThat(out.toByteArray(), equalTo(expected));
+        assertThat(writeBuffer.readFromStart().copyRemainingBytes(), equalTo(expected));
+    }
+
+    @Test
+    public void testWriteToStream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReadBuffer readBuffer = writeWithSegment(true).readFromStartForSending();
+        readBuffer.writeTo(out);
+        assertThat(readBuffer.isComplete(), equalTo(true));
+        assertThat(out.toByteArray(), equalTo(expected));
+    }
+
+    @Test
+    public void testWriteToNonGatheringChannel() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReadBuffer readBuffer = writeWithSegment(true).readFromStartForSending();
+        assertThat(readBuffer.writeTo(Channels.newChannel(out)), equalTo(expected.length));
+        assertThat(out.toByteArray(), equalTo(expected));
+    }
+
+    @Test
+    public void testPartialGatheringWrites() throws Exception {
+        TrickleChannel channel = new TrickleChannel(1000);
+        ReadBuffer readBuffer = writeWithSegment(true).readFromStartForSending();
+        while (!readBuffer.isComplete()) readBuffer.writeTo(channel);
+        assertThat(channel.toByteArray(), equalTo(expected));
+        // only the arrays passed to the channel have been read
+        assertThat(channel.arraysSeen.contains(payload), equalTo(true));
+    }
+
+    /** A gathering channel that accepts only a few bytes per write */
+    private static final class TrickleChannel implements GatheringByteChannel {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final List<byte[]> arraysSeen = new ArrayList<>();
+        final int maxPerWrite;
+
+        TrickleChannel(int maxPerWrite) { this.maxPerWrite = maxPerWrite; }
+
+        byte[] toByteArray() { return out.toByteArray(); }
+
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            int written = 0;
+            for (ByteBuffer src: Arrays.asList(srcs).subList(offset, offset + length)) {
+                if (!arraysSeen.contains(src.array())) arraysSeen.add(src.array());
+                while (src.hasRemaining() && written < maxPerWrite) {
+                    out.write(src.get());
+                    written++;
+                }
+            }
+            return written;
+        }
+
+        public long write(ByteBuffer[] srcs) { return write(srcs, 0, srcs.length); }
+
+        public int write(ByteBuffer src) { return (int) write(new ByteBuffer[]{src}); }
+
+        public boolean isOpen() { return true; }
+
+        public void close() {}
+    }
+}